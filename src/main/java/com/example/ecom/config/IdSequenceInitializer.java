@@ -0,0 +1,63 @@
+package com.example.ecom.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the ID sequences past the IDs already stored in the database.
+ * <p>
+ * Tables created before the switch from IDENTITY columns to pooled
+ * sequences keep their existing IDs, while the sequences Hibernate
+ * creates start at 1. Runs once the schema is up to date and before
+ * the application takes requests, and only ever moves a sequence forward.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    /**
+     * Must match the allocationSize of the entity sequence generators.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String[]> SEQUENCES = List.of(
+            new String[]{"CUSTOMERS", "CUSTOMERS_SEQ"},
+            new String[]{"PRODUCTS", "PRODUCTS_SEQ"},
+            new String[]{"ORDERS", "ORDERS_SEQ"},
+            new String[]{"ORDER_ITEMS", "ORDER_ITEMS_SEQ"},
+            new String[]{"PAYMENTS", "PAYMENTS_SEQ"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Restarts every sequence whose next block could hand out an ID
+     * that is already in use.
+     */
+    @PostConstruct
+    void alignSequences() {
+        for (String[] sequence : SEQUENCES) {
+            String table = sequence[0];
+            String name = sequence[1];
+            Long maxId = jdbcTemplate.queryForObject(
+                    "select coalesce(max(id), 0) from " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(
+                    "select base_value from information_schema.sequences where sequence_name = ?",
+                    Long.class, name);
+            // the pooled optimizer hands out (nextValue - ALLOCATION_SIZE, nextValue]
+            if (maxId > 0 && nextValue - ALLOCATION_SIZE < maxId) {
+                long restartWith = maxId + ALLOCATION_SIZE;
+                jdbcTemplate.execute("alter sequence " + name + " restart with " + restartWith);
+                log.info("Restarted sequence {} at {} to follow existing {} ids", name, restartWith, table);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ecom.config;
+
+import com.example.ecom.util.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the check constraint on Orders.status up to date with {@link OrderStatus}.
+ * <p>
+ * Hibernate creates the constraint with the enum values known when the
+ * table was created and schema update never changes it, so a database
+ * from before a new status was added would reject that status. The
+ * outdated constraint is replaced by one listing every current value.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusConstraintInitializer {
+
+    private static final String CONSTRAINT_NAME = "ORDERS_STATUS_CHECK";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Replaces every status check constraint that misses a current value.
+     */
+    @PostConstruct
+    void updateStatusConstraint() {
+        List<Map<String, Object>> constraints = jdbcTemplate.queryForList(
+                "select cc.constraint_name, cc.check_clause from information_schema.check_constraints cc "
+                        + "join information_schema.table_constraints tc "
+                        + "on tc.constraint_schema = cc.constraint_schema and tc.constraint_name = cc.constraint_name "
+                        + "where tc.table_name = 'ORDERS' and cc.check_clause like '%\"STATUS\"%'");
+        for (Map<String, Object> constraint : constraints) {
+            String clause = (String) constraint.get("CHECK_CLAUSE");
+            boolean outdated = Arrays.stream(OrderStatus.values())
+                    .anyMatch(status -> !clause.contains("'" + status.name() + "'"));
+            if (outdated) {
+                String name = (String) constraint.get("CONSTRAINT_NAME");
+                jdbcTemplate.execute("alter table orders drop constraint \"" + name + "\"");
+                jdbcTemplate.execute("alter table orders add constraint " + CONSTRAINT_NAME
+                        + " check (status in (" + allowedValues() + "))");
+                log.info("Replaced check constraint {} on Orders.status with {}", name, CONSTRAINT_NAME);
+            }
+        }
+    }
+
+    private String allowedValues() {
+        return Arrays.stream(OrderStatus.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", "));
+    }
+}
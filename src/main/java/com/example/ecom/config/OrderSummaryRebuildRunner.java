@@ -0,0 +1,36 @@
+package com.example.ecom.config;
+
+import com.example.ecom.service.OrderSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the order read model at startup when the application is
+ * started with {@code --rebuild-order-summaries}.
+ * <p>
+ * Used to fill the read model after enabling it on a database that
+ * already holds orders, or to repair it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSummaryRebuildRunner implements ApplicationRunner {
+    private static final String REBUILD_OPTION = "rebuild-order-summaries";
+
+    private final OrderSummaryService orderSummaryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        if (!orderSummaryService.isEnabled()) {
+            log.warn("--{} given but app.order.read-model.enabled is false, skipping rebuild", REBUILD_OPTION);
+            return;
+        }
+        orderSummaryService.rebuild();
+    }
+}
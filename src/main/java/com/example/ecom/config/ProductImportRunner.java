@@ -0,0 +1,54 @@
+package com.example.ecom.config;
+
+import com.example.ecom.dto.responseDto.ProductImportResponseDto;
+import com.example.ecom.service.ProductImportService;
+import com.example.ecom.util.ProductImportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Imports product files at startup when the application is started with
+ * {@code --import-products=<file>}, the option repeated for several files.
+ * <p>
+ * The format follows the file extension: {@code .csv}, or
+ * {@code .ndjson} / {@code .jsonl}. Used for catalog refreshes too large
+ * to send over HTTP.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportRunner implements ApplicationRunner {
+    private static final String IMPORT_OPTION = "import-products";
+    private static final int LOGGED_ERRORS = 20;
+
+    private final ProductImportService productImportService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> files = args.getOptionValues(IMPORT_OPTION);
+        if (files == null) {
+            return;
+        }
+        for (String file : files) {
+            Optional<ProductImportFormat> format = ProductImportFormat.ofFileName(file);
+            if (format.isEmpty()) {
+                log.error("--{}={}: unknown file type, expected .csv, .ndjson or .jsonl", IMPORT_OPTION, file);
+                continue;
+            }
+            ProductImportResponseDto result = productImportService.importProducts(Path.of(file), format.get());
+            log.info("Imported {} in {} ms: {} rows, {} inserted, {} updated, {} rejected",
+                    file, result.getMillis(), result.getRows(), result.getInserted(), result.getUpdated(),
+                    result.getFailed());
+            result.getErrors().stream()
+                    .limit(LOGGED_ERRORS)
+                    .forEach(error -> log.warn("{} line {}: {}", file, error.getLine(), error.getMessage()));
+        }
+    }
+}
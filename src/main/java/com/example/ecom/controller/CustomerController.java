@@ -1,8 +1,11 @@
 package com.example.ecom.controller;
 
 import com.example.ecom.dto.requestDto.CustomerRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.CustomerOrderResponseDto;
 import com.example.ecom.dto.responseDto.CustomerResponseDto;
 import com.example.ecom.service.CustomerService;
+import com.example.ecom.util.OrderStatus;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -39,17 +43,71 @@ public class CustomerController {
         CustomerResponseDto response = customerService.createCustomer(customerRequestDto);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
+    /**
+     * Retrieves a customer by ID, with its version as ETag. Answers
+     * 304 Not Modified when If-None-Match holds the current ETag.
+     *
+     * @param id      customer ID
+     * @param request current request, for If-None-Match
+     * @return customer details
+     */
     @GetMapping("/customer/{id}")
-    public ResponseEntity<CustomerResponseDto> getCustomerById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+    public ResponseEntity<CustomerResponseDto> getCustomerById(@PathVariable Long id, WebRequest request) {
+        return customerService.getVersionedCustomer(id).toResponse(request);
     }
 
+    /**
+     * Retrieves a page of customers. The ETag changes with any customer
+     * on the page and with the total; answers 304 Not Modified when
+     * If-None-Match holds the current ETag.
+     *
+     * @param page    page number, from 0
+     * @param size    page size
+     * @param request current request, for If-None-Match
+     * @return page of customers
+     */
     @GetMapping("/customers")
     public ResponseEntity<Page<CustomerResponseDto>> getAllCustomers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            WebRequest request) {
+
+        return customerService.getVersionedCustomers(page, size).toResponse(request);
+    }
+
+    /**
+     * Retrieves customers page by page using a cursor instead of an offset.
+     * Meant for clients that walk the whole list.
+     *
+     * @param after cursor returned as {@code next} by the previous page
+     * @param size  page size
+     * @return page of customers with the cursor of the next page
+     */
+    @GetMapping("/customers/cursor")
+    public ResponseEntity<CursorPageResponseDto<CustomerResponseDto>> getCustomersAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(customerService.getCustomersAfter(after, size));
+    }
+
+    /**
+     * Retrieves the order history of a customer page by page using a cursor.
+     *
+     * @param id     customer ID
+     * @param status optional order status filter
+     * @param after  cursor returned as {@code next} by the previous page
+     * @param size   page size
+     * @return page of the customer's orders with the cursor of the next page
+     */
+    @GetMapping("/customer/{id}/orders")
+    public ResponseEntity<CursorPageResponseDto<CustomerOrderResponseDto>> getCustomerOrders(
+            @PathVariable Long id,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
 
-        return ResponseEntity.ok(customerService.getAllCustomers(page, size));
+        return ResponseEntity.ok(customerService.getCustomerOrders(id, status, after, size));
     }
 
 
@@ -1,7 +1,13 @@
 package com.example.ecom.controller;
 
 import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.BatchOrderResponseDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.OrderIntakeResponseDto;
 import com.example.ecom.dto.responseDto.OrderResponseDto;
+import com.example.ecom.exception.OrderBatchTooLargeException;
+import com.example.ecom.service.IdempotencyService;
+import com.example.ecom.service.OrderIntakeService;
 import com.example.ecom.service.OrderService;
 import com.example.ecom.util.OrderStatus;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,13 +16,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for managing orders.
@@ -29,6 +41,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
+
+    @Value("${app.order.batch.max-size:1000}")
+    private int maxBatchSize;
 
 
     @Operation(
@@ -37,49 +54,195 @@ public class OrderController {
     )
     /**
      * Creates a new order.
+     * <p>
+     * A retry sent with the same Idempotency-Key gets the original
+     * response without creating a second order.
      *
      * @param orderRequestDto order request details
+     * @param idempotencyKey  optional client-chosen key identifying the request
      * @return created order with HTTP 201 status
      */
 
     @PostMapping("/order")
-    public ResponseEntity<?> createOrder(
+    public ResponseEntity<OrderResponseDto> createOrder(
+            @Valid @RequestBody OrderRequestDto orderRequestDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("order", idempotencyKey, orderRequestDto, OrderResponseDto.class,
+                () -> new ResponseEntity<>(
+                        orderService.createOrder(orderRequestDto),
+                        HttpStatus.CREATED));
+    }
+
+    /**
+     * Queues an order for asynchronous creation.
+     * <p>
+     * The order is validated and queued; it is created later together
+     * with other queued orders. Returns 429 when the queue is full.
+     * The queue is held in memory, so an order accepted here is lost
+     * if the application stops abruptly before writing it.
+     *
+     * @param orderRequestDto order request details
+     * @return tracking details with HTTP 202 status
+     */
+    @PostMapping("/order/async")
+    public ResponseEntity<OrderIntakeResponseDto> submitOrder(
             @Valid @RequestBody OrderRequestDto orderRequestDto) {
-        return new ResponseEntity<>(
-                orderService.createOrder(orderRequestDto),
-                HttpStatus.CREATED);
+        return ResponseEntity.accepted().body(orderIntakeService.submit(orderRequestDto));
+    }
+
+    /**
+     * Retrieves the outcome of an asynchronously submitted order.
+     *
+     * @param trackingId tracking ID returned when the order was queued
+     * @return current intake state
+     */
+    @GetMapping("/order/async/{trackingId}")
+    public ResponseEntity<OrderIntakeResponseDto> getSubmittedOrder(@PathVariable String trackingId) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(trackingId));
+    }
+
+    /**
+     * Creates many orders in one request.
+     * <p>
+     * Each order succeeds or fails on its own; the response lists
+     * the outcome of every order in request order. The whole batch runs
+     * in one transaction, so a batch larger than the configured maximum
+     * is rejected with 413 before any order is processed.
+     *
+     * @param orderRequestDtos order request payloads
+     * @return per-order results
+     */
+    @PostMapping("/orders/batch")
+    public ResponseEntity<BatchOrderResponseDto> createOrders(
+            @RequestBody List<OrderRequestDto> orderRequestDtos) {
+        if (orderRequestDtos.size() > maxBatchSize) {
+            throw new OrderBatchTooLargeException("A batch may hold at most " + maxBatchSize + " orders, got "
+                    + orderRequestDtos.size());
+        }
+        return ResponseEntity.ok(orderService.createOrders(orderRequestDtos));
     }
 
     /**
-     * Retrieves all orders.
+     * Retrieves all orders. The ETag changes with any order on the page
+     * and with the total; answers 304 Not Modified when If-None-Match
+     * holds the current ETag.
      *
      * @return list of orders
      */
     @GetMapping("/orders")
     public ResponseEntity<Page<OrderResponseDto>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            WebRequest request) {
+
+        return orderService.getVersionedOrders(page, size).toResponse(request);
+    }
+
+    /**
+     * Retrieves orders page by page using a cursor instead of an offset.
+     * Meant for clients that walk the whole list.
+     *
+     * @param after cursor returned as {@code next} by the previous page
+     * @param size  page size
+     * @return page of orders with the cursor of the next page
+     */
+    @GetMapping("/orders/cursor")
+    public ResponseEntity<CursorPageResponseDto<OrderResponseDto>> getOrdersAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(orderService.getOrdersAfter(after, size));
+    }
+
+    /**
+     * Exports orders with their items as newline-delimited JSON.
+     * The lines are streamed while they are read, gzip-compressed
+     * when the client accepts it. Both variants carry Vary:
+     * Accept-Encoding so that shared caches keep them apart.
+     *
+     * @param status         optional order status filter
+     * @param fromId         lowest order ID to export, inclusive
+     * @param toId           highest order ID to export, inclusive
+     * @param acceptEncoding encodings the client accepts
+     * @return one JSON order per line
+     */
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "0") long fromId,
+            @RequestParam(defaultValue = Long.MAX_VALUE + "") long toId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(out -> orderService.exportOrders(status, fromId, toId, out));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    orderService.exportOrders(status, fromId, toId, compressed);
+                    compressed.finish();
+                });
+    }
 
-        return ResponseEntity.ok(orderService.getAllOrders(page, size));
+    /**
+     * Tells whether an Accept-Encoding header allows gzip: listed as
+     * gzip, or covered by "*", with a quality above zero. An explicit
+     * gzip entry takes precedence over "*".
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double quality = gzip != null ? gzip : wildcard;
+        return quality != null && quality > 0;
     }
 
     /**
-     * Retrieves an order by ID.
+     * Retrieves an order by ID, with an ETag derived from its version.
+     * Answers 304 Not Modified when If-None-Match holds the current ETag.
      */
     @GetMapping("/order/{id}")
-    public ResponseEntity<OrderResponseDto> getOrderById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+    public ResponseEntity<OrderResponseDto> getOrderById(@PathVariable Long id, WebRequest request) {
+        return orderService.getVersionedOrder(id).toResponse(request);
     }
     /**
      * Retrieves orders filtered by status.
+     * The JSON array is streamed to the client while it is read.
      *
      * @param status order status
      * @return list of orders with given status
      */
     @GetMapping("/order/status/{status}")
-    public ResponseEntity<List<OrderResponseDto>> getOrdersBystatus(
+    public ResponseEntity<StreamingResponseBody> getOrdersBystatus(
             @PathVariable OrderStatus status) {
-        return ResponseEntity.ok(orderService.getOrdersByStatus(status));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> orderService.writeOrdersByStatus(status, out));
     }
 
     /**
@@ -1,7 +1,12 @@
 package com.example.ecom.controller;
 
 import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.PaymentDiscrepancyResponseDto;
 import com.example.ecom.dto.responseDto.PaymentResponseDto;
+import com.example.ecom.dto.responseDto.ReconciliationRunResponseDto;
+import com.example.ecom.service.IdempotencyService;
+import com.example.ecom.service.PaymentReconciliationService;
 import com.example.ecom.service.PaymentService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -12,6 +17,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * REST controller for managing payments.
  * <p>
@@ -23,20 +30,36 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequiredArgsConstructor
 public class PaymentController {
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentReconciliationService paymentReconciliationService;
 
     /**
      * Processes a payment for an order.
+     * <p>
+     * The request thread is released while the payment gateway processes
+     * the charge. A retry sent with the same Idempotency-Key gets the
+     * original response instead of failing as a duplicate payment; such
+     * requests wait for the gateway on the request thread. A retry after
+     * the gateway timed out resumes the attempt and gets its outcome.
      *
      * @param paymentRequestDto payment request details
+     * @param idempotencyKey    optional client-chosen key identifying the request
      * @return created payment response with HTTP 201 status
      */
 
     @PostMapping("/payment")
-    public ResponseEntity<PaymentResponseDto> makePayment(
-            @Valid @RequestBody PaymentRequestDto paymentRequestDto) {
-        return new ResponseEntity<>(
-                paymentService.makePayment(paymentRequestDto),
-                HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<PaymentResponseDto>> makePayment(
+            @Valid @RequestBody PaymentRequestDto paymentRequestDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return paymentService.makePaymentAsync(paymentRequestDto)
+                    .thenApply(payment -> new ResponseEntity<>(payment, HttpStatus.CREATED));
+        }
+        return CompletableFuture.completedFuture(
+                idempotencyService.execute("payment", idempotencyKey, paymentRequestDto, PaymentResponseDto.class,
+                        () -> new ResponseEntity<>(
+                                paymentService.makePayment(paymentRequestDto, idempotencyKey),
+                                HttpStatus.CREATED)));
     }
 
     /**
@@ -57,6 +80,63 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getAllPayments(page, size));
     }
 
+    /**
+     * Retrieves payments page by page using a cursor instead of an offset.
+     * Meant for clients that walk the whole list.
+     *
+     * @param after cursor returned as {@code next} by the previous page
+     * @param size  page size
+     * @return page of payments with the cursor of the next page
+     */
+    @GetMapping("/payments/cursor")
+    public ResponseEntity<CursorPageResponseDto<PaymentResponseDto>> getPaymentsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(paymentService.getPaymentsAfter(after, size));
+    }
+
+    /**
+     * Starts reconciling payments against orders in the background.
+     * <p>
+     * Resumes the last unfinished run if there is one; while a run is in
+     * progress, returns that run instead of starting another.
+     *
+     * @return the run with HTTP 202 status
+     */
+    @PostMapping("/payments/reconciliation")
+    public ResponseEntity<ReconciliationRunResponseDto> startReconciliation() {
+        return ResponseEntity.accepted().body(paymentReconciliationService.start());
+    }
+
+    /**
+     * Retrieves the progress or outcome of a reconciliation run.
+     *
+     * @param runId run ID
+     * @return the run
+     */
+    @GetMapping("/payments/reconciliation/{runId}")
+    public ResponseEntity<ReconciliationRunResponseDto> getReconciliation(@PathVariable Long runId) {
+        return ResponseEntity.ok(paymentReconciliationService.getRun(runId));
+    }
+
+    /**
+     * Retrieves the discrepancies found by a reconciliation run page by page.
+     *
+     * @param runId run ID
+     * @param after cursor returned as {@code next} by the previous page
+     * @param size  page size
+     * @return page of discrepancies with the cursor of the next page
+     */
+    @GetMapping("/payments/reconciliation/{runId}/discrepancies")
+    public ResponseEntity<CursorPageResponseDto<PaymentDiscrepancyResponseDto>> getDiscrepancies(
+            @PathVariable Long runId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(paymentReconciliationService.getDiscrepancies(runId, after, size));
+    }
+
 
 
 }
@@ -1,16 +1,26 @@
 package com.example.ecom.controller;
 
+import com.example.ecom.dto.requestDto.ProductFilterDto;
 import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
+import com.example.ecom.dto.responseDto.ProductImportResponseDto;
 import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
+import com.example.ecom.service.ProductImportService;
 import com.example.ecom.service.ProductService;
+import com.example.ecom.util.ProductImportFormat;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.data.domain.Page;
 
+import java.io.InputStream;
+
 
 /**
  * REST controller for managing products.
@@ -23,6 +33,7 @@ import org.springframework.data.domain.Page;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     /**
      * Creates a new product.
@@ -37,31 +48,133 @@ public class ProductController {
     }
 
     /**
-     * Retrieves a product by ID.
+     * Retrieves a product by ID, with its version as ETag. Answers
+     * 304 Not Modified when If-None-Match holds the current ETag.
      *
-     * @param id product ID
+     * @param id      product ID
+     * @param request current request, for If-None-Match
      * @return product details
      */
 
     @GetMapping("/product/{id}")
-    public ResponseEntity<ProductResponseDto> getProduct(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductResponseDto> getProduct(@PathVariable Long id, WebRequest request) {
+        return productService.getVersionedProduct(id).toResponse(request);
     }
 
     /**
-     * Retrieves all products.
+     * Retrieves the hit, miss and eviction counts of the product cache.
      *
-     * @return list of products
+     * @return cache statistics
+     */
+    @GetMapping("/product/cache/stats")
+    public ResponseEntity<ProductCacheStatsResponseDto> getProductCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    /**
+     * Retrieves products, optionally filtered by price range and stock and
+     * sorted by {@code id}, {@code price} or {@code stock}. The ETag
+     * changes with any product on the page and with the total; answers
+     * 304 Not Modified when If-None-Match holds the current ETag.
+     *
+     * @param minPrice lowest price included
+     * @param maxPrice highest price included
+     * @param inStock  true for products in stock only, false for products out of stock only
+     * @param sort     sort field and optional direction, e.g. {@code price,desc}
+     * @param page     page number, from 0
+     * @param size     page size
+     * @param request  current request, for If-None-Match
+     * @return page of products
      */
 
     @GetMapping("/products")
     public ResponseEntity<Page<ProductResponseDto>> getAllProducts(
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "5") int size,
+            WebRequest request) {
+
+        ProductFilterDto filter = ProductFilterDto.builder()
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .sort(sort)
+                .build();
+        return productService.getVersionedProducts(filter, page, size).toResponse(request);
+    }
+
+    /**
+     * Retrieves products page by page using a cursor instead of an offset.
+     * Meant for clients that walk the whole list.
+     *
+     * @param after cursor returned as {@code next} by the previous page
+     * @param size  page size
+     * @return page of products with the cursor of the next page
+     */
+    @GetMapping("/products/cursor")
+    public ResponseEntity<CursorPageResponseDto<ProductResponseDto>> getProductsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(productService.getProductsAfter(after, size));
+    }
+
+    /**
+     * Searches products by name. Each word of the query must match a word
+     * of the name or its beginning; exact word matches and shorter names
+     * come first.
+     *
+     * @param q    search text
+     * @param page page number, from 0
+     * @param size page size
+     * @return page of matching products with the total number of matches
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<Page<ProductResponseDto>> searchProducts(
+            @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "20") int size) {
 
-        return ResponseEntity.ok(productService.getAllProducts(page, size));
+        return ResponseEntity.ok(productService.searchProducts(q, page, size));
     }
 
+    /**
+     * Retrieves the size and estimated memory of the product search index.
+     *
+     * @return search index statistics
+     */
+    @GetMapping("/products/search/stats")
+    public ResponseEntity<ProductSearchStatsResponseDto> getProductSearchStats() {
+        return ResponseEntity.ok(productService.getSearchStats());
+    }
+
+    /**
+     * Imports products from a CSV body with a header row of at least
+     * {@code name,stock,price}, plus {@code id} to update existing products.
+     * The body is streamed, so it may hold any number of rows.
+     *
+     * @param body CSV lines
+     * @return counts of the rows imported and rejected, with the first errors
+     */
+    @PostMapping(value = "/products/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResponseDto> importProductsCsv(InputStream body) {
+        return ResponseEntity.ok(productImportService.importProducts(body, ProductImportFormat.CSV));
+    }
+
+    /**
+     * Imports products from newline-delimited JSON, one product object per
+     * line, with an optional {@code id} to update an existing product.
+     *
+     * @param body NDJSON lines
+     * @return counts of the rows imported and rejected, with the first errors
+     */
+    @PostMapping(value = "/products/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ProductImportResponseDto> importProductsNdjson(InputStream body) {
+        return ResponseEntity.ok(productImportService.importProducts(body, ProductImportFormat.NDJSON));
+    }
 
     /**
      * Updates a product by ID.
@@ -0,0 +1,33 @@
+package com.example.ecom.dto.requestDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filter and sort of the product listing. Every field is optional.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDto {
+    /**
+     * Lowest price included.
+     */
+    private Double minPrice;
+    /**
+     * Highest price included.
+     */
+    private Double maxPrice;
+    /**
+     * True for products in stock only, false for products out of stock only.
+     */
+    private Boolean inStock;
+    /**
+     * Sort field and optional direction, e.g. {@code price} or {@code price,desc}.
+     * Only the fields of {@link com.example.ecom.util.ProductSortField} are accepted.
+     */
+    private String sort;
+}
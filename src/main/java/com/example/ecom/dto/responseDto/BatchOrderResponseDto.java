@@ -0,0 +1,18 @@
+package com.example.ecom.dto.responseDto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO used to send the outcome of a bulk order request.
+ * Contains created and rejected counts and one result per order.
+ */
+@Data
+@Builder
+public class BatchOrderResponseDto {
+    private int created;
+    private int rejected;
+    private List<BatchOrderResultDto> results;
+}
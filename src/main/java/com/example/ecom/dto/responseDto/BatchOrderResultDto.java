@@ -0,0 +1,22 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.OrderIntakeStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO used to send the outcome of one order in a batch.
+ * Contains the position in the request, the created order ID
+ * or the reasons the order was rejected.
+ */
+@Data
+@Builder
+public class BatchOrderResultDto {
+    private int index;
+    private OrderIntakeStatus status;
+    private Long orderId;
+    private Double totalAmount;
+    private List<String> errors;
+}
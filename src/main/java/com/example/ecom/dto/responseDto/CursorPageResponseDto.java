@@ -0,0 +1,23 @@
+package com.example.ecom.dto.responseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO used to send one page of a cursor-paginated list.
+ * Contains the page content and the cursor of the next page,
+ * which is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDto<T> {
+    private List<T> content;
+    private int size;
+    private String next;
+}
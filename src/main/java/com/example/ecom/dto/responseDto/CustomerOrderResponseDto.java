@@ -0,0 +1,24 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO used to send one entry of a customer's order history.
+ * Contains the order ID, status, total and reservation deadline, without items.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerOrderResponseDto {
+    private Long orderId;
+    private OrderStatus status;
+    private Double totalAmount;
+    private LocalDateTime reservedUntil;
+}
@@ -1,5 +1,7 @@
 package com.example.ecom.dto.responseDto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,9 +11,15 @@ import lombok.Data;
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class CustomerResponseDto {
     private Long id;
     private String name;
     private String email;
 
+    /**
+     * Version of the customer, sent as the ETag header instead of in the body.
+     */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,27 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.OrderEventType;
+import com.example.ecom.util.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing an order event sent to downstream systems.
+ * Contains the event type, the order and its status at the time of the event.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventDto {
+    private OrderEventType eventType;
+    private Long orderId;
+    private Long customerId;
+    private OrderStatus status;
+    private Double totalAmount;
+    private LocalDateTime occurredAt;
+}
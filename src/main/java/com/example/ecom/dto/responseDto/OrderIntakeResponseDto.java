@@ -0,0 +1,22 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.OrderIntakeStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO used to send the state of an asynchronously submitted order.
+ * Contains the tracking ID and, once processed, the created order ID
+ * or the reasons the order was rejected.
+ */
+@Data
+@Builder
+public class OrderIntakeResponseDto {
+    private String trackingId;
+    private OrderIntakeStatus status;
+    private Long orderId;
+    private Double totalAmount;
+    private List<String> errors;
+}
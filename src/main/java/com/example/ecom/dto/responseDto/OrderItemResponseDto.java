@@ -1,7 +1,9 @@
 package com.example.ecom.dto.responseDto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * DTO used to send order item details in API responses.
@@ -9,6 +11,8 @@ import lombok.Data;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class OrderItemResponseDto {
     private Long productId;
     private String productName;
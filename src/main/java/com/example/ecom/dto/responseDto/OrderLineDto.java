@@ -0,0 +1,27 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of an order together with one of its items, as read by
+ * streaming order queries. Item fields are null for an order without items.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineDto {
+    private Long orderId;
+    private Long customerId;
+    private OrderStatus status;
+    private Double totalAmount;
+    private LocalDateTime reservedUntil;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private Double price;
+}
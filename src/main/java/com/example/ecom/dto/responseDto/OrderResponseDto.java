@@ -1,9 +1,12 @@
 package com.example.ecom.dto.responseDto;
 
 import com.example.ecom.util.OrderStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -12,12 +15,15 @@ import java.util.List;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class OrderResponseDto {
     private Long orderId;
     private Long customerId;
     private OrderStatus status;
     private List<OrderItemResponseDto> items;
     private Double totalAmount;
+    private LocalDateTime reservedUntil;
 
 
 }
@@ -0,0 +1,29 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.DiscrepancyType;
+import com.example.ecom.util.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO used to send a payment discrepancy found by reconciliation.
+ * Contains the payment, its order and the values that did not match.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDiscrepancyResponseDto {
+    private Long id;
+    private Long paymentId;
+    private Long orderId;
+    private DiscrepancyType type;
+    private double paymentAmount;
+    private Double orderTotal;
+    private OrderStatus orderStatus;
+    private LocalDateTime detectedAt;
+}
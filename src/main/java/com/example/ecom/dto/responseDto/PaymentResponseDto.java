@@ -1,8 +1,10 @@
 package com.example.ecom.dto.responseDto;
 
 import com.example.ecom.util.PaymentMethod;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
@@ -12,6 +14,8 @@ import java.time.LocalDateTime;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class PaymentResponseDto {
     private Long id;
     private Long orderId;
@@ -0,0 +1,25 @@
+package com.example.ecom.dto.responseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO used to send the statistics of the product cache.
+ * Counts are cumulative since startup.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCacheStatsResponseDto {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long loadCount;
+    private double averageLoadMillis;
+    private long evictionCount;
+    private long invalidationCount;
+}
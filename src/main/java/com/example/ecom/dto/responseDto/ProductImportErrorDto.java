@@ -0,0 +1,18 @@
+package com.example.ecom.dto.responseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO used to send why a line of a product import was rejected.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDto {
+    private long line;
+    private String message;
+}
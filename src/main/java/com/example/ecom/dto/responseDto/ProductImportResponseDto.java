@@ -0,0 +1,25 @@
+package com.example.ecom.dto.responseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO used to send the outcome of a bulk product import.
+ * Only the first errors are listed; failed counts all rejected lines.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponseDto {
+    private long rows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long millis;
+    private List<ProductImportErrorDto> errors;
+}
@@ -1,5 +1,7 @@
 package com.example.ecom.dto.responseDto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,10 +11,16 @@ import lombok.Data;
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class ProductResponseDto {
     private Long id;
     private String name;
     private int stock;
     private Double price;
 
+    /**
+     * Version of the product, sent as the ETag header instead of in the body.
+     */
+    @JsonIgnore
+    private Long version;
 }
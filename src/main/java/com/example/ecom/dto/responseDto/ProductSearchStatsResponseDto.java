@@ -0,0 +1,22 @@
+package com.example.ecom.dto.responseDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO used to send the size of the product search index
+ * and an estimate of the heap it takes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchStatsResponseDto {
+    private long products;
+    private long tokens;
+    private long postings;
+    private long estimatedBytes;
+    private long lastRebuildMillis;
+}
@@ -0,0 +1,28 @@
+package com.example.ecom.dto.responseDto;
+
+import com.example.ecom.util.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO used to send the state of a payment reconciliation run.
+ * Totals are set once the run is completed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunResponseDto {
+    private Long id;
+    private ReconciliationStatus status;
+    private Long fromPaymentId;
+    private Long toPaymentId;
+    private Long paymentsChecked;
+    private Long discrepancies;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
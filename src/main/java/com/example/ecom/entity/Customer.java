@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,10 +26,11 @@ import java.util.List;
 public class Customer {
     /**
      * Unique ID of the customer.
-     * Automatically generated.
+     * Generated from a pooled sequence so inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -46,6 +48,13 @@ public class Customer {
     @Email(message = "Invalid email format")
     @Column(nullable = false, unique = true)
     private String email;
+    /**
+     * Incremented by every change to the customer. Served as the ETag of
+     * the customer; rows from before the column existed start at 0.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
     /**
      * List of orders placed by the customer.
      */
@@ -0,0 +1,63 @@
+package com.example.ecom.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity storing the response of a request made with an Idempotency-Key header.
+ * Maps to the "idempotency_keys" table in the database.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    /**
+     * Endpoint scope and client key, for example "payment:3f2a...".
+     */
+    @Id
+    @Column(length = 300)
+    private String id;
+
+    /**
+     * SHA-256 of the request body, used to reject a key reused for another request.
+     */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * HTTP status of the stored response, or 0 while the request that
+     * claimed the key is still running.
+     */
+    @Column(nullable = false)
+    private int statusCode;
+
+    /**
+     * Response body serialized as JSON.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String responseBody;
+
+    /**
+     * Random token of the request holding the claim, so that a request
+     * whose claim was taken over cannot complete or release the new one.
+     */
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,6 +1,7 @@
 package com.example.ecom.entity;
 
 import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.PaymentMethod;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
@@ -8,7 +9,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,7 +20,13 @@ import java.util.List;
  * Maps to the "Orders" table in the database.
  */
 @Entity
-@Table(name = "Orders")
+@Table(name = "Orders", indexes = {
+        @Index(name = "idx_orders_stock_settled", columnList = "stock_settled"),
+        @Index(name = "idx_orders_customerid_id", columnList = "customerid, id"),
+        @Index(name = "idx_orders_customerid_status_id", columnList = "customerid, status, id"),
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        @Index(name = "idx_orders_status_reserved_until", columnList = "status, reserved_until")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,15 +34,17 @@ import java.util.List;
 public class Order {
     /**
      * Unique ID of the order.
-     * Automatically generated.
+     * Generated from a pooled sequence so inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     /**
      * Customer who placed the order.
+     * Loaded lazily; responses only need its ID, which the proxy holds.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customerid")
     private Customer customer;
     /**
@@ -53,4 +64,55 @@ public class Order {
 
     private Double totalAmount;
 
+    /**
+     * Whether the stock taken by this order has been written to the Products table.
+     * False only while the write-behind inventory has not flushed it yet;
+     * null for orders created before the flag existed.
+     * Set on insert and then only by bulk updates: saving a loaded order
+     * never writes it back, so a save cannot undo a flush that ran after
+     * the order was read.
+     */
+    @Column(updatable = false)
+    private Boolean stockSettled;
+
+    /**
+     * Time until which the stock of an unpaid order stays reserved.
+     * CREATED orders past it are expired and their stock released;
+     * null for orders created before reservations could expire.
+     */
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
+
+    /**
+     * Reference of the latest payment attempt, under which the gateway
+     * charges the order. Charging again with the same reference never
+     * charges twice; null until the order is first paid.
+     */
+    @Column(name = "payment_reference", length = 64)
+    private String paymentReference;
+
+    /**
+     * Payment method of the latest payment attempt, needed to repeat its
+     * charge; null until the order is first paid.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method")
+    private PaymentMethod paymentMethod;
+
+    /**
+     * When the latest payment attempt started. Orders still
+     * PAYMENT_PENDING long after it are settled by the payment sweep.
+     */
+    @Column(name = "payment_started_at")
+    private LocalDateTime paymentStartedAt;
+
+    /**
+     * Incremented by every change to what the order response shows, such
+     * as a status change; settling the stock does not count. Part of the
+     * ETag of the order; rows from before the column existed start at 0.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
 }
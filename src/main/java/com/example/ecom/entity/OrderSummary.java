@@ -0,0 +1,75 @@
+package com.example.ecom.entity;
+
+import com.example.ecom.util.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding a denormalized, ready-to-serve copy of an order.
+ * Maps to the "order_summaries" table in the database.
+ * <p>
+ * Written in the same transaction as the order it summarizes, so a
+ * read by ID is a single-row lookup without joining items, products
+ * and customers.
+ */
+@Entity
+@Table(name = "order_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummary implements Persistable<Long> {
+    /**
+     * ID of the summarized order.
+     */
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    private Double totalAmount;
+
+    private LocalDateTime reservedUntil;
+
+    /**
+     * Order items as rendered in the order response, serialized as a JSON array.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String items;
+
+    /**
+     * Whether the row already exists, so that saving a new summary
+     * inserts it without selecting it first.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
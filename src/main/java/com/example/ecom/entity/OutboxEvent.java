@@ -0,0 +1,54 @@
+package com.example.ecom.entity;
+
+import com.example.ecom.util.OrderEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding an event waiting to be published to downstream systems.
+ * Maps to the "outbox_events" table in the database.
+ * <p>
+ * Written in the transaction of the change it announces, so an event
+ * exists exactly when the change is committed. Rows are deleted once
+ * the relay has published them.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    /**
+     * Unique ID of the event, increasing in the order events are written.
+     * Generated from a pooled sequence so inserts can be batched.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private OrderEventType eventType;
+
+    /**
+     * ID of the order the event is about.
+     */
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    /**
+     * Event serialized as JSON.
+     */
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -23,10 +23,11 @@ import java.time.LocalDateTime;
 public class Payment {
     /**
      * Unique ID of the payment.
-     * Automatically generated.
+     * Generated from a pooled sequence so inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     /**
      * Total amount paid for the order.
@@ -51,4 +52,10 @@ public class Payment {
     @Column(nullable = false)
     private PaymentMethod paymentMethod;
 
+    /**
+     * Reference of the charge at the payment gateway;
+     * null for payments made before gateway integration.
+     */
+    private String gatewayReference;
+
 }
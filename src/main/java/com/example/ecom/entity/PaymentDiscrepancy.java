@@ -0,0 +1,60 @@
+package com.example.ecom.entity;
+
+import com.example.ecom.util.DiscrepancyType;
+import com.example.ecom.util.OrderStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a mismatch between a payment and its order found
+ * by a reconciliation run.
+ * Maps to the "payment_discrepancies" table in the database.
+ */
+@Entity
+@Table(name = "payment_discrepancies", indexes = {
+        @Index(name = "idx_payment_discrepancies_run_id_id", columnList = "run_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_discrepancy_seq")
+    @SequenceGenerator(name = "payment_discrepancy_seq", sequenceName = "payment_discrepancies_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(nullable = false)
+    private Long paymentId;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private DiscrepancyType type;
+
+    @Column(nullable = false)
+    private double paymentAmount;
+
+    /**
+     * Stored order total at the time of the check; null if the order has none.
+     */
+    private Double orderTotal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus orderStatus;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+}
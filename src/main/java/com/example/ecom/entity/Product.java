@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -13,7 +14,12 @@ import java.util.List;
  * Maps to the "Products" table in the database.
  */
 @Entity
-@Table(name = "Products")
+@Table(name = "Products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id, stock"),
+        @Index(name = "idx_products_price_desc_id", columnList = "price desc, id desc, stock"),
+        @Index(name = "idx_products_stock_id", columnList = "stock, id"),
+        @Index(name = "idx_products_stock_desc_id", columnList = "stock desc, id desc")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,10 +27,11 @@ import java.util.List;
 public class Product {
     /**
      * Unique ID of the product.
-     * Automatically generated.
+     * Generated from a pooled sequence so inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,6 +43,15 @@ public class Product {
     @Column(nullable = false)
     private Double price;
 
+    /**
+     * Incremented by every change to the product, including stock taken
+     * and returned by orders. Served as the ETag of the product; rows from
+     * before the column existed start at 0.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @OneToMany(mappedBy = "product")
     private List<OrderItem> orderItems;
 
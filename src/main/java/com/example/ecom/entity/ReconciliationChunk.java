@@ -0,0 +1,50 @@
+package com.example.ecom.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording a finished chunk of a reconciliation run.
+ * Maps to the "reconciliation_chunks" table in the database.
+ * <p>
+ * Saved in the transaction that writes the chunk's discrepancies, so a
+ * resumed run skips exactly the chunks whose results are stored.
+ */
+@Entity
+@Table(name = "reconciliation_chunks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reconciliation_chunks_run_from", columnNames = {"run_id", "from_payment_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_chunk_seq")
+    @SequenceGenerator(name = "reconciliation_chunk_seq", sequenceName = "reconciliation_chunks_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    /**
+     * First payment ID of the chunk; the chunk spans the run's chunk size.
+     */
+    @Column(name = "from_payment_id", nullable = false)
+    private Long fromPaymentId;
+
+    @Column(nullable = false)
+    private int paymentsChecked;
+
+    @Column(nullable = false)
+    private int discrepancies;
+
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,59 @@
+package com.example.ecom.entity;
+
+import com.example.ecom.util.ReconciliationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing one reconciliation of payments against orders.
+ * Maps to the "reconciliation_runs" table in the database.
+ * <p>
+ * A run covers the payment IDs that existed when it started, split
+ * into chunks of consecutive IDs. Its totals are filled in when the
+ * last chunk is done.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_run_seq")
+    @SequenceGenerator(name = "reconciliation_run_seq", sequenceName = "reconciliation_runs_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReconciliationStatus status;
+
+    /**
+     * Lowest payment ID covered by the run.
+     */
+    @Column(nullable = false)
+    private Long fromPaymentId;
+
+    /**
+     * Highest payment ID covered by the run.
+     */
+    @Column(nullable = false)
+    private Long toPaymentId;
+
+    @Column(nullable = false)
+    private int chunkSize;
+
+    private Long paymentsChecked;
+
+    private Long discrepancies;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
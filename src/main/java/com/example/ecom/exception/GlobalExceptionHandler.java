@@ -2,6 +2,8 @@ package com.example.ecom.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -84,6 +86,61 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Handles payments for orders that are already paid or no longer
+     * awaiting payment, and updates of an entity another request changed
+     * since it was read. Returns CONFLICT (409).
+     */
+    @ExceptionHandler({PaymentConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConflict(RuntimeException ex) {
+        String message = ex instanceof PaymentConflictException
+                ? ex.getMessage()
+                : "Request conflicts with the current state of the resource";
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .errors(List.of(message))
+                .build();
+        log.warn("Conflict:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles charges declined or failed at the payment gateway with
+     * BAD_GATEWAY (502), and charges it did not answer in time with
+     * GATEWAY_TIMEOUT (504).
+     */
+    @ExceptionHandler(PaymentGatewayException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentGateway(PaymentGatewayException ex) {
+        HttpStatus status = ex instanceof PaymentGatewayTimeoutException
+                ? HttpStatus.GATEWAY_TIMEOUT
+                : HttpStatus.BAD_GATEWAY;
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.warn("Payment gateway:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, status);
+    }
+
+    @ExceptionHandler(PaymentGatewayBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentGatewayBusy(
+            PaymentGatewayBusyException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.warn("Payment gateway busy:{}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     @ExceptionHandler(InsufficientStockException.class)
     public ResponseEntity<?> handleStock(InsufficientStockException ex) {
         ErrorResponse response = ErrorResponse.builder()
@@ -120,6 +177,106 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatch(
+            IdempotencyKeyMismatchException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.error("Idempotency key mismatch:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidIdempotencyKey(
+            InvalidIdempotencyKeyException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.error("Invalid idempotency key:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgress(
+            IdempotencyKeyInProgressException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.warn("Idempotency key in progress:{}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+    @ExceptionHandler(IntakeQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIntakeQueueFull(
+            IntakeQueueFullException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.warn("Intake queue full:{}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+    @ExceptionHandler(OrderBatchTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleOrderBatchTooLarge(
+            OrderBatchTooLargeException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.warn("Order batch too large:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(
+            InvalidCursorException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.error("Invalid cursor:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportFile(
+            InvalidImportFileException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.error("Invalid import file:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+    @ExceptionHandler(InvalidProductFilterException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidProductFilter(
+            InvalidProductFilterException ex) {
+        ErrorResponse response = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .errors(List.of(ex.getMessage()))
+                .build();
+        log.error("Invalid product filter:{}", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Object> handleJsonParseException(
             HttpMessageNotReadableException ex) {
@@ -0,0 +1,11 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when a request with the same Idempotency-Key is still being
+ * processed by another instance of the application.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
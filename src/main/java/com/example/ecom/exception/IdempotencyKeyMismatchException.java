@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when an Idempotency-Key is reused with a different request body.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
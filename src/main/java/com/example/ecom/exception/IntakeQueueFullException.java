@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when the asynchronous order intake queue has no free capacity.
+ */
+public class IntakeQueueFullException extends RuntimeException {
+    public IntakeQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when a pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when an Idempotency-Key header is too long to be stored.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
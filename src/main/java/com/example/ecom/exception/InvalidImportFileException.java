@@ -0,0 +1,11 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when an import file cannot be read as a whole, such as a CSV
+ * file without the required columns.
+ */
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
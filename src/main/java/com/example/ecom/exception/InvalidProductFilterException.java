@@ -0,0 +1,11 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when the filter or sort of a product listing is not accepted,
+ * such as a sort field without an index.
+ */
+public class InvalidProductFilterException extends RuntimeException {
+    public InvalidProductFilterException(String message) {
+        super(message);
+    }
+}
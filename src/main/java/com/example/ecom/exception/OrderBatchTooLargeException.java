@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when a batch of orders holds more orders than one request may create.
+ */
+public class OrderBatchTooLargeException extends RuntimeException {
+    public OrderBatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when an order cannot be paid because it is already paid
+ * or no longer awaiting payment.
+ */
+public class PaymentConflictException extends RuntimeException {
+    public PaymentConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when the limit of payments in progress at the gateway is reached.
+ */
+public class PaymentGatewayBusyException extends RuntimeException {
+    public PaymentGatewayBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.ecom.exception;
+
+/**
+ * Thrown when the payment gateway does not answer a charge in time.
+ */
+public class PaymentGatewayTimeoutException extends PaymentGatewayException {
+    public PaymentGatewayTimeoutException(String message) {
+        super(message);
+    }
+}
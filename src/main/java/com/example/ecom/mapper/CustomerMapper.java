@@ -5,6 +5,7 @@ import com.example.ecom.dto.responseDto.CustomerResponseDto;
 import com.example.ecom.entity.Customer;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -12,12 +13,18 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 
 public interface CustomerMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "orders", ignore = true)
     Customer toEntity(CustomerRequestDto dto);
 
 
     CustomerResponseDto toResponse(Customer customer);
 
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "orders", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateCustomerFromDto(CustomerRequestDto dto, @MappingTarget Customer customer);
 }
@@ -1,6 +1,7 @@
 package com.example.ecom.mapper;
 
 import com.example.ecom.dto.requestDto.OrderItemRequestDto;
+import com.example.ecom.dto.responseDto.OrderLineDto;
 import com.example.ecom.dto.responseDto.OrderItemResponseDto;
 import com.example.ecom.entity.OrderItem;
 import org.mapstruct.Mapper;
@@ -14,6 +15,9 @@ public interface OrderItemMapper {
     @Mapping(expression = "java(orderItem.getQuantity() * orderItem.getPrice())", target = "price")
     OrderItemResponseDto toDto(OrderItem orderItem);
 
+    @Mapping(expression = "java(line.getQuantity() * line.getPrice())", target = "price")
+    OrderItemResponseDto toDto(OrderLineDto line);
+
     OrderItem toEntity(OrderItemRequestDto dto);
 
 }
@@ -2,6 +2,8 @@ package com.example.ecom.mapper;
 
 import com.example.ecom.dto.requestDto.OrderItemRequestDto;
 import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.OrderEventDto;
+import com.example.ecom.dto.responseDto.OrderLineDto;
 import com.example.ecom.dto.responseDto.OrderResponseDto;
 import com.example.ecom.entity.Order;
 import com.example.ecom.entity.OrderItem;
@@ -14,9 +16,24 @@ public interface OrderMapper {
     @Mapping(source="customer.id",target="customerId")
     OrderResponseDto toDto(Order order);
 
+    @Mapping(target = "items", ignore = true)
+    OrderResponseDto toDto(OrderLineDto line);
+
+    @Mapping(source="id",target="orderId")
+    @Mapping(source="customer.id",target="customerId")
+    @Mapping(target = "eventType", ignore = true)
+    @Mapping(target = "occurredAt", ignore = true)
+    OrderEventDto toEvent(Order order);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "customer", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "totalAmount", ignore = true)
+    @Mapping(target = "stockSettled", ignore = true)
+    @Mapping(target = "reservedUntil", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "paymentReference", ignore = true)
+    @Mapping(target = "paymentMethod", ignore = true)
+    @Mapping(target = "paymentStartedAt", ignore = true)
     Order toEntity(OrderRequestDto dto);
 }
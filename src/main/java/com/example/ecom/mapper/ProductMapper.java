@@ -12,5 +12,9 @@ public interface ProductMapper {
 
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Product toEntity(ProductRequestDto dto);
+
+    @Mapping(target = "orderItems", ignore = true)
+    Product toEntity(ProductResponseDto dto);
 }
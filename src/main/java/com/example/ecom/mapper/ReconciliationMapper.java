@@ -0,0 +1,14 @@
+package com.example.ecom.mapper;
+
+import com.example.ecom.dto.responseDto.PaymentDiscrepancyResponseDto;
+import com.example.ecom.dto.responseDto.ReconciliationRunResponseDto;
+import com.example.ecom.entity.PaymentDiscrepancy;
+import com.example.ecom.entity.ReconciliationRun;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ReconciliationMapper {
+    ReconciliationRunResponseDto toResponse(ReconciliationRun run);
+
+    PaymentDiscrepancyResponseDto toResponse(PaymentDiscrepancy discrepancy);
+}
@@ -1,11 +1,18 @@
 package com.example.ecom.repository;
 
+import com.example.ecom.dto.responseDto.CustomerResponseDto;
 import com.example.ecom.entity.Customer;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,5 +41,36 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      */
     boolean existsByEmail(@NotBlank(message = "Email should not be blank") String email);
 
+    /**
+     * Retrieves a page of customers as response DTOs, without loading entities.
+     *
+     * @param pageable page request
+     * @return page of customer DTOs
+     */
+    @Query(value = "select new com.example.ecom.dto.responseDto.CustomerResponseDto(c.id, c.name, c.email, c.version) "
+            + "from Customer c",
+            countQuery = "select count(c) from Customer c")
+    Page<CustomerResponseDto> findAllDtos(Pageable pageable);
+
+    /**
+     * Retrieves the customers following an ID, in ID order, as response DTOs.
+     *
+     * @param id    last ID already seen
+     * @param limit maximum number of customers
+     * @return next customers by ID
+     */
+    @Query("select new com.example.ecom.dto.responseDto.CustomerResponseDto(c.id, c.name, c.email, c.version) "
+            + "from Customer c where c.id > :id order by c.id")
+    List<CustomerResponseDto> findDtosAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the version of a customer, without loading the entity.
+     *
+     * @param id customer ID
+     * @return the version, empty if the customer does not exist
+     */
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
 
 }
@@ -0,0 +1,86 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for IdempotencyRecord entity.
+ * <p>
+ * Stores replayable responses of idempotent requests.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Deletes records whose retention time has passed.
+     *
+     * @param now current time
+     * @return number of records deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Claims a key by inserting it with status code 0, which marks a
+     * request still running. Never overwrites an existing record.
+     *
+     * @param id          scope and key
+     * @param requestHash SHA-256 of the request body
+     * @param claimToken  random token identifying the claiming request
+     * @param now         current time
+     * @param expiresAt   time after which the claim may be taken over
+     * @throws org.springframework.dao.DataIntegrityViolationException if the key is already stored
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (id, request_hash, status_code, response_body, claim_token, "
+            + "created_at, expires_at) values (:id, :requestHash, 0, '', :claimToken, :now, :expiresAt)",
+            nativeQuery = true)
+    void claim(@Param("id") String id, @Param("requestHash") String requestHash,
+               @Param("claimToken") String claimToken, @Param("now") LocalDateTime now,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Stores the response of a claimed key.
+     *
+     * @return 1 if the claim was still held by the given token, otherwise 0
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.statusCode = :statusCode, r.responseBody = :responseBody, "
+            + "r.expiresAt = :expiresAt where r.id = :id and r.statusCode = 0 and r.claimToken = :claimToken")
+    int complete(@Param("id") String id, @Param("claimToken") String claimToken,
+                 @Param("statusCode") int statusCode, @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Removes the claim of a request that failed, so that it can be
+     * retried, unless another request took the claim over meanwhile.
+     *
+     * @return number of records deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.statusCode = 0 and r.claimToken = :claimToken")
+    int release(@Param("id") String id, @Param("claimToken") String claimToken);
+
+    /**
+     * Deletes one record if its retention time, or the lease of its
+     * claim, has passed.
+     *
+     * @return number of records deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.expiresAt < :now")
+    int deleteExpired(@Param("id") String id, @Param("now") LocalDateTime now);
+}
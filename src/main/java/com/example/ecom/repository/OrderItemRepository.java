@@ -3,8 +3,11 @@ package com.example.ecom.repository;
 import com.example.ecom.entity.OrderItem;
 import com.example.ecom.util.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,4 +20,62 @@ import java.util.List;
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     boolean existsByProductId(Long productId);
 
+    /**
+     * Sums the ordered quantity per product over orders in a status.
+     *
+     * @param orderIds order IDs
+     * @param status   status the orders must have
+     * @return total quantity per product
+     */
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity from OrderItem oi "
+            + "where oi.order.id in :orderIds and oi.order.status = :status group by oi.product.id")
+    List<ProductQuantity> sumQuantityByProduct(@Param("orderIds") Collection<Long> orderIds,
+                                               @Param("status") OrderStatus status);
+
+    /**
+     * Finds the products ordered by any of the given orders.
+     *
+     * @param orderIds order IDs
+     * @return distinct product IDs
+     */
+    @Query("select distinct oi.product.id from OrderItem oi where oi.order.id in :orderIds")
+    List<Long> findProductIdsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Sums quantity times price over the items of one order.
+     *
+     * @param orderId order ID
+     * @return total amount of the items, 0 if the order has none
+     */
+    @Query("select coalesce(sum(oi.quantity * oi.price), 0) from OrderItem oi where oi.order.id = :orderId")
+    double sumAmountByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Sums quantity times price over the items of each order.
+     * Orders without items are left out.
+     *
+     * @param orderIds order IDs
+     * @return total amount of the items per order
+     */
+    @Query("select oi.order.id as orderId, sum(oi.quantity * oi.price) as amount from OrderItem oi "
+            + "where oi.order.id in :orderIds group by oi.order.id")
+    List<OrderAmount> sumAmountByOrder(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Total quantity of one product.
+     */
+    interface ProductQuantity {
+        Long getProductId();
+
+        Long getQuantity();
+    }
+
+    /**
+     * Total amount of the items of one order.
+     */
+    interface OrderAmount {
+        Long getOrderId();
+
+        Double getAmount();
+    }
 }
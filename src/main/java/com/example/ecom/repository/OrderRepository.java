@@ -1,11 +1,28 @@
 package com.example.ecom.repository;
 
+import com.example.ecom.dto.responseDto.CustomerOrderResponseDto;
+import com.example.ecom.dto.responseDto.OrderLineDto;
 import com.example.ecom.entity.Order;
 import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.PaymentMethod;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Order entity.
@@ -16,11 +33,301 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     /**
-     * Retrieves all orders with the given status.
+     * Streams the orders with the given status and an ID in a range as
+     * one row per order item, in order ID order so that the rows of an
+     * order are adjacent.
+     * <p>
+     * Rows are read as DTOs, so nothing accumulates in the persistence
+     * context, and the driver fetches them in chunks of the fetch size.
+     * Sorting by status as well lets the (status, id) index return the
+     * rows already in order, without a sort step. The stream must be
+     * consumed inside a transaction and closed.
      *
      * @param status order status used for filtering
-     * @return list of orders matching the specified status
+     * @param fromId lowest order ID, inclusive
+     * @param toId   highest order ID, inclusive
+     * @return order rows, one per item
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.ecom.dto.responseDto.OrderLineDto(o.id, o.customer.id, o.status, "
+            + "o.totalAmount, o.reservedUntil, p.id, p.name, oi.quantity, oi.price) "
+            + "from Order o left join o.items oi left join oi.product p "
+            + "where o.status = :status and o.id between :fromId and :toId order by o.status, o.id")
+    Stream<OrderLineDto> streamLinesByStatus(@Param("status") OrderStatus status,
+                                             @Param("fromId") long fromId,
+                                             @Param("toId") long toId);
 
-    List<Order> findByStatus(OrderStatus status);//For filtering purpose
+    /**
+     * Streams the orders with an ID in a range as one row per order item,
+     * in order ID order. Same contract as {@link #streamLinesByStatus}.
+     *
+     * @param fromId lowest order ID, inclusive
+     * @param toId   highest order ID, inclusive
+     * @return order rows, one per item
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.ecom.dto.responseDto.OrderLineDto(o.id, o.customer.id, o.status, "
+            + "o.totalAmount, o.reservedUntil, p.id, p.name, oi.quantity, oi.price) "
+            + "from Order o left join o.items oi left join oi.product p "
+            + "where o.id between :fromId and :toId order by o.id")
+    Stream<OrderLineDto> streamLines(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Retrieves an order together with its items and their products
+     * in a single query.
+     *
+     * @param id order ID
+     * @return the order, if found
+     */
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * Retrieves orders together with their items and products in a single query.
+     *
+     * @param ids order IDs
+     * @return orders found, in no particular order
+     */
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+    /**
+     * Retrieves the orders in an ID range together with their items and
+     * products in a single query.
+     *
+     * @param fromId lowest order ID, inclusive
+     * @param toId   highest order ID, inclusive
+     * @return orders found, in no particular order
+     */
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    List<Order> findWithItemsByIdBetween(Long fromId, Long toId);
+
+    /**
+     * Retrieves the orders of a customer following an order ID, in ID order.
+     * <p>
+     * Walks the (customerid, id) index from the cursor, so a page costs the
+     * same for a customer with ten orders as for one with a hundred thousand.
+     * Sorting by customer as well lets H2 read the index in order instead of
+     * sorting.
+     *
+     * @param customerId customer ID
+     * @param id         last order ID already seen
+     * @param limit      maximum number of orders
+     * @return next orders of the customer
+     */
+    @Query("select new com.example.ecom.dto.responseDto.CustomerOrderResponseDto(o.id, o.status, o.totalAmount, o.reservedUntil) "
+            + "from Order o where o.customer.id = :customerId and o.id > :id "
+            + "order by o.customer.id, o.id")
+    List<CustomerOrderResponseDto> findCustomerOrdersAfter(@Param("customerId") Long customerId,
+                                                           @Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves the orders of a customer with a status following an order ID,
+     * in ID order, through the (customerid, status, id) index.
+     *
+     * @param customerId customer ID
+     * @param status     order status
+     * @param id         last order ID already seen
+     * @param limit      maximum number of orders
+     * @return next orders of the customer with the status
+     */
+    @Query("select new com.example.ecom.dto.responseDto.CustomerOrderResponseDto(o.id, o.status, o.totalAmount, o.reservedUntil) "
+            + "from Order o where o.customer.id = :customerId and o.status = :status and o.id > :id "
+            + "order by o.customer.id, o.status, o.id")
+    List<CustomerOrderResponseDto> findCustomerOrdersAfter(@Param("customerId") Long customerId,
+                                                           @Param("status") OrderStatus status,
+                                                           @Param("id") Long id, Limit limit);
+
+    /**
+     * Finds the highest order ID.
+     *
+     * @return highest order ID, 0 if there are no orders
+     */
+    @Query("select coalesce(max(o.id), 0) from Order o")
+    long findMaxId();
+
+    /**
+     * Retrieves the stored totals of the orders from an ID on, in ID order.
+     *
+     * @param fromId lowest order ID, inclusive
+     * @param limit  maximum number of orders
+     * @return order IDs with their stored totals
+     */
+    @Query("select o.id as id, o.totalAmount as totalAmount from Order o where o.id >= :fromId order by o.id")
+    List<OrderTotal> findTotalsFrom(@Param("fromId") long fromId, Limit limit);
+
+    /**
+     * Retrieves one page of order IDs.
+     * <p>
+     * Fetching a collection with a page limit would make Hibernate page
+     * in memory, so order pages select IDs first and then load those
+     * orders with {@link #findWithItemsByIdIn}.
+     *
+     * @param pageable page and sort
+     * @return page of order IDs
+     */
+    @Query(value = "select o.id from Order o", countQuery = "select count(o) from Order o")
+    Page<Long> findIds(Pageable pageable);
+
+    /**
+     * Retrieves the order IDs following an ID, in ID order.
+     *
+     * @param id    last ID already seen
+     * @param limit maximum number of IDs
+     * @return next order IDs
+     */
+    @Query("select o.id from Order o where o.id > :id order by o.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Locks the oldest orders whose stock has not been written to the
+     * Products table yet, skipping orders already locked by another
+     * flush, so flushes running in parallel settle disjoint batches.
+     * The lock holds until the calling transaction ends.
+     *
+     * @param limit maximum number of orders
+     * @return IDs of unsettled orders not locked by another flush, in ID order
+     */
+    @Query(value = "select id from orders where stock_settled = false and status <> 'EXPIRED' "
+            + "order by id fetch first :limit rows only for update skip locked",
+            nativeQuery = true)
+    List<Long> lockUnsettledIds(@Param("limit") int limit);
+
+    /**
+     * Marks orders as settled once their stock has been applied.
+     * <p>
+     * Orders that expired meanwhile are skipped: their stock is
+     * handed back by the expiry job instead.
+     *
+     * @param ids order IDs
+     * @return number of orders updated
+     */
+    @Modifying
+    @Query("update Order o set o.stockSettled = true where o.id in :ids "
+            + "and o.stockSettled = false and o.status <> com.example.ecom.util.OrderStatus.EXPIRED")
+    int markStockSettled(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves IDs of orders in a status whose reservation ended before
+     * the given time, earliest deadline first.
+     * <p>
+     * Served by a range scan of the (status, reserved_until) index.
+     *
+     * @param status   order status
+     * @param now      reservation deadline cut-off
+     * @param pageable limits the batch size
+     * @return IDs of orders past their reservation
+     */
+    @Query("select o.id from Order o where o.status = :status and o.reservedUntil < :now "
+            + "order by o.reservedUntil")
+    List<Long> findReservationExpiredIds(@Param("status") OrderStatus status,
+                                         @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+
+    /**
+     * Moves orders to a new status only if they are still in the expected one,
+     * incrementing their version.
+     *
+     * @param ids  order IDs
+     * @param from status the orders must currently have
+     * @param to   new status
+     * @return number of orders updated
+     */
+    @Modifying
+    @Query("update Order o set o.status = :to, o.version = o.version + 1 where o.id in :ids and o.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") OrderStatus from,
+                     @Param("to") OrderStatus to);
+
+    /**
+     * Moves a CREATED order to PAYMENT_PENDING for a payment attempt,
+     * recording what the gateway charge is made with, so that it can be
+     * repeated.
+     *
+     * @param id               order ID
+     * @param paymentReference reference of the payment attempt
+     * @param paymentMethod    payment method of the attempt
+     * @param now              start of the attempt
+     * @return 1 if the order was claimed, 0 if it is not awaiting payment
+     */
+    @Modifying
+    @Query("update Order o set o.status = com.example.ecom.util.OrderStatus.PAYMENT_PENDING, "
+            + "o.paymentReference = :paymentReference, o.paymentMethod = :paymentMethod, "
+            + "o.paymentStartedAt = :now, o.version = o.version + 1 "
+            + "where o.id = :id and o.status = com.example.ecom.util.OrderStatus.CREATED")
+    int claimForPayment(@Param("id") Long id, @Param("paymentReference") String paymentReference,
+                        @Param("paymentMethod") PaymentMethod paymentMethod, @Param("now") LocalDateTime now);
+
+    /**
+     * Retrieves IDs of orders whose payment attempt started before a
+     * cut-off and has still no outcome, oldest first. Orders left
+     * PAYMENT_PENDING before attempts were recorded are included.
+     *
+     * @param before   cut-off for the start of the attempt
+     * @param pageable maximum number of orders
+     * @return IDs of stale PAYMENT_PENDING orders
+     */
+    @Query("select o.id from Order o where o.status = com.example.ecom.util.OrderStatus.PAYMENT_PENDING "
+            + "and (o.paymentStartedAt is null or o.paymentStartedAt < :before) order by o.id")
+    List<Long> findStalePaymentIds(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Moves a PAYMENT_PENDING order to the outcome of its payment attempt,
+     * only if that attempt is still the current one.
+     *
+     * @param id               order ID
+     * @param paymentReference reference of the payment attempt
+     * @param to               PAID, or CREATED when the charge failed
+     * @return 1 if the order was updated, 0 if the attempt was settled already
+     */
+    @Modifying
+    @Query("update Order o set o.status = :to, o.version = o.version + 1 where o.id = :id "
+            + "and o.status = com.example.ecom.util.OrderStatus.PAYMENT_PENDING "
+            + "and o.paymentReference = :paymentReference")
+    int settlePayment(@Param("id") Long id, @Param("paymentReference") String paymentReference,
+                      @Param("to") OrderStatus to);
+
+    /**
+     * Marks expired orders whose stock was never written to the Products
+     * table as settled, so the write-behind flush leaves them alone.
+     *
+     * @param ids order IDs
+     * @return number of orders updated
+     */
+    @Modifying
+    @Query("update Order o set o.stockSettled = true where o.id in :ids "
+            + "and o.stockSettled = false and o.status = com.example.ecom.util.OrderStatus.EXPIRED")
+    int markExpiredSettled(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the versions of orders with the names of their products,
+     * one row per item, without loading the orders.
+     *
+     * @param ids order IDs
+     * @return versions and product names, in order ID and item order
+     */
+    @Query("select o.id as id, o.version as version, p.name as productName "
+            + "from Order o left join o.items oi left join oi.product p "
+            + "where o.id in :ids order by o.id, oi.id")
+    List<OrderVersion> findVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stored total of one order.
+     */
+    interface OrderTotal {
+        Long getId();
+
+        Double getTotalAmount();
+    }
+
+    /**
+     * Version of one order with the name of the product of one of its items.
+     */
+    interface OrderVersion {
+        Long getId();
+
+        Long getVersion();
+
+        String getProductName();
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.entity.OrderSummary;
+import com.example.ecom.util.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repository interface for OrderSummary entity.
+ * <p>
+ * Maintains the denormalized order read model.
+ */
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    /**
+     * Moves summaries from one status to another, mirroring the
+     * status update of their orders.
+     *
+     * @param ids  order IDs
+     * @param from status the summaries must currently have
+     * @param to   new status
+     * @return number of summaries updated
+     */
+    @Modifying
+    @Query("update OrderSummary s set s.status = :to where s.id in :ids and s.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") OrderStatus from,
+                     @Param("to") OrderStatus to);
+
+    /**
+     * Deletes the summaries of a range of order IDs.
+     *
+     * @param fromId lowest order ID, inclusive
+     * @param toId   highest order ID, inclusive
+     * @return number of summaries deleted
+     */
+    @Modifying
+    @Query("delete from OrderSummary s where s.id between :fromId and :toId")
+    int deleteRange(@Param("fromId") long fromId, @Param("toId") long toId);
+}
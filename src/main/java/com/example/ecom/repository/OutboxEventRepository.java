@@ -0,0 +1,46 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.entity.OutboxEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity.
+ * <p>
+ * Extends JpaRepository to provide CRUD operations
+ * and the queries used by the outbox relay.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Locks the oldest unpublished events, skipping events already locked
+     * by another relay, so relays running in parallel take disjoint batches.
+     * The lock holds until the calling transaction ends.
+     *
+     * @param limit maximum number of events
+     * @return oldest events not locked by another relay, in ID order
+     */
+    @Query(value = "select * from outbox_events order by id fetch first :limit rows only for update skip locked",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<OutboxEvent> lockBatch(@Param("limit") int limit);
+
+    /**
+     * Removes published events.
+     *
+     * @param ids event IDs
+     * @return number of events removed
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,27 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.entity.PaymentDiscrepancy;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for PaymentDiscrepancy entity.
+ * <p>
+ * Extends JpaRepository to provide CRUD operations
+ * and the paging of a run's report.
+ */
+@Repository
+public interface PaymentDiscrepancyRepository extends JpaRepository<PaymentDiscrepancy, Long> {
+    /**
+     * Retrieves the discrepancies of a run following an ID, in ID order.
+     *
+     * @param runId run ID
+     * @param id    last ID already seen
+     * @param limit maximum number of discrepancies
+     * @return next discrepancies of the run
+     */
+    List<PaymentDiscrepancy> findByRunIdAndIdGreaterThanOrderById(Long runId, Long id, Limit limit);
+}
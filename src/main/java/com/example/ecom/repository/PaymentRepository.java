@@ -1,9 +1,18 @@
 package com.example.ecom.repository;
 
+import com.example.ecom.dto.responseDto.PaymentResponseDto;
 import com.example.ecom.entity.Payment;
+import com.example.ecom.util.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,10 +24,116 @@ import java.util.Optional;
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     /**
-     * Retrieves a payment by the associated order ID.
+     * Retrieves a page of payments as response DTOs, without loading
+     * payments or orders.
      *
-     * @param orderId ID of the related order
-     * @return Optional containing the payment if found
+     * @param pageable page request
+     * @return page of payment DTOs
      */
-    Optional<Payment> findByOrderId(Long orderId);
+    @Query(value = "select new com.example.ecom.dto.responseDto.PaymentResponseDto(p.id, p.order.id, p.amount, "
+            + "p.paymentMethod, p.paymentDate) from Payment p",
+            countQuery = "select count(p) from Payment p")
+    Page<PaymentResponseDto> findAllDtos(Pageable pageable);
+
+    /**
+     * Tells whether a payment is stored for an order.
+     *
+     * @param orderId order ID
+     * @return true if the order has a payment
+     */
+    boolean existsByOrderId(Long orderId);
+
+    /**
+     * Retrieves a payment as response DTO, without loading the payment
+     * or its order.
+     *
+     * @param id payment ID
+     * @return the payment, empty if not found
+     */
+    @Query("select new com.example.ecom.dto.responseDto.PaymentResponseDto(p.id, p.order.id, p.amount, "
+            + "p.paymentMethod, p.paymentDate) from Payment p where p.id = :id")
+    Optional<PaymentResponseDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Retrieves the payment of an order as response DTO.
+     *
+     * @param orderId order ID
+     * @return the payment, empty if the order has none
+     */
+    @Query("select new com.example.ecom.dto.responseDto.PaymentResponseDto(p.id, p.order.id, p.amount, "
+            + "p.paymentMethod, p.paymentDate) from Payment p where p.order.id = :orderId")
+    Optional<PaymentResponseDto> findDtoByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Retrieves the payments following an ID, in ID order, as response DTOs.
+     *
+     * @param id    last ID already seen
+     * @param limit maximum number of payments
+     * @return next payments by ID
+     */
+    @Query("select new com.example.ecom.dto.responseDto.PaymentResponseDto(p.id, p.order.id, p.amount, "
+            + "p.paymentMethod, p.paymentDate) from Payment p where p.id > :id order by p.id")
+    List<PaymentResponseDto> findDtosAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Finds the lowest payment ID.
+     *
+     * @return lowest payment ID, 0 if there are no payments
+     */
+    @Query("select coalesce(min(p.id), 0) from Payment p")
+    long findMinId();
+
+    /**
+     * Finds the highest payment ID.
+     *
+     * @return highest payment ID, 0 if there are no payments
+     */
+    @Query("select coalesce(max(p.id), 0) from Payment p")
+    long findMaxId();
+
+    /**
+     * Counts the payments in a range of IDs.
+     *
+     * @param fromId first ID, inclusive
+     * @param toId   last ID, inclusive
+     * @return number of payments
+     */
+    long countByIdBetween(Long fromId, Long toId);
+
+    /**
+     * Retrieves the payments in a range of IDs that do not match their
+     * order: the amount differs from the order total by more than the
+     * tolerance, the order has no total, or the order is not in one of
+     * the paid statuses. Matching payments are filtered out by the
+     * database and never leave it.
+     *
+     * @param fromId       first ID, inclusive
+     * @param toId         last ID, inclusive
+     * @param tolerance    largest difference counted as equal
+     * @param paidStatuses statuses an order with a payment may have
+     * @return mismatching payments with their order, in ID order
+     */
+    @Query("select p.id as paymentId, o.id as orderId, p.amount as amount, "
+            + "o.totalAmount as orderTotal, o.status as orderStatus "
+            + "from Payment p join p.order o where p.id between :fromId and :toId "
+            + "and (o.totalAmount is null or abs(p.amount - o.totalAmount) > :tolerance "
+            + "or o.status not in :paidStatuses) order by p.id")
+    List<PaymentCheck> findMismatchesBetween(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                             @Param("tolerance") double tolerance,
+                                             @Param("paidStatuses") Collection<OrderStatus> paidStatuses);
+
+    /**
+     * A payment with the order fields it is reconciled against.
+     */
+    interface PaymentCheck {
+        Long getPaymentId();
+
+        Long getOrderId();
+
+        Double getAmount();
+
+        Double getOrderTotal();
+
+        OrderStatus getOrderStatus();
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.dto.requestDto.ProductFilterDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Filtered product listing, implemented by {@link ProductFilterRepositoryImpl}.
+ */
+public interface ProductFilterRepository {
+
+    /**
+     * Retrieves a page of the products matching a filter as response DTOs.
+     * <p>
+     * The query holds only the conditions the filter sets, so the database
+     * plans each combination on its own and picks the index that serves it.
+     *
+     * @param filter   price range and stock filter; its sort is ignored
+     * @param pageable page request, sorted by {@link com.example.ecom.util.ProductSortField} properties
+     * @return page of matching product DTOs
+     */
+    Page<ProductResponseDto> findDtos(ProductFilterDto filter, Pageable pageable);
+}
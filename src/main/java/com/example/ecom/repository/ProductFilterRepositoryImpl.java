@@ -0,0 +1,101 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.dto.requestDto.ProductFilterDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.util.ProductSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * JPQL implementation of {@link ProductFilterRepository}, composed into
+ * {@link ProductRepository} by Spring Data.
+ */
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+    private static final String SELECT_DTOS =
+            "select new com.example.ecom.dto.responseDto.ProductResponseDto(p.id, p.name, p.stock, p.price, p.version) "
+                    + "from Product p";
+    private static final String SELECT_COUNT = "select count(p) from Product p";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductResponseDto> findDtos(ProductFilterDto filter, Pageable pageable) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.getMinPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            parameters.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getInStock() != null) {
+            conditions.add(filter.getInStock() ? "p.stock > 0" : "p.stock <= 0");
+        }
+        String where = where(conditions);
+
+        // The database picks the index of a condition over the index of the
+        // sort, so an in-stock page sorted by price would sort nearly every
+        // product. Bounding the sort field too, even by a value every product
+        // passes, lets it read the page from the sort index instead.
+        List<String> pageConditions = new ArrayList<>(conditions);
+        Map<String, Object> pageParameters = new LinkedHashMap<>(parameters);
+        sortField(pageable).ifPresent(field -> {
+            if (conditions.stream().noneMatch(condition -> condition.startsWith("p." + field.getProperty() + " "))) {
+                pageConditions.add("p." + field.getProperty() + " >= :lowest");
+                pageParameters.put("lowest", field.getLowest());
+            }
+        });
+
+        TypedQuery<ProductResponseDto> query = entityManager
+                .createQuery(SELECT_DTOS + where(pageConditions) + orderBy(pageable), ProductResponseDto.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        pageParameters.forEach(query::setParameter);
+        List<ProductResponseDto> products = query.getResultList();
+
+        return PageableExecutionUtils.getPage(products, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery(SELECT_COUNT + where, Long.class);
+            parameters.forEach(count::setParameter);
+            return count.getSingleResult();
+        });
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static Optional<ProductSortField> sortField(Pageable pageable) {
+        return pageable.getSort().stream()
+                .findFirst()
+                .map(order -> ProductSortField.of(order.getProperty()));
+    }
+
+    /**
+     * Builds the ORDER BY clause, checking every property against the
+     * sortable fields since it is written into the query.
+     */
+    private static String orderBy(Pageable pageable) {
+        if (pageable.getSort().isUnsorted()) {
+            return "";
+        }
+        return pageable.getSort().stream()
+                .map(order -> "p." + ProductSortField.of(order.getProperty()).getProperty()
+                        + " " + order.getDirection().name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", ", " order by ", ""));
+    }
+}
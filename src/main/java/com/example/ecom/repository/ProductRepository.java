@@ -1,15 +1,147 @@
 package com.example.ecom.repository;
 
+import com.example.ecom.dto.responseDto.ProductResponseDto;
 import com.example.ecom.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for Product entity.
  * <p>
  * Extends JpaRepository to provide standard CRUD operations
- * for product persistence and database interactions.
+ * for product persistence and database interactions. The bulk updates
+ * increment the version of the products they change, as saving an
+ * entity does.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFilterRepository {
+
+    /**
+     * Retrieves a page of products as response DTOs, without loading entities.
+     *
+     * @param pageable page request
+     * @return page of product DTOs
+     */
+    @Query(value = "select new com.example.ecom.dto.responseDto.ProductResponseDto(p.id, p.name, p.stock, p.price, p.version) "
+            + "from Product p",
+            countQuery = "select count(p) from Product p")
+    Page<ProductResponseDto> findAllDtos(Pageable pageable);
+
+    /**
+     * Retrieves the products following an ID, in ID order, as response DTOs.
+     *
+     * @param id    last ID already seen
+     * @param limit maximum number of products
+     * @return next products by ID
+     */
+    @Query("select new com.example.ecom.dto.responseDto.ProductResponseDto(p.id, p.name, p.stock, p.price, p.version) "
+            + "from Product p where p.id > :id order by p.id")
+    List<ProductResponseDto> findDtosAfter(@Param("id") Long id, Limit limit);
+
+    /**
+     * Retrieves a product as response DTO, without loading the entity.
+     *
+     * @param id product ID
+     * @return the product, empty if not found
+     */
+    @Query("select new com.example.ecom.dto.responseDto.ProductResponseDto(p.id, p.name, p.stock, p.price, p.version) "
+            + "from Product p where p.id = :id")
+    Optional<ProductResponseDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Retrieves several products as response DTOs with one query,
+     * without loading entities.
+     *
+     * @param ids product IDs
+     * @return products found, in no particular order
+     */
+    @Query("select new com.example.ecom.dto.responseDto.ProductResponseDto(p.id, p.name, p.stock, p.price, p.version) "
+            + "from Product p where p.id in :ids")
+    List<ProductResponseDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Decrements the stock of a product only if enough stock remains.
+     * <p>
+     * The check and the write happen in one UPDATE statement, so two
+     * concurrent orders can never both take the last units.
+     *
+     * @param id       product ID
+     * @param quantity quantity to take from stock
+     * @return 1 if the stock was decremented, 0 if the product is missing or short
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - :quantity, p.version = p.version + 1 "
+            + "where p.id = :id and p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Returns stock to a product.
+     *
+     * @param id       product ID
+     * @param quantity quantity to add back
+     * @return number of products updated
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock + :quantity, p.version = p.version + 1 where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Calculates the stock of a product that is not yet promised to an order.
+     * <p>
+     * Subtracts the quantities of orders whose stock has not been written
+     * to the Products table yet by the write-behind inventory.
+     *
+     * @param id product ID
+     * @return available stock, empty if the product does not exist
+     */
+    @Query("select p.stock - coalesce((select sum(oi.quantity) from OrderItem oi "
+            + "where oi.product.id = p.id and oi.order.stockSettled = false), 0) "
+            + "from Product p where p.id = :id")
+    Optional<Long> findAvailableStock(@Param("id") Long id);
+
+    /**
+     * Subtracts the ordered quantities of the given orders from stock
+     * with one set-based UPDATE. Expired orders are left out.
+     *
+     * @param orderIds IDs of the orders to settle
+     * @return number of products updated
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - (select sum(oi.quantity) from OrderItem oi "
+            + "where oi.product.id = p.id and oi.order.id in :orderIds "
+            + "and oi.order.status <> com.example.ecom.util.OrderStatus.EXPIRED), p.version = p.version + 1 "
+            + "where p.id in (select oi.product.id from OrderItem oi where oi.order.id in :orderIds "
+            + "and oi.order.status <> com.example.ecom.util.OrderStatus.EXPIRED)")
+    int applySettledOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Adds the ordered quantities of expired orders back to stock
+     * with one set-based UPDATE.
+     * <p>
+     * Only orders whose stock was written to the Products table are
+     * included; stock still held by the write-behind inventory was never
+     * subtracted here.
+     *
+     * @param orderIds IDs of the expired orders
+     * @return number of products updated
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock + (select sum(oi.quantity) from OrderItem oi "
+            + "where oi.product.id = p.id and oi.order.id in :orderIds "
+            + "and oi.order.status = com.example.ecom.util.OrderStatus.EXPIRED "
+            + "and (oi.order.stockSettled is null or oi.order.stockSettled = true)), p.version = p.version + 1 "
+            + "where p.id in (select oi.product.id from OrderItem oi where oi.order.id in :orderIds "
+            + "and oi.order.status = com.example.ecom.util.OrderStatus.EXPIRED "
+            + "and (oi.order.stockSettled is null or oi.order.stockSettled = true))")
+    int releaseExpiredOrders(@Param("orderIds") Collection<Long> orderIds);
 }
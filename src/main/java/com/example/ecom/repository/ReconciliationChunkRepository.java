@@ -0,0 +1,47 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.entity.ReconciliationChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for ReconciliationChunk entity.
+ * <p>
+ * Extends JpaRepository to provide CRUD operations
+ * and the checkpoint queries of reconciliation runs.
+ */
+@Repository
+public interface ReconciliationChunkRepository extends JpaRepository<ReconciliationChunk, Long> {
+    /**
+     * Retrieves the first payment IDs of the chunks a run has finished.
+     *
+     * @param runId run ID
+     * @return first payment ID of every finished chunk
+     */
+    @Query("select c.fromPaymentId from ReconciliationChunk c where c.runId = :runId")
+    List<Long> findDoneChunks(@Param("runId") Long runId);
+
+    /**
+     * Adds up the results of a run's finished chunks.
+     *
+     * @param runId run ID
+     * @return payments checked and discrepancies found
+     */
+    @Query("select coalesce(sum(c.paymentsChecked), 0) as paymentsChecked, "
+            + "coalesce(sum(c.discrepancies), 0) as discrepancies "
+            + "from ReconciliationChunk c where c.runId = :runId")
+    RunTotals sumByRunId(@Param("runId") Long runId);
+
+    /**
+     * Totals of a reconciliation run.
+     */
+    interface RunTotals {
+        Long getPaymentsChecked();
+
+        Long getDiscrepancies();
+    }
+}
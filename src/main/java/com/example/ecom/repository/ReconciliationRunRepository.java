@@ -0,0 +1,25 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.entity.ReconciliationRun;
+import com.example.ecom.util.ReconciliationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for ReconciliationRun entity.
+ * <p>
+ * Extends JpaRepository to provide CRUD operations
+ * and the lookup of the run to resume.
+ */
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    /**
+     * Finds the latest run not in the given status.
+     *
+     * @param status status to skip, COMPLETED to find an unfinished run
+     * @return latest such run, if any
+     */
+    Optional<ReconciliationRun> findFirstByStatusNotOrderByIdDesc(ReconciliationStatus status);
+}
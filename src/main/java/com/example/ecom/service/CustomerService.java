@@ -1,7 +1,11 @@
 package com.example.ecom.service;
 
 import com.example.ecom.dto.requestDto.CustomerRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.CustomerOrderResponseDto;
 import com.example.ecom.dto.responseDto.CustomerResponseDto;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.Versioned;
 
 import org.springframework.data.domain.Page;
 import java.util.List;
@@ -29,6 +33,16 @@ public interface CustomerService {
      */
     CustomerResponseDto getCustomerById(Long id);
 
+    /**
+     * Looks up the version of a customer, and retrieves the customer
+     * only if the body is needed.
+     *
+     * @param id customer ID
+     * @return the customer, tagged with its version
+     * @throws com.example.ecom.exception.ResourceNotFoundException if the customer does not exist
+     */
+    Versioned<CustomerResponseDto> getVersionedCustomer(Long id);
+
     /**
      * Retrieves all customers.
      *
@@ -37,6 +51,38 @@ public interface CustomerService {
 
     Page<CustomerResponseDto> getAllCustomers(int page, int size);
 
+    /**
+     * Retrieves a page of customers, tagged with the versions of its
+     * customers and the total.
+     *
+     * @param page page number, from 0
+     * @param size page size
+     * @return page of customers, tagged
+     */
+    Versioned<Page<CustomerResponseDto>> getVersionedCustomers(int page, int size);
+
+    /**
+     * Retrieves the customers following a cursor, without counting the total.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size
+     * @return page of customers with the cursor of the next page
+     */
+    CursorPageResponseDto<CustomerResponseDto> getCustomersAfter(String after, int size);
+
+    /**
+     * Retrieves the order history of a customer page by page, in order
+     * ID order, following a cursor.
+     *
+     * @param id     customer ID
+     * @param status optional status filter, null for all orders
+     * @param after  cursor of the previous page, null for the first page
+     * @param size   page size
+     * @return page of the customer's orders with the cursor of the next page
+     */
+    CursorPageResponseDto<CustomerOrderResponseDto> getCustomerOrders(Long id, OrderStatus status,
+                                                                     String after, int size);
+
     /**
      * Updates an existing customer.
      *
@@ -0,0 +1,33 @@
+package com.example.ecom.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * Service interface for executing requests at most once per Idempotency-Key.
+ * <p>
+ * A repeated request with the same key gets the stored response of the
+ * first one instead of running again.
+ */
+public interface IdempotencyService {
+    /**
+     * Runs an action once per key and replays its response afterwards.
+     * <p>
+     * Without a key the action simply runs. The key is claimed before the
+     * action runs. Concurrent requests with the same key wait for the
+     * first execution and share its outcome when they reach the same
+     * instance, and are rejected while it runs on another instance.
+     *
+     * @param scope        endpoint the key belongs to, such as "order"
+     * @param key          value of the Idempotency-Key header, may be null;
+     *                     at most 255 characters
+     * @param request      request body, used to detect a key reused for another request
+     * @param responseType type of the response body
+     * @param action       request handling to run on first use of the key
+     * @param <T>          response body type
+     * @return response of the first execution
+     */
+    <T> ResponseEntity<T> execute(String scope, String key, Object request,
+                                  Class<T> responseType, Supplier<ResponseEntity<T>> action);
+}
@@ -0,0 +1,49 @@
+package com.example.ecom.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service interface for taking product stock on the order path.
+ * <p>
+ * The default implementation decrements the Products table directly.
+ * The in-memory implementation reserves stock in a ledger and writes
+ * the net deltas to the Products table in periodic batches.
+ */
+public interface InventoryService {
+    /**
+     * Reserves stock for every product of an order.
+     * <p>
+     * Must be called inside the order transaction. Reservation is
+     * all-or-nothing: when any product is short, nothing is reserved.
+     * Reservations are undone if the transaction rolls back.
+     *
+     * @param quantities total quantity per product ID
+     * @return IDs of products with insufficient stock, empty if all were reserved
+     */
+    List<Long> reserve(Map<Long, Integer> quantities);
+
+    /**
+     * Applies a stock change made outside the order path,
+     * such as an admin update of a product.
+     *
+     * @param productId product ID
+     * @param delta     change in stock, negative when stock was lowered
+     */
+    void adjust(Long productId, int delta);
+
+    /**
+     * Drops any state held for a deleted product.
+     *
+     * @param productId product ID
+     */
+    void remove(Long productId);
+
+    /**
+     * Tells whether stock taken by new orders is written to the
+     * Products table later instead of in the order transaction.
+     *
+     * @return true for write-behind implementations
+     */
+    boolean isWriteBehind();
+}
@@ -0,0 +1,31 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.OrderIntakeResponseDto;
+
+/**
+ * Service interface for asynchronous order intake.
+ * <p>
+ * Orders are queued and created later in batches, so the caller
+ * gets a tracking ID right away instead of waiting for the database.
+ * Queued orders are not durable until written.
+ */
+public interface OrderIntakeService {
+    /**
+     * Queues an order for creation.
+     *
+     * @param orderRequestDto validated order request payload
+     * @return tracking details with status QUEUED
+     * @throws com.example.ecom.exception.IntakeQueueFullException if the queue is full
+     */
+    OrderIntakeResponseDto submit(OrderRequestDto orderRequestDto);
+
+    /**
+     * Retrieves the state of a queued order.
+     *
+     * @param trackingId tracking ID returned on submit
+     * @return current intake state
+     * @throws com.example.ecom.exception.ResourceNotFoundException if the ID is unknown or expired
+     */
+    OrderIntakeResponseDto getStatus(String trackingId);
+}
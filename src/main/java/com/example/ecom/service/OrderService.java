@@ -1,9 +1,15 @@
 package com.example.ecom.service;
 
 import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.BatchOrderResponseDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
 import com.example.ecom.dto.responseDto.OrderResponseDto;
 import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.Versioned;
 import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -21,6 +27,17 @@ public interface OrderService {
      */
     OrderResponseDto createOrder(OrderRequestDto orderRequestDto);
 
+    /**
+     * Creates many orders at once.
+     * <p>
+     * Each order is accepted or rejected on its own, so one bad
+     * order does not fail the whole batch.
+     *
+     * @param orderRequestDtos order request payloads
+     * @return outcome of every order, in request order
+     */
+    BatchOrderResponseDto createOrders(List<OrderRequestDto> orderRequestDtos);
+
     /**
      * Retrieves an order by its ID.
      *
@@ -29,6 +46,16 @@ public interface OrderService {
      */
     OrderResponseDto getOrderById(Long id);
 
+    /**
+     * Looks up the version of an order and the names of its products,
+     * and retrieves the order only if the body is needed.
+     *
+     * @param id order ID
+     * @return the order, tagged
+     * @throws com.example.ecom.exception.ResourceNotFoundException if the order does not exist
+     */
+    Versioned<OrderResponseDto> getVersionedOrder(Long id);
+
     /**
      * Retrieves all orders.
      *
@@ -36,13 +63,47 @@ public interface OrderService {
      */
 
     Page<OrderResponseDto> getAllOrders(int page, int size);
+
     /**
-     * Retrieves orders filtered by status.
+     * Looks up the versions of a page of orders and the names of their
+     * products, and retrieves the orders only if the body is needed.
+     *
+     * @param page page number, from 0
+     * @param size page size
+     * @return page of orders, tagged
+     */
+    Versioned<Page<OrderResponseDto>> getVersionedOrders(int page, int size);
+
+    /**
+     * Retrieves the orders following a cursor, without counting the total.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size
+     * @return page of orders with the cursor of the next page
+     */
+    CursorPageResponseDto<OrderResponseDto> getOrdersAfter(String after, int size);
+    /**
+     * Writes the orders with the given status to a stream as a JSON array,
+     * one order at a time, so memory use does not grow with the result.
      *
      * @param status order status
-     * @return list of matching orders
+     * @param out    stream to write the JSON array to
+     * @throws IOException if writing to the stream fails
+     */
+    void writeOrdersByStatus(OrderStatus status, OutputStream out) throws IOException;
+
+    /**
+     * Exports orders with their items as newline-delimited JSON,
+     * one order per line, in order ID order.
+     *
+     * @param status order status, or null for all statuses
+     * @param fromId lowest order ID to export, inclusive
+     * @param toId   highest order ID to export, inclusive
+     * @param out    stream to write the lines to
+     * @return number of orders exported
+     * @throws IOException if writing to the stream fails
      */
-    List<OrderResponseDto> getOrdersByStatus(OrderStatus status);
+    long exportOrders(OrderStatus status, long fromId, long toId, OutputStream out) throws IOException;
 
     /**
      * Updates the status of an order.
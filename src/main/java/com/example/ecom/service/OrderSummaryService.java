@@ -0,0 +1,68 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.OrderResponseDto;
+import com.example.ecom.util.OrderStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service interface for the denormalized order read model.
+ * <p>
+ * When enabled, every order is also stored as a pre-rendered summary
+ * that is written in the same transaction as the order itself, and
+ * order reads are served from it. When disabled, writes are skipped
+ * and lookups find nothing, so callers read the normalized tables.
+ */
+public interface OrderSummaryService {
+    /**
+     * Tells whether the read model is maintained and read.
+     *
+     * @return true if enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Stores the summaries of newly created orders.
+     * Must be called in the transaction that creates them.
+     *
+     * @param orders created orders as returned to the client
+     */
+    void saveAll(List<OrderResponseDto> orders);
+
+    /**
+     * Mirrors a status update of orders onto their summaries.
+     * Must be called in the transaction that updates the orders.
+     *
+     * @param orderIds order IDs
+     * @param from     status the orders had
+     * @param to       new status
+     */
+    void updateStatus(Collection<Long> orderIds, OrderStatus from, OrderStatus to);
+
+    /**
+     * Looks up the summary of an order.
+     *
+     * @param orderId order ID
+     * @return the order, empty if it has no summary or the read model is disabled
+     */
+    Optional<OrderResponseDto> find(Long orderId);
+
+    /**
+     * Looks up the summaries of several orders with one query.
+     *
+     * @param orderIds order IDs
+     * @return orders found keyed by ID; missing orders have no summary
+     */
+    Map<Long, OrderResponseDto> findAll(Collection<Long> orderIds);
+
+    /**
+     * Regenerates all summaries from the normalized tables, splitting
+     * the order IDs into ranges that are rebuilt in parallel.
+     *
+     * @return number of summaries written
+     */
+    long rebuild();
+}
@@ -0,0 +1,24 @@
+package com.example.ecom.service;
+
+/**
+ * Service interface for checking stored order totals.
+ * <p>
+ * Payments charge the total stored when the order was created. The
+ * verifier samples orders and compares that total with the sum of
+ * their items, so a drift between the two gets noticed.
+ */
+public interface OrderTotalVerifier {
+    /**
+     * Largest difference between a stored total and the items total
+     * that is still taken as equal.
+     */
+    double TOLERANCE = 0.005;
+
+    /**
+     * Compares the stored totals of a sample of orders with the sums
+     * of their items.
+     *
+     * @return number of sampled orders whose stored total differs
+     */
+    int verifySample();
+}
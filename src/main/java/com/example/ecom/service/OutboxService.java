@@ -0,0 +1,30 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.OrderEventDto;
+
+import java.util.List;
+
+/**
+ * Service interface for the transactional outbox of order events.
+ * <p>
+ * Events are written to the outbox table in the transaction of the
+ * order change they announce and published to the configured
+ * {@link OutboxSink} by a relay afterwards.
+ */
+public interface OutboxService {
+    /**
+     * Writes events for orders that reached a new status, joining the
+     * caller's transaction. Statuses downstream systems are not told
+     * about are skipped.
+     *
+     * @param events order events; type and time are filled in
+     */
+    void recordOrderEvents(List<OrderEventDto> events);
+
+    /**
+     * Publishes pending events in batches until none are left.
+     *
+     * @return number of events published
+     */
+    int relay();
+}
@@ -0,0 +1,22 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay publishes events to.
+ * <p>
+ * Delivery is at least once: a batch whose publication fails, or whose
+ * relay stops before recording it, is published again later. Consumers
+ * recognise repeats by the event ID.
+ */
+public interface OutboxSink {
+    /**
+     * Publishes a batch of events.
+     *
+     * @param events events in ID order
+     * @throws RuntimeException if the batch could not be published and has to be retried
+     */
+    void publish(List<OutboxEvent> events);
+}
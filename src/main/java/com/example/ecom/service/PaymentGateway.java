@@ -0,0 +1,31 @@
+package com.example.ecom.service;
+
+import com.example.ecom.util.PaymentMethod;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client of the external payment gateway.
+ * <p>
+ * Charges are asynchronous: the calling thread is not held while the
+ * gateway processes them.
+ */
+public interface PaymentGateway {
+    /**
+     * Asks the gateway to charge the amount of an order.
+     * <p>
+     * The gateway charges each payment reference at most once: a charge
+     * repeated with the same reference is answered with the outcome of
+     * the first one.
+     *
+     * @param paymentReference reference of the payment attempt, unique per attempt
+     * @param orderId          order being paid
+     * @param amount           amount to charge
+     * @param paymentMethod    payment method chosen by the customer
+     * @return future completed with the gateway's reference of the charge, or
+     * completed exceptionally with a {@link com.example.ecom.exception.PaymentGatewayException}
+     * when the charge is declined or fails
+     */
+    CompletableFuture<String> charge(String paymentReference, Long orderId, double amount,
+                                     PaymentMethod paymentMethod);
+}
@@ -0,0 +1,53 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.PaymentDiscrepancyResponseDto;
+import com.example.ecom.dto.responseDto.ReconciliationRunResponseDto;
+
+/**
+ * Service interface for reconciling payments against their orders.
+ * <p>
+ * A run compares every payment's amount with its order's stored total
+ * and checks that the order is paid, recording each mismatch in a
+ * report. Payments are processed in chunks of consecutive IDs on
+ * several threads; finished chunks are checkpointed, so an interrupted
+ * run resumes where it stopped.
+ */
+public interface PaymentReconciliationService {
+    /**
+     * Starts a run in the background, or resumes the last unfinished one.
+     * If a run is already in progress it is returned instead.
+     *
+     * @return the run started, resumed or in progress
+     */
+    ReconciliationRunResponseDto start();
+
+    /**
+     * Runs a reconciliation to the end on the calling thread, resuming
+     * the last unfinished run if there is one.
+     *
+     * @return the finished run
+     * @throws IllegalStateException if a run is already in progress or a chunk fails
+     */
+    ReconciliationRunResponseDto reconcile();
+
+    /**
+     * Retrieves a run.
+     *
+     * @param runId run ID
+     * @return the run
+     * @throws com.example.ecom.exception.ResourceNotFoundException if the run does not exist
+     */
+    ReconciliationRunResponseDto getRun(Long runId);
+
+    /**
+     * Retrieves the discrepancies of a run following a cursor.
+     *
+     * @param runId run ID
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size
+     * @return page of discrepancies with the cursor of the next page
+     * @throws com.example.ecom.exception.ResourceNotFoundException if the run does not exist
+     */
+    CursorPageResponseDto<PaymentDiscrepancyResponseDto> getDiscrepancies(Long runId, String after, int size);
+}
@@ -1,9 +1,12 @@
 package com.example.ecom.service;
 
 import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
 import com.example.ecom.dto.responseDto.PaymentResponseDto;
 import org.springframework.data.domain.Page;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service interface for managing Payment operations.
  *
@@ -12,12 +15,39 @@ import org.springframework.data.domain.Page;
  */
 public interface PaymentService {
     /**
-     * Processes payment for an order.
+     * Processes payment for an order, waiting for the payment gateway.
      *
      * @param paymentRequestDto payment request payload
      * @return payment response DTO
      */
     PaymentResponseDto makePayment(PaymentRequestDto paymentRequestDto);
+
+    /**
+     * Processes payment for an order as the attempt identified by a
+     * client's Idempotency-Key, waiting for the payment gateway. A retry
+     * of an attempt still awaiting the gateway's answer resumes it.
+     *
+     * @param paymentRequestDto payment request payload
+     * @param idempotencyKey    client-chosen key identifying the attempt
+     * @return payment response DTO
+     */
+    PaymentResponseDto makePayment(PaymentRequestDto paymentRequestDto, String idempotencyKey);
+
+    /**
+     * Processes payment for an order without waiting for the payment gateway.
+     *
+     * @param paymentRequestDto payment request payload
+     * @return future completed with the payment once the gateway accepted the charge
+     */
+    CompletableFuture<PaymentResponseDto> makePaymentAsync(PaymentRequestDto paymentRequestDto);
+
+    /**
+     * Settles orders whose payment has waited for the gateway's answer
+     * for longer than the pending timeout.
+     *
+     * @return number of orders settled
+     */
+    int settleStalePayments();
     /**
      * Retrieves payment details by ID.
      *
@@ -27,4 +57,13 @@ public interface PaymentService {
 
     PaymentResponseDto getPaymentById(Long id);
     Page<PaymentResponseDto> getAllPayments(int page, int size);
+
+    /**
+     * Retrieves the payments following a cursor, without counting the total.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size
+     * @return page of payments with the cursor of the next page
+     */
+    CursorPageResponseDto<PaymentResponseDto> getPaymentsAfter(String after, int size);
 }
@@ -0,0 +1,49 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of products, read through to the database.
+ * <p>
+ * Every change to a product row, including its stock, must invalidate
+ * the product once the change is committed. Cached products are shared
+ * between callers and must not be modified.
+ */
+public interface ProductCache {
+    /**
+     * Looks up a product, loading it on a miss. Concurrent misses for the
+     * same product wait for a single load.
+     *
+     * @param productId product ID
+     * @return the product, empty if it does not exist
+     */
+    Optional<ProductResponseDto> get(Long productId);
+
+    /**
+     * Looks up several products, loading the missing ones.
+     *
+     * @param productIds product IDs
+     * @return products found keyed by ID; products that do not exist are left out
+     */
+    Map<Long, ProductResponseDto> getAll(Collection<Long> productIds);
+
+    /**
+     * Drops products from the cache when the current transaction
+     * completes, or at once outside a transaction.
+     *
+     * @param productIds IDs of changed products
+     */
+    void invalidateAfterCommit(Collection<Long> productIds);
+
+    /**
+     * Reports hit, miss, load and eviction counts.
+     *
+     * @return cache statistics
+     */
+    ProductCacheStatsResponseDto stats();
+}
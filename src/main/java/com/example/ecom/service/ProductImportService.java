@@ -0,0 +1,40 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ProductImportResponseDto;
+import com.example.ecom.util.ProductImportFormat;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Service interface for importing products in bulk.
+ * <p>
+ * Lines are read one at a time and validated with the rules of
+ * {@link com.example.ecom.dto.requestDto.ProductRequestDto}. A line with
+ * an ID updates that product; a line without one inserts a new product.
+ * Valid lines are written in batches, each committed on its own, so
+ * memory stays bounded however large the input is and a failed batch
+ * does not undo the batches before it. Invalid lines are skipped and
+ * reported with their line numbers.
+ */
+public interface ProductImportService {
+    /**
+     * Imports products from a stream, such as a request body.
+     *
+     * @param input  UTF-8 encoded lines
+     * @param format format of the lines
+     * @return counts of the lines imported and rejected, with the first errors
+     * @throws com.example.ecom.exception.InvalidImportFileException if the input has no valid CSV header
+     */
+    ProductImportResponseDto importProducts(InputStream input, ProductImportFormat format);
+
+    /**
+     * Imports products from a file, read through memory mapping.
+     *
+     * @param file   UTF-8 encoded file
+     * @param format format of the file
+     * @return counts of the lines imported and rejected, with the first errors
+     * @throws com.example.ecom.exception.InvalidImportFileException if the file has no valid CSV header
+     */
+    ProductImportResponseDto importProducts(Path file, ProductImportFormat format);
+}
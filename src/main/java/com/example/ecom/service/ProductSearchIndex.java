@@ -0,0 +1,76 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process full-text index over product names.
+ * <p>
+ * Names are split into lower-case tokens of letters and digits. A query
+ * matches a product when every query token equals or is a prefix of one
+ * of the product's tokens. Every change to a product name must be passed
+ * to the index once it is committed.
+ */
+public interface ProductSearchIndex {
+    /**
+     * Finds products matching a query, best matches first.
+     *
+     * @param query  search text
+     * @param offset number of matches to skip
+     * @param limit  maximum number of product IDs to return
+     * @return IDs of the requested matches and the number of all matches
+     *         (estimated when the search stopped early)
+     */
+    Hits search(String query, int offset, int limit);
+
+    /**
+     * Indexes a new or renamed product when the current transaction
+     * commits, or at once outside a transaction.
+     *
+     * @param productId product ID
+     * @param name      product name
+     */
+    void putAfterCommit(Long productId, String name);
+
+    /**
+     * Indexes several new or renamed products at once when the current
+     * transaction commits, or at once outside a transaction.
+     *
+     * @param names product names by product ID
+     */
+    void putAllAfterCommit(Map<Long, String> names);
+
+    /**
+     * Removes a product from the index when the current transaction
+     * commits, or at once outside a transaction.
+     *
+     * @param productId product ID
+     */
+    void removeAfterCommit(Long productId);
+
+    /**
+     * Rebuilds the index from the Products table.
+     *
+     * @return number of products indexed
+     */
+    long rebuild();
+
+    /**
+     * Reports the size of the index and an estimate of its memory.
+     *
+     * @return index statistics
+     */
+    ProductSearchStatsResponseDto stats();
+
+    /**
+     * One page of matches.
+     *
+     * @param productIds IDs of the matching products on the page, best first
+     * @param total      number of products matching the query, exact when the
+     *                   search read all candidates and estimated otherwise
+     */
+    record Hits(List<Long> productIds, int total) {
+    }
+}
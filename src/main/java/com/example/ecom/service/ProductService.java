@@ -1,7 +1,12 @@
 package com.example.ecom.service;
 
+import com.example.ecom.dto.requestDto.ProductFilterDto;
 import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
 import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
+import com.example.ecom.util.Versioned;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -22,13 +27,23 @@ public interface ProductService {
     ProductResponseDto createProduct(ProductRequestDto productRequestDto);
 
     /**
-     * Retrieves a product by its ID.
+     * Retrieves a product by its ID, from the product cache when present.
      *
      * @param id product ID
      * @return product response DTO
      */
     ProductResponseDto getProductById(Long id);
 
+    /**
+     * Retrieves a product with its version as entity tag, from the
+     * product cache when present.
+     *
+     * @param id product ID
+     * @return the product, tagged
+     * @throws com.example.ecom.exception.ResourceNotFoundException if the product does not exist
+     */
+    Versioned<ProductResponseDto> getVersionedProduct(Long id);
+
     /**
      * Retrieves all products.
      *
@@ -36,6 +51,56 @@ public interface ProductService {
      */
     Page<ProductResponseDto> getAllProducts(int page, int size);
 
+    /**
+     * Retrieves the products in a price range and in or out of stock,
+     * sorted by an indexed field.
+     *
+     * @param filter price range, stock filter and sort, each optional
+     * @param page   page number, from 0
+     * @param size   page size
+     * @return page of matching products
+     * @throws com.example.ecom.exception.InvalidProductFilterException if the sort is not accepted
+     *         or minPrice is greater than maxPrice
+     */
+    Page<ProductResponseDto> getAllProducts(ProductFilterDto filter, int page, int size);
+
+    /**
+     * Retrieves a page of products like {@link #getAllProducts(ProductFilterDto, int, int)},
+     * tagged with the versions of its products and the total.
+     *
+     * @param filter price range, stock filter and sort, each optional
+     * @param page   page number, from 0
+     * @param size   page size
+     * @return page of matching products, tagged
+     */
+    Versioned<Page<ProductResponseDto>> getVersionedProducts(ProductFilterDto filter, int page, int size);
+
+    /**
+     * Retrieves the products following a cursor, without counting the total.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size
+     * @return page of products with the cursor of the next page
+     */
+    CursorPageResponseDto<ProductResponseDto> getProductsAfter(String after, int size);
+
+    /**
+     * Searches products by name, best matches first.
+     *
+     * @param query search text; every word must match a word of the name or its beginning
+     * @param page  page number, from 0
+     * @param size  page size
+     * @return page of matching products
+     */
+    Page<ProductResponseDto> searchProducts(String query, int page, int size);
+
+    /**
+     * Reports the size and estimated memory of the product search index.
+     *
+     * @return search index statistics
+     */
+    ProductSearchStatsResponseDto getSearchStats();
+
     /**
      * Updates an existing product.
      *
@@ -51,4 +116,11 @@ public interface ProductService {
      * @param id product ID
      */
     void deleteProduct(Long id);
+
+    /**
+     * Reports the statistics of the product cache.
+     *
+     * @return cache statistics
+     */
+    ProductCacheStatsResponseDto getCacheStats();
 }
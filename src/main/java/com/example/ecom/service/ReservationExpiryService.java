@@ -0,0 +1,26 @@
+package com.example.ecom.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Service interface for time-limited stock reservations.
+ * <p>
+ * A new order holds its stock until a reservation deadline. Orders
+ * still unpaid after it are expired and their stock is released.
+ */
+public interface ReservationExpiryService {
+    /**
+     * Calculates the reservation deadline of an order created now.
+     *
+     * @return time until which the order's stock stays reserved
+     */
+    LocalDateTime reservationDeadline();
+
+    /**
+     * Expires all CREATED orders past their reservation deadline
+     * and returns their stock.
+     *
+     * @return number of orders expired
+     */
+    int expireReservations();
+}
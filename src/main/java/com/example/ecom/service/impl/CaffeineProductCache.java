@@ -0,0 +1,143 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.ProductCache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Product cache backed by Caffeine.
+ * <p>
+ * Evicts by size with Caffeine's frequency-aware (W-TinyLFU) policy, so
+ * a scan of rarely read products does not push out the popular ones.
+ * <p>
+ * Entries are futures, completed on the calling thread so that loads
+ * join the caller's transaction. A miss puts its future in the cache
+ * before loading, so concurrent misses wait for one load, and the
+ * misses of a bulk lookup are loaded together with one query. An
+ * invalidation issued during a load removes the pending future, and the
+ * value loaded is then handed to its callers but not kept. Invalidating
+ * after commit therefore never leaves a value read before the change in
+ * the cache.
+ */
+@Service
+@Slf4j
+public class CaffeineProductCache implements ProductCache {
+    private final ProductRepository productRepository;
+    private final AsyncCache<Long, ProductResponseDto> cache;
+    private final LongAdder invalidations = new LongAdder();
+
+    public CaffeineProductCache(ProductRepository productRepository,
+                                @Value("${app.product.cache.max-size:10000}") long maxSize,
+                                @Value("${app.product.cache.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .executor(Runnable::run)
+                .recordStats()
+                .buildAsync();
+    }
+
+    @Override
+    public Optional<ProductResponseDto> get(Long productId) {
+        // a null result is not cached, so products created later are found
+        return Optional.ofNullable(join(cache.get(productId, (id, executor) ->
+                CompletableFuture.supplyAsync(() -> load(id), executor))));
+    }
+
+    @Override
+    public Map<Long, ProductResponseDto> getAll(Collection<Long> productIds) {
+        // products missing from the loaded map are not cached, as in get
+        return join(cache.getAll(productIds, (missing, executor) ->
+                CompletableFuture.supplyAsync(() -> loadAll(missing), executor)));
+    }
+
+    @Override
+    public void invalidateAfterCommit(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(productIds);
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(ids);
+            }
+        });
+    }
+
+    @Override
+    public ProductCacheStatsResponseDto stats() {
+        // evictions are applied in batches; apply pending ones so the size is current
+        cache.synchronous().cleanUp();
+        CacheStats stats = cache.synchronous().stats();
+        return ProductCacheStatsResponseDto.builder()
+                .size(cache.synchronous().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .loadCount(stats.loadCount())
+                .averageLoadMillis(stats.averageLoadPenalty() / 1_000_000)
+                .evictionCount(stats.evictionCount())
+                .invalidationCount(invalidations.sum())
+                .build();
+    }
+
+    private ProductResponseDto load(Long productId) {
+        log.debug("Loading product {} into the cache", productId);
+        return productRepository.findDtoById(productId).orElse(null);
+    }
+
+    private Map<Long, ProductResponseDto> loadAll(Set<? extends Long> productIds) {
+        log.debug("Loading {} products into the cache", productIds.size());
+        return productRepository.findDtosByIdIn(List.copyOf(productIds))
+                .stream()
+                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+    }
+
+    private void invalidate(Collection<Long> productIds) {
+        cache.synchronous().invalidateAll(productIds);
+        invalidations.add(productIds.size());
+    }
+
+    /**
+     * Waits for a load, which has already run on the calling thread
+     * unless another caller is loading the same product, and rethrows
+     * its failure unwrapped.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
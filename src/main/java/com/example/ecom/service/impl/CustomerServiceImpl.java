@@ -1,27 +1,38 @@
 package com.example.ecom.service.impl;
 
 import com.example.ecom.dto.requestDto.CustomerRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.CustomerOrderResponseDto;
 import com.example.ecom.dto.responseDto.CustomerResponseDto;
 import com.example.ecom.entity.Customer;
 import com.example.ecom.exception.DuplicateResourceException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.CustomerMapper;
 import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OrderRepository;
 import com.example.ecom.service.CustomerService;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.Versioned;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.function.Function;
+
 
 /**
  * Service implementation for managing Customer operations.
  * <p>
  * Provides business logic for creating, retrieving, updating,
  * and deleting customers. Handles duplicate email validation
- * and converts Entity objects to Response DTOs.
+ * and converts Entity objects to Response DTOs. Lists
+ * select the Response DTOs directly.
  * <p>
  * Uses CustomerRepository for database interactions.
  */
@@ -32,6 +43,7 @@ import org.springframework.data.domain.Pageable;
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
+    private final OrderRepository orderRepository;
 
     /**
      * Creates a new customer after validating duplicate email.
@@ -74,6 +86,16 @@ public class CustomerServiceImpl implements CustomerService {
         return customerMapper.toResponse(customer);
     }
 
+    @Override
+    public Versioned<CustomerResponseDto> getVersionedCustomer(Long id) {
+        long version = customerRepository.findVersionById(id)
+                .orElseThrow(() -> {
+                    log.error("Customer not found with id: {}", id);
+                    return new ResourceNotFoundException("Customer not found with id:" + id);
+                });
+        return Versioned.of(version, () -> getCustomerById(id));
+    }
+
     /**
      * Retrieves all customers from the database.
      *
@@ -84,10 +106,63 @@ public class CustomerServiceImpl implements CustomerService {
 
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Customer> customerPage = customerRepository.findAll(pageable);
         log.debug("Fetching customers page: {}, size: {}", page, size);
 
-        return customerPage.map(customerMapper::toResponse);
+        return customerRepository.findAllDtos(pageable);
+    }
+
+    @Override
+    public Versioned<Page<CustomerResponseDto>> getVersionedCustomers(int page, int size) {
+        return Versioned.ofPage(getAllCustomers(page, size),
+                customer -> customer.getId() + ":" + customer.getVersion());
+    }
+
+    /**
+     * Retrieves the customers following a cursor, reading one row more than
+     * the page size to know whether another page follows.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size, limited to {@link CursorPagination#MAX_SIZE}
+     * @return page of customers with the cursor of the next page
+     */
+    @Override
+    public CursorPageResponseDto<CustomerResponseDto> getCustomersAfter(String after, int size) {
+        int limit = CursorPagination.limit(size);
+        log.debug("Fetching customers after cursor: {}, size: {}", after, limit);
+        List<CustomerResponseDto> customers = customerRepository.findDtosAfter(
+                CursorPagination.decode(after), Limit.of(limit + 1));
+        return CursorPagination.page(customers, limit, CustomerResponseDto::getId, Function.identity());
+    }
+
+    /**
+     * Retrieves the order history of a customer following a cursor.
+     * <p>
+     * Reads one order more than the page size to know whether another
+     * page follows. The customer is only looked up when the page comes
+     * back empty, to tell an unknown customer from one without orders.
+     *
+     * @param id     customer ID
+     * @param status optional status filter, null for all orders
+     * @param after  cursor of the previous page, null for the first page
+     * @param size   page size, limited to {@link CursorPagination#MAX_SIZE}
+     * @return page of the customer's orders with the cursor of the next page
+     * @throws ResourceNotFoundException if customer not found
+     */
+    @Override
+    public CursorPageResponseDto<CustomerOrderResponseDto> getCustomerOrders(Long id, OrderStatus status,
+                                                                            String after, int size) {
+        int limit = CursorPagination.limit(size);
+        long afterId = CursorPagination.decode(after);
+        log.debug("Fetching orders of customer id: {}, status: {}, after cursor: {}, size: {}",
+                id, status, after, limit);
+        List<CustomerOrderResponseDto> orders = status == null
+                ? orderRepository.findCustomerOrdersAfter(id, afterId, Limit.of(limit + 1))
+                : orderRepository.findCustomerOrdersAfter(id, status, afterId, Limit.of(limit + 1));
+        if (orders.isEmpty() && !customerRepository.existsById(id)) {
+            log.error("Customer not found with id: {}", id);
+            throw new ResourceNotFoundException("Customer not found with id:" + id);
+        }
+        return CursorPagination.page(orders, limit, CustomerOrderResponseDto::getOrderId, Function.identity());
     }
 
 
@@ -0,0 +1,63 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.InventoryService;
+import com.example.ecom.service.ProductCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inventory implementation that takes stock straight from the Products table.
+ * <p>
+ * Each product is decremented with a guarded UPDATE whose affected-row
+ * count decides success. Products are updated in ID order, so orders and
+ * batches that share products lock their rows in the same order and
+ * cannot deadlock. This is the default inventory mode.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryService implements InventoryService {
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        List<Long> shortages = new ArrayList<>();
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(quantities).entrySet()) {
+            if (productRepository.decrementStock(line.getKey(), line.getValue()) == 0) {
+                shortages.add(line.getKey());
+            } else {
+                taken.add(line);
+            }
+        }
+        if (!shortages.isEmpty()) {
+            taken.forEach(line -> productRepository.incrementStock(line.getKey(), line.getValue()));
+        } else {
+            productCache.invalidateAfterCommit(quantities.keySet());
+        }
+        return shortages;
+    }
+
+    @Override
+    public void adjust(Long productId, int delta) {
+        // stock is read from the Products table, nothing to keep in sync
+    }
+
+    @Override
+    public void remove(Long productId) {
+        // no state held per product
+    }
+
+    @Override
+    public boolean isWriteBehind() {
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.entity.OutboxEvent;
+import com.example.ecom.service.OutboxSink;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Outbox sink appending events to a file as newline-delimited JSON,
+ * one {"id", "type", "payload"} object per line, for local testing of
+ * consumers. Every batch is flushed before the relay moves on.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+    private final BufferedWriter writer;
+
+    public FileOutboxSink(@Value("${app.outbox.file.path:./data/outbox-events.ndjson}") String path)
+            throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Publishing outbox events to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try {
+            for (OutboxEvent event : events) {
+                // the payload is JSON already, so the line is assembled without re-parsing it
+                writer.write("{\"id\":");
+                writer.write(Long.toString(event.getId()));
+                writer.write(",\"type\":\"");
+                writer.write(event.getEventType().name());
+                writer.write("\",\"payload\":");
+                writer.write(event.getPayload());
+                writer.write("}\n");
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Outbox events could not be written", ex);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.exception.IdempotencyKeyInProgressException;
+import com.example.ecom.exception.IdempotencyKeyMismatchException;
+import com.example.ecom.exception.InvalidIdempotencyKeyException;
+import com.example.ecom.repository.IdempotencyRecordRepository;
+import com.example.ecom.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Service implementation for idempotent request handling.
+ * <p>
+ * Completed responses are kept in a bounded in-memory LRU map for fast
+ * replays and in the idempotency_keys table so they survive restarts.
+ * Both expire after the configured TTL.
+ * <p>
+ * Before running a request, its key is claimed by inserting a row into
+ * the table, so that instances sharing the database never run the same
+ * key twice. A request arriving while the first one is still running
+ * waits on its future when both reach the same instance, and is
+ * rejected with a conflict when the first one runs elsewhere. A claim
+ * is released when its request fails, and can be taken over once its
+ * lease has passed, as when an instance stopped during the request.
+ * Each claim carries a random token, so a request whose claim was taken
+ * over can neither release nor complete the new owner's claim.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Longest accepted key; scope, separator and key must fit the
+     * 300 characters of the id column.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * Status code of a key claimed by a request that is still running.
+     */
+    private static final int CLAIMED = 0;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, StoredResponse> recent;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                                  @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                                  @Value("${app.idempotency.claim-timeout-seconds:60}") long claimTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key must not be longer than " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse stored = lookup(id);
+        if (stored != null) {
+            return replay(id, stored, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, execution);
+        if (running != null) {
+            log.info("Waiting for in-flight request with idempotency key: {}", id);
+            return replay(id, await(running), requestHash, responseType);
+        }
+
+        try {
+            // another request may have finished between the lookup and putIfAbsent
+            String claimToken = UUID.randomUUID().toString();
+            stored = claim(id, requestHash, claimToken);
+            if (stored != null) {
+                execution.complete(stored);
+                return replay(id, stored, requestHash, responseType);
+            }
+
+            ResponseEntity<T> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException ex) {
+                idempotencyRecordRepository.release(id, claimToken);
+                throw ex;
+            }
+            stored = store(id, claimToken, requestHash, response);
+            execution.complete(stored);
+            return response;
+        } catch (RuntimeException ex) {
+            execution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, execution);
+        }
+    }
+
+    /**
+     * Removes expired responses from memory and from the table.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (recent) {
+            recent.values().removeIf(response -> response.expiresAt().isBefore(now));
+        }
+        int deleted = idempotencyRecordRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private StoredResponse lookup(String id) {
+        LocalDateTime now = LocalDateTime.now();
+        StoredResponse stored = recent.get(id);
+        if (stored != null && stored.expiresAt().isAfter(now)) {
+            return stored;
+        }
+        return idempotencyRecordRepository.findById(id)
+                .filter(record -> record.getStatusCode() != CLAIMED && record.getExpiresAt().isAfter(now))
+                .map(record -> {
+                    StoredResponse response = new StoredResponse(record.getRequestHash(),
+                            record.getStatusCode(), record.getResponseBody(), record.getExpiresAt());
+                    recent.put(id, response);
+                    return response;
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Claims a key in the table before its request runs.
+     *
+     * @return the response to replay if the key completed meanwhile,
+     * or null once the key is claimed
+     */
+    private StoredResponse claim(String id, String requestHash, String claimToken) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            idempotencyRecordRepository.claim(id, requestHash, claimToken, now, now.plus(claimTimeout));
+            return null;
+        } catch (DataIntegrityViolationException ex) {
+            StoredResponse stored = lookup(id);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        // the key is claimed, or stored but expired
+        if (idempotencyRecordRepository.deleteExpired(id, now) > 0) {
+            try {
+                idempotencyRecordRepository.claim(id, requestHash, claimToken, now, now.plus(claimTimeout));
+                log.warn("Took over expired claim of idempotency key {}", id);
+                return null;
+            } catch (DataIntegrityViolationException ex) {
+                log.debug("Expired claim of idempotency key {} was taken over concurrently", id);
+            }
+        }
+        throw new IdempotencyKeyInProgressException(
+                "A request with this Idempotency-Key is still being processed");
+    }
+
+    private StoredResponse store(String id, String claimToken, String requestHash, ResponseEntity<?> response) {
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                toJson(response.getBody()), LocalDateTime.now().plus(ttl));
+        if (idempotencyRecordRepository.complete(id, claimToken, stored.statusCode(), stored.body(),
+                stored.expiresAt()) == 0) {
+            log.warn("Claim of idempotency key {} was taken over before its response was stored", id);
+        }
+        recent.put(id, stored);
+        return stored;
+    }
+
+    private <T> ResponseEntity<T> replay(String id, StoredResponse stored, String requestHash,
+                                         Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            log.warn("Idempotency key {} reused with a different request", id);
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key was already used for a different request");
+        }
+        log.info("Replaying stored response for idempotency key: {}", id);
+        try {
+            return ResponseEntity.status(stored.statusCode())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(stored.body(), responseType));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored response for " + id + " is not readable", ex);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Value cannot be serialized", ex);
+        }
+    }
+
+    /**
+     * Response of a completed request, as replayed to retries.
+     */
+    private record StoredResponse(String requestHash, int statusCode, String body, LocalDateTime expiresAt) {
+    }
+}
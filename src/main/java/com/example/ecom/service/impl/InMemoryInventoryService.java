@@ -0,0 +1,176 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.repository.OrderItemRepository;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.InventoryService;
+import com.example.ecom.service.ProductCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind inventory implementation for hot products.
+ * <p>
+ * Keeps the available count of each product in an atomic counter and
+ * reserves stock with compare-and-set, so orders for the same product
+ * never wait on a database row lock. Orders taken this way are saved
+ * with {@code stockSettled = false}; a scheduled flush subtracts their
+ * quantities from the Products table in batches and marks them settled
+ * in the same transaction. A flush locks the orders it settles, so
+ * flushes on several nodes never apply an order twice.
+ * <p>
+ * Nothing is kept only in memory: a counter is loaded as the product's
+ * stock minus the quantities of its unsettled orders, so after a crash
+ * the ledger rebuilds itself from the tables. Pending orders are also
+ * settled once at startup.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "memory")
+public class InMemoryInventoryService implements InventoryService {
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    public InMemoryInventoryService(ProductRepository productRepository,
+                                    OrderRepository orderRepository,
+                                    OrderItemRepository orderItemRepository,
+                                    ProductCache productCache,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${app.inventory.flush-batch-size:500}") int flushBatchSize) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productCache = productCache;
+        this.transactionTemplate = transactionTemplate;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    /**
+     * Settles orders left unsettled by a previous run before
+     * the ledger starts taking reservations.
+     */
+    @PostConstruct
+    void reconcile() {
+        int settled = 0;
+        int batch;
+        while ((batch = flushBatch()) > 0) {
+            settled += batch;
+        }
+        log.info("Inventory ledger started, settled {} pending orders", settled);
+    }
+
+    @Override
+    public List<Long> reserve(Map<Long, Integer> quantities) {
+        List<Long> shortages = new ArrayList<>();
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (tryTake(counter(line.getKey()), line.getValue())) {
+                taken.add(line);
+            } else {
+                shortages.add(line.getKey());
+            }
+        }
+
+        if (!shortages.isEmpty()) {
+            taken.forEach(line -> counter(line.getKey()).addAndGet(line.getValue()));
+            return shortages;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        taken.forEach(line -> counter(line.getKey()).addAndGet(line.getValue()));
+                    }
+                }
+            });
+        }
+        return shortages;
+    }
+
+    @Override
+    public void adjust(Long productId, int delta) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            counter.addAndGet(delta);
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        available.remove(productId);
+    }
+
+    @Override
+    public boolean isWriteBehind() {
+        return true;
+    }
+
+    /**
+     * Writes the stock taken by unsettled orders to the Products table.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        int settled = flushBatch();
+        if (settled > 0) {
+            log.debug("Settled stock of {} orders", settled);
+        }
+    }
+
+    /**
+     * Settles one batch of orders in a single transaction.
+     *
+     * @return number of orders settled
+     */
+    private int flushBatch() {
+        Integer settled = transactionTemplate.execute(status -> {
+            // the row locks keep other flushes and the expiry job away from these orders
+            List<Long> orderIds = orderRepository.lockUnsettledIds(flushBatchSize);
+            if (orderIds.isEmpty()) {
+                return 0;
+            }
+            orderRepository.markStockSettled(orderIds);
+            productRepository.applySettledOrders(orderIds);
+            productCache.invalidateAfterCommit(orderItemRepository.findProductIdsByOrderIds(orderIds));
+            return orderIds.size();
+        });
+        return settled == null ? 0 : settled;
+    }
+
+    private AtomicInteger counter(Long productId) {
+        return available.computeIfAbsent(productId, id ->
+                new AtomicInteger(productRepository.findAvailableStock(id).orElse(0L).intValue()));
+    }
+
+    private boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+}
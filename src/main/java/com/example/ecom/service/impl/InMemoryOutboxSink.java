@@ -0,0 +1,57 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.entity.OutboxEvent;
+import com.example.ecom.service.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Outbox sink keeping the most recent events in memory, for local
+ * development and tests. This is the default sink.
+ */
+@Service
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+    private final int capacity;
+    private final Deque<OutboxEvent> recent = new ArrayDeque<>();
+    private long published;
+
+    public InMemoryOutboxSink(@Value("${app.outbox.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (recent.size() == capacity) {
+                recent.removeFirst();
+            }
+            recent.addLast(event);
+        }
+        published += events.size();
+    }
+
+    /**
+     * Most recently published events, oldest first.
+     *
+     * @return copy of the retained events
+     */
+    public synchronized List<OutboxEvent> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    /**
+     * Number of events published since startup, including those no longer retained.
+     *
+     * @return published event count
+     */
+    public synchronized long publishedCount() {
+        return published;
+    }
+}
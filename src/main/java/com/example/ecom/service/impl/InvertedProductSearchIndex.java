@@ -0,0 +1,914 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.ProductSearchIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index over product names, held in memory.
+ * <p>
+ * Each product gets a slot; each distinct token keeps the products
+ * containing it sorted by name length and slot, and the tokens are kept
+ * sorted so a prefix is a range of them. Products matching more query
+ * tokens exactly rank first, then shorter names, then older products.
+ * <p>
+ * A query is answered from the query token with the fewest postings,
+ * read in rank order: its products are checked against the other query
+ * tokens, and reading stops as soon as no later product can rank into
+ * the requested page. The total is then estimated from the share of
+ * products read so far that matched. The driving token is expanded to
+ * at most {@code max-prefix-expansions} tokens, in alphabetical order,
+ * which bounds the work of very short prefixes; only the best
+ * {@code max-results} matches can be paged through.
+ * <p>
+ * The index is built from the Products table at startup and kept up to
+ * date by the product service. Searches share a read lock; changes take
+ * the write lock for the few postings they touch.
+ */
+@Service
+@Slf4j
+public class InvertedProductSearchIndex implements ProductSearchIndex {
+    private static final int MAX_TERMS = 8;
+    /**
+     * About how many postings can be marked in the time it takes to check
+     * one product's tokens, which are scattered over the heap.
+     */
+    private static final int TOKEN_CHECK_COST = 16;
+
+    private final ProductRepository productRepository;
+    private final int maxPrefixExpansions;
+    private final int maxResults;
+    private final int rebuildChunkSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private List<Consumer<State>> changesDuringRebuild;
+    private volatile long lastRebuildMillis;
+    /**
+     * Slot bitsets of each searching thread, one per query term that needs
+     * one, cleared after every search so they need not be allocated per
+     * query. Each takes a bit per product, 125 KB for a million.
+     */
+    private final ThreadLocal<long[][]> slotBitsets = ThreadLocal.withInitial(() -> new long[MAX_TERMS][]);
+
+    public InvertedProductSearchIndex(ProductRepository productRepository,
+                                      @Value("${app.product.search.max-prefix-expansions:64}") int maxPrefixExpansions,
+                                      @Value("${app.product.search.max-results:1000}") int maxResults,
+                                      @Value("${app.product.search.rebuild-chunk-size:10000}") int rebuildChunkSize) {
+        this.productRepository = productRepository;
+        this.maxPrefixExpansions = maxPrefixExpansions;
+        this.maxResults = maxResults;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @PostConstruct
+    void build() {
+        rebuild();
+    }
+
+    @Override
+    public Hits search(String query, int offset, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || offset < 0 || limit <= 0) {
+            return new Hits(List.of(), 0);
+        }
+        int window = (int) Math.min((long) offset + limit, maxResults);
+        lock.readLock().lock();
+        try {
+            State current = state;
+            Term[] terms = new Term[Math.min(words.length, MAX_TERMS)];
+            Term driver = null;
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = current.term(words[i], maxPrefixExpansions);
+                if (terms[i].postings == 0) {
+                    return new Hits(List.of(), 0);
+                }
+                if (driver == null || terms[i].postings < driver.postings) {
+                    driver = terms[i];
+                }
+            }
+            long[][] bitsets = slotBitsets.get();
+            try {
+                int otherBest = 0;
+                for (int i = 0; i < terms.length; i++) {
+                    Term term = terms[i];
+                    if (term == driver) {
+                        continue;
+                    }
+                    otherBest += term.bestScore();
+                    List<Postings> marked = null;
+                    if (term.complete && term.postings < driver.postings * term.expansions.length) {
+                        marked = List.of(term.expansions);
+                    } else if (!term.complete) {
+                        marked = current.expansions(term.word, driver.postings * TOKEN_CHECK_COST);
+                    }
+                    if (marked != null) {
+                        if (bitsets[i] == null || bitsets[i].length < (current.slots + 63) >>> 6) {
+                            bitsets[i] = new long[(current.slots + 63) >>> 6];
+                        }
+                        term.markSlots(marked, bitsets[i]);
+                    }
+                }
+
+                Matches matches = new Matches(window);
+                boolean complete = true;
+                int from = 0;
+                if (driver.exact) {
+                    // products with the exact token outrank those with longer tokens
+                    complete = collect(current, terms, driver, 0, 1, 2, otherBest, matches);
+                    from = 1;
+                }
+                if (complete) {
+                    complete = collect(current, terms, driver, from, driver.expansions.length, 1, otherBest, matches);
+                }
+                return matches.hits(current, offset, complete ? matches.matched : matches.estimateTotal(driver.postings));
+            } finally {
+                for (Term term : terms) {
+                    term.clearSlots();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAfterCommit(Long productId, String name) {
+        afterCommit(index -> index.put(productId, name));
+    }
+
+    @Override
+    public void putAllAfterCommit(Map<Long, String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        Map<Long, String> copy = new LinkedHashMap<>(names);
+        afterCommit(index -> index.putAll(copy));
+    }
+
+    @Override
+    public void removeAfterCommit(Long productId) {
+        afterCommit(index -> index.remove(productId));
+    }
+
+    /**
+     * Builds a new index beside the one in use and swaps it in. Changes
+     * committed while it is built are applied to both.
+     */
+    @Override
+    public synchronized long rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        State rebuilt = new State();
+        try {
+            long lastId = 0;
+            List<ProductResponseDto> chunk;
+            do {
+                chunk = productRepository.findDtosAfter(lastId, Limit.of(rebuildChunkSize));
+                for (ProductResponseDto product : chunk) {
+                    rebuilt.append(product.getId(), product.getName());
+                    lastId = product.getId();
+                }
+            } while (chunk.size() == rebuildChunkSize);
+            rebuilt.sortPostings();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Product search index built: {} products, {} tokens in {} ms",
+                rebuilt.products, rebuilt.tokens.size(), lastRebuildMillis);
+        return rebuilt.products;
+    }
+
+    @Override
+    public ProductSearchStatsResponseDto stats() {
+        lock.readLock().lock();
+        try {
+            State current = state;
+            return ProductSearchStatsResponseDto.builder()
+                    .products(current.products)
+                    .tokens(current.tokens.size())
+                    .postings(current.postings)
+                    .estimatedBytes(current.estimateBytes())
+                    .lastRebuildMillis(lastRebuildMillis)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void afterCommit(Consumer<State> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the postings of some expansions of the driving term merged in
+     * rank order, and offers every product matching all terms.
+     *
+     * @param driverScore score of the driving term for the products read here
+     * @param otherBest   highest score the other terms can add
+     * @return false if reading stopped because no later product can enter the window
+     */
+    private static boolean collect(State current, Term[] terms, Term driver, int from, int to,
+                                   int driverScore, int otherBest, Matches matches) {
+        int count = to - from;
+        int[] positions = new int[count];
+        // positions of the other terms in their postings, which share the rank order
+        int[][] cursors = new int[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            cursors[t] = new int[terms[t].expansions.length];
+        }
+        // binary min-heap of expansion indexes, ordered by their next rank key
+        int[] heap = new int[count];
+        int heapSize = 0;
+        long previous = -1;
+        Postings exact = driver.expansions[0];
+        for (int i = 0; i < count; i++) {
+            heap[heapSize++] = i;
+            siftUp(heap, heapSize - 1, driver, from, positions);
+        }
+        while (heapSize > 0) {
+            int expansion = heap[0];
+            Postings postings = driver.expansions[from + expansion];
+            long rank = postings.keys[positions[expansion]];
+            if (matches.settled(scoreRank(driverScore + otherBest, rank))) {
+                return false;
+            }
+            if (++positions[expansion] == postings.size) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, driver, from, positions);
+
+            // a product with several tokens of the prefix comes once from each, one after the other
+            if (rank == previous || (from > 0 && driver.exact && exact.contains(rank))) {
+                continue;
+            }
+            previous = rank;
+            matches.read++;
+            int score = score(current, rank, terms, driver, cursors);
+            if (score >= 0) {
+                matches.offer(scoreRank(driverScore + score, rank));
+            }
+        }
+        return true;
+    }
+
+    private static long nextKey(Term driver, int from, int[] positions, int expansion) {
+        return driver.expansions[from + expansion].keys[positions[expansion]];
+    }
+
+    private static void siftUp(int[] heap, int i, Term driver, int from, int[] positions) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (nextKey(driver, from, positions, heap[parent]) <= nextKey(driver, from, positions, heap[i])) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, Term driver, int from, int[] positions) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                if (nextKey(driver, from, positions, heap[child]) < nextKey(driver, from, positions, heap[smallest])) {
+                    smallest = child;
+                }
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    /**
+     * Splits text into distinct lower-case tokens of letters and digits.
+     */
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> tokens = new ArrayList<>(4);
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean tokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Scores the terms other than the driving one for a product: 2 for
+     * each term equal to a token and 1 for each term that is only a prefix
+     * of one, or -1 if a term matches no token.
+     * <p>
+     * A term with marked slots is looked up in them. Otherwise it is looked
+     * up in the postings of its expansions, moving forward from where the
+     * previous product was found. Only a term with too many expansions to
+     * mark is checked against the product's tokens instead.
+     */
+    private static int score(State current, long rank, Term[] terms, Term driver, int[][] cursors) {
+        int score = 0;
+        for (int t = 0; t < terms.length; t++) {
+            Term term = terms[t];
+            if (term == driver) {
+                continue;
+            }
+            int best = 0;
+            if (term.slots != null) {
+                int slot = (int) rank;
+                if ((term.slots[slot >>> 6] & (1L << slot)) != 0) {
+                    best = term.exact && term.expansions[0].contains(rank) ? 2 : 1;
+                }
+            } else if (term.complete) {
+                for (int e = 0; best == 0 && e < term.expansions.length; e++) {
+                    if (seek(term.expansions[e], cursors[t], e, rank)) {
+                        best = e == 0 && term.exact ? 2 : 1;
+                    }
+                }
+            } else {
+                String[] tokens = current.slotTokens[(int) rank];
+                best = term.exact && contains(tokens, term.expansions[0].token) ? 2 : 0;
+                for (int i = 0; best == 0 && i < tokens.length; i++) {
+                    if (tokens[i].startsWith(term.word)) {
+                        best = 1;
+                    }
+                }
+            }
+            if (best == 0) {
+                return -1;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Moves a cursor to the first rank key not below the given one, by
+     * galloping then binary search, and tells whether the key is there.
+     */
+    private static boolean seek(Postings postings, int[] cursor, int index, long rank) {
+        long[] keys = postings.keys;
+        int size = postings.size;
+        int at = cursor[index];
+        if (at < size && keys[at] < rank) {
+            int low = at;
+            int step = 1;
+            while (low + step < size && keys[low + step] < rank) {
+                low += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(keys, low + 1, Math.min(low + step + 1, size), rank);
+            at = found >= 0 ? found : -found - 1;
+            cursor[index] = at;
+        }
+        return at < size && keys[at] == rank;
+    }
+
+    /**
+     * Whether the tokens include a token, compared by reference since
+     * tokens are shared.
+     */
+    private static boolean contains(String[] tokens, String token) {
+        for (String candidate : tokens) {
+            if (candidate == token) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts the score above a rank key, so that the result sorts best first.
+     */
+    private static long scoreRank(int score, long rank) {
+        return ((long) (2 * MAX_TERMS - score) << 48) | rank;
+    }
+
+    private static long rank(int nameLength, int slot) {
+        return ((long) Math.min(nameLength, 0xFFFF) << 32) | slot;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * A query word with the tokens it expands to.
+     */
+    private static final class Term {
+        private final String word;
+        private final Postings[] expansions;
+        private final boolean exact;
+        private final boolean complete;
+        private final long postings;
+
+        /**
+         * Set bits of the slots of the products this term matches. Marked
+         * when reading all its postings once costs less than looking up
+         * every product of the driving term in each of its expansions, or
+         * in its tokens.
+         */
+        private long[] slots;
+        private List<Postings> marked;
+
+        Term(String word, Postings[] expansions, boolean complete) {
+            this.word = word;
+            this.expansions = expansions;
+            this.complete = complete;
+            this.exact = expansions.length > 0 && expansions[0].token.equals(word);
+            this.postings = Arrays.stream(expansions).mapToLong(expansion -> expansion.size).sum();
+        }
+
+        int bestScore() {
+            return exact ? 2 : 1;
+        }
+
+        void markSlots(List<Postings> all, long[] bitset) {
+            slots = bitset;
+            marked = all;
+            for (Postings expansion : all) {
+                for (int i = 0; i < expansion.size; i++) {
+                    int slot = (int) expansion.keys[i];
+                    slots[slot >>> 6] |= 1L << slot;
+                }
+            }
+        }
+
+        /**
+         * Zeroes the marked slots again, leaving the bitset clean for the
+         * next search.
+         */
+        void clearSlots() {
+            if (slots == null) {
+                return;
+            }
+            for (Postings expansion : marked) {
+                for (int i = 0; i < expansion.size; i++) {
+                    slots[(int) expansion.keys[i] >>> 6] = 0;
+                }
+            }
+            slots = null;
+            marked = null;
+        }
+    }
+
+    /**
+     * The best matches of a search so far, kept sorted, and how many
+     * products were read and matched.
+     */
+    private static final class Matches {
+        private final long[] best;
+        private int found;
+        private int read;
+        private int matched;
+
+        Matches(int window) {
+            this.best = new long[window];
+        }
+
+        void offer(long key) {
+            matched++;
+            if (found == best.length) {
+                if (key >= best[found - 1]) {
+                    return;
+                }
+                found--;
+            }
+            int i = found;
+            while (i > 0 && best[i - 1] > key) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = key;
+            found++;
+        }
+
+        /**
+         * Whether the window is full and no product ranked at or below
+         * the given key could enter it.
+         */
+        boolean settled(long bestPossible) {
+            return found == best.length && bestPossible >= best[found - 1];
+        }
+
+        /**
+         * Extrapolates the matches read to all postings of the driving term.
+         */
+        int estimateTotal(long postings) {
+            return (int) Math.max(matched, Math.min(Integer.MAX_VALUE, matched * postings / Math.max(read, 1)));
+        }
+
+        Hits hits(State current, int offset, int total) {
+            List<Long> productIds = new ArrayList<>(Math.max(found - offset, 0));
+            for (int i = offset; i < found; i++) {
+                productIds.add(current.ids[(int) best[i]]);
+            }
+            return new Hits(productIds, total);
+        }
+    }
+
+    /**
+     * The index data. Only accessed under the lock, except while a
+     * rebuild fills a new one no one else can see yet.
+     */
+    private static final class State {
+        private final TreeMap<String, Postings> tokens = new TreeMap<>();
+        private final SlotMap slotsById = new SlotMap();
+        private long[] ids = new long[1024];
+        private String[][] slotTokens = new String[1024][];
+        private int[] nameLengths = new int[1024];
+        private int slots;
+        private long products;
+        private long postings;
+
+        /**
+         * Adds a product during a rebuild, leaving postings unsorted until
+         * {@link #sortPostings()}.
+         */
+        void append(long id, String name) {
+            index(allocate(id), name, null);
+        }
+
+        void sortPostings() {
+            tokens.values().forEach(Postings::sort);
+        }
+
+        void put(long id, String name) {
+            putAll(Map.of(id, name));
+        }
+
+        /**
+         * Puts several products at once. Postings lose the old ranks in one
+         * pass each and take the new ones in one merge each, where inserting
+         * them one by one would shift a long postings array for every product.
+         */
+        void putAll(Map<Long, String> names) {
+            int[] slotsOfNames = new int[names.size()];
+            Map<Postings, Postings> removed = new HashMap<>();
+            int n = 0;
+            for (Long id : names.keySet()) {
+                int slot = slotsById.get(id);
+                if (slot < 0) {
+                    slot = allocate(id);
+                } else if (slotTokens[slot] != null) {
+                    long rank = rank(nameLengths[slot], slot);
+                    for (String token : slotTokens[slot]) {
+                        removed.computeIfAbsent(tokens.get(token), p -> new Postings(p.token)).append(rank);
+                    }
+                    postings -= slotTokens[slot].length;
+                    slotTokens[slot] = null;
+                    products--;
+                }
+                slotsOfNames[n++] = slot;
+            }
+            removed.forEach((tokenPostings, ranks) -> {
+                ranks.sort();
+                tokenPostings.removeAll(ranks);
+            });
+
+            Map<Postings, Integer> sortedSizes = new HashMap<>();
+            n = 0;
+            for (String name : names.values()) {
+                index(slotsOfNames[n++], name, sortedSizes);
+            }
+            sortedSizes.forEach(Postings::mergeAppended);
+            // tokens emptied above and not taken again
+            for (Postings tokenPostings : removed.keySet()) {
+                if (tokenPostings.size == 0) {
+                    tokens.remove(tokenPostings.token);
+                }
+            }
+        }
+
+        void remove(long id) {
+            int slot = slotsById.get(id);
+            if (slot < 0 || slotTokens[slot] == null) {
+                return;
+            }
+            removeTokens(slot);
+            slotTokens[slot] = null;
+            products--;
+        }
+
+        Term term(String word, int maxExpansions) {
+            List<Postings> expansions = new ArrayList<>();
+            boolean complete = true;
+            for (Map.Entry<String, Postings> entry : tokens.tailMap(word, true).entrySet()) {
+                if (!entry.getKey().startsWith(word)) {
+                    break;
+                }
+                if (expansions.size() == maxExpansions) {
+                    complete = false;
+                    break;
+                }
+                expansions.add(entry.getValue());
+            }
+            return new Term(word, expansions.toArray(new Postings[0]), complete);
+        }
+
+        /**
+         * All tokens starting with a word, or null if they have more than
+         * the given number of postings.
+         */
+        List<Postings> expansions(String word, long maxPostings) {
+            List<Postings> expansions = new ArrayList<>();
+            long postings = 0;
+            for (Map.Entry<String, Postings> entry : tokens.tailMap(word, true).entrySet()) {
+                if (!entry.getKey().startsWith(word)) {
+                    break;
+                }
+                postings += entry.getValue().size;
+                if (postings > maxPostings) {
+                    return null;
+                }
+                expansions.add(entry.getValue());
+            }
+            return expansions;
+        }
+
+        long estimateBytes() {
+            long bytes = (long) ids.length * (8 + 4 + 4) + slotsById.estimateBytes();
+            for (int slot = 0; slot < slots; slot++) {
+                if (slotTokens[slot] != null) {
+                    bytes += align(16 + 4L * slotTokens[slot].length);
+                }
+            }
+            for (Postings tokenPostings : tokens.values()) {
+                // tree entry, postings, key array, token string and its bytes
+                bytes += 40 + 24 + align(16 + 8L * tokenPostings.keys.length)
+                        + 24 + align(16 + tokenPostings.token.length());
+            }
+            return bytes;
+        }
+
+        /**
+         * Appends the product's rank to the postings of its tokens. When
+         * given, {@code sortedSizes} records the size of each postings
+         * before its first appended rank, for {@link Postings#mergeAppended};
+         * a rebuild sorts all postings at the end instead.
+         */
+        private void index(int slot, String name, Map<Postings, Integer> sortedSizes) {
+            String[] nameTokens = tokenize(name);
+            nameLengths[slot] = name.length();
+            long rank = rank(name.length(), slot);
+            for (int i = 0; i < nameTokens.length; i++) {
+                Postings tokenPostings = tokens.computeIfAbsent(nameTokens[i], Postings::new);
+                if (sortedSizes != null) {
+                    sortedSizes.putIfAbsent(tokenPostings, tokenPostings.size);
+                }
+                tokenPostings.append(rank);
+                // share one String per distinct token
+                nameTokens[i] = tokenPostings.token;
+            }
+            postings += nameTokens.length;
+            slotTokens[slot] = nameTokens;
+            products++;
+        }
+
+        private int allocate(long id) {
+            if (slots == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                slotTokens = Arrays.copyOf(slotTokens, capacity);
+                nameLengths = Arrays.copyOf(nameLengths, capacity);
+            }
+            ids[slots] = id;
+            slotsById.put(id, slots);
+            return slots++;
+        }
+
+        private void removeTokens(int slot) {
+            long rank = rank(nameLengths[slot], slot);
+            for (String token : slotTokens[slot]) {
+                Postings tokenPostings = tokens.get(token);
+                tokenPostings.remove(rank);
+                if (tokenPostings.size == 0) {
+                    tokens.remove(token);
+                }
+            }
+            postings -= slotTokens[slot].length;
+        }
+    }
+
+    /**
+     * Rank keys of the products containing a token: name length in the
+     * high half, slot in the low half, sorted.
+     */
+    private static final class Postings {
+        private final String token;
+        private long[] keys = new long[1];
+        private int size;
+
+        Postings(String token) {
+            this.token = token;
+        }
+
+        void append(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size < 8 ? size + 2 : size + (size >> 1));
+            }
+            keys[size++] = key;
+        }
+
+        /**
+         * Removes sorted keys in one pass over the keys from the first one
+         * removed.
+         */
+        void removeAll(Postings removed) {
+            if (removed.size == 0) {
+                return;
+            }
+            int first = Arrays.binarySearch(keys, 0, size, removed.keys[0]);
+            int kept = first < 0 ? -first - 1 : first;
+            int r = 0;
+            for (int i = kept; i < size; i++) {
+                long key = keys[i];
+                while (r < removed.size && removed.keys[r] < key) {
+                    r++;
+                }
+                if (r == removed.size || removed.keys[r] != key) {
+                    keys[kept++] = key;
+                }
+            }
+            size = kept;
+        }
+
+        /**
+         * Sorts the keys appended after the first {@code sortedSize} ones
+         * and merges them into those.
+         */
+        void mergeAppended(int sortedSize) {
+            if (sortedSize == size) {
+                return;
+            }
+            Arrays.sort(keys, sortedSize, size);
+            if (sortedSize == 0 || keys[sortedSize - 1] < keys[sortedSize]) {
+                return;
+            }
+            long[] appended = Arrays.copyOfRange(keys, sortedSize, size);
+            int i = sortedSize - 1;
+            int j = appended.length - 1;
+            for (int to = size - 1; j >= 0; to--) {
+                keys[to] = i >= 0 && keys[i] > appended[j] ? keys[i--] : appended[j--];
+            }
+        }
+
+        boolean contains(long key) {
+            return Arrays.binarySearch(keys, 0, size, key) >= 0;
+        }
+
+        void remove(long key) {
+            int at = Arrays.binarySearch(keys, 0, size, key);
+            if (at >= 0) {
+                System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+                size--;
+            }
+        }
+
+        void sort() {
+            Arrays.sort(keys, 0, size);
+        }
+    }
+
+    /**
+     * Open-addressing map from product ID to slot, without boxing.
+     */
+    private static final class SlotMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private long[] keys = emptyKeys(1024);
+        private int[] values = new int[1024];
+        private int size;
+
+        int get(long id) {
+            int mask = keys.length - 1;
+            for (int i = index(id, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    return values[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long id, int slot) {
+            if ((size + 1) * 2 > keys.length) {
+                long[] oldKeys = keys;
+                int[] oldValues = values;
+                keys = emptyKeys(oldKeys.length * 2);
+                values = new int[oldKeys.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        put(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            int mask = keys.length - 1;
+            int i = index(id, mask);
+            while (keys[i] != EMPTY && keys[i] != id) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = id;
+            values[i] = slot;
+        }
+
+        long estimateBytes() {
+            return (long) keys.length * (8 + 4);
+        }
+
+        private static int index(long id, int mask) {
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        private static long[] emptyKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.BatchOrderResponseDto;
+import com.example.ecom.dto.responseDto.BatchOrderResultDto;
+import com.example.ecom.dto.responseDto.OrderIntakeResponseDto;
+import com.example.ecom.exception.IntakeQueueFullException;
+import com.example.ecom.exception.ResourceNotFoundException;
+import com.example.ecom.service.OrderIntakeService;
+import com.example.ecom.service.OrderService;
+import com.example.ecom.util.OrderIntakeStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service implementation for asynchronous order intake with group commit.
+ * <p>
+ * Submitted orders go into a bounded queue; when it is full the caller
+ * is turned away instead of piling up threads. A small pool of writer
+ * threads drains the queue in micro-batches and creates each batch with
+ * {@link OrderService#createOrders}, committing many orders per
+ * transaction. Outcomes are kept for a retention period so clients can
+ * poll them by tracking ID.
+ * <p>
+ * The queue and the outcomes live in memory only. A graceful shutdown
+ * writes the orders already queued, but orders accepted with 202 and
+ * not yet written are lost if the process dies, and their tracking IDs
+ * are unknown after a restart. Clients that cannot accept that must use
+ * the synchronous endpoint with an Idempotency-Key.
+ */
+@Service
+@Slf4j
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+    private final OrderService orderService;
+    private final BlockingQueue<PendingOrder> queue;
+    private final int writers;
+    private final int batchSize;
+    private final Duration retention;
+
+    private final Map<String, TrackedOrder> tracked = new ConcurrentHashMap<>();
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public OrderIntakeServiceImpl(OrderService orderService,
+                                  @Value("${app.order.intake.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${app.order.intake.writers:2}") int writers,
+                                  @Value("${app.order.intake.batch-size:100}") int batchSize,
+                                  @Value("${app.order.intake.retention-minutes:60}") long retentionMinutes) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writers = writers;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Starts the writer threads.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            Thread writer = new Thread(this::drain, "order-intake-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writerThreads.add(writer);
+        }
+    }
+
+    /**
+     * Stops the writers once the orders already queued are written.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writerThreads) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    @Override
+    public OrderIntakeResponseDto submit(OrderRequestDto orderRequestDto) {
+        String trackingId = UUID.randomUUID().toString();
+        OrderIntakeResponseDto queued = OrderIntakeResponseDto.builder()
+                .trackingId(trackingId)
+                .status(OrderIntakeStatus.QUEUED)
+                .build();
+        tracked.put(trackingId, new TrackedOrder(queued, null));
+        if (!queue.offer(new PendingOrder(trackingId, orderRequestDto))) {
+            tracked.remove(trackingId);
+            log.warn("Order intake queue full, rejecting order for customer id: {}",
+                    orderRequestDto.getCustomerId());
+            throw new IntakeQueueFullException("Order intake queue is full, retry later");
+        }
+        log.debug("Queued order {} for customer id: {}", trackingId, orderRequestDto.getCustomerId());
+        return queued;
+    }
+
+    @Override
+    public OrderIntakeResponseDto getStatus(String trackingId) {
+        TrackedOrder order = tracked.get(trackingId);
+        if (order == null) {
+            throw new ResourceNotFoundException("No queued order with tracking id: " + trackingId);
+        }
+        return order.state();
+    }
+
+    /**
+     * Forgets outcomes older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${app.order.intake.purge-interval-ms:60000}")
+    public void purgeCompleted() {
+        Instant cutoff = Instant.now().minus(retention);
+        tracked.values().removeIf(order -> order.completedAt() != null && order.completedAt().isBefore(cutoff));
+    }
+
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Order intake writer failed", ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Creates one micro-batch of orders in a single transaction.
+     * If the batch as a whole fails, each order is retried on its
+     * own so one failure cannot reject its neighbours.
+     */
+    private void write(List<PendingOrder> batch) {
+        try {
+            record(batch, orderService.createOrders(batch.stream().map(PendingOrder::request).toList()));
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                complete(batch.get(0), BatchOrderResultDto.builder()
+                        .status(OrderIntakeStatus.REJECTED)
+                        .errors(List.of(String.valueOf(ex.getMessage())))
+                        .build());
+                return;
+            }
+            log.warn("Batch of {} queued orders failed, retrying one by one", batch.size(), ex);
+            for (PendingOrder order : batch) {
+                write(List.of(order));
+            }
+        }
+    }
+
+    private void record(List<PendingOrder> batch, BatchOrderResponseDto response) {
+        for (BatchOrderResultDto result : response.getResults()) {
+            complete(batch.get(result.getIndex()), result);
+        }
+        log.info("Wrote batch of {} queued orders: {} created, {} rejected",
+                batch.size(), response.getCreated(), response.getRejected());
+    }
+
+    private void complete(PendingOrder order, BatchOrderResultDto result) {
+        tracked.put(order.trackingId(), new TrackedOrder(OrderIntakeResponseDto.builder()
+                .trackingId(order.trackingId())
+                .status(result.getStatus())
+                .orderId(result.getOrderId())
+                .totalAmount(result.getTotalAmount())
+                .errors(result.getErrors())
+                .build(), Instant.now()));
+    }
+
+    private record PendingOrder(String trackingId, OrderRequestDto request) {
+    }
+
+    private record TrackedOrder(OrderIntakeResponseDto state, Instant completedAt) {
+    }
+}
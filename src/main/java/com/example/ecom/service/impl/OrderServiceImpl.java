@@ -1,5 +1,10 @@
 package com.example.ecom.service.impl;
 
+import com.example.ecom.dto.requestDto.OrderItemRequestDto;
+import com.example.ecom.dto.responseDto.BatchOrderResponseDto;
+import com.example.ecom.dto.responseDto.BatchOrderResultDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.OrderLineDto;
 import com.example.ecom.dto.responseDto.OrderItemResponseDto;
 import com.example.ecom.dto.requestDto.OrderRequestDto;
 import com.example.ecom.dto.responseDto.OrderResponseDto;
@@ -12,21 +17,53 @@ import com.example.ecom.exception.InvalidOrderStatusTransitionException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.OrderItemMapper;
 import com.example.ecom.mapper.OrderMapper;
+import com.example.ecom.mapper.ProductMapper;
 import com.example.ecom.repository.CustomerRepository;
 import com.example.ecom.repository.OrderRepository;
 import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.InventoryService;
 import com.example.ecom.service.OrderService;
+import com.example.ecom.service.OrderSummaryService;
+import com.example.ecom.service.OutboxService;
+import com.example.ecom.service.ProductCache;
+import com.example.ecom.service.ReservationExpiryService;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.OrderIntakeStatus;
 import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.Versioned;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.example.ecom.util.OrderStatus.*;
 
@@ -48,6 +85,15 @@ public class OrderServiceImpl implements OrderService {
     private final ProductRepository productRepository;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
+    private final ProductMapper productMapper;
+    private final ProductCache productCache;
+    private final InventoryService inventoryService;
+    private final ReservationExpiryService reservationExpiryService;
+    private final OrderSummaryService orderSummaryService;
+    private final OutboxService outboxService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
 
 
 
@@ -57,11 +103,13 @@ public class OrderServiceImpl implements OrderService {
      * <p>
      * Validates customer existence, product availability,
      * reduces product stock, and persists the order.
+     * Lines for the same product are merged and all products
+     * are read from the product cache.
      *
      * @param orderRequestDto order request payload
      * @return created order response DTO
      * @throws ResourceNotFoundException if customer or product not found
-     * @throws RuntimeException          if insufficient stock
+     * @throws InsufficientStockException if insufficient stock
      */
     @Override
     @Transactional
@@ -82,58 +130,132 @@ public class OrderServiceImpl implements OrderService {
 //                .build();
 
         order.setCustomer(customer);
-        order.setStatus(CREATED);
 
-        List<OrderItem> orderItems = orderRequestDto.getItems()
-                .stream()
-                .map(itemDto -> {
-                    Product product = productRepository.findById(itemDto.getProductId())
-                            .orElseThrow(() ->{
-                                log.error("Product not found with id: {}", itemDto.getProductId());
-                                return new ResourceNotFoundException("Product not with id: " + itemDto.getProductId());
-                            });
-
-                    if (product.getStock() < itemDto.getQuantity()) {
-                        log.error("Insufficient stock for product: {}, Available: {}, Requested: {}",
-                                product.getName(), product.getStock(), itemDto.getQuantity());
-                        throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-                    }
-
-                    //reduce stock
-                    log.debug("Reducing stock for product: {}. Old stock: {}, Quantity ordered: {}",
-                            product.getName(), product.getStock(), itemDto.getQuantity());
-                    product.setStock(product.getStock() - itemDto.getQuantity());
-
-                    OrderItem orderItem = orderItemMapper.toEntity(itemDto);
-
-                    orderItem.setOrder(order);
-                    orderItem.setProduct(product);
-                    orderItem.setPrice(product.getPrice());
-
-                    return orderItem;
-                })
-//                    return OrderItem.builder()
-//                            .order(order)
-//                            .product(product)
-//                            .quantity(itemDto.getQuantity())
-//                            .price(product.getPrice())
-//                            .build();
-//                })
-                .collect(Collectors.toList());
-        order.setItems(orderItems);
-        double totalAmount = orderItems.stream()
-                .mapToDouble(item -> item.getPrice() * item.getQuantity())
-                .sum();
+        Map<Long, Integer> quantities = mergeQuantities(orderRequestDto.getItems());
+        Map<Long, Product> products = resolveProducts(quantities);
+        reserveStock(quantities, products);
+
+        populateOrder(order, quantities, products);
 
-        order.setTotalAmount(totalAmount);
         Order savedOrder = orderRepository.save(order);
         log.info("Order created successfully with id: {}", savedOrder.getId());
-        return orderMapper.toDto(savedOrder);
+        OrderResponseDto created = orderMapper.toDto(savedOrder);
+        orderSummaryService.saveAll(List.of(created));
+        outboxService.recordOrderEvents(List.of(orderMapper.toEvent(savedOrder)));
+        return created;
 
     }
 
     /**
-     * Retrieves an order by its ID.
+     * Creates many orders in one transaction.
+     * <p>
+     * Orders are validated one by one, but customers and products are
+     * loaded once for the whole batch and stock is first allocated
+     * against that snapshot and reserved per product in one step. If
+     * stock moved in between, reservation falls back to one order at a
+     * time. Invalid or unfulfillable orders are rejected without
+     * affecting the rest of the batch.
+     *
+     * @param orderRequestDtos order request payloads
+     * @return outcome of every order, in request order
+     */
+    @Override
+    @Transactional
+    public BatchOrderResponseDto createOrders(List<OrderRequestDto> orderRequestDtos) {
+        log.info("Creating batch of {} orders", orderRequestDtos.size());
+        BatchOrderResultDto[] results = new BatchOrderResultDto[orderRequestDtos.size()];
+
+        List<BatchLine> lines = new ArrayList<>(orderRequestDtos.size());
+        for (int index = 0; index < orderRequestDtos.size(); index++) {
+            OrderRequestDto request = orderRequestDtos.get(index);
+            List<String> errors = validate(request);
+            if (errors.isEmpty()) {
+                lines.add(new BatchLine(index, request, mergeQuantities(request.getItems())));
+            } else {
+                results[index] = rejected(index, errors);
+            }
+        }
+
+        Map<Long, Customer> customers = customerRepository.findAllById(lines.stream()
+                        .map(line -> line.request().getCustomerId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, Product> products = productRepository.findAllById(lines.stream()
+                        .flatMap(line -> line.quantities().keySet().stream())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, Integer> remaining = new HashMap<>();
+        products.values().forEach(product -> remaining.put(product.getId(), product.getStock()));
+        Map<Long, Integer> demand = new HashMap<>();
+        List<BatchLine> accepted = new ArrayList<>(lines.size());
+        for (BatchLine line : lines) {
+            List<String> errors = checkLine(line, customers, products, remaining);
+            if (errors.isEmpty()) {
+                line.quantities().forEach((productId, quantity) -> {
+                    remaining.merge(productId, -quantity, Integer::sum);
+                    demand.merge(productId, quantity, Integer::sum);
+                });
+                accepted.add(line);
+            } else {
+                results[line.index()] = rejected(line.index(), errors);
+            }
+        }
+
+        if (!inventoryService.reserve(demand).isEmpty()) {
+            log.debug("Batch reservation failed, reserving {} orders one by one", accepted.size());
+            List<BatchLine> reserved = new ArrayList<>(accepted.size());
+            for (BatchLine line : accepted) {
+                if (inventoryService.reserve(line.quantities()).isEmpty()) {
+                    reserved.add(line);
+                } else {
+                    String names = line.quantities().keySet().stream()
+                            .map(productId -> products.get(productId).getName())
+                            .collect(Collectors.joining(", "));
+                    results[line.index()] = rejected(line.index(),
+                            List.of("Insufficient stock for products: " + names));
+                }
+            }
+            accepted = reserved;
+        }
+
+        List<Order> orders = new ArrayList<>(accepted.size());
+        for (BatchLine line : accepted) {
+            Order order = orderMapper.toEntity(line.request());
+            order.setCustomer(customers.get(line.request().getCustomerId()));
+            populateOrder(order, line.quantities(), products);
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+        if (orderSummaryService.isEnabled()) {
+            orderSummaryService.saveAll(orders.stream().map(orderMapper::toDto).toList());
+        }
+        outboxService.recordOrderEvents(orders.stream().map(orderMapper::toEvent).toList());
+
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i).index();
+            Order order = orders.get(i);
+            results[index] = BatchOrderResultDto.builder()
+                    .index(index)
+                    .status(OrderIntakeStatus.CREATED)
+                    .orderId(order.getId())
+                    .totalAmount(order.getTotalAmount())
+                    .build();
+        }
+        log.info("Batch created {} orders, rejected {}",
+                orders.size(), orderRequestDtos.size() - orders.size());
+        return BatchOrderResponseDto.builder()
+                .created(orders.size())
+                .rejected(orderRequestDtos.size() - orders.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Retrieves an order by its ID, from the order read model
+     * when it is enabled and holds the order.
      *
      * @param id order ID
      * @return order response DTO
@@ -144,42 +266,249 @@ public class OrderServiceImpl implements OrderService {
     @Transactional
     public OrderResponseDto getOrderById(Long id) {
         log.info("Fetching order with id: {}", id);
-        Order order = orderRepository.findById(id)
+        Optional<OrderResponseDto> summary = orderSummaryService.find(id);
+        if (summary.isPresent()) {
+            return summary.get();
+        }
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> {log.error("Order not found with id: {}", id);
                    return new ResourceNotFoundException("Order not found with id: " + id);
                 });
         return orderMapper.toDto(order);
     }
 
+    /**
+     * Looks up the order version and the names of its products with one
+     * query. Served from the read model, the items keep the names the
+     * products had when the order was placed, so a rename changes the tag
+     * without changing the body; the client then just gets a full response.
+     *
+     * @param id order ID
+     * @return the order, tagged
+     * @throws ResourceNotFoundException if the order does not exist
+     */
+    @Override
+    public Versioned<OrderResponseDto> getVersionedOrder(Long id) {
+        List<OrderRepository.OrderVersion> versions = orderRepository.findVersions(List.of(id));
+        if (versions.isEmpty()) {
+            log.error("Order not found with id: {}", id);
+            throw new ResourceNotFoundException("Order not found with id: " + id);
+        }
+        return Versioned.ofDigest(versionState(versions), () -> getOrderById(id));
+    }
+
     /**
      * Retrieves all orders from the database.
+     * <p>
+     * Selects the IDs of the page first, then loads those orders with
+     * their items and products in one query.
      *
      * @return list of order response DTOs
      */
     @Override
     public Page<OrderResponseDto> getAllOrders(int page, int size) {
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
         log.debug("Fetching orders with page: {}, size: {}", page, size);
-        Page<Order> orderPage = orderRepository.findAll(pageable);
+        return toOrderPage(orderRepository.findIds(pageable));
+    }
+
+    /**
+     * Selects the IDs of the page, then their versions and product names;
+     * the orders themselves are loaded only if the body is needed.
+     *
+     * @param page page number, from 0
+     * @param size page size
+     * @return page of orders, tagged
+     */
+    @Override
+    public Versioned<Page<OrderResponseDto>> getVersionedOrders(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+        log.debug("Fetching order versions with page: {}, size: {}", page, size);
+        Page<Long> idPage = orderRepository.findIds(pageable);
+        String versions = idPage.isEmpty() ? "" : versionState(orderRepository.findVersions(idPage.getContent()));
+        return Versioned.ofDigest(idPage.getTotalElements() + "\n" + versions, () -> toOrderPage(idPage));
+    }
+
+    private Page<OrderResponseDto> toOrderPage(Page<Long> idPage) {
+        Map<Long, OrderResponseDto> orders = findOrders(idPage.getContent());
+        return idPage.map(orders::get);
+    }
+
+    /**
+     * Lists the ID, version and product names of orders, which is all of
+     * an order response that can change once the order exists.
+     */
+    private static String versionState(List<OrderRepository.OrderVersion> versions) {
+        StringBuilder state = new StringBuilder();
+        for (OrderRepository.OrderVersion version : versions) {
+            state.append(version.getId()).append(':').append(version.getVersion())
+                    .append(':').append(version.getProductName()).append('\n');
+        }
+        return state.toString();
+    }
+
+    /**
+     * Retrieves the orders following a cursor.
+     * <p>
+     * Reads one ID more than the page size to know whether another page
+     * follows, then loads the orders of the page with their items and
+     * products in one query.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size, limited to {@link CursorPagination#MAX_SIZE}
+     * @return page of orders with the cursor of the next page
+     */
+    @Override
+    public CursorPageResponseDto<OrderResponseDto> getOrdersAfter(String after, int size) {
+        int limit = CursorPagination.limit(size);
+        log.debug("Fetching orders after cursor: {}, size: {}", after, limit);
+        List<Long> ids = orderRepository.findIdsAfter(CursorPagination.decode(after), Limit.of(limit + 1));
+        Map<Long, OrderResponseDto> orders = findOrders(ids.subList(0, Math.min(ids.size(), limit)));
+        return CursorPagination.page(ids, limit, Function.identity(), orders::get);
+    }
 
-        return orderPage.map(orderMapper::toDto);
+    /**
+     * Loads the orders of a page, from the read model where it holds
+     * them and otherwise with their items and products in one query.
+     *
+     * @param ids order IDs
+     * @return orders keyed by ID
+     */
+    private Map<Long, OrderResponseDto> findOrders(List<Long> ids) {
+        Map<Long, OrderResponseDto> orders = new HashMap<>(orderSummaryService.findAll(ids));
+        List<Long> missing = ids.stream()
+                .filter(id -> !orders.containsKey(id))
+                .toList();
+        if (!missing.isEmpty()) {
+            orderRepository.findWithItemsByIdIn(missing)
+                    .forEach(order -> orders.put(order.getId(), orderMapper.toDto(order)));
+        }
+        return orders;
     }
 
 
     /**
-     * Retrieves orders filtered by status.
+     * Streams the orders with the given status as a JSON array.
+     * <p>
+     * Rows are read in a read-only transaction, one per order item, and
+     * each order is written as soon as its last row has been read. Only
+     * the order being assembled is held in memory.
      *
      * @param status order status
-     * @return list of matching orders
+     * @param out    stream to write the JSON array to
+     * @throws IOException if writing to the stream fails
      */
     @Override
-    public List<OrderResponseDto> getOrdersByStatus(OrderStatus status) {
-        log.info("Fetching orders with status: {}", status);
-        return orderRepository.findByStatus(status)
-                .stream()
-                .map(orderMapper::toDto)
-                .collect(Collectors.toList());
+    public void writeOrdersByStatus(OrderStatus status, OutputStream out) throws IOException {
+        log.info("Streaming orders with status: {}", status);
+        ObjectWriter writer = orderWriter();
+        try (JsonGenerator json = createGenerator(out)) {
+            json.writeStartArray();
+            long written = streamOrders(
+                    () -> orderRepository.streamLinesByStatus(status, 0L, Long.MAX_VALUE),
+                    order -> writer.writeValue(json, order));
+            json.writeEndArray();
+            log.info("Streamed {} orders with status: {}", written, status);
+        }
+    }
+
+    /**
+     * Exports orders as newline-delimited JSON, one order per line.
+     * <p>
+     * Reads through the same streaming projection as
+     * {@link #writeOrdersByStatus}, so memory use is constant.
+     *
+     * @param status order status, or null for all statuses
+     * @param fromId lowest order ID to export, inclusive
+     * @param toId   highest order ID to export, inclusive
+     * @param out    stream to write the lines to
+     * @return number of orders exported
+     * @throws IOException if writing to the stream fails
+     */
+    @Override
+    public long exportOrders(OrderStatus status, long fromId, long toId, OutputStream out) throws IOException {
+        log.info("Exporting orders with status: {}, ids {}..{}", status, fromId, toId);
+        ObjectWriter writer = orderWriter();
+        try (JsonGenerator json = createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            long exported = streamOrders(
+                    () -> status == null
+                            ? orderRepository.streamLines(fromId, toId)
+                            : orderRepository.streamLinesByStatus(status, fromId, toId),
+                    order -> {
+                        writer.writeValue(json, order);
+                        json.writeRaw('\n');
+                    });
+            log.info("Exported {} orders", exported);
+            return exported;
+        }
+    }
+
+    private ObjectWriter orderWriter() {
+        return objectMapper.writerFor(OrderResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Runs a streaming order query in a read-only transaction and hands
+     * each assembled order to the sink.
+     *
+     * @param query opens the row stream
+     * @param sink  receives every order
+     * @return number of orders read
+     * @throws IOException if the sink fails to write
+     */
+    private long streamOrders(Supplier<Stream<OrderLineDto>> query, OrderSink sink) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            Long count = readOnly.execute(tx -> {
+                try (Stream<OrderLineDto> lines = query.get()) {
+                    return groupOrders(lines.iterator(), sink);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            return count == null ? 0 : count;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Groups adjacent rows of the same order and passes each order on
+     * once all of its rows have been read.
+     *
+     * @return number of orders passed on
+     */
+    private long groupOrders(Iterator<OrderLineDto> lines, OrderSink sink) throws IOException {
+        long count = 0;
+        OrderResponseDto current = null;
+        while (lines.hasNext()) {
+            OrderLineDto line = lines.next();
+            if (current == null || !current.getOrderId().equals(line.getOrderId())) {
+                if (current != null) {
+                    sink.accept(current);
+                    count++;
+                }
+                current = orderMapper.toDto(line);
+                current.setItems(new ArrayList<>());
+            }
+            if (line.getProductId() != null) {
+                current.getItems().add(orderItemMapper.toDto(line));
+            }
+        }
+        if (current != null) {
+            sink.accept(current);
+            count++;
+        }
+        return count;
     }
 
     /**
@@ -194,9 +523,10 @@ public class OrderServiceImpl implements OrderService {
      * @throws IllegalStateException     if transition is invalid
      */
     @Override
+    @Transactional
     public OrderResponseDto updateOrderStatus(Long id, OrderStatus status) {
         log.info("updating order status.Order id: {}, New status: {}", id, status);
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
         OrderStatus currentStatus = order.getStatus();
         if (!isValidTransition(currentStatus, status)) {
@@ -208,9 +538,173 @@ public class OrderServiceImpl implements OrderService {
                 currentStatus, status, id);
         order.setStatus(status);
         Order updated = orderRepository.save(order);
+        orderSummaryService.updateStatus(List.of(id), currentStatus, status);
+        outboxService.recordOrderEvents(List.of(orderMapper.toEvent(updated)));
         return orderMapper.toDto(updated);
     }
 
+    /**
+     * Fills a new order with its items, total and initial status.
+     *
+     * @param order      order to fill, with customer already set
+     * @param quantities total quantity per product ID, already reserved
+     * @param products   products keyed by ID
+     */
+    private void populateOrder(Order order, Map<Long, Integer> quantities, Map<Long, Product> products) {
+        order.setStatus(CREATED);
+        order.setStockSettled(!inventoryService.isWriteBehind());
+        order.setReservedUntil(reservationExpiryService.reservationDeadline());
+
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+
+            OrderItemRequestDto itemDto = new OrderItemRequestDto();
+            itemDto.setProductId(productId);
+            itemDto.setQuantity(quantity);
+            OrderItem orderItem = orderItemMapper.toEntity(itemDto);
+
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setPrice(product.getPrice());
+            orderItems.add(orderItem);
+        });
+        order.setItems(orderItems);
+        double totalAmount = orderItems.stream()
+                .mapToDouble(item -> item.getPrice() * item.getQuantity())
+                .sum();
+
+        order.setTotalAmount(totalAmount);
+    }
+
+    /**
+     * Runs bean validation on one order of a batch.
+     *
+     * @param request order request payload
+     * @return validation messages, empty if the order is valid
+     */
+    private List<String> validate(OrderRequestDto request) {
+        if (request == null) {
+            return List.of("Order must not be null");
+        }
+        return validator.validate(request)
+                .stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks one order of a batch against the loaded customers and
+     * products and the stock not yet allocated to earlier orders.
+     *
+     * @param line      order being checked
+     * @param customers customers keyed by ID
+     * @param products  products keyed by ID
+     * @param remaining unallocated stock per product ID
+     * @return reasons to reject the order, empty if it can be fulfilled
+     */
+    private List<String> checkLine(BatchLine line, Map<Long, Customer> customers,
+                                   Map<Long, Product> products, Map<Long, Integer> remaining) {
+        Long customerId = line.request().getCustomerId();
+        if (!customers.containsKey(customerId)) {
+            return List.of("Customer not found with id: " + customerId);
+        }
+        List<Long> missing = line.quantities().keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            return List.of("Products not found with ids: " + missing);
+        }
+        List<String> shortages = new ArrayList<>();
+        line.quantities().forEach((productId, quantity) -> {
+            if (remaining.get(productId) < quantity) {
+                shortages.add(products.get(productId).getName() + " (requested: " + quantity + ")");
+            }
+        });
+        if (!shortages.isEmpty()) {
+            return List.of("Insufficient stock for products: " + String.join(", ", shortages));
+        }
+        return List.of();
+    }
+
+    private BatchOrderResultDto rejected(int index, List<String> errors) {
+        return BatchOrderResultDto.builder()
+                .index(index)
+                .status(OrderIntakeStatus.REJECTED)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Merges order lines that reference the same product.
+     * <p>
+     * Keeps the first-seen order of products so the saved items
+     * follow the request.
+     *
+     * @param items order lines from the request
+     * @return total quantity per product ID
+     */
+    private Map<Long, Integer> mergeQuantities(List<OrderItemRequestDto> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequestDto item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Looks up all products of an order in the product cache.
+     * <p>
+     * The products are detached copies of the cached ones: the items only
+     * write their IDs and prices, and stock is taken by the inventory
+     * service, so nothing is loaded into the persistence context.
+     * Every missing product is collected so the client gets one
+     * error listing all of them instead of failing on the first.
+     *
+     * @param quantities total quantity per product ID
+     * @return products keyed by ID
+     * @throws ResourceNotFoundException if any product does not exist
+     */
+    private Map<Long, Product> resolveProducts(Map<Long, Integer> quantities) {
+        Map<Long, Product> products = new HashMap<>();
+        productCache.getAll(quantities.keySet())
+                .forEach((productId, product) -> products.put(productId, productMapper.toEntity(product)));
+
+        List<Long> missing = quantities.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            log.error("Products not found with ids: {}", missing);
+            throw new ResourceNotFoundException("Products not found with ids: " + missing);
+        }
+        return products;
+    }
+
+    /**
+     * Takes the ordered quantities from stock through the inventory service.
+     * <p>
+     * All short-stocked products are reported together and nothing
+     * is reserved when any of them is short.
+     *
+     * @param quantities total quantity per product ID
+     * @param products   products keyed by ID
+     * @throws InsufficientStockException if any product has insufficient stock
+     */
+    private void reserveStock(Map<Long, Integer> quantities, Map<Long, Product> products) {
+        List<Long> shortages = inventoryService.reserve(quantities);
+        if (!shortages.isEmpty()) {
+            List<String> names = new ArrayList<>(shortages.size());
+            for (Long productId : shortages) {
+                Product product = products.get(productId);
+                log.error("Insufficient stock for product: {}, Requested: {}",
+                        product.getName(), quantities.get(productId));
+                names.add(product.getName() + " (requested: " + quantities.get(productId) + ")");
+            }
+            throw new InsufficientStockException("Insufficient stock for products: "
+                    + String.join(", ", names));
+        }
+    }
+
     /**
      * Validates allowed order status transitions.
      *
@@ -223,7 +717,7 @@ public class OrderServiceImpl implements OrderService {
             case CREATED -> status == PAID;
             case PAID -> status == SHIPPED;
             case SHIPPED -> status == DELIVERED;
-            case DELIVERED -> false;
+            case PAYMENT_PENDING, DELIVERED, EXPIRED -> false;
         };
     }
 
@@ -253,4 +747,17 @@ public class OrderServiceImpl implements OrderService {
 //
 //    }
 
+    /**
+     * Receives the orders assembled from a row stream.
+     */
+    @FunctionalInterface
+    private interface OrderSink {
+        void accept(OrderResponseDto order) throws IOException;
+    }
+
+    /**
+     * One valid order of a batch with its merged quantities.
+     */
+    private record BatchLine(int index, OrderRequestDto request, Map<Long, Integer> quantities) {
+    }
 }
@@ -0,0 +1,184 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.responseDto.OrderItemResponseDto;
+import com.example.ecom.dto.responseDto.OrderResponseDto;
+import com.example.ecom.entity.OrderSummary;
+import com.example.ecom.mapper.OrderMapper;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.OrderSummaryRepository;
+import com.example.ecom.service.OrderSummaryService;
+import com.example.ecom.util.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for the denormalized order read model.
+ * <p>
+ * A summary holds the order fields and its items rendered as the JSON
+ * of the order response, so serving an order takes one primary-key
+ * lookup. Rebuilding splits the order IDs into fixed ranges; each range
+ * is read with one query and rewritten in its own transaction on a
+ * small thread pool.
+ */
+@Service
+@Slf4j
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+    private static final TypeReference<List<OrderItemResponseDto>> ITEMS = new TypeReference<>() {
+    };
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int rebuildThreads;
+    private final int rebuildChunkSize;
+
+    public OrderSummaryServiceImpl(OrderSummaryRepository orderSummaryRepository,
+                                   OrderRepository orderRepository,
+                                   OrderMapper orderMapper,
+                                   ObjectMapper objectMapper,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.order.read-model.enabled:false}") boolean enabled,
+                                   @Value("${app.order.read-model.rebuild-threads:4}") int rebuildThreads,
+                                   @Value("${app.order.read-model.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void saveAll(List<OrderResponseDto> orders) {
+        if (enabled && !orders.isEmpty()) {
+            orderSummaryRepository.saveAll(orders.stream().map(this::toSummary).toList());
+        }
+    }
+
+    @Override
+    public void updateStatus(Collection<Long> orderIds, OrderStatus from, OrderStatus to) {
+        if (enabled && !orderIds.isEmpty()) {
+            orderSummaryRepository.updateStatus(orderIds, from, to);
+        }
+    }
+
+    @Override
+    public Optional<OrderResponseDto> find(Long orderId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return orderSummaryRepository.findById(orderId).map(this::toDto);
+    }
+
+    @Override
+    public Map<Long, OrderResponseDto> findAll(Collection<Long> orderIds) {
+        if (!enabled || orderIds.isEmpty()) {
+            return Map.of();
+        }
+        return orderSummaryRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(OrderSummary::getId, this::toDto));
+    }
+
+    @Override
+    public long rebuild() {
+        long maxId = orderRepository.findMaxId();
+        log.info("Rebuilding order summaries up to order id {} with {} threads", maxId, rebuildThreads);
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long fromId = 1; fromId <= maxId; fromId += rebuildChunkSize) {
+                long from = fromId;
+                long to = Math.min(maxId, fromId + rebuildChunkSize - 1);
+                chunks.add(pool.submit(() -> rebuildRange(from, to)));
+            }
+            long rebuilt = 0;
+            for (Future<Integer> chunk : chunks) {
+                rebuilt += chunk.get();
+            }
+            log.info("Rebuilt {} order summaries", rebuilt);
+            return rebuilt;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order summary rebuild interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Order summary rebuild failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Replaces the summaries of one range of order IDs in one transaction.
+     *
+     * @return number of summaries written
+     */
+    private int rebuildRange(long fromId, long toId) {
+        Integer written = transactionTemplate.execute(status -> {
+            orderSummaryRepository.deleteRange(fromId, toId);
+            List<OrderSummary> summaries = orderRepository.findWithItemsByIdBetween(fromId, toId).stream()
+                    .map(orderMapper::toDto)
+                    .map(this::toSummary)
+                    .toList();
+            orderSummaryRepository.saveAll(summaries);
+            return summaries.size();
+        });
+        log.debug("Rebuilt {} order summaries for ids {}..{}", written, fromId, toId);
+        return written == null ? 0 : written;
+    }
+
+    private OrderSummary toSummary(OrderResponseDto order) {
+        try {
+            return OrderSummary.builder()
+                    .id(order.getOrderId())
+                    .customerId(order.getCustomerId())
+                    .status(order.getStatus())
+                    .totalAmount(order.getTotalAmount())
+                    .reservedUntil(order.getReservedUntil())
+                    .items(objectMapper.writeValueAsString(order.getItems()))
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Order " + order.getOrderId() + " cannot be serialized", ex);
+        }
+    }
+
+    private OrderResponseDto toDto(OrderSummary summary) {
+        try {
+            return OrderResponseDto.builder()
+                    .orderId(summary.getId())
+                    .customerId(summary.getCustomerId())
+                    .status(summary.getStatus())
+                    .totalAmount(summary.getTotalAmount())
+                    .reservedUntil(summary.getReservedUntil())
+                    .items(objectMapper.readValue(summary.getItems(), ITEMS))
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Summary of order " + summary.getId() + " is not readable", ex);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.repository.OrderItemRepository;
+import com.example.ecom.repository.OrderItemRepository.OrderAmount;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.OrderRepository.OrderTotal;
+import com.example.ecom.service.OrderTotalVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for checking stored order totals.
+ * <p>
+ * Each run reads a run of consecutive orders from a random ID through
+ * the primary key, and sums the items of all of them in one grouped
+ * query, so a check costs two statements whatever the table size.
+ */
+@Service
+@Slf4j
+public class OrderTotalVerifierImpl implements OrderTotalVerifier {
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final boolean enabled;
+    private final int sampleSize;
+
+    public OrderTotalVerifierImpl(OrderRepository orderRepository,
+                                  OrderItemRepository orderItemRepository,
+                                  @Value("${app.order.total-verifier.enabled:false}") boolean enabled,
+                                  @Value("${app.order.total-verifier.sample-size:200}") int sampleSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.enabled = enabled;
+        this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public int verifySample() {
+        long maxId = orderRepository.findMaxId();
+        if (maxId == 0) {
+            return 0;
+        }
+        long fromId = ThreadLocalRandom.current().nextLong(Math.max(1, maxId - sampleSize + 2));
+        List<OrderTotal> totals = orderRepository.findTotalsFrom(fromId, Limit.of(sampleSize));
+        if (totals.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Double> itemTotals = orderItemRepository.sumAmountByOrder(
+                        totals.stream().map(OrderTotal::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(OrderAmount::getOrderId, OrderAmount::getAmount));
+
+        int mismatched = 0;
+        for (OrderTotal total : totals) {
+            double itemsTotal = itemTotals.getOrDefault(total.getId(), 0.0);
+            Double stored = total.getTotalAmount();
+            if (stored == null || Math.abs(stored - itemsTotal) > TOLERANCE) {
+                log.warn("Stored total {} of order id: {} differs from its items total {}",
+                        stored, total.getId(), itemsTotal);
+                mismatched++;
+            }
+        }
+        log.debug("Verified totals of {} orders from id: {}, {} mismatched", totals.size(), fromId, mismatched);
+        return mismatched;
+    }
+
+    /**
+     * Runs the verification job when enabled.
+     */
+    @Scheduled(fixedDelayString = "${app.order.total-verifier.interval-ms:600000}")
+    public void verify() {
+        if (enabled) {
+            verifySample();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.responseDto.OrderEventDto;
+import com.example.ecom.entity.OutboxEvent;
+import com.example.ecom.repository.OutboxEventRepository;
+import com.example.ecom.service.OutboxService;
+import com.example.ecom.service.OutboxSink;
+import com.example.ecom.util.OrderEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service implementation for the transactional outbox.
+ * <p>
+ * Events are inserted with the order change, batched by the JDBC
+ * settings. The relay locks the oldest events with SKIP LOCKED, hands
+ * them to the sink and deletes them in the same transaction, a batch
+ * at a time; relays on several nodes therefore take disjoint batches.
+ * A batch is published again if its transaction does not commit.
+ */
+@Service
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean relayEnabled;
+    private final int batchSize;
+
+    public OutboxServiceImpl(OutboxEventRepository outboxEventRepository,
+                             OutboxSink outboxSink,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.outbox.relay.enabled:true}") boolean relayEnabled,
+                             @Value("${app.outbox.relay.batch-size:1000}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.relayEnabled = relayEnabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes events for orders that reached a new status. Must run in the
+     * transaction making the change, so the events commit or roll back with it.
+     *
+     * @param events order events; type and time are filled in
+     */
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordOrderEvents(List<OrderEventDto> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (OrderEventDto event : events) {
+            Optional<OrderEventType> type = OrderEventType.of(event.getStatus());
+            if (type.isEmpty()) {
+                continue;
+            }
+            event.setEventType(type.get());
+            event.setOccurredAt(now);
+            outboxEvents.add(OutboxEvent.builder()
+                    .eventType(type.get())
+                    .aggregateId(event.getOrderId())
+                    .payload(toJson(event))
+                    .createdAt(now)
+                    .build());
+        }
+        if (!outboxEvents.isEmpty()) {
+            outboxEventRepository.saveAll(outboxEvents);
+        }
+    }
+
+    /**
+     * Publishes pending events a batch at a time until a batch comes back
+     * short. Each batch is locked, published and deleted in one transaction.
+     *
+     * @return number of events published
+     */
+    @Override
+    public int relay() {
+        int published = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.lockBatch(batchSize);
+                if (events.isEmpty()) {
+                    return 0;
+                }
+                outboxSink.publish(events);
+                outboxEventRepository.deleteByIds(events.stream().map(OutboxEvent::getId).toList());
+                return events.size();
+            });
+            published += batch;
+        } while (batch == batchSize);
+        if (published > 0) {
+            log.debug("Relayed {} outbox events", published);
+        }
+        return published;
+    }
+
+    /**
+     * Runs the relay when enabled. A failed batch stays in the outbox and
+     * is retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:200}")
+    public void relayPending() {
+        if (!relayEnabled) {
+            return;
+        }
+        try {
+            relay();
+        } catch (RuntimeException ex) {
+            log.warn("Outbox relay failed, events will be retried: {}", ex.getMessage());
+        }
+    }
+
+    private String toJson(OrderEventDto event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Event of order " + event.getOrderId() + " cannot be serialized", ex);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.PaymentDiscrepancyResponseDto;
+import com.example.ecom.dto.responseDto.ReconciliationRunResponseDto;
+import com.example.ecom.entity.PaymentDiscrepancy;
+import com.example.ecom.entity.ReconciliationChunk;
+import com.example.ecom.entity.ReconciliationRun;
+import com.example.ecom.exception.ResourceNotFoundException;
+import com.example.ecom.mapper.ReconciliationMapper;
+import com.example.ecom.repository.PaymentDiscrepancyRepository;
+import com.example.ecom.repository.PaymentRepository;
+import com.example.ecom.repository.PaymentRepository.PaymentCheck;
+import com.example.ecom.repository.ReconciliationChunkRepository;
+import com.example.ecom.repository.ReconciliationChunkRepository.RunTotals;
+import com.example.ecom.repository.ReconciliationRunRepository;
+import com.example.ecom.service.OrderTotalVerifier;
+import com.example.ecom.service.PaymentReconciliationService;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.DiscrepancyType;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.ReconciliationStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service implementation for payment reconciliation.
+ * <p>
+ * A run fixes the range of payment IDs when it starts and splits it into
+ * chunks that are reconciled on a small thread pool. For each chunk the
+ * database counts the payments and returns only those that do not match
+ * their order, so memory stays bounded by the chunk's discrepancies.
+ * The discrepancies and the chunk checkpoint are written in one
+ * transaction; a resumed run skips the checkpointed chunks.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationServiceImpl implements PaymentReconciliationService {
+    /**
+     * Statuses an order may have once it is paid.
+     */
+    private static final Set<OrderStatus> PAID_STATUSES =
+            EnumSet.of(OrderStatus.PAID, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    private final PaymentRepository paymentRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationChunkRepository chunkRepository;
+    private final PaymentDiscrepancyRepository discrepancyRepository;
+    private final ReconciliationMapper reconciliationMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int threads;
+    private final int chunkSize;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "payment-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Run in progress in this instance, null when idle. Guarded by this.
+     */
+    private Long activeRunId;
+
+    public PaymentReconciliationServiceImpl(PaymentRepository paymentRepository,
+                                            ReconciliationRunRepository runRepository,
+                                            ReconciliationChunkRepository chunkRepository,
+                                            PaymentDiscrepancyRepository discrepancyRepository,
+                                            ReconciliationMapper reconciliationMapper,
+                                            TransactionTemplate transactionTemplate,
+                                            @Value("${app.payment.reconciliation.enabled:false}") boolean enabled,
+                                            @Value("${app.payment.reconciliation.threads:4}") int threads,
+                                            @Value("${app.payment.reconciliation.chunk-size:10000}") int chunkSize) {
+        this.paymentRepository = paymentRepository;
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.reconciliationMapper = reconciliationMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Stops the background run; it is resumed from its checkpoints next time.
+     */
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    @Override
+    public ReconciliationRunResponseDto start() {
+        ReconciliationRun run;
+        synchronized (this) {
+            if (activeRunId != null) {
+                return getRun(activeRunId);
+            }
+            run = openRun();
+        }
+        runner.execute(() -> {
+            try {
+                process(run);
+            } catch (RuntimeException ex) {
+                log.error("Payment reconciliation run {} failed", run.getId(), ex);
+            } finally {
+                closeRun();
+            }
+        });
+        return reconciliationMapper.toResponse(run);
+    }
+
+    @Override
+    public ReconciliationRunResponseDto reconcile() {
+        ReconciliationRun run;
+        synchronized (this) {
+            if (activeRunId != null) {
+                throw new IllegalStateException("Payment reconciliation run " + activeRunId + " is in progress");
+            }
+            run = openRun();
+        }
+        try {
+            return process(run);
+        } finally {
+            closeRun();
+        }
+    }
+
+    /**
+     * Runs the nightly reconciliation when enabled.
+     */
+    @Scheduled(cron = "${app.payment.reconciliation.cron:0 0 2 * * *}")
+    public void reconcileNightly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (IllegalStateException ex) {
+            log.warn("Nightly payment reconciliation did not complete: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public ReconciliationRunResponseDto getRun(Long runId) {
+        return reconciliationMapper.toResponse(findRun(runId));
+    }
+
+    @Override
+    public CursorPageResponseDto<PaymentDiscrepancyResponseDto> getDiscrepancies(Long runId, String after, int size) {
+        findRun(runId);
+        int limit = CursorPagination.limit(size);
+        List<PaymentDiscrepancy> discrepancies = discrepancyRepository.findByRunIdAndIdGreaterThanOrderById(
+                runId, CursorPagination.decode(after), Limit.of(limit + 1));
+        return CursorPagination.page(discrepancies, limit, PaymentDiscrepancy::getId, reconciliationMapper::toResponse);
+    }
+
+    private ReconciliationRun findRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reconciliation run not found with id: " + runId));
+    }
+
+    /**
+     * Takes up the last unfinished run, or starts a new one covering the
+     * payments stored now. Called with the lock held.
+     */
+    private ReconciliationRun openRun() {
+        ReconciliationRun run = transactionTemplate.execute(status -> {
+            ReconciliationRun unfinished = runRepository
+                    .findFirstByStatusNotOrderByIdDesc(ReconciliationStatus.COMPLETED)
+                    .orElse(null);
+            if (unfinished != null) {
+                log.info("Resuming payment reconciliation run {}", unfinished.getId());
+                unfinished.setStatus(ReconciliationStatus.RUNNING);
+                return unfinished;
+            }
+            return runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationStatus.RUNNING)
+                    .fromPaymentId(paymentRepository.findMinId())
+                    .toPaymentId(paymentRepository.findMaxId())
+                    .chunkSize(chunkSize)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+        });
+        activeRunId = run.getId();
+        return run;
+    }
+
+    private synchronized void closeRun() {
+        activeRunId = null;
+    }
+
+    private ReconciliationRunResponseDto process(ReconciliationRun run) {
+        Set<Long> done = new HashSet<>(chunkRepository.findDoneChunks(run.getId()));
+        log.info("Reconciling payments {} to {} in run {}, {} chunks already done",
+                run.getFromPaymentId(), run.getToPaymentId(), run.getId(), done.size());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long fromId = run.getFromPaymentId(); fromId <= run.getToPaymentId(); fromId += run.getChunkSize()) {
+                if (done.contains(fromId)) {
+                    continue;
+                }
+                long from = fromId;
+                long to = Math.min(run.getToPaymentId(), fromId + run.getChunkSize() - 1);
+                chunks.add(pool.submit(() -> reconcileChunk(run.getId(), from, to)));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            markFailed(run.getId());
+            throw new IllegalStateException("Payment reconciliation run " + run.getId() + " interrupted", ex);
+        } catch (ExecutionException ex) {
+            markFailed(run.getId());
+            throw new IllegalStateException("Payment reconciliation run " + run.getId() + " failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return complete(run.getId());
+    }
+
+    /**
+     * Reconciles one range of payment IDs and checkpoints it in one transaction.
+     */
+    private void reconcileChunk(Long runId, long fromId, long toId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long checked = paymentRepository.countByIdBetween(fromId, toId);
+            LocalDateTime now = LocalDateTime.now();
+            List<PaymentDiscrepancy> found = new ArrayList<>();
+            for (PaymentCheck check : paymentRepository.findMismatchesBetween(
+                    fromId, toId, OrderTotalVerifier.TOLERANCE, PAID_STATUSES)) {
+                for (DiscrepancyType type : discrepancies(check)) {
+                    found.add(PaymentDiscrepancy.builder()
+                            .runId(runId)
+                            .paymentId(check.getPaymentId())
+                            .orderId(check.getOrderId())
+                            .type(type)
+                            .paymentAmount(check.getAmount())
+                            .orderTotal(check.getOrderTotal())
+                            .orderStatus(check.getOrderStatus())
+                            .detectedAt(now)
+                            .build());
+                }
+            }
+            discrepancyRepository.saveAll(found);
+            chunkRepository.save(ReconciliationChunk.builder()
+                    .runId(runId)
+                    .fromPaymentId(fromId)
+                    .paymentsChecked((int) checked)
+                    .discrepancies(found.size())
+                    .completedAt(now)
+                    .build());
+        });
+    }
+
+    /**
+     * Everything wrong with a payment returned by the mismatch query.
+     */
+    private static List<DiscrepancyType> discrepancies(PaymentCheck check) {
+        List<DiscrepancyType> types = new ArrayList<>(2);
+        if (check.getOrderTotal() == null) {
+            types.add(DiscrepancyType.ORDER_TOTAL_MISSING);
+        } else if (Math.abs(check.getAmount() - check.getOrderTotal()) > OrderTotalVerifier.TOLERANCE) {
+            types.add(DiscrepancyType.AMOUNT_MISMATCH);
+        }
+        if (!PAID_STATUSES.contains(check.getOrderStatus())) {
+            types.add(DiscrepancyType.ORDER_NOT_PAID);
+        }
+        return types;
+    }
+
+    private ReconciliationRunResponseDto complete(Long runId) {
+        return transactionTemplate.execute(status -> {
+            ReconciliationRun run = findRun(runId);
+            RunTotals totals = chunkRepository.sumByRunId(runId);
+            run.setPaymentsChecked(totals.getPaymentsChecked());
+            run.setDiscrepancies(totals.getDiscrepancies());
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            log.info("Payment reconciliation run {} checked {} payments, found {} discrepancies",
+                    runId, totals.getPaymentsChecked(), totals.getDiscrepancies());
+            return reconciliationMapper.toResponse(run);
+        });
+    }
+
+    private void markFailed(Long runId) {
+        transactionTemplate.executeWithoutResult(status ->
+                findRun(runId).setStatus(ReconciliationStatus.FAILED));
+    }
+}
@@ -1,102 +1,369 @@
 package com.example.ecom.service.impl;
 
 import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.OrderEventDto;
 import com.example.ecom.dto.responseDto.PaymentResponseDto;
 import com.example.ecom.entity.Order;
 import com.example.ecom.entity.Payment;
+import com.example.ecom.exception.PaymentConflictException;
+import com.example.ecom.exception.PaymentGatewayBusyException;
+import com.example.ecom.exception.PaymentGatewayException;
+import com.example.ecom.exception.PaymentGatewayTimeoutException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.PaymentMapper;
+import com.example.ecom.repository.OrderItemRepository;
 import com.example.ecom.repository.OrderRepository;
 import com.example.ecom.repository.PaymentRepository;
+import com.example.ecom.service.OrderSummaryService;
+import com.example.ecom.service.OrderTotalVerifier;
+import com.example.ecom.service.OutboxService;
+import com.example.ecom.service.PaymentGateway;
 import com.example.ecom.service.PaymentService;
-import com.example.ecom.util.OrderStatus;
-import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.PaymentMethod;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.example.ecom.util.OrderStatus.CREATED;
+import static com.example.ecom.util.OrderStatus.PAID;
+import static com.example.ecom.util.OrderStatus.PAYMENT_PENDING;
 
 /**
  * Service implementation for handling Payment operations.
  * <p>
  * Contains business logic for processing payments,
- * preventing duplicate payments, calculating total amount,
+ * preventing duplicate payments, charging the order total,
  * and updating order status after successful payment.
  * <p>
- * Uses transactional support to ensure data consistency.
+ * The charge at the payment gateway runs outside any transaction: a
+ * short transaction moves the order to PAYMENT_PENDING before the call
+ * and another records the outcome after it, so no database connection
+ * is held while the gateway works. Calls in progress are limited by a
+ * bulkhead and each is bounded by a timeout. A call leaves the bulkhead
+ * only when the gateway answers it, so calls that timed out still count
+ * while they are outstanding; the gateway client must therefore answer
+ * every charge eventually, as an HTTP client with a read timeout does.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final PaymentMapper paymentMapper;
+    private final OrderSummaryService orderSummaryService;
+    private final PaymentGateway paymentGateway;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean verifyTotal;
+    private final Semaphore gatewaySlots;
+    private final Duration gatewayTimeout;
+    private final ExecutorService completionExecutor;
+    private final Duration pendingTimeout;
+    private final int sweepBatchSize;
 
+    public PaymentServiceImpl(PaymentRepository paymentRepository,
+                              OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository,
+                              PaymentMapper paymentMapper,
+                              OrderSummaryService orderSummaryService,
+                              PaymentGateway paymentGateway,
+                              OutboxService outboxService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.payment.verify-total:false}") boolean verifyTotal,
+                              @Value("${app.payment.gateway.max-concurrent:200}") int maxConcurrent,
+                              @Value("${app.payment.gateway.timeout-ms:2000}") long timeoutMs,
+                              @Value("${app.payment.completion-threads:4}") int completionThreads,
+                              @Value("${app.payment.pending-timeout-ms:300000}") long pendingTimeoutMs,
+                              @Value("${app.payment.pending-sweep-batch-size:100}") int sweepBatchSize) {
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.paymentMapper = paymentMapper;
+        this.orderSummaryService = orderSummaryService;
+        this.paymentGateway = paymentGateway;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.verifyTotal = verifyTotal;
+        this.gatewaySlots = new Semaphore(maxConcurrent);
+        this.gatewayTimeout = Duration.ofMillis(timeoutMs);
+        this.pendingTimeout = Duration.ofMillis(pendingTimeoutMs);
+        this.sweepBatchSize = sweepBatchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.completionExecutor = Executors.newFixedThreadPool(completionThreads, task -> {
+            Thread thread = new Thread(task, "payment-completion-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     /**
-     * Processes payment for an order.
-     * <p>
-     * Validates order existence, ensures order is in CREATED state,
-     * prevents duplicate payments, calculates total amount,
-     * saves payment, and updates order status to PAID.
+     * Stops the threads recording gateway outcomes.
+     */
+    @PreDestroy
+    public void stop() {
+        completionExecutor.shutdown();
+    }
+
+    /**
+     * Processes payment for an order and waits for the outcome.
      *
      * @param paymentRequestDto payment request payload
      * @return payment response DTO
-     * @throws ResourceNotFoundException if order not found
-     * @throws RuntimeException          if invalid order status or payment already exists
+     * @throws ResourceNotFoundException    if order not found
+     * @throws PaymentConflictException     if the order is no longer awaiting payment
+     * @throws PaymentGatewayBusyException  if too many payments are at the gateway
+     * @throws PaymentGatewayException      if the gateway declines, fails or times out
      */
     @Override
-    @Transactional
     public PaymentResponseDto makePayment(PaymentRequestDto paymentRequestDto) {
+        return await(makePaymentAsync(paymentRequestDto));
+    }
+
+    /**
+     * Processes payment for an order under a payment reference derived
+     * from the client's Idempotency-Key, and waits for the outcome.
+     * <p>
+     * A retry of an attempt whose gateway answer timed out finds the order
+     * PAYMENT_PENDING under the same reference. Instead of failing as a
+     * conflict it repeats the charge under that reference, which the
+     * gateway answers with the outcome of the first charge, and a retry
+     * after the outcome was recorded gets the stored payment. A declined
+     * attempt is declined again for the same key.
+     *
+     * @param paymentRequestDto payment request payload
+     * @param idempotencyKey    client-chosen key identifying the payment attempt
+     * @return payment response DTO
+     * @throws ResourceNotFoundException    if order not found
+     * @throws PaymentConflictException     if the order is awaiting or has another payment
+     * @throws PaymentGatewayBusyException  if too many payments are at the gateway
+     * @throws PaymentGatewayException      if the gateway declines, fails or times out
+     */
+    @Override
+    public PaymentResponseDto makePayment(PaymentRequestDto paymentRequestDto, String idempotencyKey) {
+        String paymentReference = UUID.nameUUIDFromBytes(
+                ("payment:" + idempotencyKey).getBytes(StandardCharsets.UTF_8)).toString();
+        return await(pay(paymentRequestDto, paymentReference));
+    }
+
+    /**
+     * Processes payment for an order.
+     * <p>
+     * Moves the order from CREATED to PAYMENT_PENDING with a conditional
+     * update. Of concurrent payments for the same order only one can match
+     * the CREATED status, so the others fail with a conflict; the unique
+     * order reference on payments backs this up. The gateway is then
+     * charged under a payment reference new to this attempt; on success
+     * the order becomes PAID and the payment is saved, on a decline the
+     * order goes back to CREATED so it can be paid again.
+     * <p>
+     * When the gateway does not answer in time the caller gets a timeout,
+     * but the order stays PAYMENT_PENDING and the outcome is recorded
+     * once the gateway answers. A retry meanwhile is rejected as a
+     * conflict instead of charging the order a second time, unless it
+     * carries the same Idempotency-Key, see {@link #makePayment(PaymentRequestDto, String)}.
+     * Orders whose answer never arrives are settled by {@link #settleStalePayments}.
+     *
+     * @param paymentRequestDto payment request payload
+     * @return future completed with the payment response DTO, or exceptionally
+     * with the exceptions listed for {@link #makePayment}
+     */
+    @Override
+    public CompletableFuture<PaymentResponseDto> makePaymentAsync(PaymentRequestDto paymentRequestDto) {
+        return pay(paymentRequestDto, UUID.randomUUID().toString());
+    }
+
+    private CompletableFuture<PaymentResponseDto> pay(PaymentRequestDto paymentRequestDto, String paymentReference) {
         log.info("Processing payment for order id: {}", paymentRequestDto.getOrderId());
-        Order order = orderRepository.findById(paymentRequestDto.getOrderId())
+        if (!gatewaySlots.tryAcquire()) {
+            log.warn("Payment gateway bulkhead full, rejecting payment for order id: {}",
+                    paymentRequestDto.getOrderId());
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayBusyException("Too many payments in progress, retry later"));
+        }
+        PendingPayment pending;
+        CompletableFuture<String> charge;
+        try {
+            pending = transactionTemplate.execute(status -> claimOrder(paymentRequestDto.getOrderId(),
+                    paymentRequestDto.getPaymentMethod(), paymentReference));
+            charge = paymentGateway.charge(pending.paymentReference(), pending.orderId(), pending.amount(),
+                    pending.paymentMethod());
+        } catch (PaymentConflictException ex) {
+            gatewaySlots.release();
+            return findRecordedPayment(paymentRequestDto.getOrderId(), paymentReference)
+                    .map(CompletableFuture::completedFuture)
+                    .orElseGet(() -> CompletableFuture.failedFuture(ex));
+        } catch (RuntimeException ex) {
+            gatewaySlots.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+        // the call holds its slot until the gateway answers, also when the payment timed out before
+        charge.whenComplete((reference, ex) -> gatewaySlots.release());
+        // the outcome is recorded whenever the gateway answers, also after the caller timed out
+        CompletableFuture<PaymentResponseDto> outcome = charge.handleAsync((reference, ex) -> ex == null
+                ? completePayment(pending, reference)
+                : failPayment(pending, ex), completionExecutor);
+        return outcome.copy()
+                .orTimeout(gatewayTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    if (unwrap(ex) instanceof TimeoutException) {
+                        log.warn("Payment gateway timed out for order id: {}, keeping it PAYMENT_PENDING",
+                                pending.orderId());
+                        throw new PaymentGatewayTimeoutException("Payment gateway did not answer in time for "
+                                + "order id: " + pending.orderId() + "; the payment is recorded once it answers");
+                    }
+                    throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+                });
+    }
+
+    /**
+     * Takes the order for this payment and works out the amount to charge.
+     * An order still PAYMENT_PENDING under the same payment reference is
+     * taken again, so that the attempt in progress is resumed.
+     */
+    private PendingPayment claimOrder(Long orderId, PaymentMethod paymentMethod, String paymentReference) {
+        Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> {
-                    log.error("Order not found with id: {}", paymentRequestDto.getOrderId());
-                    return new ResourceNotFoundException("Order not found with id: " + paymentRequestDto.getOrderId());
+                    log.error("Order not found with id: {}", orderId);
+                    return new ResourceNotFoundException("Order not found with id: " + orderId);
                 });
 
-        if (order.getStatus() != OrderStatus.CREATED) {
-            log.warn("Payment attempt for order id: {} with invalid status: {}",
-                    order.getId(), order.getStatus());
-            throw new RuntimeException("Payment cannot be processed. Order status is: " + order.getStatus());
+        //claim the order, only one payment can move it out of CREATED
+        if (orderRepository.claimForPayment(orderId, paymentReference, paymentMethod, LocalDateTime.now()) == 0) {
+            if (order.getStatus() == PAYMENT_PENDING && paymentReference.equals(order.getPaymentReference())) {
+                log.info("Resuming payment attempt {} for order id: {}", paymentReference, orderId);
+                return new PendingPayment(orderId, order.getCustomer().getId(), paymentAmount(order),
+                        paymentReference, order.getPaymentMethod());
+            }
+            log.warn("Payment attempt for order id: {} which is not awaiting payment", orderId);
+            throw new PaymentConflictException("Payment cannot be processed. Order " + orderId
+                    + " is not awaiting payment");
         }
+        orderSummaryService.updateStatus(List.of(orderId), CREATED, PAYMENT_PENDING);
+        return new PendingPayment(orderId, order.getCustomer().getId(), paymentAmount(order),
+                paymentReference, paymentMethod);
+    }
 
-        //prevent double payment
-        paymentRepository.findByOrderId(order.getId())
-                .ifPresent(p -> {
-                    log.warn("Duplicate payment attempt for order id: {}", order.getId());
-                    throw new RuntimeException("Payment already exists for this order");
-                });
-        // calculate total amount
-        double totalAmount = order.getItems().stream()
-                .mapToDouble(item -> item.getQuantity() * item.getPrice())
-                .sum();
-        log.debug("Calculated total amount {} for order id: {}", totalAmount, order.getId());
-
-        Payment payment = Payment.builder()
-                .order(order)
-                .amount(totalAmount)
-                .paymentMethod(paymentRequestDto.getPaymentMethod())
-                .paymentDate(LocalDateTime.now())
-                .build();
-        Payment savedPayment = paymentRepository.save(payment);
-
-        //Update order status to PAID
-        order.setStatus(OrderStatus.PAID);
-        log.info("Payment successful. Order id: {},Amount: {}", order.getId(), totalAmount);
-//        return PaymentResponseDto.builder()
-//                .id(savedPayment.getId())
-//                .orderId(savedPayment.getOrder().getId())
-//                .amount(savedPayment.getAmount())
-//                .paymentMethod(savedPayment.getPaymentMethod())
-//                .paymentDate(savedPayment.getPaymentDate())
-//                .build();
-        return paymentMapper.toResponse(savedPayment);
+    /**
+     * Records a charge accepted by the gateway: the order becomes PAID,
+     * the payment is saved and an ORDER_PAID event is written to the outbox.
+     * A payment already stored for the order, rejected by the unique
+     * order reference, is reported as a conflict, unless this attempt
+     * stored it.
+     */
+    private PaymentResponseDto completePayment(PendingPayment pending, String gatewayReference) {
+        try {
+            return savePayment(pending, gatewayReference);
+        } catch (DataIntegrityViolationException ex) {
+            if (!paymentRepository.existsByOrderId(pending.orderId())) {
+                throw ex;
+            }
+            log.warn("Payment for order id: {} was already recorded", pending.orderId());
+            throw new PaymentConflictException("Payment cannot be processed. Order " + pending.orderId()
+                    + " is already paid");
+        } catch (PaymentConflictException ex) {
+            // a resumed attempt, or the late answer to the first charge, recorded this attempt first
+            return findRecordedPayment(pending.orderId(), pending.paymentReference()).orElseThrow(() -> ex);
+        }
+    }
+
+    /**
+     * Retrieves the payment of an order paid under the given payment reference.
+     *
+     * @return the payment, empty if the order was not paid by this attempt
+     */
+    private Optional<PaymentResponseDto> findRecordedPayment(Long orderId, String paymentReference) {
+        return orderRepository.findById(orderId)
+                .filter(order -> order.getStatus() == PAID && paymentReference.equals(order.getPaymentReference()))
+                .flatMap(order -> paymentRepository.findDtoByOrderId(orderId));
+    }
+
+    private PaymentResponseDto savePayment(PendingPayment pending, String gatewayReference) {
+        return transactionTemplate.execute(status -> {
+            if (orderRepository.settlePayment(pending.orderId(), pending.paymentReference(), PAID) == 0) {
+                log.warn("Payment attempt {} for order id: {} was settled already",
+                        pending.paymentReference(), pending.orderId());
+                throw new PaymentConflictException("Payment cannot be processed. Order " + pending.orderId()
+                        + " is not awaiting this payment");
+            }
+            Payment savedPayment = paymentRepository.save(Payment.builder()
+                    .order(orderRepository.getReferenceById(pending.orderId()))
+                    .amount(pending.amount())
+                    .paymentMethod(pending.paymentMethod())
+                    .paymentDate(LocalDateTime.now())
+                    .gatewayReference(gatewayReference)
+                    .build());
+            orderSummaryService.updateStatus(List.of(pending.orderId()), PAYMENT_PENDING, PAID);
+            outboxService.recordOrderEvents(List.of(OrderEventDto.builder()
+                    .orderId(pending.orderId())
+                    .customerId(pending.customerId())
+                    .status(PAID)
+                    .totalAmount(pending.amount())
+                    .build()));
+            log.info("Payment successful. Order id: {},Amount: {}", pending.orderId(), pending.amount());
+            return paymentMapper.toResponse(savedPayment);
+        });
+    }
+
+    /**
+     * Gives the order back to CREATED after the gateway declined or failed
+     * the charge, and reports why.
+     */
+    private PaymentResponseDto failPayment(PendingPayment pending, Throwable failure) {
+        Throwable cause = unwrap(failure);
+        reopenOrder(pending);
+        log.warn("Payment failed at gateway for order id: {}: {}", pending.orderId(), cause.getMessage());
+        if (cause instanceof PaymentGatewayException gatewayException) {
+            throw gatewayException;
+        }
+        throw new PaymentGatewayException("Payment gateway failed for order id: " + pending.orderId());
+    }
+
+    /**
+     * Amount to charge for an order: the total stored when the order was
+     * created, without loading its items. When verification is enabled, or
+     * for orders created before totals were stored, the items are summed
+     * in one SQL aggregate instead.
+     */
+    private double paymentAmount(Order order) {
+        Double stored = order.getTotalAmount();
+        if (stored != null && !verifyTotal) {
+            return stored;
+        }
+        double itemsTotal = orderItemRepository.sumAmountByOrderId(order.getId());
+        if (stored != null && Math.abs(stored - itemsTotal) > OrderTotalVerifier.TOLERANCE) {
+            log.warn("Stored total {} of order id: {} differs from its items total {}",
+                    stored, order.getId(), itemsTotal);
+        }
+        log.debug("Calculated total amount {} for order id: {}", itemsTotal, order.getId());
+        return itemsTotal;
     }
 
     /**
@@ -110,17 +377,11 @@ public class PaymentServiceImpl implements PaymentService {
     public PaymentResponseDto getPaymentById(Long id) {
         log.debug("Fetching payment with id: {}", id);
 
-        Payment payment = paymentRepository.findById(id)
+        PaymentResponseDto payment = paymentRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
 
-//        return PaymentResponseDto.builder()
-//                .id(payment.getId())
-//                .orderId(payment.getOrder().getId())
-//                .amount(payment.getAmount())
-//                .paymentDate(payment.getPaymentDate())
-//                .build();
         log.info("Payment fetched successfully with id: {}", id);
-        return paymentMapper.toResponse(payment);
+        return payment;
     }
 
     @Override
@@ -128,9 +389,24 @@ public class PaymentServiceImpl implements PaymentService {
         log.debug("Fetching payments - page: {}, size: {}", page, size);
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Payment> paymentPage = paymentRepository.findAll(pageable);
+        return paymentRepository.findAllDtos(pageable);
+    }
 
-        return paymentPage.map(paymentMapper::toResponse);
+    /**
+     * Retrieves the payments following a cursor, reading one row more than
+     * the page size to know whether another page follows.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size, limited to {@link CursorPagination#MAX_SIZE}
+     * @return page of payments with the cursor of the next page
+     */
+    @Override
+    public CursorPageResponseDto<PaymentResponseDto> getPaymentsAfter(String after, int size) {
+        int limit = CursorPagination.limit(size);
+        log.debug("Fetching payments after cursor: {}, size: {}", after, limit);
+        List<PaymentResponseDto> payments = paymentRepository.findDtosAfter(
+                CursorPagination.decode(after), Limit.of(limit + 1));
+        return CursorPagination.page(payments, limit, PaymentResponseDto::getId, Function.identity());
     }
 
 //    private PaymentResponseDto mapToResponse(Payment payment) {
@@ -144,5 +420,126 @@ public class PaymentServiceImpl implements PaymentService {
 //                .build();
 //    }
 
+    private void reopenOrder(PendingPayment pending) {
+        transactionTemplate.execute(status -> {
+            if (orderRepository.settlePayment(pending.orderId(), pending.paymentReference(), CREATED) > 0) {
+                orderSummaryService.updateStatus(List.of(pending.orderId()), PAYMENT_PENDING, CREATED);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Settles orders left PAYMENT_PENDING for longer than the pending
+     * timeout, as when the gateway never answered or the application
+     * stopped before recording the answer.
+     * <p>
+     * The charge of each is repeated under its payment reference, so the
+     * gateway answers with the outcome of the first charge instead of
+     * charging again: the order becomes PAID, or CREATED after a decline,
+     * in which case the reservation expiry releases its stock once the
+     * reservation has run out. Orders the gateway still does not answer
+     * for are retried on the next run. Orders left PAYMENT_PENDING before
+     * payment references were recorded cannot be repeated; they are
+     * logged and have to be settled by hand from the gateway's records.
+     *
+     * @return number of orders settled
+     */
+    @Override
+    public int settleStalePayments() {
+        List<Long> orderIds = orderRepository.findStalePaymentIds(
+                LocalDateTime.now().minus(pendingTimeout), PageRequest.of(0, sweepBatchSize));
+        int settled = 0;
+        for (Long orderId : orderIds) {
+            try {
+                if (settleStalePayment(orderId)) {
+                    settled++;
+                }
+            } catch (RuntimeException ex) {
+                log.error("Settling pending payment of order id: {} failed", orderId, ex);
+            }
+        }
+        if (settled > 0) {
+            log.info("Settled {} stale pending payments", settled);
+        }
+        return settled;
+    }
+
+    /**
+     * Runs the sweep of stale pending payments.
+     */
+    @Scheduled(fixedDelayString = "${app.payment.pending-sweep-interval-ms:60000}")
+    public void sweepStalePayments() {
+        settleStalePayments();
+    }
 
+    private boolean settleStalePayment(Long orderId) {
+        PendingPayment pending = transactionTemplate.execute(status -> orderRepository.findById(orderId)
+                .map(order -> new PendingPayment(orderId, order.getCustomer().getId(), paymentAmount(order),
+                        order.getPaymentReference(), order.getPaymentMethod()))
+                .orElse(null));
+        if (pending == null) {
+            return false;
+        }
+        if (pending.paymentReference() == null || pending.paymentMethod() == null) {
+            log.warn("Order id: {} is PAYMENT_PENDING without a payment reference; settle it by hand "
+                    + "from the gateway's records", orderId);
+            return false;
+        }
+        if (!gatewaySlots.tryAcquire()) {
+            log.warn("Payment gateway bulkhead full, leaving pending order id: {} for the next sweep", orderId);
+            return false;
+        }
+        CompletableFuture<String> charge;
+        try {
+            charge = paymentGateway.charge(pending.paymentReference(), orderId, pending.amount(),
+                    pending.paymentMethod());
+        } catch (RuntimeException ex) {
+            gatewaySlots.release();
+            log.warn("Repeating the charge of pending order id: {} failed", orderId, ex);
+            return false;
+        }
+        charge.whenComplete((reference, ex) -> gatewaySlots.release());
+        try {
+            completePayment(pending, charge.copy().get(gatewayTimeout.toMillis(), TimeUnit.MILLISECONDS));
+            return true;
+        } catch (ExecutionException ex) {
+            log.warn("Pending payment for order id: {} failed at gateway: {}", orderId, ex.getCause().getMessage());
+            reopenOrder(pending);
+            return true;
+        } catch (TimeoutException ex) {
+            log.warn("Payment gateway still does not answer for pending order id: {}", orderId);
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (PaymentConflictException ex) {
+            // the order was settled otherwise meanwhile
+            return false;
+        }
+    }
+
+    private static PaymentResponseDto await(CompletableFuture<PaymentResponseDto> payment) {
+        try {
+            return payment.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+    }
+
+    /**
+     * A payment attempt between claiming its order and the gateway's answer.
+     */
+    private record PendingPayment(Long orderId, Long customerId, double amount, String paymentReference,
+                                  PaymentMethod paymentMethod) {
+    }
 }
@@ -0,0 +1,471 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.ProductImportErrorDto;
+import com.example.ecom.dto.responseDto.ProductImportResponseDto;
+import com.example.ecom.exception.InvalidImportFileException;
+import com.example.ecom.service.InventoryService;
+import com.example.ecom.service.ProductCache;
+import com.example.ecom.service.ProductImportService;
+import com.example.ecom.service.ProductSearchIndex;
+import com.example.ecom.util.MappedLineReader;
+import com.example.ecom.util.ProductImportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation for bulk product imports.
+ * <p>
+ * Rows bypass JPA: each batch is written with two JDBC batch statements,
+ * one inserting new products and one updating existing ones, in its own
+ * transaction. New products take their IDs from the product sequence in
+ * blocks, the way Hibernate's pooled generator does, so imported and
+ * saved products never collide. Update counts tell which IDs do not
+ * exist. With a write-behind inventory, updated products are locked and
+ * their stock read first, to pass the stock change to the inventory
+ * service like an update through the product service does. After each batch
+ * commits, the cache drops the updated products and the search index
+ * takes the names of all written ones.
+ * <p>
+ * A batch the database rejects is written again row by row, so only
+ * the offending lines fail.
+ */
+@Service
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+    /**
+     * Must match the allocationSize of the product ID sequence generator.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_SQL = "insert into products (id, name, stock, price, version) values (?, ?, ?, ?, 0)";
+    private static final String UPDATE_SQL = "update products set name = ?, stock = ?, price = ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader jsonRowReader;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final InventoryService inventoryService;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final int mappedWindowBytes;
+
+    // IDs left in the block last taken from the sequence
+    private long nextId;
+    private long lastIdOfBlock = -1;
+
+    public ProductImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    ProductCache productCache,
+                                    ProductSearchIndex productSearchIndex,
+                                    InventoryService inventoryService,
+                                    @Value("${app.product.import.batch-size:1000}") int batchSize,
+                                    @Value("${app.product.import.max-reported-errors:1000}") int maxReportedErrors,
+                                    @Value("${app.product.import.mapped-window-bytes:67108864}") int mappedWindowBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.jsonRowReader = objectMapper.readerFor(JsonRow.class);
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
+        this.inventoryService = inventoryService;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.mappedWindowBytes = mappedWindowBytes;
+    }
+
+    @Override
+    public ProductImportResponseDto importProducts(InputStream input, ProductImportFormat format) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return importLines(reader::readLine, format);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public ProductImportResponseDto importProducts(Path file, ProductImportFormat format) {
+        try (MappedLineReader reader = new MappedLineReader(file, mappedWindowBytes)) {
+            return importLines(reader::readLine, format);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads, validates and writes the lines a batch at a time. Imports run
+     * one at a time, as they share the block of IDs taken from the sequence.
+     */
+    private synchronized ProductImportResponseDto importLines(LineSource lines, ProductImportFormat format)
+            throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report(maxReportedErrors);
+        long lineNumber = 0;
+        CsvColumns columns = null;
+        if (format == ProductImportFormat.CSV) {
+            String header = lines.readLine();
+            if (header == null) {
+                return report.toDto(start);
+            }
+            lineNumber++;
+            columns = CsvColumns.of(header);
+        }
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.rows++;
+            try {
+                Row row = columns != null ? columns.parse(lineNumber, line) : parseJson(lineNumber, line);
+                String invalid = validate(row.product());
+                if (invalid != null) {
+                    report.reject(lineNumber, invalid);
+                    continue;
+                }
+                batch.add(row);
+            } catch (IllegalArgumentException ex) {
+                report.reject(lineNumber, ex.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                write(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, report);
+        }
+        log.info("Imported products: {} rows, {} inserted, {} updated, {} rejected",
+                report.rows, report.inserted, report.updated, report.failed);
+        return report.toDto(start);
+    }
+
+    private Row parseJson(long lineNumber, String line) {
+        JsonRow json;
+        try {
+            json = jsonRowReader.readValue(line);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+        }
+        ProductRequestDto product = new ProductRequestDto();
+        product.setName(json.name());
+        product.setStock(json.stock());
+        product.setPrice(json.price());
+        return new Row(lineNumber, json.id(), product);
+    }
+
+    /**
+     * Checks a product against the constraints of the request DTO.
+     *
+     * @return the violated rules' messages, or null if the product is valid
+     */
+    private String validate(ProductRequestDto product) {
+        Set<ConstraintViolation<ProductRequestDto>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Writes a batch in one transaction, or row by row if the database
+     * rejects it.
+     */
+    private void write(List<Row> batch, Report report) {
+        Written written;
+        try {
+            written = transactionTemplate.execute(status -> writeBatch(batch));
+        } catch (DataAccessException ex) {
+            if (batch.size() == 1) {
+                report.reject(batch.get(0).line(), ex.getMostSpecificCause().getMessage());
+                return;
+            }
+            log.warn("Product import batch of lines {} to {} failed, writing it row by row: {}",
+                    batch.get(0).line(), batch.get(batch.size() - 1).line(), ex.getMostSpecificCause().getMessage());
+            for (Row row : batch) {
+                write(List.of(row), report);
+            }
+            return;
+        }
+        report.inserted += written.inserted();
+        report.updated += written.updated();
+        written.missing().forEach(row -> report.reject(row.line(), "Product not found with id " + row.id()));
+        // the inventory ledger is adjusted only for committed stock changes
+        written.stockDeltas().forEach((productId, delta) -> {
+            if (delta != 0) {
+                inventoryService.adjust(productId, delta);
+            }
+        });
+    }
+
+    private Written writeBatch(List<Row> batch) {
+        // only a write-behind inventory needs the stock changes, read under lock
+        Map<Long, Integer> stock = inventoryService.isWriteBehind() ? lockStock(batch) : null;
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        Map<Long, String> names = new LinkedHashMap<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Row> updates = new ArrayList<>();
+        List<Row> missing = new ArrayList<>();
+        for (Row row : batch) {
+            ProductRequestDto product = row.product();
+            if (row.id() == null) {
+                long id = takeId();
+                inserts.add(new Object[]{id, product.getName(), product.getStock(), product.getPrice()});
+                names.put(id, product.getName());
+                continue;
+            }
+            if (stock != null) {
+                Integer oldStock = stock.get(row.id());
+                if (oldStock == null) {
+                    missing.add(row);
+                    continue;
+                }
+                stockDeltas.merge(row.id(), product.getStock() - oldStock, Integer::sum);
+                stock.put(row.id(), product.getStock());
+            }
+            updates.add(row);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        int updated = 0;
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates.stream()
+                    .map(row -> new Object[]{row.product().getName(), row.product().getStock(),
+                            row.product().getPrice(), row.id()})
+                    .toList());
+            List<Long> updatedIds = new ArrayList<>(updates.size());
+            for (int i = 0; i < counts.length; i++) {
+                Row row = updates.get(i);
+                if (counts[i] == 0) {
+                    missing.add(row);
+                    continue;
+                }
+                updatedIds.add(row.id());
+                names.put(row.id(), row.product().getName());
+                updated++;
+            }
+            productCache.invalidateAfterCommit(updatedIds);
+        }
+        productSearchIndex.putAllAfterCommit(names);
+        return new Written(inserts.size(), updated, missing, stockDeltas);
+    }
+
+    /**
+     * Locks the products the batch updates and reads their stock.
+     *
+     * @return stock by product ID, for the products that exist
+     */
+    private Map<Long, Integer> lockStock(List<Row> batch) {
+        List<Long> ids = batch.stream().map(Row::id).filter(Objects::nonNull).distinct().toList();
+        Map<Long, Integer> stock = new HashMap<>();
+        if (ids.isEmpty()) {
+            return stock;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("select id, stock from products where id in (" + placeholders + ") for update",
+                rs -> {
+                    stock.put(rs.getLong(1), rs.getInt(2));
+                },
+                ids.toArray());
+        return stock;
+    }
+
+    /**
+     * Takes the next ID of the current block, taking a new block of
+     * {@link #ID_BLOCK_SIZE} IDs from the sequence when it runs out. A
+     * sequence value {@code v} stands for the IDs {@code (v - 50, v]}.
+     * IDs of a block left unused, e.g. by a rolled back batch, are skipped.
+     */
+    private long takeId() {
+        if (nextId > lastIdOfBlock) {
+            lastIdOfBlock = jdbcTemplate.queryForObject("select next value for products_seq", Long.class);
+            nextId = Math.max(1, lastIdOfBlock - ID_BLOCK_SIZE + 1);
+        }
+        return nextId++;
+    }
+
+    /**
+     * Source of lines, read until it returns null.
+     */
+    @FunctionalInterface
+    private interface LineSource {
+        String readLine() throws IOException;
+    }
+
+    /**
+     * A valid line: the product and, for an update, its ID.
+     */
+    private record Row(long line, Long id, ProductRequestDto product) {
+    }
+
+    private record JsonRow(Long id, String name, Integer stock, Double price) {
+    }
+
+    private record Written(int inserted, int updated, List<Row> missing, Map<Long, Integer> stockDeltas) {
+    }
+
+    /**
+     * Positions of the product fields in the CSV lines, from the header.
+     * Columns other than id, name, stock and price are ignored.
+     */
+    private record CsvColumns(int id, int name, int stock, int price, int count) {
+
+        static CsvColumns of(String header) {
+            List<String> names = CsvColumns.split(header).stream()
+                    .map(name -> name.strip().toLowerCase(Locale.ROOT))
+                    .toList();
+            int name = names.indexOf("name");
+            int stock = names.indexOf("stock");
+            int price = names.indexOf("price");
+            if (name < 0 || stock < 0 || price < 0) {
+                throw new InvalidImportFileException(
+                        "CSV header must name the columns name, stock and price, and optionally id: " + header);
+            }
+            return new CsvColumns(names.indexOf("id"), name, stock, price, names.size());
+        }
+
+        Row parse(long lineNumber, String line) {
+            List<String> values = split(line);
+            if (values.size() != count) {
+                throw new IllegalArgumentException("Expected " + count + " values but found " + values.size());
+            }
+            ProductRequestDto product = new ProductRequestDto();
+            product.setName(values.get(name));
+            product.setStock(parseNumber(values.get(stock), "stock", Integer::valueOf));
+            Double parsedPrice = parseNumber(values.get(price), "price", Double::valueOf);
+            if (parsedPrice != null && !Double.isFinite(parsedPrice)) {
+                throw new IllegalArgumentException("Invalid price: '" + values.get(price) + "'");
+            }
+            product.setPrice(parsedPrice);
+            Long parsedId = id < 0 ? null : parseNumber(values.get(id), "id", Long::valueOf);
+            return new Row(lineNumber, parsedId, product);
+        }
+
+        /**
+         * Parses a number, leaving an empty value null for the validator
+         * to report as missing.
+         */
+        private static <T> T parseNumber(String value, String field,
+                                         Function<String, T> parser) {
+            String stripped = value.strip();
+            if (stripped.isEmpty()) {
+                return null;
+            }
+            try {
+                return parser.apply(stripped);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid " + field + ": '" + value + "'");
+            }
+        }
+
+        /**
+         * Splits a line at commas outside double quotes, unquoting quoted
+         * values.
+         */
+        static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        value.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted value");
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+
+    /**
+     * Counts of an import and its first errors.
+     */
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private long rows;
+        private long inserted;
+        private long updated;
+        private long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(ProductImportErrorDto.builder().line(line).message(message).build());
+            }
+        }
+
+        ProductImportResponseDto toDto(long startNanos) {
+            return ProductImportResponseDto.builder()
+                    .rows(rows)
+                    .inserted(inserted)
+                    .updated(updated)
+                    .failed(failed)
+                    .millis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
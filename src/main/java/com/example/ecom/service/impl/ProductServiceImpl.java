@@ -1,22 +1,39 @@
 package com.example.ecom.service.impl;
 
+import com.example.ecom.dto.requestDto.ProductFilterDto;
 import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
 import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
 import com.example.ecom.entity.Product;
+import com.example.ecom.exception.InvalidProductFilterException;
 import com.example.ecom.exception.ProductInUseException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.ProductMapper;
 import com.example.ecom.repository.OrderItemRepository;
 import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.InventoryService;
+import com.example.ecom.service.ProductCache;
+import com.example.ecom.service.ProductSearchIndex;
 import com.example.ecom.service.ProductService;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.ProductSortField;
+import com.example.ecom.util.Versioned;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 
@@ -28,6 +45,9 @@ import org.slf4j.Logger;
  * <p>
  * Uses ProductRepository for database interactions
  * and converts Product entities to ProductResponseDto.
+ * Lists select the DTO directly, so no entities are loaded.
+ * Single products are read through the product cache, which every
+ * change made here invalidates. Name changes are passed to the search index.
  */
 @Service
 @RequiredArgsConstructor
@@ -37,6 +57,9 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductMapper productMapper;
+    private final InventoryService inventoryService;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
 
 
     /**
@@ -55,6 +78,7 @@ public class ProductServiceImpl implements ProductService {
 //                .build();
         Product product = productMapper.toEntity(productRequestDto);
         Product saved = productRepository.save(product);
+        productSearchIndex.putAfterCommit(saved.getId(), saved.getName());
 
 //        return mapToResponse(saved);
         log.debug("Product saved with id: {}", saved.getId());
@@ -73,13 +97,17 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ProductResponseDto getProductById(Long id) {
         log.info("Get Product by Id:{}", id);
-        Product product = productRepository.findById(id)
+        return productCache.get(id)
                 .orElseThrow(() -> {
                     log.error("Product not found with id: {}", id);
                     return new ResourceNotFoundException("Product not found with id:" + id);
                 });
-//        return mapToResponse(product);
-        return productMapper.toDto(product);
+    }
+
+    @Override
+    public Versioned<ProductResponseDto> getVersionedProduct(Long id) {
+        ProductResponseDto product = getProductById(id);
+        return Versioned.of(product.getVersion(), () -> product);
     }
 
     /**
@@ -102,9 +130,55 @@ public class ProductServiceImpl implements ProductService {
 
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Product> productPage = productRepository.findAll(pageable);
+        return productRepository.findAllDtos(pageable);
+    }
+
+    /**
+     * Retrieves a filtered, sorted page of products. Without a filter or a
+     * sort the plain listing is returned.
+     */
+    @Override
+    public Page<ProductResponseDto> getAllProducts(ProductFilterDto filter, int page, int size) {
+        if (filter.getMinPrice() == null && filter.getMaxPrice() == null && filter.getInStock() == null
+                && filter.getSort() == null) {
+            return getAllProducts(page, size);
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new InvalidProductFilterException("minPrice must not be greater than maxPrice");
+        }
+        Sort sort = ProductSortField.toSort(filter.getSort());
+
+        log.debug("Fetching products with filter: {}, page: {}, size: {}", filter, page, size);
+
+        return productRepository.findDtos(filter, PageRequest.of(page, size, sort));
+    }
+
+    /**
+     * Reads the page itself: products are listed as DTOs straight from
+     * one table, so a separate version lookup would cost as much.
+     */
+    @Override
+    public Versioned<Page<ProductResponseDto>> getVersionedProducts(ProductFilterDto filter, int page, int size) {
+        return Versioned.ofPage(getAllProducts(filter, page, size),
+                product -> product.getId() + ":" + product.getVersion());
+    }
 
-        return productPage.map(productMapper::toDto);
+    /**
+     * Retrieves the products following a cursor, reading one row more than
+     * the page size to know whether another page follows.
+     *
+     * @param after cursor of the previous page, null for the first page
+     * @param size  page size, limited to {@link CursorPagination#MAX_SIZE}
+     * @return page of products with the cursor of the next page
+     */
+    @Override
+    public CursorPageResponseDto<ProductResponseDto> getProductsAfter(String after, int size) {
+        int limit = CursorPagination.limit(size);
+        log.debug("Fetching products after cursor: {}, size: {}", after, limit);
+        List<ProductResponseDto> products = productRepository.findDtosAfter(
+                CursorPagination.decode(after), Limit.of(limit + 1));
+        return CursorPagination.page(products, limit, ProductResponseDto::getId, Function.identity());
     }
 
 
@@ -125,10 +199,14 @@ public class ProductServiceImpl implements ProductService {
                     log.error("Update failed. Product not found with id: {}", id);
                     return new ResourceNotFoundException("Product not found with id " + id);
                 });
+        int stockDelta = productRequestDto.getStock() - product.getStock();
         product.setName(productRequestDto.getName());
         product.setStock(productRequestDto.getStock());
         product.setPrice(productRequestDto.getPrice());
         Product updated = productRepository.save(product);
+        inventoryService.adjust(id, stockDelta);
+        productCache.invalidateAfterCommit(List.of(id));
+        productSearchIndex.putAfterCommit(id, product.getName());
         return productMapper.toDto(product);
 
     }
@@ -150,6 +228,43 @@ public class ProductServiceImpl implements ProductService {
                     "Product cannot be deleted because it exists in ordered item");
         }
         productRepository.deleteById(id);
+        inventoryService.remove(id);
+        productCache.invalidateAfterCommit(List.of(id));
+        productSearchIndex.removeAfterCommit(id);
+    }
+
+    /**
+     * Searches product names in the search index and reads the products
+     * of the page through the product cache. Products deleted since the
+     * search are left out.
+     *
+     * @param query search text
+     * @param page  page number, from 0
+     * @param size  page size, limited to {@link CursorPagination#MAX_SIZE}
+     * @return page of matching products, best first
+     */
+    @Override
+    public Page<ProductResponseDto> searchProducts(String query, int page, int size) {
+        Pageable pageable = PageRequest.of(page, CursorPagination.limit(size));
+        log.debug("Searching products for '{}' - page: {}, size: {}", query, page, pageable.getPageSize());
+        ProductSearchIndex.Hits hits = productSearchIndex.search(query,
+                (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE), pageable.getPageSize());
+        Map<Long, ProductResponseDto> products = productCache.getAll(hits.productIds());
+        List<ProductResponseDto> content = hits.productIds().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.total());
+    }
+
+    @Override
+    public ProductSearchStatsResponseDto getSearchStats() {
+        return productSearchIndex.stats();
+    }
+
+    @Override
+    public ProductCacheStatsResponseDto getCacheStats() {
+        return productCache.stats();
     }
 
     /**
@@ -0,0 +1,147 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.repository.OrderItemRepository;
+import com.example.ecom.repository.OrderItemRepository.ProductQuantity;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.InventoryService;
+import com.example.ecom.service.OrderSummaryService;
+import com.example.ecom.service.ProductCache;
+import com.example.ecom.service.ReservationExpiryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.ecom.util.OrderStatus.CREATED;
+import static com.example.ecom.util.OrderStatus.EXPIRED;
+
+/**
+ * Service implementation for expiring unpaid orders.
+ * <p>
+ * A scheduled job picks CREATED orders past their deadline through the
+ * (status, reserved_until) index, so each tick reads only the orders
+ * that are due. Every batch is handled in one transaction with
+ * set-based statements: a conditional status update that loses to
+ * a concurrent payment, one UPDATE returning the stock to all affected
+ * products, and no order entities loaded.
+ */
+@Service
+@Slf4j
+public class ReservationExpiryServiceImpl implements ReservationExpiryService {
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final OrderSummaryService orderSummaryService;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reservationTtl;
+    private final int batchSize;
+
+    public ReservationExpiryServiceImpl(OrderRepository orderRepository,
+                                        OrderItemRepository orderItemRepository,
+                                        ProductRepository productRepository,
+                                        InventoryService inventoryService,
+                                        OrderSummaryService orderSummaryService,
+                                        ProductCache productCache,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${app.order.reservation.ttl-minutes:30}") long ttlMinutes,
+                                        @Value("${app.order.reservation.expiry-batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.inventoryService = inventoryService;
+        this.orderSummaryService = orderSummaryService;
+        this.productCache = productCache;
+        this.transactionTemplate = transactionTemplate;
+        this.reservationTtl = Duration.ofMinutes(ttlMinutes);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public LocalDateTime reservationDeadline() {
+        return LocalDateTime.now().plus(reservationTtl);
+    }
+
+    @Override
+    public int expireReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        Batch batch;
+        do {
+            batch = expireBatch(now);
+            expired += batch.expired();
+        } while (batch.found() == batchSize);
+        if (expired > 0) {
+            log.info("Expired {} unpaid orders and released their stock", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Runs the expiry job.
+     */
+    @Scheduled(fixedDelayString = "${app.order.reservation.expiry-interval-ms:60000}")
+    public void expire() {
+        expireReservations();
+    }
+
+    /**
+     * Expires one batch of orders in a single transaction.
+     *
+     * @param now reservation deadline cut-off
+     * @return number of due orders found and number actually expired
+     */
+    private Batch expireBatch(LocalDateTime now) {
+        return transactionTemplate.execute(status -> {
+            List<Long> orderIds = orderRepository.findReservationExpiredIds(
+                    CREATED, now, PageRequest.of(0, batchSize));
+            if (orderIds.isEmpty()) {
+                return new Batch(0, 0);
+            }
+            // orders paid in the meantime keep their status and stock
+            int expired = orderRepository.updateStatus(orderIds, CREATED, EXPIRED);
+            if (expired > 0) {
+                orderSummaryService.updateStatus(orderIds, CREATED, EXPIRED);
+                if (inventoryService.isWriteBehind()) {
+                    releaseFromLedger(orderItemRepository.sumQuantityByProduct(orderIds, EXPIRED));
+                }
+                productRepository.releaseExpiredOrders(orderIds);
+                productCache.invalidateAfterCommit(orderItemRepository.findProductIdsByOrderIds(orderIds));
+                orderRepository.markExpiredSettled(orderIds);
+            }
+            return new Batch(orderIds.size(), expired);
+        });
+    }
+
+    /**
+     * Gives the stock of expired orders back to the write-behind
+     * inventory once the expiry is committed.
+     */
+    private void releaseFromLedger(List<ProductQuantity> released) {
+        Runnable release = () -> released.forEach(line ->
+                inventoryService.adjust(line.getProductId(), line.getQuantity().intValue()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release.run();
+            }
+        });
+    }
+
+    private record Batch(int found, int expired) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ecom.service.impl;
+
+import com.example.ecom.exception.PaymentGatewayException;
+import com.example.ecom.service.PaymentGateway;
+import com.example.ecom.util.PaymentMethod;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for the payment gateway.
+ * <p>
+ * Answers each charge after a configured latency plus random jitter and
+ * declines a configured share of them. Pending charges are timers on a
+ * single scheduler thread, so like a non-blocking HTTP client it holds
+ * no thread per charge in progress. Charges are remembered by payment
+ * reference for an hour, and a repeated charge gets the first outcome.
+ */
+@Service
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, CompletableFuture<String>> charges = new ConcurrentHashMap<>();
+
+    public SimulatedPaymentGateway(@Value("${app.payment.gateway.latency-ms:0}") long latencyMs,
+                                   @Value("${app.payment.gateway.jitter-ms:0}") long jitterMs,
+                                   @Value("${app.payment.gateway.failure-rate:0}") double failureRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "payment-gateway-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> charge(String paymentReference, Long orderId, double amount,
+                                            PaymentMethod paymentMethod) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> first = charges.putIfAbsent(paymentReference, result);
+        if (first != null) {
+            log.debug("Simulated gateway replays charge {} for order id: {}", paymentReference, orderId);
+            return first.copy();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(-jitterMs, jitterMs + 1) : 0);
+        boolean declined = random.nextDouble() < failureRate;
+
+        scheduler.schedule(() -> {
+            if (declined) {
+                log.debug("Simulated gateway declined charge of {} for order id: {}", amount, orderId);
+                result.completeExceptionally(new PaymentGatewayException(
+                        "Payment declined by gateway for order id: " + orderId));
+            } else {
+                result.complete("SIM-" + UUID.randomUUID());
+            }
+        }, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        scheduler.schedule(() -> charges.remove(paymentReference), Math.max(0, delay) + 3_600_000,
+                TimeUnit.MILLISECONDS);
+        return result.copy();
+    }
+
+    /**
+     * Stops the scheduler; charges still pending are never answered.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ecom.util;
+
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers for keyset (cursor) pagination over ID-ordered lists.
+ * <p>
+ * A cursor is the opaque, URL-safe encoding of the last ID a client
+ * has seen. The next page is read with {@code id > :after}, so every
+ * page costs the same index range scan however deep it is, and no
+ * count query is needed.
+ */
+public final class CursorPagination {
+
+    /**
+     * Largest page a client may ask for.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    private static final String PREFIX = "id:";
+
+    private CursorPagination() {
+    }
+
+    /**
+     * Decodes a cursor into the last ID seen.
+     *
+     * @param after cursor from a previous page, or null for the first page
+     * @return last ID seen, 0 for the first page
+     * @throws InvalidCursorException if the cursor was not issued by this API
+     */
+    public static long decode(String after) {
+        if (after == null || after.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                long id = Long.parseLong(value.substring(PREFIX.length()));
+                if (id >= 0) {
+                    return id;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // not Base64 or not a number, reported below
+        }
+        throw new InvalidCursorException("Invalid cursor: " + after);
+    }
+
+    /**
+     * Encodes the last ID of a page as a cursor.
+     *
+     * @param id last ID on the page
+     * @return opaque cursor
+     */
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Limits a requested page size to 1..{@link #MAX_SIZE}.
+     *
+     * @param size requested page size
+     * @return page size to use
+     */
+    public static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds a page from rows read with one row more than the page size;
+     * the extra row only tells that another page follows.
+     *
+     * @param rows   rows in ID order, at most {@code size + 1}
+     * @param size   page size
+     * @param idOf   ID of a row
+     * @param mapper converts a row to its response DTO
+     * @return page content with the cursor of the next page, if any
+     */
+    public static <E, T> CursorPageResponseDto<T> page(List<E> rows, int size,
+                                                       Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageResponseDto.<T>builder()
+                .content(content.stream().map(mapper).toList())
+                .size(content.size())
+                .next(hasNext ? encode(idOf.apply(content.get(content.size() - 1))) : null)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ecom.util;
+
+/**
+ * Kind of mismatch found between a payment and its order.
+ */
+public enum DiscrepancyType {
+    /**
+     * Amount paid differs from the order total.
+     */
+    AMOUNT_MISMATCH,
+    /**
+     * Order has no stored total to compare with.
+     */
+    ORDER_TOTAL_MISSING,
+    /**
+     * Order has a payment but is not in a paid status.
+     */
+    ORDER_NOT_PAID
+}
@@ -0,0 +1,84 @@
+package com.example.ecom.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of a UTF-8 file through a memory-mapped window that
+ * slides over the file, so files of any size are read with a fixed
+ * amount of memory and without copying them through a stream buffer.
+ * <p>
+ * Lines end with {@code \n} or {@code \r\n}; a line must fit in the window.
+ */
+public final class MappedLineReader implements Closeable {
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private byte[] line = new byte[256];
+
+    public MappedLineReader(Path file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the line without its terminator, or null at the end of the file
+     * @throws IOException if the file cannot be read or a line does not fit in the window
+     */
+    public String readLine() throws IOException {
+        if (windowStart + window.position() >= fileSize) {
+            return null;
+        }
+        while (true) {
+            int start = window.position();
+            int end = start;
+            int limit = window.limit();
+            while (end < limit && window.get(end) != '\n') {
+                end++;
+            }
+            boolean lastWindow = windowStart + limit == fileSize;
+            if (end < limit || lastWindow) {
+                window.position(Math.min(end + 1, limit));
+                if (end > start && window.get(end - 1) == '\r') {
+                    end--;
+                }
+                return decode(start, end);
+            }
+            if (start == 0) {
+                throw new IOException("Line at byte " + windowStart + " is longer than " + windowSize + " bytes");
+            }
+            // the line runs past the window: move the window to its start
+            map(windowStart + start);
+        }
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (line.length < length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(start, line, 0, length);
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, fileSize - position));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ecom.util;
+
+import java.util.Optional;
+
+/**
+ * Kind of order event published to downstream systems.
+ */
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_PAID,
+    ORDER_SHIPPED,
+    ORDER_DELIVERED;
+
+    /**
+     * Event announcing that an order reached a status.
+     *
+     * @param status new order status
+     * @return event type, empty for statuses that are not published
+     */
+    public static Optional<OrderEventType> of(OrderStatus status) {
+        return switch (status) {
+            case CREATED -> Optional.of(ORDER_CREATED);
+            case PAID -> Optional.of(ORDER_PAID);
+            case SHIPPED -> Optional.of(ORDER_SHIPPED);
+            case DELIVERED -> Optional.of(ORDER_DELIVERED);
+            case PAYMENT_PENDING, EXPIRED -> Optional.empty();
+        };
+    }
+}
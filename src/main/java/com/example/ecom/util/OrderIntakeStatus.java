@@ -0,0 +1,10 @@
+package com.example.ecom.util;
+
+/**
+ * Outcome of an order submitted through bulk or asynchronous intake.
+ */
+public enum OrderIntakeStatus {
+    QUEUED,
+    CREATED,
+    REJECTED
+}
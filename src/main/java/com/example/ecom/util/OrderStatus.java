@@ -8,7 +8,16 @@ package com.example.ecom.util;
  */
 public enum OrderStatus {
     CREATED,
+    /**
+     * Payment taken by a request and being charged through the payment
+     * gateway; moves on to PAID, or back to CREATED if the charge fails.
+     */
+    PAYMENT_PENDING,
     PAID,
     SHIPPED,
-    DELIVERED
+    DELIVERED,
+    /**
+     * Not paid before its reservation deadline; its stock was released.
+     */
+    EXPIRED
 }
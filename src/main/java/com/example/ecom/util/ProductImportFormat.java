@@ -0,0 +1,37 @@
+package com.example.ecom.util;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * File formats accepted by the bulk product import.
+ */
+public enum ProductImportFormat {
+    /**
+     * Comma-separated values with a header line naming the columns
+     * {@code name}, {@code stock}, {@code price} and optionally {@code id}.
+     * Values may be quoted, with quotes inside doubled.
+     */
+    CSV,
+    /**
+     * Newline-delimited JSON, one product object per line.
+     */
+    NDJSON;
+
+    /**
+     * Picks the format from a file name extension.
+     *
+     * @param fileName file name
+     * @return the format, empty if the extension is not recognized
+     */
+    public static Optional<ProductImportFormat> ofFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return Optional.of(CSV);
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return Optional.of(NDJSON);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.ecom.util;
+
+import com.example.ecom.exception.InvalidProductFilterException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Fields the product listing can be sorted by. Each has database indexes
+ * ending in the product ID, ascending and descending, so a sorted page is
+ * read in index order instead of sorting every matching product.
+ */
+public enum ProductSortField {
+    ID("id", Long.MIN_VALUE),
+    PRICE("price", -Double.MAX_VALUE),
+    STOCK("stock", Integer.MIN_VALUE);
+
+    private final String property;
+    private final Object lowest;
+
+    ProductSortField(String property, Object lowest) {
+        this.property = property;
+        this.lowest = lowest;
+    }
+
+    /**
+     * @return the product attribute sorted by
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return a value no product has less than, to bound the attribute
+     * by when the filter does not
+     */
+    public Object getLowest() {
+        return lowest;
+    }
+
+    /**
+     * Finds the sort field of a product attribute.
+     *
+     * @param property attribute name, in any case
+     * @return the sort field
+     * @throws InvalidProductFilterException if the attribute cannot be sorted by
+     */
+    public static ProductSortField of(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equalsIgnoreCase(property))
+                .findFirst()
+                .orElseThrow(() -> new InvalidProductFilterException("Cannot sort products by '" + property
+                        + "', sort by one of " + Arrays.stream(values())
+                        .map(ProductSortField::getProperty)
+                        .collect(Collectors.joining(", "))));
+    }
+
+    /**
+     * Parses a sort parameter, {@code field} or {@code field,asc|desc}.
+     * Products with equal values follow in ID order, in the same direction,
+     * so that pages neither repeat nor skip products.
+     *
+     * @param sort sort parameter, null or blank for ID order
+     * @return the sort
+     * @throws InvalidProductFilterException if the field or direction is not accepted
+     */
+    public static Sort toSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(ID.property);
+        }
+        String[] parts = sort.split(",", -1);
+        if (parts.length > 2) {
+            throw new InvalidProductFilterException("Invalid sort: '" + sort + "', expected field or field,direction");
+        }
+        ProductSortField field = of(parts[0].strip());
+        Optional<Sort.Direction> direction = parts.length == 1
+                ? Optional.of(Sort.Direction.ASC)
+                : Sort.Direction.fromOptionalString(parts[1].strip().toUpperCase(Locale.ROOT));
+        if (direction.isEmpty()) {
+            throw new InvalidProductFilterException("Invalid sort direction: '" + parts[1].strip()
+                    + "', expected asc or desc");
+        }
+        Sort byField = Sort.by(direction.get(), field.property);
+        return field == ID ? byField : byField.and(Sort.by(direction.get(), ID.property));
+    }
+}
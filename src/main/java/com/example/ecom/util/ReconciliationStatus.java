@@ -0,0 +1,13 @@
+package com.example.ecom.util;
+
+/**
+ * State of a payment reconciliation run.
+ */
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    /**
+     * Stopped by an error; the next run resumes it from its checkpoints.
+     */
+    FAILED
+}
@@ -0,0 +1,81 @@
+package com.example.ecom.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A response body with its entity tag, where the tag is known before the
+ * body is built.
+ * <p>
+ * Tags come from the version columns, read without loading the entities
+ * or taken from DTOs already at hand. A conditional GET whose
+ * {@code If-None-Match} still holds the tag is then answered with
+ * 304 Not Modified without building or serializing the body.
+ *
+ * @param eTag strong entity tag, quoted
+ * @param body builds the body, called only when the body is sent
+ * @param <T>  body type
+ */
+public record Versioned<T>(String eTag, Supplier<T> body) {
+
+    /**
+     * Tags a body with the version of the entity it shows.
+     *
+     * @param version entity version
+     * @param body    builds the body
+     * @return the tagged body
+     */
+    public static <T> Versioned<T> of(long version, Supplier<T> body) {
+        return new Versioned<>("\"" + version + "\"", body);
+    }
+
+    /**
+     * Tags a body with a digest of everything it shows that can change,
+     * such as the versions of several entities.
+     *
+     * @param state versions and other values the body depends on
+     * @param body  builds the body
+     * @return the tagged body
+     */
+    public static <T> Versioned<T> ofDigest(String state, Supplier<T> body) {
+        return new Versioned<>("\"" + DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8)) + "\"",
+                body);
+    }
+
+    /**
+     * Tags a page already read with a digest of its total and the
+     * version of each element, so that any change, addition or removal
+     * of an element on the page changes the tag.
+     *
+     * @param page    page of elements
+     * @param version ID and version of an element
+     * @return the tagged page
+     */
+    public static <T> Versioned<Page<T>> ofPage(Page<T> page, Function<? super T, String> version) {
+        StringBuilder state = new StringBuilder().append(page.getTotalElements());
+        page.forEach(element -> state.append('\n').append(version.apply(element)));
+        return ofDigest(state.toString(), () -> page);
+    }
+
+    /**
+     * Answers a GET: 304 Not Modified without a body when
+     * {@code If-None-Match} holds the tag, otherwise 200 with the body.
+     * Both carry the tag in the ETag header.
+     *
+     * @param request current request
+     * @return the response
+     */
+    public ResponseEntity<T> toResponse(WebRequest request) {
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(body.get());
+    }
+}
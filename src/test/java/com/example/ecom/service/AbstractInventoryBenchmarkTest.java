@@ -0,0 +1,125 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.exception.InsufficientStockException;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Places single-unit orders for one hot product from 1, 8 and 64
+ * threads and reports orders per second and latency percentiles.
+ * Subclasses select the inventory mode, so the write-behind ledger can
+ * be compared with the per-row stock update.
+ */
+@Tag("benchmark")
+abstract class AbstractInventoryBenchmarkTest {
+
+    private static final int[] THREADS = {1, 8, 64};
+    private static final int ORDERS = 3_000;
+    private static final int WARMUP = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes stock still held by the inventory to the Products table.
+     */
+    abstract void settle();
+
+    @Test
+    void createOrder_SingleSkuThroughput() throws Exception {
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Flash sale")
+                .email("flash-sale@example.com")
+                .build()).getId();
+        run(customerId, 1, WARMUP);
+
+        String mode = inventoryService.isWriteBehind() ? "memory" : "database";
+        for (int threads : THREADS) {
+            Result result = run(customerId, threads, ORDERS);
+            System.out.printf("Inventory %s, %d threads: %.0f orders/s, p50 %.2f ms, p99 %.2f ms%n",
+                    mode, threads, result.ordersPerSecond(), result.p50Millis(), result.p99Millis());
+        }
+    }
+
+    /**
+     * Sells out a fresh product with exactly as many units as orders.
+     */
+    private Result run(Long customerId, int threads, int orders) throws Exception {
+        Long productId = productRepository.save(Product.builder()
+                .name("Hot SKU")
+                .stock(orders)
+                .price(10.0)
+                .build()).getId();
+        OrderRequestDto request = orderFor(customerId, productId);
+
+        long[] nanos = new long[orders];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long elapsed;
+        try {
+            List<Future<?>> futures = new ArrayList<>(orders);
+            for (int i = 0; i < orders; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    orderService.createOrder(request);
+                    nanos[index] = System.nanoTime() - begin;
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+            elapsed = System.nanoTime() - begin;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(request));
+        settle();
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select stock from products where id = ?", Integer.class, productId));
+
+        Arrays.sort(nanos);
+        return new Result(orders / (elapsed / 1_000_000_000.0),
+                nanos[orders / 2] / 1_000_000.0,
+                nanos[orders * 99 / 100] / 1_000_000.0);
+    }
+
+    private record Result(double ordersPerSecond, double p50Millis, double p99Millis) {
+    }
+}
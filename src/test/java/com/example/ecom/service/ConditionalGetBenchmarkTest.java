@@ -0,0 +1,149 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.CustomerRequestDto;
+import com.example.ecom.dto.requestDto.ProductRequestDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Polls unchanged products, customers, orders and list pages, first
+ * without and then with If-None-Match, and reports the response bytes
+ * and the CPU time per poll of both.
+ * <p>
+ * Requests run through MockMvc on the test thread without the security
+ * filters, whose BCrypt check of the Basic credentials would otherwise
+ * dominate the CPU time of every poll.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/conditional-get-benchmark/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "logging.level.com.example.ecom=WARN"
+})
+@AutoConfigureMockMvc(addFilters = false)
+class ConditionalGetBenchmarkTest {
+
+    private static final int PRODUCTS = 100;
+    private static final int CUSTOMERS = 20;
+    private static final int ORDERS = 400;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int PAGE_SIZE = 20;
+    private static final int POLLS = 3_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void poll_UnchangedResources() throws Exception {
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductRequestDto product = new ProductRequestDto();
+            product.setName("Polled product " + i);
+            product.setStock(1_000_000);
+            product.setPrice(1.0 + i);
+            productIds.add(productService.createProduct(product).getId());
+        }
+        List<Long> customerIds = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            CustomerRequestDto customer = new CustomerRequestDto();
+            customer.setName("Poller " + i);
+            customer.setEmail("poller" + i + "@example.com");
+            customerIds.add(customerService.createCustomer(customer).getId());
+        }
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (int item = 0; item < ITEMS_PER_ORDER; item++) {
+                quantities.put(productIds.get((i + item * 7) % PRODUCTS), 1 + item);
+            }
+            orderIds.add(orderService.createOrder(orderFor(customerIds.get(i % CUSTOMERS), quantities)).getOrderId());
+        }
+
+        List<String> failures = new ArrayList<>();
+        poll("product by ID", i -> "/api/product/" + productIds.get(i % PRODUCTS), failures);
+        poll("customer by ID", i -> "/api/customer/" + customerIds.get(i % CUSTOMERS), failures);
+        poll("order by ID", i -> "/api/order/" + orderIds.get(i % ORDERS), failures);
+        poll("page of " + PAGE_SIZE + " products",
+                i -> "/api/products?size=" + PAGE_SIZE + "&page=" + i % (PRODUCTS / PAGE_SIZE), failures);
+        poll("page of " + PAGE_SIZE + " orders",
+                i -> "/api/orders?size=" + PAGE_SIZE + "&page=" + i % (ORDERS / PAGE_SIZE), failures);
+
+        assertEquals(List.of(), failures);
+    }
+
+    /**
+     * Polls URLs cycling through {@code url}, reading their ETags on a
+     * first pass, and prints bytes and CPU per poll with and without them.
+     */
+    private void poll(String kind, IntFunction<String> url, List<String> failures) throws Exception {
+        int distinct = Math.max(PRODUCTS, ORDERS);
+        String[] eTags = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            eTags[i] = perform(get(url.apply(i)), 200).getResponse().getHeader("ETag");
+        }
+
+        Poll unconditional = measure(i -> get(url.apply(i)), 200);
+        Poll conditional = measure(i -> get(url.apply(i)).header("If-None-Match", eTags[i % distinct]), 304);
+        // repeated, as the first pass warms up both paths
+        unconditional = measure(i -> get(url.apply(i)), 200);
+        conditional = measure(i -> get(url.apply(i)).header("If-None-Match", eTags[i % distinct]), 304);
+
+        System.out.printf("Poll %s: 200 %d bytes, %.1f us CPU; 304 %d bytes, %.1f us CPU (%.0f%% less CPU)%n",
+                kind, unconditional.bytes(), unconditional.cpuMicros(), conditional.bytes(),
+                conditional.cpuMicros(), 100 * (1 - conditional.cpuMicros() / unconditional.cpuMicros()));
+        if (conditional.bytes() != 0 || conditional.cpuMicros() >= unconditional.cpuMicros()) {
+            failures.add(kind);
+        }
+    }
+
+    private Poll measure(IntFunction<MockHttpServletRequestBuilder> request, int status) throws Exception {
+        long bytes = 0;
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < POLLS; i++) {
+            bytes += perform(request.apply(i), status).getResponse().getContentAsByteArray().length;
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - start;
+        return new Poll(bytes / POLLS, cpu / 1_000.0 / POLLS);
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, int status) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertEquals(status, result.getResponse().getStatus(), result.getRequest().getRequestURI());
+        return result;
+    }
+
+    /**
+     * Average body bytes and CPU time of one poll.
+     */
+    private record Poll(long bytes, double cpuMicros) {
+    }
+}
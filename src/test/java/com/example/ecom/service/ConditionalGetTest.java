@@ -0,0 +1,179 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.CustomerRequestDto;
+import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.util.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Polls products, customers, orders and their list pages with
+ * If-None-Match, and checks that an unchanged resource is answered with
+ * 304 and no body while any change to it is answered with 200 and a new
+ * ETag.
+ */
+@IntegrationTest
+class ConditionalGetTest {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+    private Long customerId;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        productId = productService.createProduct(product("Lamp", 10)).getId();
+        customerId = customerService.createCustomer(customer("Ada")).getId();
+        orderId = orderService.createOrder(orderFor(customerId, productId)).getOrderId();
+    }
+
+    @Test
+    void getProduct_NotModifiedUntilStockOrDetailsChange() throws Exception {
+        String eTag = assertNotModifiedAfterOk("/api/product/" + productId);
+
+        orderService.createOrder(orderFor(customerId, productId));
+        eTag = assertChanged("/api/product/" + productId, eTag);
+
+        productService.updateProduct(productId, product("Desk Lamp", 8));
+        assertChanged("/api/product/" + productId, eTag);
+    }
+
+    @Test
+    void getCustomer_NotModifiedUntilChanged() throws Exception {
+        String eTag = assertNotModifiedAfterOk("/api/customer/" + customerId);
+
+        customerService.updateCustomer(customerId, customer("Ada Lovelace"));
+        assertChanged("/api/customer/" + customerId, eTag);
+    }
+
+    @Test
+    void getOrder_NotModifiedUntilStatusOrProductNameChanges() throws Exception {
+        String eTag = assertNotModifiedAfterOk("/api/order/" + orderId);
+
+        orderService.updateOrderStatus(orderId, OrderStatus.PAID);
+        eTag = assertChanged("/api/order/" + orderId, eTag);
+
+        productService.updateProduct(productId, product("Renamed Lamp", 10));
+        MvcResult renamed = perform(get("/api/order/" + orderId).header("If-None-Match", eTag), 200);
+        assertTrue(renamed.getResponse().getContentAsString().contains("Renamed Lamp"));
+    }
+
+    @Test
+    void getPages_NotModifiedUntilAnElementOrTheTotalChanges() throws Exception {
+        String products = assertNotModifiedAfterOk("/api/products?page=0&size=5");
+        String filtered = assertNotModifiedAfterOk("/api/products?inStock=true&sort=price,desc");
+        String customers = assertNotModifiedAfterOk("/api/customers?page=0&size=5");
+        String orders = assertNotModifiedAfterOk("/api/orders?page=0&size=5");
+
+        productService.createProduct(product("Shade", 3));
+        assertChanged("/api/products?page=0&size=5", products);
+        assertChanged("/api/products?inStock=true&sort=price,desc", filtered);
+
+        orderService.updateOrderStatus(orderId, OrderStatus.PAID);
+        assertChanged("/api/orders?page=0&size=5", orders);
+
+        customerService.createCustomer(customer("Grace"));
+        assertChanged("/api/customers?page=0&size=5", customers);
+    }
+
+    @Test
+    void getProduct_WeakAndListedTagsMatch() throws Exception {
+        String eTag = perform(get("/api/product/" + productId), 200).getResponse().getHeader("ETag");
+
+        perform(get("/api/product/" + productId).header("If-None-Match", "W/" + eTag), 304);
+        perform(get("/api/product/" + productId).header("If-None-Match", "\"other\", " + eTag), 304);
+        perform(get("/api/product/" + productId).header("If-None-Match", "\"other\""), 200);
+    }
+
+    @Test
+    void getMissingResources_NotFound() throws Exception {
+        perform(get("/api/product/999999").header("If-None-Match", "\"0\""), 404);
+        perform(get("/api/customer/999999"), 404);
+        perform(get("/api/order/999999"), 404);
+    }
+
+    /**
+     * Gets a resource, then gets it again with its ETag.
+     *
+     * @return the ETag
+     */
+    private String assertNotModifiedAfterOk(String url) throws Exception {
+        MvcResult ok = perform(get(url), 200);
+        String eTag = ok.getResponse().getHeader("ETag");
+        assertEquals(List.of(eTag), ok.getResponse().getHeaders("ETag"), url);
+        assertTrue(ok.getResponse().getContentAsByteArray().length > 0, url);
+
+        MvcResult notModified = perform(get(url).header("If-None-Match", eTag), 304);
+        assertEquals(eTag, notModified.getResponse().getHeader("ETag"), url);
+        assertEquals(0, notModified.getResponse().getContentAsByteArray().length, url);
+        return eTag;
+    }
+
+    /**
+     * Gets a changed resource with its previous ETag.
+     *
+     * @return the new ETag
+     */
+    private String assertChanged(String url, String previousETag) throws Exception {
+        MvcResult ok = perform(get(url).header("If-None-Match", previousETag), 200);
+        String eTag = ok.getResponse().getHeader("ETag");
+        assertNotEquals(previousETag, eTag, url);
+        return eTag;
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, int status) throws Exception {
+        MvcResult result = mockMvc.perform(authorized(request)).andReturn();
+        assertEquals(status, result.getResponse().getStatus(), result.getRequest().getRequestURI());
+        return result;
+    }
+
+    private static MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", AUTHORIZATION);
+    }
+
+    private static ProductRequestDto product(String name, int stock) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName(name);
+        request.setStock(stock);
+        request.setPrice(12.5);
+        return request;
+    }
+
+    private static CustomerRequestDto customer(String name) {
+        CustomerRequestDto request = new CustomerRequestDto();
+        request.setName(name);
+        request.setEmail(name.toLowerCase().replace(' ', '.') + "-" + System.nanoTime() + "@example.com");
+        return request;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.CustomerOrderResponseDto;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.OrderStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times order history pages of customers with 10, 10k and 100k orders
+ * and checks that the heaviest customer is served about as fast as the
+ * lightest, and that the queries walk the customer indexes in order.
+ * <p>
+ * The orders live in a file database, like in production.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/customer-order-history/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CustomerOrderHistoryBenchmarkTest {
+
+    private static final long[] ORDER_COUNTS = {10, 10_000, 100_000};
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 200;
+    private static final int RUNS = 500;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Order IDs of each customer are interleaved with the others' after the
+     * first ten, as they would be when customers order at the same time.
+     */
+    @BeforeAll
+    void insertOrders() {
+        jdbcTemplate.update("insert into customers (id, name, email) "
+                + "select x, 'History ' || x, 'history' || x || '@example.com' from system_range(1, 3)");
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select x, 1, 'PAID', 1.0, true from system_range(1, 10)");
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select 10 + x, case when mod(x, 11) = 0 then 2 else 3 end, "
+                + "case when mod(x, 100) = 0 then 'DELIVERED' else 'PAID' end, 1.0, true "
+                + "from system_range(1, 110000)");
+        assertEquals(ORDER_COUNTS[1], count(2));
+        assertEquals(ORDER_COUNTS[2], count(3));
+    }
+
+    @Test
+    void getCustomerOrders_PageTimeIndependentOfHistorySize() {
+        double[] firstPage = new double[3];
+        double[] middlePage = new double[3];
+        double[] filteredPage = new double[3];
+        for (int i = 0; i < 3; i++) {
+            long customerId = i + 1;
+            String middle = CursorPagination.encode(middleOrderId(customerId));
+            firstPage[i] = averageMillis(() -> customerService.getCustomerOrders(customerId, null, null, PAGE_SIZE));
+            middlePage[i] = averageMillis(() -> customerService.getCustomerOrders(customerId, null, middle, PAGE_SIZE));
+            filteredPage[i] = averageMillis(() -> customerService.getCustomerOrders(
+                    customerId, OrderStatus.PAID, middle, PAGE_SIZE));
+            System.out.printf("Customer with %d orders: first page %.3f ms, middle page %.3f ms, "
+                            + "PAID from middle %.3f ms%n",
+                    ORDER_COUNTS[i], firstPage[i], middlePage[i], filteredPage[i]);
+        }
+
+        assertFlat("first page", firstPage);
+        assertFlat("middle page", middlePage);
+        assertFlat("status filtered page", filteredPage);
+    }
+
+    @Test
+    void customerOrderQueries_ReadIndexInOrder() {
+        String plan = explain("select o.id, o.status, o.total_amount from orders o "
+                + "where o.customerid = 3 and o.id > 0 order by o.customerid, o.id fetch first 51 rows only");
+        assertTrue(plan.contains("IDX_ORDERS_CUSTOMERID_ID") && plan.contains("index sorted"), plan);
+
+        String filteredPlan = explain("select o.id, o.status, o.total_amount from orders o "
+                + "where o.customerid = 3 and o.status = 'DELIVERED' and o.id > 0 "
+                + "order by o.customerid, o.status, o.id fetch first 51 rows only");
+        assertTrue(filteredPlan.contains("IDX_ORDERS_CUSTOMERID_STATUS_ID")
+                && filteredPlan.contains("index sorted"), filteredPlan);
+    }
+
+    /**
+     * The heaviest customer may be a few times slower than the lightest
+     * through noise and a deeper index, but nowhere near the 10,000x more
+     * orders it has.
+     */
+    private static void assertFlat(String page, double[] millis) {
+        assertTrue(millis[2] < millis[0] * 5 + 1,
+                page + " took " + millis[2] + " ms for 100k orders, " + millis[0] + " ms for 10");
+    }
+
+    private long middleOrderId(long customerId) {
+        return jdbcTemplate.queryForObject("select id from orders where customerid = ? order by id "
+                + "offset (select count(*) / 2 from orders where customerid = ?) rows fetch first 1 row only",
+                Long.class, customerId, customerId);
+    }
+
+    private long count(long customerId) {
+        return jdbcTemplate.queryForObject("select count(*) from orders where customerid = ?", Long.class, customerId);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    private static double averageMillis(Supplier<CursorPageResponseDto<CustomerOrderResponseDto>> read) {
+        for (int i = 0; i < WARMUP; i++) {
+            read.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            assertFalse(read.get().getContent().isEmpty());
+        }
+        return (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / RUNS;
+    }
+}
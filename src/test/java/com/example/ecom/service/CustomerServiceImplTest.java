@@ -1,19 +1,27 @@
 package com.example.ecom.service;
 
 import com.example.ecom.dto.requestDto.CustomerRequestDto;
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.CustomerOrderResponseDto;
 import com.example.ecom.dto.responseDto.CustomerResponseDto;
 import com.example.ecom.entity.Customer;
 import com.example.ecom.exception.DuplicateResourceException;
+import com.example.ecom.exception.InvalidCursorException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.CustomerMapper;
 import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OrderRepository;
 import com.example.ecom.service.impl.CustomerServiceImpl;
+import com.example.ecom.util.CursorPagination;
+import com.example.ecom.util.OrderStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +37,9 @@ public class CustomerServiceImplTest {
     @Mock
     private CustomerMapper customerMapper;
 
+    @Mock
+    private OrderRepository orderRepository;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -180,5 +191,73 @@ public class CustomerServiceImplTest {
         assertEquals("updated@gmail.com", result.getEmail());
     }
 
+    @Test
+    void getCustomersAfter_ReturnsCursorOfLastCustomer() {
+        String after = CursorPagination.encode(10L);
+        List<CustomerResponseDto> customers = List.of(
+                CustomerResponseDto.builder().id(11L).build(),
+                CustomerResponseDto.builder().id(12L).build(),
+                CustomerResponseDto.builder().id(13L).build());
+
+        when(customerRepository.findDtosAfter(10L, Limit.of(3)))
+                .thenReturn(customers);
+
+        CursorPageResponseDto<CustomerResponseDto> result = customerService.getCustomersAfter(after, 2);
+
+        assertEquals(2, result.getContent().size());
+        assertEquals(12L, result.getContent().get(1).getId());
+        assertEquals(CursorPagination.encode(12L), result.getNext());
+    }
+
+    @Test
+    void getCustomersAfter_LastPage_NoNextCursor() {
+        when(customerRepository.findDtosAfter(0L, Limit.of(3)))
+                .thenReturn(List.of(CustomerResponseDto.builder().id(1L).build()));
+
+        CursorPageResponseDto<CustomerResponseDto> result = customerService.getCustomersAfter(null, 2);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void getCustomersAfter_InvalidCursor_Exception() {
+        assertThrows(InvalidCursorException.class,
+                () -> customerService.getCustomersAfter("not-a-cursor", 2));
+    }
+
+    @Test
+    void getCustomerOrders_StatusFilter_ReturnsCursorOfLastOrder() {
+        when(orderRepository.findCustomerOrdersAfter(1L, OrderStatus.PAID, 20L, Limit.of(3)))
+                .thenReturn(List.of(
+                        CustomerOrderResponseDto.builder().orderId(21L).status(OrderStatus.PAID).build(),
+                        CustomerOrderResponseDto.builder().orderId(25L).status(OrderStatus.PAID).build(),
+                        CustomerOrderResponseDto.builder().orderId(30L).status(OrderStatus.PAID).build()));
+
+        CursorPageResponseDto<CustomerOrderResponseDto> result = customerService.getCustomerOrders(
+                1L, OrderStatus.PAID, CursorPagination.encode(20L), 2);
+
+        assertEquals(2, result.getContent().size());
+        assertEquals(CursorPagination.encode(25L), result.getNext());
+    }
+
+    @Test
+    void getCustomerOrders_NoOrders_EmptyPage() {
+        when(orderRepository.findCustomerOrdersAfter(1L, 0L, Limit.of(51))).thenReturn(List.of());
+        when(customerRepository.existsById(1L)).thenReturn(true);
 
+        CursorPageResponseDto<CustomerOrderResponseDto> result = customerService.getCustomerOrders(1L, null, null, 50);
+
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNext());
+    }
+
+    @Test
+    void getCustomerOrders_CustomerNotFound_Exception() {
+        when(orderRepository.findCustomerOrdersAfter(1L, 0L, Limit.of(51))).thenReturn(List.of());
+        when(customerRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> customerService.getCustomerOrders(1L, null, null, 50));
+    }
 }
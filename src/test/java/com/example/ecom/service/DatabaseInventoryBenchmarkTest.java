@@ -0,0 +1,20 @@
+package com.example.ecom.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Single-SKU order throughput with stock taken by a guarded UPDATE of
+ * the product row in every order transaction.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN",
+        "app.inventory.mode=database"
+})
+class DatabaseInventoryBenchmarkTest extends AbstractInventoryBenchmarkTest {
+
+    @Override
+    void settle() {
+        // stock is written by every order
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ecom.service;
+
+import com.example.ecom.config.IdSequenceInitializer;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a table with IDs as the IDENTITY columns handed them out, puts
+ * its sequence back at the start as Hibernate creates it, and checks
+ * that after the initializer runs new rows get IDs past the existing ones.
+ * It needs a context of its own, as Hibernate must not yet hold a block
+ * of customer IDs from the sequence it restarts.
+ */
+@IntegrationTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class IdSequenceInitializerTest {
+
+    private static final int EXISTING = 120;
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void alignSequences_NewIdsFollowExistingRows() {
+        for (long id = 1; id <= EXISTING; id++) {
+            jdbcTemplate.update("insert into customers (id, name, email, version) values (?, ?, ?, 0)",
+                    id, "Migrated " + id, "migrated" + id + "@example.com");
+        }
+        jdbcTemplate.execute("alter sequence customers_seq restart with 1");
+
+        ReflectionTestUtils.invokeMethod(idSequenceInitializer, "alignSequences");
+        Long restartedAt = nextSequenceValue();
+        // running again, as on the next start, never moves the sequence back
+        ReflectionTestUtils.invokeMethod(idSequenceInitializer, "alignSequences");
+        assertEquals(restartedAt, nextSequenceValue());
+
+        // more than one pooled block, so the second block is fetched too
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            Long id = customerRepository.save(Customer.builder()
+                    .name("New " + i)
+                    .email("new" + i + "@example.com")
+                    .build()).getId();
+            assertTrue(id > EXISTING, "id " + id + " collides with a migrated row");
+            ids.add(id);
+        }
+        assertEquals(120, ids.size());
+        assertEquals(EXISTING + 120, customerRepository.count());
+    }
+
+    private Long nextSequenceValue() {
+        return jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where sequence_name = 'CUSTOMERS_SEQ'",
+                Long.class);
+    }
+}
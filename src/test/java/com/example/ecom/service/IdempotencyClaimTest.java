@@ -0,0 +1,211 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.PaymentResponseDto;
+import com.example.ecom.exception.IdempotencyKeyInProgressException;
+import com.example.ecom.repository.IdempotencyRecordRepository;
+import com.example.ecom.service.impl.IdempotencyServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs two idempotency services over the same idempotency_keys table,
+ * as two instances of the application would, and checks that a key is
+ * run by one of them only.
+ */
+@IntegrationTest
+class IdempotencyClaimTest {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void execute_SameKeyOnTwoInstances_RunsOnce() throws Exception {
+        IdempotencyServiceImpl first = instance();
+        IdempotencyServiceImpl second = instance();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> running = CompletableFuture.supplyAsync(() ->
+                first.execute("payment", "shared-key", Map.of("orderId", 1), PaymentResponseDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return pay();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> second.execute("payment", "shared-key", Map.of("orderId", 1),
+                        PaymentResponseDto.class, this::pay));
+        release.countDown();
+        Long id = running.get(5, TimeUnit.SECONDS).getBody().getId();
+
+        ResponseEntity<PaymentResponseDto> retry = second.execute("payment", "shared-key", Map.of("orderId", 1),
+                PaymentResponseDto.class, this::pay);
+        assertEquals(id, retry.getBody().getId());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_FailedRequest_CanBeRetriedOnAnotherInstance() {
+        assertThrows(IllegalStateException.class,
+                () -> instance().execute("payment", "failing-key", Map.of("orderId", 2),
+                        PaymentResponseDto.class, () -> {
+                            throw new IllegalStateException("gateway down");
+                        }));
+
+        instance().execute("payment", "failing-key", Map.of("orderId", 2), PaymentResponseDto.class, this::pay);
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_FailureAfterTakeover_KeepsNewOwnersClaim() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> stalled = CompletableFuture.supplyAsync(() ->
+                instance().execute("payment", "taken-key", Map.of("orderId", 3), PaymentResponseDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    throw new IllegalStateException("gateway down");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        expireClaim("payment:taken-key");
+        CountDownLatch takenOver = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> owner = CompletableFuture.supplyAsync(() ->
+                instance().execute("payment", "taken-key", Map.of("orderId", 3), PaymentResponseDto.class, () -> {
+                    takenOver.countDown();
+                    await(finish);
+                    return pay();
+                }));
+        assertTrue(takenOver.await(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertThrows(Exception.class, () -> stalled.get(5, TimeUnit.SECONDS));
+        // the stale request must not have freed the key for a third one
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> instance().execute("payment", "taken-key", Map.of("orderId", 3),
+                        PaymentResponseDto.class, this::pay));
+        finish.countDown();
+
+        assertEquals(1, owner.get(5, TimeUnit.SECONDS).getBody().getId());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_SuccessAfterTakeover_KeepsNewOwnersResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> stalled = CompletableFuture.supplyAsync(() ->
+                instance().execute("payment", "late-key", Map.of("orderId", 4), PaymentResponseDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return pay();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        expireClaim("payment:late-key");
+        CountDownLatch takenOver = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> owner = CompletableFuture.supplyAsync(() ->
+                instance().execute("payment", "late-key", Map.of("orderId", 4), PaymentResponseDto.class, () -> {
+                    takenOver.countDown();
+                    await(finish);
+                    return pay();
+                }));
+        assertTrue(takenOver.await(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        stalled.get(5, TimeUnit.SECONDS);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select status_code from idempotency_keys where id = 'payment:late-key'", Integer.class));
+        finish.countDown();
+        Long ownerId = owner.get(5, TimeUnit.SECONDS).getBody().getId();
+
+        ResponseEntity<PaymentResponseDto> retry = instance().execute("payment", "late-key", Map.of("orderId", 4),
+                PaymentResponseDto.class, this::pay);
+        assertEquals(ownerId, retry.getBody().getId());
+    }
+
+    @Test
+    void createOrder_KeyTooLong_BadRequestWithoutOrder() throws Exception {
+        Integer orders = count("orders");
+        Integer keys = count("idempotency_keys");
+        mockMvc.perform(post("/api/order")
+                        .header("Authorization", AUTHORIZATION)
+                        .header("Idempotency-Key", "k".repeat(IdempotencyServiceImpl.MAX_KEY_LENGTH + 1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\":1,\"items\":[{\"productId\":1,\"quantity\":1}]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(orders, count("orders"));
+        assertEquals(keys, count("idempotency_keys"));
+    }
+
+    private Integer count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private IdempotencyServiceImpl instance() {
+        return new IdempotencyServiceImpl(idempotencyRecordRepository, objectMapper, 60, 100, 60);
+    }
+
+    /**
+     * Moves the lease of a claim into the past, as if its request had
+     * run for longer than the claim timeout.
+     */
+    private void expireClaim(String id) {
+        jdbcTemplate.update("update idempotency_keys set expires_at = ? where id = ?",
+                LocalDateTime.now().minusSeconds(1), id);
+    }
+
+    private ResponseEntity<PaymentResponseDto> pay() {
+        long id = executions.incrementAndGet();
+        return new ResponseEntity<>(PaymentResponseDto.builder()
+                .id(id)
+                .orderId(1L)
+                .amount(200.0)
+                .build(), HttpStatus.CREATED);
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
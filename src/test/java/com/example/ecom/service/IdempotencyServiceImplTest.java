@@ -0,0 +1,179 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.PaymentResponseDto;
+import com.example.ecom.entity.IdempotencyRecord;
+import com.example.ecom.exception.IdempotencyKeyInProgressException;
+import com.example.ecom.exception.IdempotencyKeyMismatchException;
+import com.example.ecom.exception.InvalidIdempotencyKeyException;
+import com.example.ecom.repository.IdempotencyRecordRepository;
+import com.example.ecom.service.impl.IdempotencyServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository,
+                new ObjectMapper().findAndRegisterModules(), 60, 100, 60);
+    }
+
+    @Test
+    void execute_WithoutKey_RunsEveryTime() {
+        idempotencyService.execute("payment", null, Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+        idempotencyService.execute("payment", null, Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_SameKey_ReplaysFirstResponse() {
+        ResponseEntity<PaymentResponseDto> first = idempotencyService.execute(
+                "payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+        ResponseEntity<PaymentResponseDto> retry = idempotencyService.execute(
+                "payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody().getId(), retry.getBody().getId());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        verify(idempotencyRecordRepository).claim(eq("payment:key-1"), any(), any(), any(), any());
+        verify(idempotencyRecordRepository).complete(eq("payment:key-1"), any(), eq(201), any(), any());
+    }
+
+    @Test
+    void execute_SameKeyDifferentRequest_Exception() {
+        idempotencyService.execute("payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotencyService.execute("payment", "key-1", Map.of("orderId", 2),
+                        PaymentResponseDto.class, this::pay));
+    }
+
+    @Test
+    void execute_KeyTooLong_RejectedBeforeRunning() {
+        String key = "k".repeat(IdempotencyServiceImpl.MAX_KEY_LENGTH + 1);
+
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> idempotencyService.execute("payment", key, Map.of("orderId", 1),
+                        PaymentResponseDto.class, this::pay));
+        assertEquals(0, executions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void execute_KeyClaimedByRunningRequest_Conflict() {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(idempotencyRecordRepository).claim(eq("payment:key-1"), any(), any(), any(), any());
+        when(idempotencyRecordRepository.findById("payment:key-1")).thenReturn(Optional.of(
+                IdempotencyRecord.builder()
+                        .id("payment:key-1")
+                        .statusCode(0)
+                        .responseBody("")
+                        .expiresAt(LocalDateTime.now().plusMinutes(1))
+                        .build()));
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("payment", "key-1", Map.of("orderId", 1),
+                        PaymentResponseDto.class, this::pay));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_ExpiredClaim_TakenOver() {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .doNothing()
+                .when(idempotencyRecordRepository).claim(eq("payment:key-1"), any(), any(), any(), any());
+        when(idempotencyRecordRepository.deleteExpired(eq("payment:key-1"), any())).thenReturn(1);
+
+        idempotencyService.execute("payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_FailedRequest_ReleasesClaim() {
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("payment", "key-1", Map.of("orderId", 1),
+                        PaymentResponseDto.class, () -> {
+                            throw new IllegalStateException("declined");
+                        }));
+
+        ArgumentCaptor<String> claimToken = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyRecordRepository).claim(eq("payment:key-1"), any(), claimToken.capture(), any(), any());
+        verify(idempotencyRecordRepository).release("payment:key-1", claimToken.getValue());
+        idempotencyService.execute("payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, this::pay);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_RunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return pay();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<PaymentResponseDto>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("payment", "key-1", Map.of("orderId", 1), PaymentResponseDto.class, this::pay));
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBody().getId(),
+                duplicate.get(5, TimeUnit.SECONDS).getBody().getId());
+        assertEquals(1, executions.get());
+    }
+
+    private ResponseEntity<PaymentResponseDto> pay() {
+        long id = executions.incrementAndGet();
+        return new ResponseEntity<>(PaymentResponseDto.builder()
+                .id(id)
+                .orderId(1L)
+                .amount(200.0)
+                .build(), HttpStatus.CREATED);
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
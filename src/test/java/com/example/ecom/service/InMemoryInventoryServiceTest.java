@@ -0,0 +1,311 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OrderItemRepository;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.impl.InMemoryInventoryService;
+import com.example.ecom.util.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the write-behind inventory against an in-memory database and
+ * checks the reservations in the ledger, the batched flush to the
+ * Products table, the interplay with the expiry job and status updates,
+ * and the rebuild of the ledger after a restart.
+ * <p>
+ * The scheduled flush and expiry are pushed out of the way, and each
+ * test calls them itself.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.inventory.mode=memory",
+        "app.inventory.flush-interval-ms=3600000",
+        "app.inventory.flush-batch-size=2",
+        "app.order.reservation.expiry-interval-ms=3600000"
+})
+class InMemoryInventoryServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReservationExpiryService reservationExpiryService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private InMemoryInventoryService inventory;
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() {
+        inventory = (InMemoryInventoryService) inventoryService;
+        while (unsettledOrders() > 0) {
+            inventory.flush();
+        }
+        customerId = customerRepository.save(Customer.builder()
+                .name("Ledger")
+                .email("ledger-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+    }
+
+    @Test
+    void reserve_ConcurrentReservationsNeverOversell() throws Exception {
+        Long productId = product(500);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (inventory.reserve(Map.of(productId, 1)).isEmpty()) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(500, reserved.get());
+        assertEquals(List.of(productId), inventory.reserve(Map.of(productId, 1)));
+        assertEquals(500, stockOf(productId));
+    }
+
+    @Test
+    void reserve_ShortProductTakesNothing() {
+        Long plenty = product(5);
+        Long scarce = product(1);
+
+        assertEquals(List.of(scarce), inventory.reserve(Map.of(plenty, 3, scarce, 2)));
+
+        assertEquals(List.of(), inventory.reserve(Map.of(plenty, 5, scarce, 1)));
+    }
+
+    @Test
+    void reserve_RolledBackTransactionReturnsStock() {
+        Long productId = product(5);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(List.of(), inventory.reserve(Map.of(productId, 4)));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), inventory.reserve(Map.of(productId, 5)));
+    }
+
+    @Test
+    void flush_WritesStockOfOrdersInBatches() {
+        Long productId = product(10);
+        for (int i = 0; i < 5; i++) {
+            order(productId, 1);
+        }
+        assertEquals(10, stockOf(productId));
+        assertEquals(5, unsettledOrders());
+
+        inventory.flush();
+        assertEquals(3, unsettledOrders());
+        assertEquals(8, stockOf(productId));
+
+        inventory.flush();
+        inventory.flush();
+        assertEquals(0, unsettledOrders());
+        assertEquals(5, stockOf(productId));
+        assertEquals(5, productCache.get(productId).orElseThrow().getStock());
+    }
+
+    @Test
+    void flush_ConcurrentFlushesSettleEachOrderOnce() throws Exception {
+        Long productId = product(1_000);
+        for (int i = 0; i < 200; i++) {
+            order(productId, 1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    while (unsettledOrders() > 0) {
+                        inventory.flush();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(800, stockOf(productId));
+    }
+
+    @Test
+    void expiry_BeforeFlushNeverTouchesTheTable() {
+        Long productId = product(10);
+        Long orderId = order(productId, 3);
+
+        pastDeadline(orderId);
+        assertEquals(1, reservationExpiryService.expireReservations());
+        inventory.flush();
+
+        assertEquals(10, stockOf(productId));
+        assertEquals(0, unsettledOrders());
+        assertEquals(List.of(), inventory.reserve(Map.of(productId, 10)));
+    }
+
+    @Test
+    void expiry_AfterFlushReturnsStockOnce() {
+        Long productId = product(10);
+        Long orderId = order(productId, 3);
+        inventory.flush();
+        assertEquals(7, stockOf(productId));
+
+        pastDeadline(orderId);
+        assertEquals(1, reservationExpiryService.expireReservations());
+        inventory.flush();
+
+        assertEquals(10, stockOf(productId));
+        assertEquals(List.of(), inventory.reserve(Map.of(productId, 10)));
+        assertEquals(List.of(productId), inventory.reserve(Map.of(productId, 1)));
+    }
+
+    @Test
+    void updateOrderStatus_DuringFlushKeepsOrderSettled() throws Exception {
+        Long productId = product(10);
+        Long orderId = order(productId, 2);
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // the status update finds the order as loaded before the flush settled it
+                orderRepository.findWithItemsById(orderId).orElseThrow();
+                try {
+                    flusher.submit(inventory::flush).get(30, TimeUnit.SECONDS);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+                orderService.updateOrderStatus(orderId, OrderStatus.PAID);
+            });
+        } finally {
+            flusher.shutdownNow();
+        }
+        assertEquals(8, stockOf(productId));
+        assertEquals(0, unsettledOrders());
+
+        inventory.flush();
+
+        assertEquals(8, stockOf(productId));
+        assertEquals(OrderStatus.PAID, orderRepository.findById(orderId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void restart_RebuildsLedgerAndSettlesPendingOrders() {
+        Long productId = product(10);
+        for (int i = 0; i < 3; i++) {
+            order(productId, 2);
+        }
+
+        InMemoryInventoryService crashed = restartedInventory();
+        assertEquals(List.of(productId), crashed.reserve(Map.of(productId, 5)));
+        assertEquals(List.of(), crashed.reserve(Map.of(productId, 4)));
+
+        InMemoryInventoryService restarted = restartedInventory();
+        ReflectionTestUtils.invokeMethod(restarted, "reconcile");
+        assertEquals(0, unsettledOrders());
+        assertEquals(4, stockOf(productId));
+        assertEquals(List.of(productId), restarted.reserve(Map.of(productId, 5)));
+        assertEquals(List.of(), restarted.reserve(Map.of(productId, 4)));
+    }
+
+    /**
+     * Creates a ledger over the same tables, as after a restart.
+     */
+    private InMemoryInventoryService restartedInventory() {
+        return new InMemoryInventoryService(productRepository, orderRepository, orderItemRepository,
+                productCache, transactionTemplate, 2);
+    }
+
+    private Long product(int stock) {
+        return productRepository.save(Product.builder()
+                .name("Ledger SKU")
+                .stock(stock)
+                .price(1.0)
+                .build()).getId();
+    }
+
+    private Long order(Long productId, int quantity) {
+        return orderService.createOrder(orderFor(customerId, Map.of(productId, quantity))).getOrderId();
+    }
+
+    private void pastDeadline(Long orderId) {
+        jdbcTemplate.update("update orders set reserved_until = dateadd('MINUTE', -1, current_timestamp) "
+                + "where id = ?", orderId);
+    }
+
+    private int stockOf(Long productId) {
+        return jdbcTemplate.queryForObject("select stock from products where id = ?", Integer.class, productId);
+    }
+
+    private int unsettledOrders() {
+        return jdbcTemplate.queryForObject("select count(*) from orders where stock_settled = false", Integer.class);
+    }
+}
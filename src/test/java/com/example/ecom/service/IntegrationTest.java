@@ -0,0 +1,34 @@
+package com.example.ecom.service;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Starts the application against an in-memory H2 database created for
+ * the test context, with MockMvc available.
+ * <p>
+ * Test classes carrying only this annotation share one cached context
+ * and so one database: they create their own rows and check them by ID
+ * or as counts relative to the start of the test, and a class that needs
+ * the tables to itself clears them with {@link TestDatabase#clear}.
+ * Settings a class depends on go in {@code @TestPropertySource}, which
+ * takes precedence here and gives the class a context, and a database,
+ * of its own.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:${random.uuid};DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@interface IntegrationTest {
+}
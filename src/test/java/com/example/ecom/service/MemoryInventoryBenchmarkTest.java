@@ -0,0 +1,33 @@
+package com.example.ecom.service;
+
+import com.example.ecom.service.impl.InMemoryInventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Single-SKU order throughput with stock reserved in the write-behind
+ * ledger and flushed to the product row in batches, at the default
+ * flush interval.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN",
+        "app.inventory.mode=memory"
+})
+class MemoryInventoryBenchmarkTest extends AbstractInventoryBenchmarkTest {
+
+    @Autowired
+    private InMemoryInventoryService inventory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    void settle() {
+        while (jdbcTemplate.queryForObject(
+                "select count(*) from orders where stock_settled = false", Integer.class) > 0) {
+            inventory.flush();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creates the same orders through POST /api/order one at a time and
+ * through POST /api/orders/batch, and reports the orders per second of
+ * both.
+ * <p>
+ * Requests run through MockMvc without the security filters, whose
+ * BCrypt check would otherwise be charged to every single-order request.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN"
+})
+@AutoConfigureMockMvc(addFilters = false)
+class OrderBatchBenchmarkTest {
+
+    private static final int ORDERS = 5_000;
+    private static final int BATCH_SIZE = 500;
+    private static final int PRODUCTS = 100;
+    private static final int LINES = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createOrders_BatchAgainstSingleOrders() throws Exception {
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Marketplace")
+                .email("marketplace@example.com")
+                .build()).getId();
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Marketplace item " + i)
+                    .stock(1_000_000)
+                    .price(1.0 + i)
+                    .build()).getId());
+        }
+        List<OrderRequestDto> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (int line = 0; line < LINES; line++) {
+                quantities.put(productIds.get((i + line * 31) % PRODUCTS), 1 + line);
+            }
+            orders.add(orderFor(customerId, quantities));
+        }
+        // warm-up of both endpoints
+        single(orders.subList(0, BATCH_SIZE));
+        batch(orders.subList(0, BATCH_SIZE));
+
+        long start = System.nanoTime();
+        single(orders);
+        double singleRate = ORDERS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        start = System.nanoTime();
+        batch(orders);
+        double batchRate = ORDERS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        System.out.printf("%d orders of %d lines: single %.0f orders/s, batches of %d %.0f orders/s (%.1fx)%n",
+                ORDERS, LINES, singleRate, BATCH_SIZE, batchRate, batchRate / singleRate);
+        assertEquals(2 * (ORDERS + BATCH_SIZE),
+                jdbcTemplate.queryForObject("select count(*) from orders", Integer.class));
+    }
+
+    private void single(List<OrderRequestDto> orders) throws Exception {
+        for (OrderRequestDto order : orders) {
+            mockMvc.perform(post("/api/order")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(order)))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    private void batch(List<OrderRequestDto> orders) throws Exception {
+        for (int from = 0; from < orders.size(); from += BATCH_SIZE) {
+            List<OrderRequestDto> batch = orders.subList(from, Math.min(from + BATCH_SIZE, orders.size()));
+            mockMvc.perform(post("/api/orders/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(batch)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created").value(batch.size()));
+        }
+    }
+}
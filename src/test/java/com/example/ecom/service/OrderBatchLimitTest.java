@@ -0,0 +1,90 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts order batches at and above the configured maximum size and checks
+ * that a batch too large is rejected without creating any of its orders.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.order.batch.max-size=" + OrderBatchLimitTest.MAX_BATCH_SIZE
+})
+class OrderBatchLimitTest {
+
+    static final int MAX_BATCH_SIZE = 3;
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createOrders_AboveMaximum_PayloadTooLargeWithoutOrders() throws Exception {
+        Integer orders = countOrders();
+        mockMvc.perform(post("/api/orders/batch")
+                        .header("Authorization", AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchOf(MAX_BATCH_SIZE + 1)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertEquals(orders, countOrders());
+    }
+
+    @Test
+    void createOrders_AtMaximum_Created() throws Exception {
+        mockMvc.perform(post("/api/orders/batch")
+                        .header("Authorization", AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchOf(MAX_BATCH_SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(MAX_BATCH_SIZE));
+    }
+
+    private Integer countOrders() {
+        return jdbcTemplate.queryForObject("select count(*) from orders", Integer.class);
+    }
+
+    private String batchOf(int orders) {
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Batch")
+                .email("batch-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+        Long productId = productRepository.save(Product.builder()
+                .name("Batch SKU")
+                .stock(100)
+                .price(1.0)
+                .build()).getId();
+        String order = "{\"customerId\":" + customerId + ",\"items\":[{\"productId\":" + productId
+                + ",\"quantity\":1}]}";
+        return "[" + String.join(",", Collections.nCopies(orders, order)) + "]";
+    }
+}
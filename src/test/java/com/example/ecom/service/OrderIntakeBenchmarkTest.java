@@ -0,0 +1,152 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.OrderIntakeResponseDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.util.OrderIntakeStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Places the same orders from concurrent clients, first created
+ * synchronously one transaction each and then through the asynchronous
+ * intake, and reports the p50 and p99 latency until the client gets its
+ * answer and the orders per second written to the database.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN"
+})
+class OrderIntakeBenchmarkTest {
+
+    private static final int CLIENTS = 32;
+    private static final int ORDERS = 4_000;
+    private static final int PRODUCTS = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void placeOrders_AsyncIntakeAgainstSynchronous() throws Exception {
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Checkout rush")
+                .email("checkout-rush@example.com")
+                .build()).getId();
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Rush item " + i)
+                    .stock(1_000_000)
+                    .price(1.0 + i)
+                    .build()).getId());
+        }
+        List<OrderRequestDto> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(orderFor(customerId, productIds.get(i % PRODUCTS), productIds.get((i + 37) % PRODUCTS)));
+        }
+        // warm-up of both paths
+        sync(orders.subList(0, 500));
+        async(orders.subList(0, 500));
+
+        print("synchronous", sync(orders));
+        print("async intake", async(orders));
+    }
+
+    private Result sync(List<OrderRequestDto> orders) throws Exception {
+        long begin = System.nanoTime();
+        long[] nanos = place(orders, orderService::createOrder);
+        return new Result(nanos, orders.size() / ((System.nanoTime() - begin) / 1_000_000_000.0));
+    }
+
+    /**
+     * Submits the orders and waits until the writers have created all of them.
+     */
+    private Result async(List<OrderRequestDto> orders) throws Exception {
+        List<String> trackingIds = new ArrayList<>(orders.size());
+        long begin = System.nanoTime();
+        long[] nanos = place(orders, order -> {
+            OrderIntakeResponseDto queued = orderIntakeService.submit(order);
+            synchronized (trackingIds) {
+                trackingIds.add(queued.getTrackingId());
+            }
+            return queued;
+        });
+        for (String trackingId : trackingIds) {
+            OrderIntakeResponseDto state;
+            while ((state = orderIntakeService.getStatus(trackingId)).getStatus() == OrderIntakeStatus.QUEUED) {
+                Thread.sleep(5);
+            }
+            assertEquals(OrderIntakeStatus.CREATED, state.getStatus(), String.valueOf(state.getErrors()));
+        }
+        return new Result(nanos, orders.size() / ((System.nanoTime() - begin) / 1_000_000_000.0));
+    }
+
+    /**
+     * Places the orders from {@link #CLIENTS} threads and returns the
+     * sorted latency of each call.
+     */
+    private long[] place(List<OrderRequestDto> orders, Function<OrderRequestDto, ?> call) throws Exception {
+        long[] nanos = new long[orders.size()];
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    call.apply(orders.get(index));
+                    nanos[index] = System.nanoTime() - begin;
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void print(String path, Result result) {
+        long[] nanos = result.nanos();
+        System.out.printf("%s, %d clients: %.0f orders/s written, answer p50 %.2f ms, p99 %.2f ms%n",
+                path, CLIENTS, result.ordersPerSecond(), nanos[nanos.length / 2] / 1_000_000.0,
+                nanos[nanos.length * 99 / 100] / 1_000_000.0);
+    }
+
+    private record Result(long[] nanos, double ordersPerSecond) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.BatchOrderResponseDto;
+import com.example.ecom.dto.responseDto.BatchOrderResultDto;
+import com.example.ecom.dto.responseDto.OrderIntakeResponseDto;
+import com.example.ecom.exception.IntakeQueueFullException;
+import com.example.ecom.exception.ResourceNotFoundException;
+import com.example.ecom.service.impl.OrderIntakeServiceImpl;
+import com.example.ecom.util.OrderIntakeStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeServiceImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private OrderIntakeServiceImpl intakeService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        intakeService.stop();
+    }
+
+    @Test
+    void submit_QueuedOrderIsCreatedByWriter() throws InterruptedException {
+        intakeService = new OrderIntakeServiceImpl(orderService, 10, 1, 10, 60);
+        when(orderService.createOrders(anyList())).thenReturn(BatchOrderResponseDto.builder()
+                .created(1)
+                .results(List.of(BatchOrderResultDto.builder()
+                        .index(0)
+                        .status(OrderIntakeStatus.CREATED)
+                        .orderId(7L)
+                        .build()))
+                .build());
+        intakeService.start();
+
+        OrderIntakeResponseDto queued = intakeService.submit(new OrderRequestDto());
+        assertEquals(OrderIntakeStatus.QUEUED, queued.getStatus());
+
+        OrderIntakeResponseDto state = queued;
+        for (int i = 0; i < 50 && state.getStatus() == OrderIntakeStatus.QUEUED; i++) {
+            Thread.sleep(100);
+            state = intakeService.getStatus(queued.getTrackingId());
+        }
+        assertEquals(OrderIntakeStatus.CREATED, state.getStatus());
+        assertEquals(7L, state.getOrderId());
+    }
+
+    @Test
+    void submit_QueueFull_Exception() {
+        intakeService = new OrderIntakeServiceImpl(orderService, 1, 0, 10, 60);
+        intakeService.start();
+
+        intakeService.submit(new OrderRequestDto());
+
+        assertThrows(IntakeQueueFullException.class,
+                () -> intakeService.submit(new OrderRequestDto()));
+    }
+
+    @Test
+    void getStatus_UnknownTrackingId_Exception() {
+        intakeService = new OrderIntakeServiceImpl(orderService, 1, 0, 10, 60);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> intakeService.getStatus("unknown"));
+    }
+}
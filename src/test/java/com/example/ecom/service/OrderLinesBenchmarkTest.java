@@ -0,0 +1,124 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Places orders of 1 to 200 lines with a cold product cache and reports
+ * the SQL statements and the median latency per order, to show that the
+ * products of an order are resolved with one query whatever its size.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.ecom.service.OrderLinesBenchmarkTest$StatementCounter"
+})
+class OrderLinesBenchmarkTest {
+
+    private static final int[] LINES = {1, 10, 50, 100, 200};
+    private static final int ORDERS_PER_SIZE = 30;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void createOrder_StatementsAndLatencyByOrderSize() {
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Bulk buyer")
+                .email("bulk-buyer@example.com")
+                .build()).getId();
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < LINES[LINES.length - 1]; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Line product " + i)
+                    .stock(1_000_000)
+                    .price(1.0 + i)
+                    .build()).getId());
+        }
+        // warm-up
+        for (int i = 0; i < ORDERS_PER_SIZE; i++) {
+            orderService.createOrder(orderFor(customerId, productIds.subList(0, 10)));
+        }
+
+        for (int lines : LINES) {
+            List<Long> ordered = productIds.subList(0, lines);
+            long[] nanos = new long[ORDERS_PER_SIZE];
+            int statements = 0;
+            int productSelects = 0;
+            for (int i = 0; i < ORDERS_PER_SIZE; i++) {
+                productCache.invalidateAfterCommit(ordered);
+                StatementCounter.reset();
+                long start = System.nanoTime();
+                orderService.createOrder(orderFor(customerId, ordered));
+                nanos[i] = System.nanoTime() - start;
+                statements += StatementCounter.count();
+                productSelects += StatementCounter.productSelects();
+            }
+            Arrays.sort(nanos);
+            System.out.printf("Order of %d lines: %.1f statements (%.1f product SELECTs), median %.2f ms%n",
+                    lines, statements / (double) ORDERS_PER_SIZE, productSelects / (double) ORDERS_PER_SIZE,
+                    nanos[ORDERS_PER_SIZE / 2] / 1_000_000.0);
+
+            assertEquals(ORDERS_PER_SIZE, productSelects, lines + " lines");
+        }
+    }
+
+    /**
+     * Counts the statements Hibernate prepares outside the scheduler
+     * threads, and among them the reads of the Products table.
+     */
+    public static class StatementCounter implements StatementInspector {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+        private static final AtomicInteger PRODUCT_SELECTS = new AtomicInteger();
+
+        static void reset() {
+            COUNT.set(0);
+            PRODUCT_SELECTS.set(0);
+        }
+
+        static int count() {
+            return COUNT.get();
+        }
+
+        static int productSelects() {
+            return PRODUCT_SELECTS.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (!Thread.currentThread().getName().startsWith("scheduling-")) {
+                COUNT.incrementAndGet();
+                if (sql.startsWith("select") && sql.contains(" from products ")) {
+                    PRODUCT_SELECTS.incrementAndGet();
+                }
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.util.CursorPagination;
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each order read endpoint issues, so that
+ * a change reintroducing N+1 loading fails the build.
+ * <p>
+ * Statements run by scheduled jobs are not counted.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.ecom.service.OrderQueryCountTest$StatementCounter"
+})
+class OrderQueryCountTest {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+            .encodeToString("admin:password".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Customer customer = customerRepository.save(Customer.builder()
+                    .name("Reader " + i)
+                    .email("reader" + i + "-" + System.nanoTime() + "@example.com")
+                    .build());
+            Product first = productRepository.save(Product.builder()
+                    .name("First " + i).stock(10).price(1.0).build());
+            Product second = productRepository.save(Product.builder()
+                    .name("Second " + i).stock(10).price(2.0).build());
+            orderIds.add(orderService.createOrder(
+                    orderFor(customer.getId(), first.getId(), second.getId())).getOrderId());
+        }
+    }
+
+    @Test
+    void getOrderById_VersionLookupAndOneFetch() throws Exception {
+        StatementCounter.reset();
+        String eTag = mockMvc.perform(get("/api/order/{id}", orderIds.get(0)).header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].productName").exists())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertEquals(2, StatementCounter.count());
+
+        StatementCounter.reset();
+        mockMvc.perform(get("/api/order/{id}", orderIds.get(0)).header("Authorization", AUTHORIZATION)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(1, StatementCounter.count());
+    }
+
+    @Test
+    void getAllOrders_IdsCountVersionsAndOneFetch() throws Exception {
+        StatementCounter.reset();
+        String eTag = mockMvc.perform(get("/api/orders").param("page", "0").param("size", "3")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[2].items[1].productName").exists())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertEquals(4, StatementCounter.count());
+
+        StatementCounter.reset();
+        mockMvc.perform(get("/api/orders").param("page", "0").param("size", "3")
+                        .header("Authorization", AUTHORIZATION).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(3, StatementCounter.count());
+    }
+
+    @Test
+    void getOrdersAfter_IdsAndOneFetchWithoutCount() throws Exception {
+        StatementCounter.reset();
+        String first = CursorPagination.encode(orderIds.get(0) - 1);
+        String body = mockMvc.perform(get("/api/orders/cursor").param("after", first).param("size", "3")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[2].items[1].productName").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, StatementCounter.count());
+
+        String next = JsonPath.read(body, "$.next");
+        mockMvc.perform(get("/api/orders/cursor").param("after", next).param("size", "3")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].orderId").value(orderIds.get(3).intValue()));
+    }
+
+    @Test
+    void getOrdersByStatus_OneStatement() throws Exception {
+        StatementCounter.reset();
+        MvcResult streaming = mockMvc.perform(get("/api/order/status/{status}", "CREATED")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(streaming))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].items.length()").value(2))
+                .andExpect(jsonPath("$[0].items[0].productName").exists());
+
+        assertEquals(1, StatementCounter.count());
+    }
+
+    @Test
+    void exportOrders_OneStatementOneLinePerOrder() throws Exception {
+        StatementCounter.reset();
+        MvcResult streaming = mockMvc.perform(get("/api/orders/export")
+                        .param("fromId", orderIds.get(1).toString())
+                        .param("toId", orderIds.get(3).toString())
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(streaming))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(1, StatementCounter.count());
+        assertExported(body);
+    }
+
+    @Test
+    void exportOrders_GzipWhenAccepted() throws Exception {
+        MvcResult streaming = mockMvc.perform(get("/api/orders/export")
+                        .param("status", "CREATED")
+                        .param("fromId", orderIds.get(1).toString())
+                        .param("toId", orderIds.get(3).toString())
+                        .header("Accept-Encoding", "gzip, deflate")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] compressed = mockMvc.perform(asyncDispatch(streaming))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertExported(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void exportOrders_PlainWhenGzipRefused() throws Exception {
+        MvcResult streaming = mockMvc.perform(get("/api/orders/export")
+                        .param("status", "CREATED")
+                        .param("fromId", orderIds.get(1).toString())
+                        .param("toId", orderIds.get(3).toString())
+                        .header("Accept-Encoding", "gzip;q=0, *;q=0.5")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(streaming))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsString();
+
+        assertExported(body);
+    }
+
+    private void assertExported(String body) {
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(orderIds.get(i + 1).intValue(), (Integer) JsonPath.read(lines[i], "$.orderId"));
+            assertEquals(2, (Integer) JsonPath.read(lines[i], "$.items.length()"));
+        }
+    }
+
+    /**
+     * Counts the statements Hibernate prepares outside the scheduler threads.
+     */
+    public static class StatementCounter implements StatementInspector {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        static void reset() {
+            COUNT.set(0);
+        }
+
+        static int count() {
+            return COUNT.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (!Thread.currentThread().getName().startsWith("scheduling-")) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -2,18 +2,25 @@ package com.example.ecom.service;
 
 import com.example.ecom.dto.requestDto.OrderItemRequestDto;
 import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.dto.responseDto.BatchOrderResponseDto;
+import com.example.ecom.dto.responseDto.OrderEventDto;
 import com.example.ecom.dto.responseDto.OrderResponseDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
 import com.example.ecom.entity.Customer;
 import com.example.ecom.entity.Order;
 import com.example.ecom.entity.OrderItem;
+import com.example.ecom.exception.InsufficientStockException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.OrderItemMapper;
 import com.example.ecom.mapper.OrderMapper;
+import com.example.ecom.mapper.ProductMapper;
 import com.example.ecom.repository.CustomerRepository;
 import com.example.ecom.repository.OrderRepository;
 import com.example.ecom.repository.ProductRepository;
 import com.example.ecom.service.impl.OrderServiceImpl;
+import com.example.ecom.util.OrderIntakeStatus;
 import com.example.ecom.util.OrderStatus;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,12 +28,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import com.example.ecom.dto.requestDto.OrderItemRequestDto;
 import com.example.ecom.entity.Product;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 
@@ -44,6 +54,27 @@ public class OrderServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
+
+    @Mock
+    private OrderSummaryService orderSummaryService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private Validator validator;
+
     @InjectMocks
     private OrderServiceImpl orderService;
     @Mock
@@ -83,15 +114,169 @@ public class OrderServiceImplTest {
                 .thenReturn(Optional.of(customer));
 
         when(orderMapper.toEntity(requestDto)).thenReturn(order);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        stubCachedProducts(product);
         when(orderItemMapper.toEntity(any()))
                 .thenReturn(new OrderItem());
         when(orderRepository.save(order)).thenReturn(savedOrder);
         when(orderMapper.toDto(any(Order.class))).thenReturn(responseDto);
+        OrderEventDto event = OrderEventDto.builder().orderId(1L).status(OrderStatus.CREATED).build();
+        when(orderMapper.toEvent(savedOrder)).thenReturn(event);
 
         OrderResponseDto result = orderService.createOrder(requestDto);
 
         assertEquals(OrderStatus.CREATED, result.getStatus());
+        verify(outboxService).recordOrderEvents(List.of(event));
+    }
+
+
+    @Test
+    void createOrder_MergesDuplicateProductLines() {
+
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setCustomerId(1L);
+        OrderItemRequestDto first = new OrderItemRequestDto();
+        first.setProductId(1L);
+        first.setQuantity(2);
+        OrderItemRequestDto second = new OrderItemRequestDto();
+        second.setProductId(1L);
+        second.setQuantity(3);
+        requestDto.setItems(List.of(first, second));
+
+        Order order = new Order();
+        Customer customer = new Customer();
+        customer.setId(1L);
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Laptop");
+        product.setStock(10);
+        product.setPrice(100.0);
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(orderMapper.toEntity(requestDto)).thenReturn(order);
+        stubCachedProducts(product);
+        when(orderItemMapper.toEntity(any())).thenAnswer(invocation -> {
+            OrderItemRequestDto dto = invocation.getArgument(0);
+            OrderItem item = new OrderItem();
+            item.setQuantity(dto.getQuantity());
+            return item;
+        });
+        when(orderRepository.save(order)).thenReturn(order);
+        when(orderMapper.toDto(any(Order.class))).thenReturn(OrderResponseDto.builder().build());
+        when(orderMapper.toEvent(order)).thenReturn(new OrderEventDto());
+
+        orderService.createOrder(requestDto);
+
+        assertEquals(1, order.getItems().size());
+        assertEquals(5, order.getItems().get(0).getQuantity());
+        assertEquals(500.0, order.getTotalAmount());
+        verify(inventoryService).reserve(Map.of(1L, 5));
+    }
+
+    @Test
+    void createOrder_ReportsAllMissingProducts() {
+
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setCustomerId(1L);
+        OrderItemRequestDto first = new OrderItemRequestDto();
+        first.setProductId(1L);
+        first.setQuantity(1);
+        OrderItemRequestDto second = new OrderItemRequestDto();
+        second.setProductId(2L);
+        second.setQuantity(1);
+        requestDto.setItems(List.of(first, second));
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(new Customer()));
+        when(orderMapper.toEntity(requestDto)).thenReturn(new Order());
+        stubCachedProducts();
+
+        ResourceNotFoundException exception = assertThrows(
+                ResourceNotFoundException.class,
+                () -> orderService.createOrder(requestDto)
+        );
+
+        assertTrue(exception.getMessage().contains("[1, 2]"));
+    }
+
+    @Test
+    void createOrder_ReportsAllShortStockedProducts() {
+
+        OrderRequestDto requestDto = new OrderRequestDto();
+        requestDto.setCustomerId(1L);
+        OrderItemRequestDto first = new OrderItemRequestDto();
+        first.setProductId(1L);
+        first.setQuantity(5);
+        OrderItemRequestDto second = new OrderItemRequestDto();
+        second.setProductId(2L);
+        second.setQuantity(5);
+        requestDto.setItems(List.of(first, second));
+
+        Product laptop = new Product();
+        laptop.setId(1L);
+        laptop.setName("Laptop");
+        laptop.setStock(1);
+        Product mouse = new Product();
+        mouse.setId(2L);
+        mouse.setName("Mouse");
+        mouse.setStock(2);
+
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(new Customer()));
+        when(orderMapper.toEntity(requestDto)).thenReturn(new Order());
+        stubCachedProducts(laptop, mouse);
+        when(inventoryService.reserve(any())).thenReturn(List.of(1L, 2L));
+
+        InsufficientStockException exception = assertThrows(
+                InsufficientStockException.class,
+                () -> orderService.createOrder(requestDto)
+        );
+
+        assertTrue(exception.getMessage().contains("Laptop"));
+        assertTrue(exception.getMessage().contains("Mouse"));
+    }
+
+
+    @Test
+    void createOrders_RejectsBadOrdersWithoutFailingBatch() {
+
+        OrderItemRequestDto validItem = new OrderItemRequestDto();
+        validItem.setProductId(1L);
+        validItem.setQuantity(2);
+        OrderRequestDto valid = new OrderRequestDto();
+        valid.setCustomerId(1L);
+        valid.setItems(List.of(validItem));
+
+        OrderItemRequestDto missingItem = new OrderItemRequestDto();
+        missingItem.setProductId(2L);
+        missingItem.setQuantity(1);
+        OrderRequestDto missingProduct = new OrderRequestDto();
+        missingProduct.setCustomerId(1L);
+        missingProduct.setItems(List.of(missingItem));
+
+        Customer customer = new Customer();
+        customer.setId(1L);
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Laptop");
+        product.setStock(10);
+        product.setPrice(100.0);
+
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(orderMapper.toEntity(valid)).thenReturn(new Order());
+        when(orderItemMapper.toEntity(any())).thenReturn(new OrderItem());
+
+        List<OrderRequestDto> requests = new java.util.ArrayList<>();
+        requests.add(valid);
+        requests.add(missingProduct);
+        requests.add(null);
+        BatchOrderResponseDto result = orderService.createOrders(requests);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(OrderIntakeStatus.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(OrderIntakeStatus.REJECTED, result.getResults().get(1).getStatus());
+        assertTrue(result.getResults().get(1).getErrors().get(0).contains("[2]"));
+        assertEquals(OrderIntakeStatus.REJECTED, result.getResults().get(2).getStatus());
+        verify(inventoryService).reserve(Map.of(1L, 2));
     }
 
 
@@ -110,7 +295,7 @@ public class OrderServiceImplTest {
                                 .build();
 
 
-        when(orderRepository.findById(id))
+        when(orderRepository.findWithItemsById(id))
                 .thenReturn(Optional.of(order));
 
         when(orderMapper.toDto(any(Order.class)))
@@ -125,7 +310,7 @@ public class OrderServiceImplTest {
 
         Long id = 1L;
 
-        when(orderRepository.findById(id))
+        when(orderRepository.findWithItemsById(id))
                 .thenReturn(Optional.empty());
 
         ResourceNotFoundException exception = assertThrows(
@@ -158,7 +343,7 @@ public class OrderServiceImplTest {
                 .build();
 
 
-        when(orderRepository.findById(id))
+        when(orderRepository.findWithItemsById(id))
                 .thenReturn(Optional.of(existingOrder));
 
         when(orderRepository.save(existingOrder))
@@ -167,10 +352,14 @@ public class OrderServiceImplTest {
         when(orderMapper.toDto(any(Order.class)))
                 .thenReturn(responseDto);
 
+        OrderEventDto event = OrderEventDto.builder().orderId(id).status(OrderStatus.PAID).build();
+        when(orderMapper.toEvent(updatedOrder)).thenReturn(event);
+
         OrderResponseDto result =
                 orderService.updateOrderStatus(id,OrderStatus.PAID);
 
         assertEquals(OrderStatus.PAID, result.getStatus());
+        verify(outboxService).recordOrderEvents(List.of(event));
     }
     @Test
     void updateOrder_NotFound_Exception() {
@@ -180,7 +369,7 @@ public class OrderServiceImplTest {
         OrderRequestDto requestDto = new OrderRequestDto();
 
 
-        when(orderRepository.findById(id))
+        when(orderRepository.findWithItemsById(id))
                 .thenReturn(Optional.empty());
 
         ResourceNotFoundException exception = assertThrows(
@@ -192,4 +381,15 @@ public class OrderServiceImplTest {
     }
 
 
+
+    private void stubCachedProducts(Product... products) {
+        Map<Long, ProductResponseDto> cached = new LinkedHashMap<>();
+        for (Product product : products) {
+            ProductResponseDto dto = new ProductResponseDto(
+                    product.getId(), product.getName(), product.getStock(), product.getPrice(), product.getVersion());
+            cached.put(product.getId(), dto);
+            when(productMapper.toEntity(dto)).thenReturn(product);
+        }
+        when(productCache.getAll(any())).thenReturn(cached);
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.exception.InsufficientStockException;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires concurrent orders at a single product and checks that the
+ * guarded stock decrement never oversells, and at two products listed in
+ * opposite orders to check that stock is taken without deadlocks.
+ */
+@IntegrationTest
+class OrderStockConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 500;
+    private static final int ORDERS = 2_000;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void concurrentOrders_NeverOversell() throws Exception {
+
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Load")
+                .email("load@example.com")
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .name("Hot SKU")
+                .stock(INITIAL_STOCK)
+                .price(10.0)
+                .build());
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>(ORDERS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    orderService.createOrder(orderFor(customer.getId(), product.getId()));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException ex) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        System.out.printf("%d orders on %d threads in %d ms (%.0f orders/sec)%n",
+                ORDERS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                ORDERS / (elapsedNanos / 1_000_000_000.0));
+
+        int remaining = productRepository.findById(product.getId()).orElseThrow().getStock();
+        assertEquals(0, remaining);
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(ORDERS - INITIAL_STOCK, rejected.get());
+    }
+
+    @Test
+    void concurrentOrdersListingProductsInOppositeOrders_NeverDeadlock() throws Exception {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Pairs")
+                .email("pairs@example.com")
+                .build());
+        Long first = productRepository.save(Product.builder()
+                .name("Left SKU")
+                .stock(ORDERS)
+                .price(1.0)
+                .build()).getId();
+        Long second = productRepository.save(Product.builder()
+                .name("Right SKU")
+                .stock(ORDERS)
+                .price(2.0)
+                .build()).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            OrderRequestDto order = i % 2 == 0
+                    ? orderFor(customer.getId(), first, second)
+                    : orderFor(customer.getId(), second, first);
+            futures.add(executor.submit(() -> orderService.createOrder(order)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, productRepository.findById(first).orElseThrow().getStock());
+        assertEquals(0, productRepository.findById(second).orElseThrow().getStock());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.ecom.service;
+
+import com.example.ecom.util.OrderStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams and exports one million orders and checks that the heap still in use
+ * after garbage collection stays flat while they are written.
+ * <p>
+ * The orders live in a file database so that the table data itself
+ * is not on the heap being measured.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/order-stream-memory/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderStreamMemoryTest {
+
+    private static final int ORDERS = 1_000_000;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertOrders() {
+        jdbcTemplate.update("insert into customers (id, name, email) values (1, 'Stream', 'stream@example.com')");
+        jdbcTemplate.update("insert into products (id, name, price, stock) values (1, 'Streamed SKU', 1.0, 0)");
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select x, 1, 'DELIVERED', 2.0, true from system_range(1, " + ORDERS + ")");
+        jdbcTemplate.update("insert into order_items (id, order_id, product_id, quantity, price) "
+                + "select x, x, 1, 2, 1.0 from system_range(1, " + ORDERS + ")");
+    }
+
+    @Test
+    void writeOrdersByStatus_MillionOrders_HeapStaysFlat() throws Exception {
+        long baseline = usedHeapAfterGc();
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+
+        long start = System.nanoTime();
+        orderService.writeOrdersByStatus(OrderStatus.DELIVERED, out);
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("Streamed %d orders (%d MB of JSON) in %d ms, heap after GC: baseline %d MB, peak %d MB%n",
+                out.orders, out.bytes >> 20, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                baseline >> 20, out.peakHeap >> 20);
+
+        assertEquals(ORDERS, out.orders);
+        assertTrue(out.peakHeap - baseline < MAX_HEAP_GROWTH,
+                "heap grew by " + ((out.peakHeap - baseline) >> 20) + " MB while streaming");
+    }
+
+    @Test
+    void exportOrders_MillionOrders_HeapStaysFlat() throws Exception {
+        long baseline = usedHeapAfterGc();
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+
+        long start = System.nanoTime();
+        long exported = orderService.exportOrders(null, 0, Long.MAX_VALUE, out);
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("Exported %d orders (%d MB of NDJSON) in %d ms (%d orders/s), "
+                        + "heap after GC: baseline %d MB, peak %d MB%n",
+                exported, out.bytes >> 20, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                exported * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, baseline >> 20, out.peakHeap >> 20);
+
+        assertEquals(ORDERS, exported);
+        assertEquals(ORDERS, out.orders);
+        assertEquals(ORDERS, out.lines);
+        assertTrue(out.peakHeap - baseline < MAX_HEAP_GROWTH,
+                "heap grew by " + ((out.peakHeap - baseline) >> 20) + " MB while exporting");
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards the JSON but counts the orders in it, and samples the
+     * live heap every few megabytes written.
+     */
+    private static class HeapSamplingOutputStream extends OutputStream {
+        private static final byte[] ORDER_FIELD = "\"orderId\"".getBytes(StandardCharsets.UTF_8);
+        private static final long SAMPLE_EVERY = 16L * 1024 * 1024;
+
+        private long bytes;
+        private long orders;
+        private long lines;
+        private long peakHeap;
+        private int matched;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+            if (b == ORDER_FIELD[matched]) {
+                if (++matched == ORDER_FIELD.length) {
+                    orders++;
+                    matched = 0;
+                }
+            } else {
+                matched = b == ORDER_FIELD[0] ? 1 : 0;
+            }
+            if (bytes % SAMPLE_EVERY == 0) {
+                peakHeap = Math.max(peakHeap, usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+    }
+}
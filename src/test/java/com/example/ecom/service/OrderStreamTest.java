@@ -0,0 +1,128 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.OrderItemResponseDto;
+import com.example.ecom.dto.responseDto.OrderResponseDto;
+import com.example.ecom.util.OrderStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.ecom.service.TestDatabase.ID_BASE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams a handful of orders as a JSON array and as NDJSON and checks
+ * what is written: every order once, in ID order, with all its items.
+ * The memory use of large streams is measured by OrderStreamMemoryTest.
+ */
+@IntegrationTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderStreamTest {
+
+    private static final int ORDERS = 6;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Order ID_BASE + n is DELIVERED with two items for odd n, SHIPPED
+     * with one for even n.
+     */
+    @BeforeAll
+    void insertOrders() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("insert into customers (id, name, email) values (?, 'Stream', 'stream@example.com')",
+                ID_BASE + 1);
+        jdbcTemplate.update("insert into products (id, name, price, stock) values (?, 'First SKU', 1.0, 0)",
+                ID_BASE + 1);
+        jdbcTemplate.update("insert into products (id, name, price, stock) values (?, 'Second SKU', 2.0, 0)",
+                ID_BASE + 2);
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select ? + x, ?, case when mod(x, 2) = 1 then 'DELIVERED' else 'SHIPPED' end, 3.0, true "
+                + "from system_range(1, ?)", ID_BASE, ID_BASE + 1, ORDERS);
+        jdbcTemplate.update("insert into order_items (id, order_id, product_id, quantity, price) "
+                + "select ? + x, ? + x, ?, 1, 1.0 from system_range(1, ?)",
+                ID_BASE, ID_BASE, ID_BASE + 1, ORDERS);
+        jdbcTemplate.update("insert into order_items (id, order_id, product_id, quantity, price) "
+                + "select ? + 100 + x, ? + x, ?, 1, 2.0 from system_range(1, ?) where mod(x, 2) = 1",
+                ID_BASE, ID_BASE, ID_BASE + 2, ORDERS);
+    }
+
+    @Test
+    void writeOrdersByStatus_JsonArrayOfMatchingOrders() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderService.writeOrdersByStatus(OrderStatus.DELIVERED, out);
+
+        List<OrderResponseDto> orders = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertEquals(List.of(ID_BASE + 1, ID_BASE + 3, ID_BASE + 5),
+                orders.stream().map(OrderResponseDto::getOrderId).toList());
+        for (OrderResponseDto order : orders) {
+            assertEquals(OrderStatus.DELIVERED, order.getStatus());
+            assertEquals(ID_BASE + 1, order.getCustomerId());
+            assertEquals(List.of("First SKU", "Second SKU"),
+                    order.getItems().stream().map(OrderItemResponseDto::getProductName).sorted().toList());
+        }
+    }
+
+    @Test
+    void writeOrdersByStatus_EmptyArrayWithoutMatches() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderService.writeOrdersByStatus(OrderStatus.PAID, out);
+
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportOrders_OneLinePerOrderWithinIdRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderService.exportOrders(null, ID_BASE + 2, ID_BASE + 5, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        List<OrderResponseDto> orders = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            orders.add(objectMapper.readValue(line, OrderResponseDto.class));
+        }
+        assertEquals(4, exported);
+        assertEquals(List.of(ID_BASE + 2, ID_BASE + 3, ID_BASE + 4, ID_BASE + 5),
+                orders.stream().map(OrderResponseDto::getOrderId).toList());
+        for (OrderResponseDto order : orders) {
+            assertEquals((order.getOrderId() - ID_BASE) % 2 == 1 ? 2 : 1, order.getItems().size());
+        }
+    }
+
+    @Test
+    void exportOrders_FiltersByStatus() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = orderService.exportOrders(OrderStatus.SHIPPED, 0, Long.MAX_VALUE, out);
+
+        assertEquals(3, exported);
+        List<Long> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            OrderResponseDto order = objectMapper.readValue(line, OrderResponseDto.class);
+            assertEquals(OrderStatus.SHIPPED, order.getStatus());
+            ids.add(order.getOrderId());
+        }
+        assertEquals(List.of(ID_BASE + 2, ID_BASE + 4, ID_BASE + 6), ids);
+    }
+}
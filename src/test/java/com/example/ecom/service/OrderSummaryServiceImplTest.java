@@ -0,0 +1,133 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.dto.responseDto.OrderResponseDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OrderSummaryRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.PaymentMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs order writes against an in-memory database with the order read
+ * model enabled and checks that the summaries follow every change and
+ * can be rebuilt from the order tables.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.order.read-model.enabled=true",
+        "app.order.read-model.rebuild-chunk-size=2"
+})
+class OrderSummaryServiceImplTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ReservationExpiryService reservationExpiryService;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long customerId;
+    private Long keyboardId;
+    private Long mouseId;
+
+    @BeforeEach
+    void setUp() {
+        customerId = customerRepository.save(Customer.builder()
+                .name("Summary")
+                .email("summary-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+        keyboardId = productRepository.save(
+                Product.builder().name("Keyboard").stock(100).price(30.0).build()).getId();
+        mouseId = productRepository.save(
+                Product.builder().name("Mouse").stock(100).price(10.0).build()).getId();
+    }
+
+    @Test
+    void createOrder_ReadServedFromSummary() {
+        OrderResponseDto created = orderService.createOrder(orderFor(customerId, Map.of(keyboardId, 2, mouseId, 1)));
+
+        assertTrue(orderSummaryRepository.existsById(created.getOrderId()));
+        // the summary alone must be enough to answer
+        jdbcTemplate.update("delete from order_items where order_id = ?", created.getOrderId());
+
+        OrderResponseDto read = orderService.getOrderById(created.getOrderId());
+        assertEquals(created.getItems(), read.getItems());
+        assertEquals(created.getCustomerId(), read.getCustomerId());
+        assertEquals(OrderStatus.CREATED, read.getStatus());
+        assertEquals(70.0, read.getTotalAmount());
+    }
+
+    @Test
+    void statusChanges_FollowedBySummary() {
+        Long paid = orderService.createOrder(orderFor(customerId, keyboardId, mouseId)).getOrderId();
+        Long expired = orderService.createOrder(orderFor(customerId, keyboardId)).getOrderId();
+
+        PaymentRequestDto payment = new PaymentRequestDto();
+        payment.setOrderId(paid);
+        payment.setPaymentMethod(PaymentMethod.UPI);
+        paymentService.makePayment(payment);
+        assertEquals(OrderStatus.PAID, orderSummaryService.find(paid).orElseThrow().getStatus());
+
+        orderService.updateOrderStatus(paid, OrderStatus.SHIPPED);
+        assertEquals(OrderStatus.SHIPPED, orderSummaryService.find(paid).orElseThrow().getStatus());
+
+        jdbcTemplate.update("update orders set reserved_until = dateadd('MINUTE', -1, localtimestamp) "
+                + "where id = ?", expired);
+        reservationExpiryService.expireReservations();
+        assertEquals(OrderStatus.EXPIRED, orderSummaryService.find(expired).orElseThrow().getStatus());
+        assertEquals(OrderStatus.SHIPPED, orderSummaryService.find(paid).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rebuild_RegeneratesSummariesFromOrderTables() {
+        List<OrderResponseDto> created = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            created.add(orderService.createOrder(orderFor(customerId, Map.of(keyboardId, i, mouseId, 1))));
+        }
+        jdbcTemplate.update("delete from order_summaries");
+        jdbcTemplate.update("update orders set status = 'PAID' where id = ?", created.get(0).getOrderId());
+
+        long rebuilt = orderSummaryService.rebuild();
+
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from orders", Long.class), rebuilt);
+        for (OrderResponseDto order : created) {
+            OrderResponseDto summary = orderSummaryService.find(order.getOrderId()).orElseThrow();
+            assertEquals(order.getItems(), summary.getItems());
+            assertEquals(order.getTotalAmount(), summary.getTotalAmount());
+        }
+        assertEquals(OrderStatus.PAID,
+                orderSummaryService.find(created.get(0).getOrderId()).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the order total verifier against an in-memory database, with a
+ * sample large enough to cover every order, and checks that it reports
+ * exactly the orders whose stored total drifted from their items.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.order.total-verifier.sample-size=1000"
+})
+class OrderTotalVerifierImplTest {
+
+    @Autowired
+    private OrderTotalVerifier orderTotalVerifier;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void verifySample_ReportsOrdersWhoseTotalDiffersFromItems() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Verifier")
+                .email("verifier@example.com")
+                .build());
+        Product keyboard = productRepository.save(Product.builder().name("Keyboard").stock(100).price(30.0).build());
+        Product mouse = productRepository.save(Product.builder().name("Mouse").stock(100).price(10.0).build());
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            orderIds.add(orderService.createOrder(orderFor(customer.getId(),
+                    Map.of(keyboard.getId(), i, mouse.getId(), i))).getOrderId());
+        }
+        assertEquals(0, orderTotalVerifier.verifySample());
+
+        jdbcTemplate.update("update orders set total_amount = total_amount + 1 where id = ?", orderIds.get(1));
+        jdbcTemplate.update("update orders set total_amount = null where id = ?", orderIds.get(3));
+
+        assertEquals(2, orderTotalVerifier.verifySample());
+    }
+}
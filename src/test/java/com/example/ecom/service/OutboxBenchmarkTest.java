@@ -0,0 +1,101 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OutboxEventRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.impl.InMemoryOutboxSink;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times createOrder with the outbox written in its transaction, and
+ * how fast the relay drains a large backlog of events.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN",
+        "app.outbox.relay.enabled=false"
+})
+class OutboxBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int RUNS = 2_000;
+    private static final int BACKLOG = 100_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createOrder_Latency() {
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Outbox").email("outbox@example.com").build()).getId();
+        Long productId = productRepository.save(Product.builder()
+                .name("Outbox SKU").stock(1_000_000).price(2.0).build()).getId();
+        OrderRequestDto request = orderFor(customerId, productId);
+
+        for (int i = 0; i < WARMUP; i++) {
+            orderService.createOrder(request);
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            orderService.createOrder(request);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("createOrder latency: median %.1f us, p90 %.1f us%n",
+                nanos[RUNS / 2] / 1000.0, nanos[RUNS * 9 / 10] / 1000.0);
+    }
+
+    @Test
+    void relay_Throughput() {
+        outboxService.relay();
+        jdbcTemplate.update("insert into outbox_events (id, event_type, aggregate_id, payload, created_at) "
+                + "select next value for outbox_events_seq, 'ORDER_CREATED', x, "
+                + "'{\"eventType\":\"ORDER_CREATED\",\"orderId\":' || x || ',\"customerId\":' || mod(x, 1000) "
+                + "|| ',\"status\":\"CREATED\",\"totalAmount\":42.5,"
+                + "\"occurredAt\":\"2026-01-01T12:00:00.000001\"}', localtimestamp "
+                + "from system_range(1, " + BACKLOG + ")");
+        long before = sink.publishedCount();
+
+        long start = System.nanoTime();
+        int relayed = outboxService.relay();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Relayed %d outbox events in %.2f s: %.0f events/s%n",
+                relayed, seconds, relayed / seconds);
+        assertEquals(BACKLOG, relayed);
+        assertEquals(before + BACKLOG, sink.publishedCount());
+        assertEquals(0, outboxEventRepository.count());
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.OutboxEvent;
+import com.example.ecom.entity.Product;
+import com.example.ecom.exception.InsufficientStockException;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OutboxEventRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.service.impl.FileOutboxSink;
+import com.example.ecom.service.impl.InMemoryOutboxSink;
+import com.example.ecom.util.OrderEventType;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.PaymentMethod;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs order and payment writes with the outbox against an in-memory
+ * database and checks that events follow the committed changes and are
+ * relayed once, in order. The scheduled relay is off so the tests drive it.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.outbox.relay.enabled=false",
+        "app.outbox.relay.batch-size=7",
+        "app.payment.gateway.latency-ms=0",
+        "app.payment.gateway.jitter-ms=0"
+})
+class OutboxServiceImplTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long customerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        outboxService.relay();
+        customerId = customerRepository.save(Customer.builder()
+                .name("Outbox")
+                .email("outbox-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+        productId = productRepository.save(Product.builder()
+                .name("Outbox SKU")
+                .stock(10)
+                .price(12.5)
+                .build()).getId();
+    }
+
+    @Test
+    void orderLifecycle_EventsRelayedInOrder() throws Exception {
+        Long orderId = orderService.createOrder(orderFor(customerId, Map.of(productId, 2))).getOrderId();
+        PaymentRequestDto payment = new PaymentRequestDto();
+        payment.setOrderId(orderId);
+        payment.setPaymentMethod(PaymentMethod.UPI);
+        paymentService.makePayment(payment);
+        orderService.updateOrderStatus(orderId, OrderStatus.SHIPPED);
+        assertEquals(3, outboxEventRepository.count());
+
+        long before = sink.publishedCount();
+        assertEquals(3, outboxService.relay());
+
+        assertEquals(before + 3, sink.publishedCount());
+        assertEquals(0, outboxEventRepository.count());
+        List<OutboxEvent> events = lastPublished(3);
+        assertEquals(List.of(OrderEventType.ORDER_CREATED, OrderEventType.ORDER_PAID, OrderEventType.ORDER_SHIPPED),
+                events.stream().map(OutboxEvent::getEventType).toList());
+        for (OutboxEvent event : events) {
+            assertEquals(orderId, event.getAggregateId());
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            assertEquals(orderId, payload.get("orderId").asLong());
+            assertEquals(customerId, payload.get("customerId").asLong());
+            assertEquals(25.0, payload.get("totalAmount").asDouble());
+            assertEquals(event.getEventType().name(), payload.get("eventType").asText());
+        }
+        assertEquals(0, outboxService.relay());
+    }
+
+    @Test
+    void rolledBackOrder_WritesNoEvent() {
+        assertThrows(InsufficientStockException.class,
+                () -> orderService.createOrder(orderFor(customerId, Map.of(productId, 11))));
+
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void concurrentRelays_PublishEachEventOnce() throws Exception {
+        int count = 2_000;
+        insertEvents(count);
+        long before = sink.publishedCount();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        int relayed = 0;
+        try {
+            List<Future<Integer>> relays = pool.invokeAll(List.of(
+                    outboxService::relay, outboxService::relay, outboxService::relay, outboxService::relay));
+            for (Future<Integer> relay : relays) {
+                relayed += relay.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        relayed += outboxService.relay();
+
+        assertEquals(count, relayed);
+        assertEquals(before + count, sink.publishedCount());
+        Set<Long> ids = new HashSet<>();
+        for (OutboxEvent event : lastPublished(count)) {
+            assertTrue(ids.add(event.getId()), "event " + event.getId() + " published twice");
+        }
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void fileSink_WritesOneJsonLinePerEvent(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events.ndjson");
+        FileOutboxSink fileSink = new FileOutboxSink(file.toString());
+        fileSink.publish(List.of(
+                new OutboxEvent(1L, OrderEventType.ORDER_CREATED, 5L, "{\"orderId\":5}", LocalDateTime.now()),
+                new OutboxEvent(2L, OrderEventType.ORDER_PAID, 5L, "{\"orderId\":5}", LocalDateTime.now())));
+        fileSink.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(2, second.get("id").asLong());
+        assertEquals("ORDER_PAID", second.get("type").asText());
+        assertEquals(5, second.get("payload").get("orderId").asLong());
+    }
+
+    private void insertEvents(int count) {
+        jdbcTemplate.update("insert into outbox_events (id, event_type, aggregate_id, payload, created_at) "
+                + "select next value for outbox_events_seq, 'ORDER_CREATED', x, '{\"orderId\":' || x || '}', "
+                + "localtimestamp from system_range(1, " + count + ")");
+    }
+
+    private List<OutboxEvent> lastPublished(int count) {
+        List<OutboxEvent> recent = sink.recent();
+        return recent.subList(recent.size() - count, recent.size());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.exception.PaymentConflictException;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.PaymentMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires concurrent payments at a single order and checks that exactly
+ * one of them is taken.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.payment.gateway.latency-ms=0",
+        "app.payment.gateway.jitter-ms=0"
+})
+class PaymentConcurrencyTest {
+
+    private static final int PAYMENTS = 100;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long customerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        customerId = customerRepository.save(Customer.builder()
+                .name("Payer")
+                .email("payer-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+        productId = productRepository.save(Product.builder()
+                .name("Paid SKU")
+                .stock(1_000_000)
+                .price(25.0)
+                .build()).getId();
+    }
+
+    @Test
+    void concurrentPayments_ExactlyOneSucceeds() throws Exception {
+        Long orderId = createOrder();
+
+        ExecutorService pool = Executors.newFixedThreadPool(PAYMENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger paid = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < PAYMENTS; i++) {
+                attempts.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        paymentService.makePayment(paymentFor(orderId));
+                        paid.incrementAndGet();
+                    } catch (PaymentConflictException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, paid.get());
+        assertEquals(PAYMENTS - 1, conflicts.get());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from payments where order_id = ?", Integer.class, orderId));
+        assertEquals(OrderStatus.PAID.name(), jdbcTemplate.queryForObject(
+                "select status from orders where id = ?", String.class, orderId));
+    }
+
+    private Long createOrder() {
+        return createOrder(List.of(productId));
+    }
+
+    private Long createOrder(List<Long> orderProductIds) {
+        return orderService.createOrder(orderFor(customerId, orderProductIds)).getOrderId();
+    }
+
+    private PaymentRequestDto paymentFor(Long orderId) {
+        PaymentRequestDto payment = new PaymentRequestDto();
+        payment.setOrderId(orderId);
+        payment.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        return payment;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.util.PaymentMethod;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pays many orders through a simulated 300 ms payment gateway with far
+ * more payments in flight than database connections, and reports the
+ * throughput and how many connections were in use meanwhile.
+ * <p>
+ * Holding a connection during the gateway call would cap throughput at
+ * pool size / gateway latency, about 33 payments per second here.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "logging.level.com.example.ecom=WARN",
+        "spring.datasource.hikari.maximum-pool-size=" + PaymentGatewayLoadTest.POOL_SIZE,
+        "app.payment.gateway.latency-ms=" + PaymentGatewayLoadTest.GATEWAY_LATENCY_MS,
+        "app.payment.gateway.jitter-ms=0",
+        "app.payment.gateway.timeout-ms=5000",
+        "app.payment.gateway.max-concurrent=" + PaymentGatewayLoadTest.IN_FLIGHT
+})
+class PaymentGatewayLoadTest {
+
+    static final int POOL_SIZE = 10;
+    static final int GATEWAY_LATENCY_MS = 300;
+    static final int IN_FLIGHT = 200;
+    private static final int PAYMENTS = 2_000;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void makePaymentAsync_ThroughputNotBoundByConnectionPool() throws Exception {
+        jdbcTemplate.update("insert into customers (id, name, email) values (1, 'Load', 'load@example.com')");
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select x, 1, 'CREATED', 10.0, true from system_range(1, " + PAYMENTS + ")");
+
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        AtomicInteger maxActive = new AtomicInteger();
+        long[] activeSamples = new long[2];
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                int active = pool.getActiveConnections();
+                maxActive.accumulateAndGet(active, Math::max);
+                activeSamples[0] += active;
+                activeSamples[1]++;
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        CountDownLatch done = new CountDownLatch(PAYMENTS);
+        AtomicInteger failed = new AtomicInteger();
+        sampler.start();
+        long start = System.nanoTime();
+        for (long orderId = 1; orderId <= PAYMENTS; orderId++) {
+            inFlight.acquire();
+            PaymentRequestDto payment = new PaymentRequestDto();
+            payment.setOrderId(orderId);
+            payment.setPaymentMethod(PaymentMethod.UPI);
+            paymentService.makePaymentAsync(payment).whenComplete((response, ex) -> {
+                if (ex != null) {
+                    failed.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+        sampler.join();
+
+        double throughput = PAYMENTS / seconds;
+        double blockingCeiling = POOL_SIZE * 1000.0 / GATEWAY_LATENCY_MS;
+        System.out.printf("%d payments with a %d ms gateway in %.2f s: %.0f payments/s "
+                        + "(%.0f/s if connections were held during the call), "
+                        + "DB connections active: max %d, mean %.2f of %d%n",
+                PAYMENTS, GATEWAY_LATENCY_MS, seconds, throughput, blockingCeiling,
+                maxActive.get(), (double) activeSamples[0] / activeSamples[1], POOL_SIZE);
+
+        assertEquals(0, failed.get());
+        assertEquals(PAYMENTS, jdbcTemplate.queryForObject(
+                "select count(*) from orders where status = 'PAID'", Integer.class));
+        assertEquals(PAYMENTS, jdbcTemplate.queryForObject("select count(*) from payments", Integer.class));
+        assertTrue(throughput > blockingCeiling,
+                "throughput " + throughput + "/s, blocking ceiling " + blockingCeiling + "/s");
+    }
+}
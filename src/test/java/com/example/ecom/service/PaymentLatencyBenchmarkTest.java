@@ -0,0 +1,137 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.PaymentRequestDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.util.PaymentMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Times sequential payments, and compares the median payment latency of
+ * single-item orders with that of large orders.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.payment.gateway.latency-ms=0",
+        "app.payment.gateway.jitter-ms=0"
+})
+class PaymentLatencyBenchmarkTest {
+
+    private static final int TIMED_PAYMENTS = 2_000;
+    private static final int LARGE_ORDER_ITEMS = 200;
+    private static final int SIZED_PAYMENTS = 300;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long customerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        customerId = customerRepository.save(Customer.builder()
+                .name("Payer")
+                .email("payer-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+        productId = productRepository.save(Product.builder()
+                .name("Paid SKU")
+                .stock(1_000_000)
+                .price(25.0)
+                .build()).getId();
+    }
+
+    @Test
+    void makePayment_SequentialLatency() {
+        List<Long> orderIds = new ArrayList<>(TIMED_PAYMENTS);
+        for (int i = 0; i < TIMED_PAYMENTS; i++) {
+            orderIds.add(createOrder());
+        }
+        int warmup = TIMED_PAYMENTS / 2;
+        for (Long orderId : orderIds.subList(0, warmup)) {
+            paymentService.makePayment(paymentFor(orderId));
+        }
+        long start = System.nanoTime();
+        for (Long orderId : orderIds.subList(warmup, TIMED_PAYMENTS)) {
+            paymentService.makePayment(paymentFor(orderId));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.printf("Average makePayment latency over %d payments: %.1f us%n",
+                TIMED_PAYMENTS - warmup, elapsedNanos / 1000.0 / (TIMED_PAYMENTS - warmup));
+    }
+
+    @Test
+    void makePayment_LatencyIndependentOfOrderSize() {
+        List<Long> productIds = new ArrayList<>(LARGE_ORDER_ITEMS);
+        for (int i = 0; i < LARGE_ORDER_ITEMS; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Line " + i)
+                    .stock(1_000_000)
+                    .price(1.0 + i)
+                    .build()).getId());
+        }
+        medianPaymentMicros(List.of(productId));
+        double small = medianPaymentMicros(List.of(productId));
+        double large = medianPaymentMicros(productIds);
+        System.out.printf("Median makePayment latency: %.1f us for 1 item, %.1f us for %d items%n",
+                small, large, LARGE_ORDER_ITEMS);
+
+        assertTrue(large < small * 3 + 1000, "payment of a " + LARGE_ORDER_ITEMS + " item order took "
+                + large + " us, of a single item order " + small + " us");
+    }
+
+    private double medianPaymentMicros(List<Long> orderProductIds) {
+        List<Long> orderIds = new ArrayList<>(SIZED_PAYMENTS * 2);
+        for (int i = 0; i < SIZED_PAYMENTS * 2; i++) {
+            orderIds.add(createOrder(orderProductIds));
+        }
+        for (Long orderId : orderIds.subList(0, SIZED_PAYMENTS)) {
+            paymentService.makePayment(paymentFor(orderId));
+        }
+        long[] nanos = new long[SIZED_PAYMENTS];
+        for (int i = 0; i < SIZED_PAYMENTS; i++) {
+            long start = System.nanoTime();
+            paymentService.makePayment(paymentFor(orderIds.get(SIZED_PAYMENTS + i)));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[SIZED_PAYMENTS / 2] / 1000.0;
+    }
+
+    private Long createOrder() {
+        return createOrder(List.of(productId));
+    }
+
+    private Long createOrder(List<Long> orderProductIds) {
+        return orderService.createOrder(orderFor(customerId, orderProductIds)).getOrderId();
+    }
+
+    private PaymentRequestDto paymentFor(Long orderId) {
+        PaymentRequestDto payment = new PaymentRequestDto();
+        payment.setOrderId(orderId);
+        payment.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        return payment;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ReconciliationRunResponseDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reconciles one million payments, one in a thousand of them wrong, and
+ * reports the throughput while checking that the heap still in use
+ * after garbage collection stays flat.
+ * <p>
+ * The payments live in a file database so that the table data itself
+ * is not on the heap being measured.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/payment-reconciliation/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "logging.level.com.example.ecom=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaymentReconciliationBenchmarkTest {
+
+    private static final int PAYMENTS = 1_000_000;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Autowired
+    private PaymentReconciliationService reconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertPayments() {
+        jdbcTemplate.update("insert into customers (id, name, email) values (1, 'Finance', 'finance@example.com')");
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select x, 1, 'PAID', 10.0, true from system_range(1, " + PAYMENTS + ")");
+        jdbcTemplate.update("insert into payments (id, order_id, amount, payment_method, payment_date) "
+                + "select x, x, case when mod(x, 1000) = 0 then 9.0 else 10.0 end, 'UPI', localtimestamp "
+                + "from system_range(1, " + PAYMENTS + ")");
+    }
+
+    @Test
+    void reconcile_MillionPayments_HeapStaysFlat() throws Exception {
+        long baseline = usedHeapAfterGc();
+        long[] peakHeap = {baseline};
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap[0] = Math.max(peakHeap[0], usedHeapAfterGc());
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+
+        sampler.start();
+        long start = System.nanoTime();
+        ReconciliationRunResponseDto run = reconciliationService.reconcile();
+        long elapsedNanos = System.nanoTime() - start;
+        sampler.interrupt();
+        sampler.join();
+
+        System.out.printf("Reconciled %d payments in %d ms (%d payments/s), %d discrepancies, "
+                        + "heap after GC: baseline %d MB, peak %d MB%n",
+                run.getPaymentsChecked(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                run.getPaymentsChecked() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                run.getDiscrepancies(), baseline >> 20, peakHeap[0] >> 20);
+
+        assertEquals(PAYMENTS, run.getPaymentsChecked());
+        assertEquals(PAYMENTS / 1000, run.getDiscrepancies());
+        assertTrue(peakHeap[0] - baseline < MAX_HEAP_GROWTH,
+                "heap grew by " + ((peakHeap[0] - baseline) >> 20) + " MB while reconciling");
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
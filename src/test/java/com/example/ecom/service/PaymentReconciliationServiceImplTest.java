@@ -0,0 +1,148 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.CursorPageResponseDto;
+import com.example.ecom.dto.responseDto.PaymentDiscrepancyResponseDto;
+import com.example.ecom.dto.responseDto.ReconciliationRunResponseDto;
+import com.example.ecom.entity.ReconciliationChunk;
+import com.example.ecom.entity.ReconciliationRun;
+import com.example.ecom.repository.ReconciliationChunkRepository;
+import com.example.ecom.repository.ReconciliationRunRepository;
+import com.example.ecom.util.DiscrepancyType;
+import com.example.ecom.util.OrderStatus;
+import com.example.ecom.util.ReconciliationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reconciles a handful of payments against an in-memory database, in
+ * chunks of three payments, and checks the discrepancy report and that
+ * an interrupted run resumes after its last checkpoint.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.payment.reconciliation.chunk-size=3",
+        "app.payment.reconciliation.threads=2"
+})
+class PaymentReconciliationServiceImplTest {
+
+    @Autowired
+    private PaymentReconciliationService reconciliationService;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationChunkRepository chunkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Payments 1 to 10 against orders 1 to 10: payment 3 is short, order 5
+     * has no total, order 7 is still CREATED and order 9 is EXPIRED with a
+     * different total. The other payments match.
+     */
+    @BeforeEach
+    void setUp() {
+        for (String table : List.of("payment_discrepancies", "reconciliation_chunks", "reconciliation_runs",
+                "payments", "orders", "customers")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        jdbcTemplate.update("insert into customers (id, name, email) values (1, 'Finance', 'finance@example.com')");
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select x, 1, case x when 7 then 'CREATED' when 9 then 'EXPIRED' when 10 then 'DELIVERED' "
+                + "else 'PAID' end, case x when 5 then null when 9 then 99.0 else 10.0 end, true "
+                + "from system_range(1, 10)");
+        jdbcTemplate.update("insert into payments (id, order_id, amount, payment_method, payment_date) "
+                + "select x, x, case x when 3 then 9.5 else 10.0 end, 'UPI', localtimestamp "
+                + "from system_range(1, 10)");
+    }
+
+    @Test
+    void reconcile_ReportsEveryDiscrepancy() {
+        ReconciliationRunResponseDto run = reconciliationService.reconcile();
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertEquals(10, run.getPaymentsChecked());
+        assertEquals(5, run.getDiscrepancies());
+        assertNotNull(run.getFinishedAt());
+        assertEquals(Map.of(
+                        3L, List.of(DiscrepancyType.AMOUNT_MISMATCH),
+                        5L, List.of(DiscrepancyType.ORDER_TOTAL_MISSING),
+                        7L, List.of(DiscrepancyType.ORDER_NOT_PAID),
+                        9L, List.of(DiscrepancyType.AMOUNT_MISMATCH, DiscrepancyType.ORDER_NOT_PAID)),
+                discrepancies(run.getId()).stream().collect(Collectors.groupingBy(
+                        PaymentDiscrepancyResponseDto::getPaymentId,
+                        Collectors.mapping(PaymentDiscrepancyResponseDto::getType, Collectors.toList()))));
+
+        PaymentDiscrepancyResponseDto expired = discrepancies(run.getId()).stream()
+                .filter(discrepancy -> discrepancy.getType() == DiscrepancyType.ORDER_NOT_PAID
+                        && discrepancy.getPaymentId() == 9L)
+                .findFirst().orElseThrow();
+        assertEquals(OrderStatus.EXPIRED, expired.getOrderStatus());
+        assertEquals(99.0, expired.getOrderTotal());
+        assertEquals(10.0, expired.getPaymentAmount());
+    }
+
+    @Test
+    void reconcile_ResumesUnfinishedRunAfterCheckpoints() {
+        // a run that stopped after its chunk of payments 4 to 6, with one discrepancy
+        Long runId = runRepository.save(ReconciliationRun.builder()
+                .status(ReconciliationStatus.RUNNING)
+                .fromPaymentId(1L)
+                .toPaymentId(10L)
+                .chunkSize(3)
+                .startedAt(LocalDateTime.now())
+                .build()).getId();
+        chunkRepository.save(ReconciliationChunk.builder()
+                .runId(runId)
+                .fromPaymentId(4L)
+                .paymentsChecked(3)
+                .discrepancies(1)
+                .completedAt(LocalDateTime.now())
+                .build());
+        // payments added after the run started are left to the next run
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "values (11, 1, 'CREATED', 10.0, true)");
+        jdbcTemplate.update("insert into payments (id, order_id, amount, payment_method, payment_date) "
+                + "values (11, 11, 10.0, 'UPI', localtimestamp)");
+
+        ReconciliationRunResponseDto run = reconciliationService.reconcile();
+
+        assertEquals(runId, run.getId());
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertEquals(10, run.getPaymentsChecked());
+        assertEquals(5, run.getDiscrepancies());
+        // payment 5 lies in the checkpointed chunk, so it was not checked again
+        assertEquals(List.of(3L, 7L, 9L, 9L), discrepancies(runId).stream()
+                .map(PaymentDiscrepancyResponseDto::getPaymentId).sorted().toList());
+
+        ReconciliationRunResponseDto next = reconciliationService.reconcile();
+        assertNotEquals(runId, next.getId());
+        assertEquals(11, next.getPaymentsChecked());
+        assertEquals(6, next.getDiscrepancies());
+    }
+
+    private List<PaymentDiscrepancyResponseDto> discrepancies(Long runId) {
+        List<PaymentDiscrepancyResponseDto> all = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPageResponseDto<PaymentDiscrepancyResponseDto> page =
+                    reconciliationService.getDiscrepancies(runId, after, 2);
+            all.addAll(page.getContent());
+            after = page.getNext();
+        } while (after != null);
+        return all;
+    }
+}
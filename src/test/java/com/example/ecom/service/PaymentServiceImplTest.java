@@ -2,11 +2,17 @@ package com.example.ecom.service;
 
 import com.example.ecom.dto.requestDto.PaymentRequestDto;
 import com.example.ecom.dto.responseDto.PaymentResponseDto;
+import com.example.ecom.entity.Customer;
 import com.example.ecom.entity.Order;
 import com.example.ecom.entity.OrderItem;
 import com.example.ecom.entity.Payment;
+import com.example.ecom.exception.PaymentConflictException;
+import com.example.ecom.exception.PaymentGatewayBusyException;
+import com.example.ecom.exception.PaymentGatewayException;
+import com.example.ecom.exception.PaymentGatewayTimeoutException;
 import com.example.ecom.exception.ResourceNotFoundException;
 import com.example.ecom.mapper.PaymentMapper;
+import com.example.ecom.repository.OrderItemRepository;
 import com.example.ecom.repository.OrderRepository;
 import com.example.ecom.repository.PaymentRepository;
 import com.example.ecom.service.impl.PaymentServiceImpl;
@@ -15,13 +21,18 @@ import com.example.ecom.util.PaymentMethod;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,10 +46,24 @@ class PaymentServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
     @Mock
     private PaymentMapper paymentMapper;
 
-    @InjectMocks
+    @Mock
+    private OrderSummaryService orderSummaryService;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     private PaymentServiceImpl paymentService;
 
     private Order order;
@@ -48,9 +73,17 @@ class PaymentServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        paymentService = newPaymentService(false, 10, 1000);
+
         order = new Order();
         order.setId(1L);
+        Customer customer = new Customer();
+        customer.setId(7L);
+        order.setCustomer(customer);
         order.setStatus(OrderStatus.CREATED);
+        order.setTotalAmount(200.0);
 
         OrderItem item = new OrderItem();
         item.setQuantity(2);
@@ -76,7 +109,10 @@ class PaymentServiceImplTest {
     @Test
     void makePayment_ShouldReturnResponse_WhenValid() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(paymentRepository.findByOrderId(1L)).thenReturn(Optional.empty());
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1);
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI))).thenReturn(CompletableFuture.completedFuture("REF-1"));
+        when(orderRepository.settlePayment(eq(1L), anyString(), eq(OrderStatus.PAID))).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
         when(paymentMapper.toResponse(payment)).thenReturn(responseDto);
 
@@ -84,11 +120,42 @@ class PaymentServiceImplTest {
 
         assertNotNull(result);
         assertEquals(200.0, result.getAmount());
-        assertEquals(OrderStatus.PAID, order.getStatus());
 
-        verify(paymentRepository).save(any(Payment.class));
+        verify(paymentRepository).save(argThat(saved -> saved.getAmount() == 200.0
+                && "REF-1".equals(saved.getGatewayReference())));
+        verify(orderRepository).settlePayment(eq(1L), anyString(), eq(OrderStatus.PAID));
+        verify(orderSummaryService).updateStatus(List.of(1L), OrderStatus.PAYMENT_PENDING, OrderStatus.PAID);
+        verify(outboxService).recordOrderEvents(argThat(events -> events.size() == 1
+                && events.get(0).getOrderId() == 1L
+                && events.get(0).getCustomerId() == 7L
+                && events.get(0).getStatus() == OrderStatus.PAID
+                && events.get(0).getTotalAmount() == 200.0));
+        verifyNoInteractions(orderItemRepository);
+    }
+
+    @Test
+    void makePayment_ShouldSumItemsInSql_WhenVerificationEnabled() {
+        paymentService = newPaymentService(true, 10, 1000);
+        order.setTotalAmount(150.0);
+        stubSuccessfulPayment();
+        when(orderItemRepository.sumAmountByOrderId(1L)).thenReturn(200.0);
+
+        paymentService.makePayment(requestDto);
+
+        verify(paymentGateway).charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI));
+        verify(paymentRepository).save(argThat(saved -> saved.getAmount() == 200.0));
     }
 
+    @Test
+    void makePayment_ShouldSumItemsInSql_WhenNoStoredTotal() {
+        order.setTotalAmount(null);
+        stubSuccessfulPayment();
+        when(orderItemRepository.sumAmountByOrderId(1L)).thenReturn(200.0);
+
+        paymentService.makePayment(requestDto);
+
+        verify(paymentRepository).save(argThat(saved -> saved.getAmount() == 200.0));
+    }
 
     @Test
     void makePayment_ShouldThrowException_WhenOrderNotFound() {
@@ -96,35 +163,262 @@ class PaymentServiceImplTest {
 
         assertThrows(ResourceNotFoundException.class,
                 () -> paymentService.makePayment(requestDto));
+        verifyNoInteractions(paymentGateway);
     }
 
     @Test
-    void makePayment_ShouldThrowException_WhenOrderNotInCreatedState() {
+    void makePayment_ShouldThrowConflict_WhenOrderNotInCreatedState() {
         order.setStatus(OrderStatus.PAID);
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(0);
 
-        assertThrows(RuntimeException.class,
+        assertThrows(PaymentConflictException.class,
                 () -> paymentService.makePayment(requestDto));
+
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(orderSummaryService, paymentGateway);
     }
 
     @Test
-    void makePayment_ShouldThrowException_WhenPaymentAlreadyExists() {
+    void makePayment_ShouldThrowConflict_WhenPaymentAlreadyStored() {
+        stubChargedPayment();
+        when(paymentRepository.save(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException("payments.order_id"));
+        when(paymentRepository.existsByOrderId(1L)).thenReturn(true);
+
+        assertThrows(PaymentConflictException.class,
+                () -> paymentService.makePayment(requestDto));
+    }
+
+    @Test
+    void makePayment_ShouldRethrowOtherIntegrityViolations() {
+        stubChargedPayment();
+        when(paymentRepository.save(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException("payments.amount"));
+        when(paymentRepository.existsByOrderId(1L)).thenReturn(false);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> paymentService.makePayment(requestDto));
+    }
+
+    @Test
+    void makePayment_ShouldReopenOrder_WhenGatewayDeclines() {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(paymentRepository.findByOrderId(1L))
-                .thenReturn(Optional.of(payment));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1);
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI)))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("declined")));
+        when(orderRepository.settlePayment(eq(1L), anyString(), eq(OrderStatus.CREATED))).thenReturn(1);
 
-        assertThrows(RuntimeException.class,
+        assertThrows(PaymentGatewayException.class,
                 () -> paymentService.makePayment(requestDto));
+
+        verify(orderRepository).settlePayment(eq(1L), anyString(), eq(OrderStatus.CREATED));
+        verify(orderSummaryService).updateStatus(List.of(1L), OrderStatus.PAYMENT_PENDING, OrderStatus.CREATED);
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(outboxService);
     }
 
+    @Test
+    void makePayment_ShouldKeepOrderPending_AndRecordLateCharge_WhenGatewayTimesOut() {
+        paymentService = newPaymentService(false, 10, 50);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1);
+        CompletableFuture<String> charge = new CompletableFuture<>();
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI))).thenReturn(charge);
+
+        assertThrows(PaymentGatewayTimeoutException.class,
+                () -> paymentService.makePayment(requestDto));
+
+        verify(orderRepository, never()).settlePayment(any(), any(), any());
+        verify(orderSummaryService, never()).updateStatus(List.of(1L), OrderStatus.PAYMENT_PENDING, OrderStatus.CREATED);
+
+        when(orderRepository.settlePayment(eq(1L), anyString(), eq(OrderStatus.PAID))).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        charge.complete("REF-LATE");
+
+        verify(paymentRepository, timeout(5_000)).save(argThat(saved -> "REF-LATE".equals(saved.getGatewayReference())));
+    }
+
+    @Test
+    void makePayment_ShouldChargeEachAttemptUnderItsOwnReference() {
+        stubSuccessfulPayment();
+        paymentService.makePayment(requestDto);
+        paymentService.makePayment(requestDto);
+
+        ArgumentCaptor<String> claimed = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> charged = ArgumentCaptor.forClass(String.class);
+        verify(orderRepository, times(2)).claimForPayment(eq(1L), claimed.capture(), eq(PaymentMethod.UPI), any());
+        verify(paymentGateway, times(2)).charge(charged.capture(), eq(1L), anyDouble(), eq(PaymentMethod.UPI));
+        assertEquals(claimed.getAllValues(), charged.getAllValues());
+        assertNotEquals(claimed.getAllValues().get(0), claimed.getAllValues().get(1));
+    }
+
+    @Test
+    void settleStalePayments_ShouldRepeatChargeUnderItsReference_AndRecordPayment() {
+        stubStalePayment();
+        when(paymentGateway.charge("attempt-1", 1L, 200.0, PaymentMethod.UPI))
+                .thenReturn(CompletableFuture.completedFuture("REF-1"));
+        when(orderRepository.settlePayment(1L, "attempt-1", OrderStatus.PAID)).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+
+        assertEquals(1, paymentService.settleStalePayments());
+
+        verify(paymentRepository).save(argThat(saved -> "REF-1".equals(saved.getGatewayReference())));
+        verify(orderSummaryService).updateStatus(List.of(1L), OrderStatus.PAYMENT_PENDING, OrderStatus.PAID);
+    }
+
+    @Test
+    void settleStalePayments_ShouldReopenOrder_WhenRepeatedChargeDeclined() {
+        stubStalePayment();
+        when(paymentGateway.charge("attempt-1", 1L, 200.0, PaymentMethod.UPI))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("declined")));
+        when(orderRepository.settlePayment(1L, "attempt-1", OrderStatus.CREATED)).thenReturn(1);
+
+        assertEquals(1, paymentService.settleStalePayments());
+
+        verify(orderSummaryService).updateStatus(List.of(1L), OrderStatus.PAYMENT_PENDING, OrderStatus.CREATED);
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void settleStalePayments_ShouldLeaveOrderPending_WhenGatewayStillSilent() {
+        paymentService = newPaymentService(false, 10, 50);
+        stubStalePayment();
+        when(paymentGateway.charge("attempt-1", 1L, 200.0, PaymentMethod.UPI))
+                .thenReturn(new CompletableFuture<>());
+
+        assertEquals(0, paymentService.settleStalePayments());
+
+        verify(orderRepository, never()).settlePayment(any(), any(), any());
+    }
+
+    @Test
+    void settleStalePayments_ShouldNotCharge_WhenOrderHasNoPaymentReference() {
+        order.setStatus(OrderStatus.PAYMENT_PENDING);
+        when(orderRepository.findStalePaymentIds(any(), any())).thenReturn(List.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        assertEquals(0, paymentService.settleStalePayments());
+
+        verifyNoInteractions(paymentGateway);
+        verify(orderRepository, never()).settlePayment(any(), any(), any());
+    }
+
+    @Test
+    void makePaymentWithKey_ShouldResumeAttempt_WhenRetriedAfterTimeout() {
+        paymentService = newPaymentService(false, 10, 50);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1, 0);
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI)))
+                .thenReturn(new CompletableFuture<>(), CompletableFuture.completedFuture("REF-1"));
+
+        assertThrows(PaymentGatewayTimeoutException.class,
+                () -> paymentService.makePayment(requestDto, "key-1"));
+        ArgumentCaptor<String> reference = ArgumentCaptor.forClass(String.class);
+        verify(orderRepository).claimForPayment(eq(1L), reference.capture(), eq(PaymentMethod.UPI), any());
+        order.setStatus(OrderStatus.PAYMENT_PENDING);
+        order.setPaymentReference(reference.getValue());
+        order.setPaymentMethod(PaymentMethod.UPI);
+        when(orderRepository.settlePayment(1L, reference.getValue(), OrderStatus.PAID)).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toResponse(payment)).thenReturn(responseDto);
+
+        assertEquals(responseDto, paymentService.makePayment(requestDto, "key-1"));
+
+        verify(paymentGateway, times(2)).charge(eq(reference.getValue()), eq(1L), eq(200.0), eq(PaymentMethod.UPI));
+    }
+
+    @Test
+    void makePaymentWithKey_ShouldReturnRecordedPayment_WhenRetriedAfterLateAnswer() {
+        paymentService = newPaymentService(false, 10, 50);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1, 0);
+        CompletableFuture<String> charge = new CompletableFuture<>();
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI))).thenReturn(charge);
+
+        assertThrows(PaymentGatewayTimeoutException.class,
+                () -> paymentService.makePayment(requestDto, "key-1"));
+        ArgumentCaptor<String> reference = ArgumentCaptor.forClass(String.class);
+        verify(orderRepository).claimForPayment(eq(1L), reference.capture(), eq(PaymentMethod.UPI), any());
+        when(orderRepository.settlePayment(1L, reference.getValue(), OrderStatus.PAID)).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        charge.complete("REF-LATE");
+        verify(paymentRepository, timeout(5_000)).save(any(Payment.class));
+
+        order.setStatus(OrderStatus.PAID);
+        order.setPaymentReference(reference.getValue());
+        when(paymentRepository.findDtoByOrderId(1L)).thenReturn(Optional.of(responseDto));
+
+        assertEquals(responseDto, paymentService.makePayment(requestDto, "key-1"));
+
+        verify(paymentGateway).charge(anyString(), eq(1L), anyDouble(), any());
+    }
+
+    @Test
+    void makePaymentWithKey_ShouldThrowConflict_WhenOrderPaidByAnotherAttempt() {
+        order.setStatus(OrderStatus.PAID);
+        order.setPaymentReference("another-attempt");
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(0);
+
+        assertThrows(PaymentConflictException.class,
+                () -> paymentService.makePayment(requestDto, "key-1"));
+
+        verifyNoInteractions(paymentGateway);
+    }
+
+    @Test
+    void makePaymentAsync_ShouldRejectWithoutDatabaseWork_WhenBulkheadFull() {
+        paymentService = newPaymentService(false, 1, 60_000);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1);
+        CompletableFuture<String> charge = new CompletableFuture<>();
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI))).thenReturn(charge);
+
+        CompletableFuture<PaymentResponseDto> first = paymentService.makePaymentAsync(requestDto);
+        PaymentRequestDto second = new PaymentRequestDto();
+        second.setOrderId(2L);
+        second.setPaymentMethod(PaymentMethod.UPI);
+
+        assertThrows(PaymentGatewayBusyException.class,
+                () -> paymentService.makePayment(second));
+        verify(orderRepository, never()).findById(2L);
+
+        charge.completeExceptionally(new PaymentGatewayException("declined"));
+        assertThrows(CompletionException.class, first::join);
+    }
+
+    @Test
+    void makePaymentAsync_ShouldHoldBulkheadSlot_UntilTimedOutChargeAnswers() {
+        paymentService = newPaymentService(false, 1, 50);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1);
+        CompletableFuture<String> charge = new CompletableFuture<>();
+        when(paymentGateway.charge(anyString(), eq(1L), eq(200.0), eq(PaymentMethod.UPI))).thenReturn(charge);
+        assertThrows(PaymentGatewayTimeoutException.class,
+                () -> paymentService.makePayment(requestDto));
+
+        PaymentRequestDto second = new PaymentRequestDto();
+        second.setOrderId(2L);
+        second.setPaymentMethod(PaymentMethod.UPI);
+        assertThrows(PaymentGatewayBusyException.class,
+                () -> paymentService.makePayment(second));
+
+        charge.completeExceptionally(new PaymentGatewayException("declined"));
+        when(orderRepository.findById(2L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class,
+                () -> paymentService.makePayment(second));
+    }
 
     @Test
     void getPaymentById_ShouldReturnPayment() {
-        when(paymentRepository.findById(10L))
-                .thenReturn(Optional.of(payment));
-        when(paymentMapper.toResponse(payment))
-                .thenReturn(responseDto);
+        when(paymentRepository.findDtoById(10L))
+                .thenReturn(Optional.of(responseDto));
 
         PaymentResponseDto result = paymentService.getPaymentById(10L);
 
@@ -135,7 +429,7 @@ class PaymentServiceImplTest {
 
     @Test
     void getPaymentById_ShouldThrowException_WhenNotFound() {
-        when(paymentRepository.findById(10L))
+        when(paymentRepository.findDtoById(10L))
                 .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
@@ -145,17 +439,43 @@ class PaymentServiceImplTest {
 
     @Test
     void getAllPayments_ShouldReturnPage() {
-        Page<Payment> paymentPage =
-                new PageImpl<>(List.of(payment));
+        Page<PaymentResponseDto> paymentPage =
+                new PageImpl<>(List.of(responseDto));
 
-        when(paymentRepository.findAll(any(Pageable.class)))
+        when(paymentRepository.findAllDtos(any(Pageable.class)))
                 .thenReturn(paymentPage);
-        when(paymentMapper.toResponse(payment))
-                .thenReturn(responseDto);
 
         Page<PaymentResponseDto> result =
                 paymentService.getAllPayments(0, 10);
 
         assertEquals(1, result.getTotalElements());
     }
+
+    private PaymentServiceImpl newPaymentService(boolean verifyTotal, int maxConcurrent, long timeoutMs) {
+        return new PaymentServiceImpl(paymentRepository, orderRepository, orderItemRepository, paymentMapper,
+                orderSummaryService, paymentGateway, outboxService, transactionTemplate, verifyTotal, maxConcurrent, timeoutMs, 1, 300_000, 100);
+    }
+
+    private void stubSuccessfulPayment() {
+        stubChargedPayment();
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toResponse(payment)).thenReturn(responseDto);
+    }
+
+    private void stubStalePayment() {
+        order.setStatus(OrderStatus.PAYMENT_PENDING);
+        order.setPaymentReference("attempt-1");
+        order.setPaymentMethod(PaymentMethod.UPI);
+        when(orderRepository.findStalePaymentIds(any(), any())).thenReturn(List.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+    }
+
+    private void stubChargedPayment() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.claimForPayment(eq(1L), anyString(), eq(PaymentMethod.UPI), any())).thenReturn(1);
+        when(paymentGateway.charge(anyString(), eq(1L), anyDouble(), eq(PaymentMethod.UPI)))
+                .thenReturn(CompletableFuture.completedFuture("REF-1"));
+        when(orderRepository.settlePayment(eq(1L), anyString(), eq(OrderStatus.PAID))).thenReturn(1);
+        when(orderRepository.getReferenceById(1L)).thenReturn(order);
+    }
 }
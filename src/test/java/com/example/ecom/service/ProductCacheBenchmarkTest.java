@@ -0,0 +1,107 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads products with Zipf-distributed popularity, as storefront traffic
+ * is, straight from the database and through the product cache, which
+ * holds a tenth of the catalogue.
+ * <p>
+ * The products live in a file database, like in production.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/product-cache-benchmark/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "logging.level.com.example.ecom=WARN",
+        "app.product.cache.max-size=" + ProductCacheBenchmarkTest.CACHE_SIZE
+})
+class ProductCacheBenchmarkTest {
+
+    static final int CACHE_SIZE = 10_000;
+    private static final int PRODUCTS = 100_000;
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final int READS = 200_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getProductById_ZipfianReads() {
+        jdbcTemplate.update("insert into products (id, name, stock, price) "
+                + "select x, 'Zipf ' || x, 1000, 1.0 + mod(x, 100) from system_range(1, " + PRODUCTS + ")");
+        long[] ids = zipfIds(new Random(42));
+
+        double database = readsPerSecond(ids, id -> productRepository.findDtoById(id).orElseThrow());
+        ProductCacheStatsResponseDto before = productService.getCacheStats();
+        double cached = readsPerSecond(ids, productService::getProductById);
+        ProductCacheStatsResponseDto after = productService.getCacheStats();
+
+        long hits = after.getHitCount() - before.getHitCount();
+        long misses = after.getMissCount() - before.getMissCount();
+        double hitRate = (double) hits / (hits + misses);
+        System.out.printf("%d Zipf(%.2f) reads over %d products: database %.0f reads/s, "
+                        + "cached %.0f reads/s; hit rate %.3f, %d evictions, cache size %d of %d%n",
+                READS, ZIPF_EXPONENT, PRODUCTS, database, cached, hitRate,
+                after.getEvictionCount() - before.getEvictionCount(), after.getSize(), CACHE_SIZE);
+
+        assertTrue(after.getSize() <= CACHE_SIZE);
+        assertTrue(hitRate > 0.6, "hit rate " + hitRate);
+        assertTrue(cached > database, "cached " + cached + " reads/s, database " + database + " reads/s");
+    }
+
+    /**
+     * Both passes read the same sequence; the first half of each is warmup.
+     */
+    private static double readsPerSecond(long[] ids, LongConsumer read) {
+        int warmup = ids.length / 2;
+        for (int i = 0; i < warmup; i++) {
+            read.accept(ids[i]);
+        }
+        long start = System.nanoTime();
+        for (int i = warmup; i < ids.length; i++) {
+            read.accept(ids[i]);
+        }
+        return (ids.length - warmup) / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Product IDs drawn by inverting the cumulative Zipf distribution, with
+     * popularity ranks scattered over the ID range.
+     */
+    private static long[] zipfIds(Random random) {
+        double[] cumulative = new double[PRODUCTS];
+        double sum = 0;
+        for (int rank = 0; rank < PRODUCTS; rank++) {
+            sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = sum;
+        }
+        long[] ids = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            ids[i] = (rank * 7919L) % PRODUCTS + 1;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.ProductCacheStatsResponseDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Product;
+import com.example.ecom.exception.ResourceNotFoundException;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads products through the product cache and checks that every change
+ * made through the services drops the cached copy, and that concurrent
+ * misses on one product load it once and the misses of a bulk lookup
+ * load together.
+ * <p>
+ * Prices changed behind the services' back with plain SQL show whether a
+ * read was served from the cache.
+ */
+@IntegrationTest
+class ProductCacheTest {
+
+    private static final int READERS = 16;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.save(Product.builder()
+                .name("Cached SKU")
+                .stock(100)
+                .price(10.0)
+                .build()).getId();
+    }
+
+    @Test
+    void getProductById_SecondReadServedFromCache() {
+        ProductCacheStatsResponseDto before = productService.getCacheStats();
+
+        assertEquals(10.0, productService.getProductById(productId).getPrice());
+        setPriceBehindCache(99.0);
+        assertEquals(10.0, productService.getProductById(productId).getPrice());
+
+        ProductCacheStatsResponseDto after = productService.getCacheStats();
+        assertEquals(1, after.getMissCount() - before.getMissCount());
+        assertEquals(1, after.getHitCount() - before.getHitCount());
+    }
+
+    @Test
+    void updateProduct_Invalidates() {
+        productService.getProductById(productId);
+
+        ProductRequestDto update = new ProductRequestDto();
+        update.setName("Renamed SKU");
+        update.setStock(100);
+        update.setPrice(12.0);
+        productService.updateProduct(productId, update);
+
+        assertEquals("Renamed SKU", productService.getProductById(productId).getName());
+        assertEquals(12.0, productService.getProductById(productId).getPrice());
+    }
+
+    @Test
+    void deleteProduct_Invalidates() {
+        productService.getProductById(productId);
+
+        productService.deleteProduct(productId);
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(productId));
+    }
+
+    @Test
+    void createOrder_StockChangeInvalidates() {
+        productService.getProductById(productId);
+        Long customerId = customerRepository.save(Customer.builder()
+                .name("Cache")
+                .email("cache-" + System.nanoTime() + "@example.com")
+                .build()).getId();
+
+        orderService.createOrder(orderFor(customerId, Map.of(productId, 3)));
+
+        assertEquals(97, productService.getProductById(productId).getStock());
+    }
+
+    @Test
+    void getAll_LoadsMissesWithOneQuery() {
+        Long second = productRepository.save(Product.builder().name("Second SKU").stock(5).price(2.0).build()).getId();
+        Long third = productRepository.save(Product.builder().name("Third SKU").stock(5).price(3.0).build()).getId();
+        productCache.get(productId);
+        long loadsBefore = productService.getCacheStats().getLoadCount();
+
+        Map<Long, ProductResponseDto> products = productCache.getAll(List.of(productId, second, third, 999_999L));
+
+        assertEquals(Set.of(productId, second, third), products.keySet());
+        assertEquals("Third SKU", products.get(third).getName());
+        assertEquals(1, productService.getCacheStats().getLoadCount() - loadsBefore);
+
+        setPriceBehindCache(99.0);
+        assertEquals(10.0, productCache.getAll(List.of(productId, second)).get(productId).getPrice());
+        assertEquals(1, productService.getCacheStats().getLoadCount() - loadsBefore);
+    }
+
+    @Test
+    void concurrentMisses_LoadOnce() throws Exception {
+        long loadsBefore = productService.getCacheStats().getLoadCount();
+
+        ExecutorService pool = Executors.newFixedThreadPool(READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Double>> reads = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                reads.add(pool.submit(() -> {
+                    start.await();
+                    return productService.getProductById(productId).getPrice();
+                }));
+            }
+            start.countDown();
+            for (Future<Double> read : reads) {
+                assertEquals(10.0, read.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, productService.getCacheStats().getLoadCount() - loadsBefore);
+    }
+
+    private void setPriceBehindCache(double price) {
+        jdbcTemplate.update("update products set price = ? where id = ?", price, productId);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.ProductFilterDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lists filtered, sorted pages of a catalog of one million products
+ * through the product service, with the price and stock indexes and
+ * then without them, and reports the latencies of both.
+ * <p>
+ * Prices are spread over 0.01 to 1000.00 and stock over 0 to 49, so one
+ * product in fifty is out of stock. Every page is counted too, as the
+ * listing returns the total.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/product-filter-benchmark/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "logging.level.com.example.ecom=WARN"
+})
+class ProductFilterBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int QUERIES = 200;
+    private static final int UNINDEXED_QUERIES = 8;
+    private static final String[] QUERY_KINDS = {"in stock, price band, by price", "in stock, under a price, by price desc",
+            "price ceiling, by stock desc", "price band, page 10"};
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getAllProducts_OneMillionProducts() {
+        jdbcTemplate.update("insert into products (id, name, stock, price) "
+                + "select x, 'Product ' || x, mod(x * 31, 50), (mod(x * 7919, 100000) + 1) / 100.0 "
+                + "from system_range(1, " + PRODUCTS + ")");
+        jdbcTemplate.execute("analyze");
+        Random random = new Random(11);
+        ProductFilterDto[] filters = new ProductFilterDto[QUERIES * QUERY_KINDS.length];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = filter(i % QUERY_KINDS.length, random);
+        }
+
+        for (int i = 0; i < filters.length; i++) {
+            check(filters[i], list(filters[i], i));
+        }
+        long[][] indexed = time(filters, QUERIES);
+
+        for (String index : List.of("idx_products_price_id", "idx_products_price_desc_id",
+                "idx_products_stock_id", "idx_products_stock_desc_id")) {
+            jdbcTemplate.execute("drop index " + index);
+        }
+        long[][] unindexed = time(filters, UNINDEXED_QUERIES);
+
+        for (int kind = 0; kind < QUERY_KINDS.length; kind++) {
+            System.out.printf("%s: indexed p50 %.2f ms, p99 %.2f ms; without indexes p50 %.1f ms%n",
+                    QUERY_KINDS[kind], millis(indexed[kind], 50), millis(indexed[kind], 99),
+                    millis(unindexed[kind], 50));
+        }
+        for (int kind = 0; kind < QUERY_KINDS.length; kind++) {
+            assertTrue(millis(indexed[kind], 50) < millis(unindexed[kind], 50), QUERY_KINDS[kind]);
+        }
+    }
+
+    private static ProductFilterDto filter(int kind, Random random) {
+        double minPrice = random.nextInt(95_000) / 100.0;
+        double band = (200 + random.nextInt(4_800)) / 100.0;
+        return switch (kind) {
+            case 0 -> ProductFilterDto.builder()
+                    .inStock(true).minPrice(minPrice).maxPrice(minPrice + band).sort("price").build();
+            case 1 -> ProductFilterDto.builder().inStock(true).maxPrice(1 + band * 2).sort("price,desc").build();
+            case 2 -> ProductFilterDto.builder().maxPrice(1 + band * 2).sort("stock,desc").build();
+            default -> ProductFilterDto.builder().minPrice(minPrice).maxPrice(minPrice + band).sort("price").build();
+        };
+    }
+
+    private Page<ProductResponseDto> list(ProductFilterDto filter, int query) {
+        int page = query % QUERY_KINDS.length == 3 ? 10 : 0;
+        return productService.getAllProducts(filter, page, PAGE_SIZE);
+    }
+
+    /**
+     * Times the first {@code queries} filters of every kind.
+     *
+     * @return sorted latencies in nanoseconds by query kind
+     */
+    private long[][] time(ProductFilterDto[] filters, int queries) {
+        long[][] nanos = new long[QUERY_KINDS.length][queries];
+        for (int i = 0; i < queries * QUERY_KINDS.length; i++) {
+            long start = System.nanoTime();
+            list(filters[i], i);
+            nanos[i % QUERY_KINDS.length][i / QUERY_KINDS.length] = System.nanoTime() - start;
+        }
+        for (long[] kindNanos : nanos) {
+            Arrays.sort(kindNanos);
+        }
+        return nanos;
+    }
+
+    private static void check(ProductFilterDto filter, Page<ProductResponseDto> products) {
+        assertEquals(PAGE_SIZE, products.getNumberOfElements(), filter.toString());
+        for (ProductResponseDto product : products) {
+            assertTrue(filter.getMinPrice() == null || product.getPrice() >= filter.getMinPrice());
+            assertTrue(filter.getMaxPrice() == null || product.getPrice() <= filter.getMaxPrice());
+            assertTrue(filter.getInStock() == null || product.getStock() > 0);
+        }
+        Comparator<ProductResponseDto> order = filter.getSort().startsWith("price")
+                ? Comparator.comparing(ProductResponseDto::getPrice)
+                : Comparator.comparing(ProductResponseDto::getStock);
+        if (filter.getSort().endsWith("desc")) {
+            order = order.reversed();
+        }
+        List<ProductResponseDto> content = products.getContent();
+        assertEquals(content.stream().sorted(order).toList(), content, filter.toString());
+    }
+
+    private static double millis(long[] sortedNanos, int percentile) {
+        return sortedNanos[(sortedNanos.length - 1) * percentile / 100] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.ProductFilterDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.exception.InvalidProductFilterException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static com.example.ecom.service.TestDatabase.ID_BASE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lists products through the product service with price and stock
+ * filters and sorts, and checks that the database reads the filtered,
+ * sorted pages through the price and stock indexes.
+ */
+@IntegrationTest
+class ProductFilterTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        insert(1, 5.0, 0);
+        insert(2, 10.0, 3);
+        insert(3, 15.0, 1);
+        insert(4, 20.0, 2);
+        insert(5, 10.0, 7);
+        insert(6, 25.0, 4);
+    }
+
+    @Test
+    void getAllProducts_FiltersByPriceRangeAndStock() {
+        ProductFilterDto filter = ProductFilterDto.builder()
+                .minPrice(10.0)
+                .maxPrice(20.0)
+                .inStock(true)
+                .sort("price")
+                .build();
+
+        Page<ProductResponseDto> products = productService.getAllProducts(filter, 0, 10);
+
+        assertEquals(List.of(2L, 5L, 3L, 4L), ids(products));
+        assertEquals(4, products.getTotalElements());
+    }
+
+    @Test
+    void getAllProducts_SortsDescendingWithTiesInIdOrder() {
+        ProductFilterDto filter = ProductFilterDto.builder().maxPrice(20.0).sort("PRICE, desc").build();
+
+        assertEquals(List.of(4L, 3L, 5L, 2L, 1L), ids(productService.getAllProducts(filter, 0, 10)));
+    }
+
+    @Test
+    void getAllProducts_FiltersOutOfStock() {
+        ProductFilterDto filter = ProductFilterDto.builder().inStock(false).build();
+
+        assertEquals(List.of(1L), ids(productService.getAllProducts(filter, 0, 10)));
+    }
+
+    @Test
+    void getAllProducts_PagesThroughSortedProducts() {
+        ProductFilterDto filter = ProductFilterDto.builder().inStock(true).sort("stock,desc").build();
+
+        Page<ProductResponseDto> second = productService.getAllProducts(filter, 1, 2);
+
+        assertEquals(List.of(2L, 4L), ids(second));
+        assertEquals(5, second.getTotalElements());
+        assertEquals(3, second.getTotalPages());
+    }
+
+    @Test
+    void getAllProducts_WithoutFilterListsAllProducts() {
+        assertEquals(6, productService.getAllProducts(new ProductFilterDto(), 0, 10).getTotalElements());
+    }
+
+    @Test
+    void getAllProducts_RejectsUnindexedSortAndEmptyPriceRange() {
+        assertThrows(InvalidProductFilterException.class,
+                () -> productService.getAllProducts(ProductFilterDto.builder().sort("name").build(), 0, 10));
+        assertThrows(InvalidProductFilterException.class,
+                () -> productService.getAllProducts(ProductFilterDto.builder().sort("price,up").build(), 0, 10));
+        assertThrows(InvalidProductFilterException.class,
+                () -> productService.getAllProducts(
+                        ProductFilterDto.builder().minPrice(20.0).maxPrice(10.0).build(), 0, 10));
+    }
+
+    @Test
+    void filteredQueries_ReadThroughIndexes() {
+        String byPrice = plan("select id from products where price >= 10 and price <= 20 and stock > 0 "
+                + "order by price, id limit 20");
+        String byPriceDesc = plan("select id from products where stock > 0 and price >= -1e300 "
+                + "order by price desc, id desc limit 20");
+        String byStock = plan("select id from products where stock > 0 order by stock desc, id desc limit 20");
+
+        assertTrue(byPrice.contains("IDX_PRODUCTS_PRICE_ID") && byPrice.contains("INDEX SORTED"), byPrice);
+        assertTrue(byPriceDesc.contains("IDX_PRODUCTS_PRICE_DESC_ID") && byPriceDesc.contains("INDEX SORTED"),
+                byPriceDesc);
+        assertTrue(byStock.contains("IDX_PRODUCTS_STOCK_DESC_ID") && byStock.contains("INDEX SORTED"), byStock);
+    }
+
+    private void insert(long id, double price, int stock) {
+        jdbcTemplate.update("insert into products (id, name, price, stock) values (?, ?, ?, ?)",
+                ID_BASE + id, "Product " + id, price, stock);
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toUpperCase();
+    }
+
+    private static List<Long> ids(Page<ProductResponseDto> products) {
+        return products.getContent().stream().map(product -> product.getId() - ID_BASE).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ProductImportResponseDto;
+import com.example.ecom.util.ProductImportFormat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports a catalog of 500k products from a CSV file into a file
+ * database, then refreshes all of them from a second file with their
+ * IDs, and reports the rows per second of both.
+ * <p>
+ * A smaller catalog is inserted and refreshed first, so the timed
+ * imports run compiled code rather than the interpreter.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/product-import-benchmark/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "logging.level.com.example.ecom=WARN"
+})
+class ProductImportBenchmarkTest {
+
+    private static final int ROWS = 500_000;
+    private static final int WARMUP_ROWS = 100_000;
+    private static final Path DIR = Path.of("build", "product-import-benchmark");
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importProducts_500kRowsFromCsv() throws IOException {
+        importCatalog("Warm-up", WARMUP_ROWS);
+
+        ProductImportResponseDto[] results = importCatalog("Catalog", ROWS);
+        report("insert", results[0]);
+        report("upsert", results[1]);
+
+        assertEquals(ROWS, results[0].getInserted());
+        assertEquals(ROWS, results[1].getUpdated());
+        assertEquals(0, results[0].getFailed() + results[1].getFailed());
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "select count(*) from products where name like 'Refreshed Catalog item %'", Integer.class));
+    }
+
+    /**
+     * Inserts a catalog of new products, then updates all of them by ID.
+     *
+     * @return results of the insert and of the update
+     */
+    private ProductImportResponseDto[] importCatalog(String prefix, int rows) throws IOException {
+        Path inserts = write(prefix + "-insert.csv", "name,stock,price", rows,
+                i -> "\"" + prefix + " item " + i + ", size " + (i % 7) + "\","
+                        + (1 + i % 500) + "," + (1 + i % 1000) / 10.0);
+        ProductImportResponseDto inserted = productImportService.importProducts(inserts, ProductImportFormat.CSV);
+
+        long firstId = jdbcTemplate.queryForObject(
+                "select min(id) from products where name like ?", Long.class, prefix + " item %");
+        Path updates = write(prefix + "-update.csv", "id,name,stock,price", rows,
+                i -> (firstId + i) + ",Refreshed " + prefix + " item " + i + ","
+                        + (2 + i % 500) + "," + (2 + i % 1000) / 10.0);
+        ProductImportResponseDto updated = productImportService.importProducts(updates, ProductImportFormat.CSV);
+        return new ProductImportResponseDto[]{inserted, updated};
+    }
+
+    private static Path write(String name, String header, int rows, LongFunction<String> line) throws IOException {
+        Files.createDirectories(DIR);
+        Path file = DIR.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(header);
+            writer.newLine();
+            for (long i = 0; i < rows; i++) {
+                writer.write(line.apply(i));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    private static void report(String kind, ProductImportResponseDto result) {
+        System.out.printf("Product import %s: %d rows in %d ms, %.0f rows/s%n",
+                kind, result.getRows(), result.getMillis(), result.getRows() * 1000.0 / result.getMillis());
+    }
+}
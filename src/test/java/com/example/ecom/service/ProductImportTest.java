@@ -0,0 +1,201 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.ProductImportErrorDto;
+import com.example.ecom.dto.responseDto.ProductImportResponseDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.exception.InvalidImportFileException;
+import com.example.ecom.util.ProductImportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports small CSV and NDJSON inputs and checks the upserts, the
+ * reported errors, and that the product cache and search index follow
+ * the imported products. Files are read through a tiny mapped window
+ * so that lines cross window boundaries.
+ */
+@IntegrationTest
+@TestPropertySource(properties = {
+        "app.product.import.batch-size=10",
+        "app.product.import.mapped-window-bytes=64"
+})
+class ProductImportTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from products");
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void importCsv_InsertsNewAndUpdatesExistingProducts() {
+        Long existing = create("Old Lamp", 5);
+        productService.getProductById(existing);
+
+        ProductImportResponseDto result = importCsv("""
+                id,name,stock,price
+                ,"Desk Lamp, brass",10,25.5
+                %d,Renamed Lamp,7,2.0
+                """.formatted(existing));
+
+        assertEquals(2, result.getRows());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getFailed());
+        ProductResponseDto updated = productService.getProductById(existing);
+        assertEquals("Renamed Lamp", updated.getName());
+        assertEquals(7, updated.getStock());
+        assertEquals(1, search("brass").size());
+        assertEquals("Desk Lamp, brass", search("brass").get(0).getName());
+        assertEquals(List.of(existing), search("renamed").stream().map(ProductResponseDto::getId).toList());
+
+        // imported IDs come from the product sequence, so saving through JPA does not collide
+        assertNotNull(create("After Import", 1));
+        assertEquals(3, count());
+    }
+
+    @Test
+    void importCsv_ReportsInvalidLinesAndKeepsTheRest() {
+        ProductImportResponseDto result = importCsv("""
+                name,stock,price
+                Valid,1,1.0
+                ,1,1.0
+                Negative,-1,1.0
+                Priceless,1,abc
+                Short,1
+
+                Missing Price,1,
+                """);
+
+        assertEquals(6, result.getRows());
+        assertEquals(1, result.getInserted());
+        assertEquals(5, result.getFailed());
+        assertEquals(List.of(
+                error(3, "Product name must not be blank"),
+                error(4, "Stock must be greater than 0"),
+                error(5, "Invalid price: 'abc'"),
+                error(6, "Expected 3 values but found 2"),
+                error(8, "Price is required")), result.getErrors());
+        assertEquals(1, count());
+    }
+
+    @Test
+    void importCsv_ReportsUnknownIds() {
+        ProductImportResponseDto result = importCsv("""
+                id,name,stock,price
+                999999,Ghost,1,1.0
+                """);
+
+        assertEquals(0, result.getUpdated());
+        assertEquals(List.of(error(2, "Product not found with id 999999")), result.getErrors());
+    }
+
+    @Test
+    void importCsv_RejectsOnlyTheLineTheDatabaseRefuses() {
+        StringBuilder csv = new StringBuilder("name,stock,price\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append(i == 4 ? "x".repeat(300) : "Item " + i).append(",1,1.0\n");
+        }
+
+        ProductImportResponseDto result = importCsv(csv.toString());
+
+        assertEquals(9, result.getInserted());
+        assertEquals(1, result.getFailed());
+        assertEquals(6, result.getErrors().get(0).getLine());
+        assertEquals(9, count());
+    }
+
+    @Test
+    void importCsv_RequiresHeader() {
+        assertThrows(InvalidImportFileException.class, () -> importCsv("Lamp,1,1.0\n"));
+    }
+
+    @Test
+    void importNdjson_InsertsValidLines() {
+        ProductImportResponseDto result = productImportService.importProducts(stream("""
+                {"name":"Mug","stock":3,"price":4.5}
+                {"name":"Plate","stock":2}
+                {"name":
+                {"name":"Bowl","stock":1,"price":2.0,"color":"blue"}
+                """), ProductImportFormat.NDJSON);
+
+        assertEquals(4, result.getRows());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getFailed());
+        assertEquals(error(2, "Price is required"), result.getErrors().get(0));
+        assertEquals(3, result.getErrors().get(1).getLine());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Invalid JSON"));
+    }
+
+    @Test
+    void importFile_ReadsLinesAcrossMappedWindows(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("products.csv");
+        StringBuilder csv = new StringBuilder("name,stock,price\r\n");
+        for (int i = 1; i <= 200; i++) {
+            csv.append("Mapped product number ").append(i).append(',').append(i).append(",1.5\r\n");
+        }
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        ProductImportResponseDto result = productImportService.importProducts(file, ProductImportFormat.CSV);
+
+        assertEquals(200, result.getInserted());
+        assertEquals(0, result.getFailed());
+        assertEquals(200 * 201 / 2, jdbcTemplate.queryForObject("select sum(stock) from products", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from products where name = 'Mapped product number 200'", Integer.class));
+    }
+
+    private ProductImportResponseDto importCsv(String csv) {
+        return productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProductImportErrorDto error(long line, String message) {
+        return ProductImportErrorDto.builder().line(line).message(message).build();
+    }
+
+    private List<ProductResponseDto> search(String query) {
+        return productService.searchProducts(query, 0, 10).getContent();
+    }
+
+    private Long create(String name, int stock) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName(name);
+        request.setStock(stock);
+        request.setPrice(1.0);
+        return productService.createProduct(request).getId();
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from products", Integer.class);
+    }
+}
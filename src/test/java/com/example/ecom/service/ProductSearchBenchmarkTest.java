@@ -0,0 +1,199 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds the product search index over one million products and times
+ * storefront-like queries against it: whole words, word prefixes, two
+ * words and model number prefixes.
+ * <p>
+ * Names are three words from a vocabulary of 3,000, the first from a
+ * more popular tenth of it, and a unique model number. The products
+ * live in a file database so that the table data itself is not on the
+ * heap being measured.
+ * <p>
+ * Each query is timed {@value #TIMINGS} times and its fastest run is its
+ * latency: on a machine with few CPUs, other processes preempt a query
+ * for milliseconds now and then, which says nothing about the index.
+ * The p99 of single runs is printed as well.
+ */
+@Tag("benchmark")
+@IntegrationTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/product-search-benchmark/db;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "logging.level.com.example.ecom=WARN"
+})
+class ProductSearchBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int WORDS = 3_000;
+    private static final int QUERIES = 20_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int TIMINGS = 3;
+    private static final int MAX_WARMUP_ROUNDS = 10;
+    private static final long SETTLED_COMPILE_MILLIS = 50;
+    private static final String[] QUERY_KINDS = {"word", "word prefix", "word and prefix", "model prefix"};
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ra", "te", "su", "no", "vi", "pe", "dor",
+            "ban", "stel", "tro", "quin", "flex", "gar", "zen", "por", "lum", "cas"};
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void search_OneMillionProducts() {
+        Random random = new Random(7);
+        String[] words = vocabulary(random);
+        jdbcTemplate.execute("drop table if exists search_words");
+        jdbcTemplate.execute("create table search_words (i int primary key, word varchar(32))");
+        List<Object[]> rows = new ArrayList<>(WORDS);
+        for (int i = 0; i < WORDS; i++) {
+            rows.add(new Object[]{i, words[i]});
+        }
+        jdbcTemplate.batchUpdate("insert into search_words (i, word) values (?, ?)", rows);
+        jdbcTemplate.update("insert into products (id, name, stock, price) "
+                + "select x, upper(left(w1.word, 1)) || substring(w1.word, 2) || ' ' || w2.word || ' ' || w3.word || ' M' || x, 100, 1.0 "
+                + "from system_range(1, " + PRODUCTS + ") "
+                + "join search_words w1 on w1.i = mod(x * 7919, " + WORDS / 10 + ") "
+                + "join search_words w2 on w2.i = mod(x * 104729, " + WORDS + ") "
+                + "join search_words w3 on w3.i = mod(x * 1299709 + x / 7, " + WORDS + ")");
+        jdbcTemplate.execute("drop table search_words");
+
+        long baseline = usedHeapAfterGc();
+        long built = productSearchIndex.rebuild();
+        long heap = usedHeapAfterGc() - baseline;
+        ProductSearchStatsResponseDto stats = productSearchIndex.stats();
+        System.out.printf("Indexed %d products in %d ms: %d tokens, %d postings, "
+                        + "estimated %d MB, measured %d MB of heap%n",
+                built, stats.getLastRebuildMillis(), stats.getTokens(), stats.getPostings(),
+                stats.getEstimatedBytes() >> 20, heap >> 20);
+        assertEquals(PRODUCTS, built);
+
+        String[] queries = queries(words, random);
+        long matches = warmUp(queries);
+        long[] nanos = new long[QUERIES];
+        long[] singleRunNanos = new long[QUERIES];
+        long[][] kindNanos = new long[QUERY_KINDS.length][QUERIES / QUERY_KINDS.length];
+        for (int i = 0; i < QUERIES; i++) {
+            nanos[i] = Long.MAX_VALUE;
+            for (int run = 0; run < TIMINGS; run++) {
+                long start = System.nanoTime();
+                productSearchIndex.search(queries[i], 0, PAGE_SIZE);
+                long elapsed = System.nanoTime() - start;
+                nanos[i] = Math.min(nanos[i], elapsed);
+                if (run == 0) {
+                    singleRunNanos[i] = elapsed;
+                }
+            }
+            kindNanos[i % QUERY_KINDS.length][i / QUERY_KINDS.length] = nanos[i];
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(singleRunNanos);
+        double p50 = nanos[QUERIES / 2] / 1000.0;
+        double p99 = nanos[QUERIES * 99 / 100] / 1000.0;
+        System.out.printf("%d queries, %.0f matches on average: index p50 %.1f us, p99 %.1f us, max %.1f us "
+                        + "(single runs: p99 %.1f us, max %.1f us)%n",
+                QUERIES, (double) matches / QUERIES, p50, p99, nanos[QUERIES - 1] / 1000.0,
+                singleRunNanos[QUERIES * 99 / 100] / 1000.0, singleRunNanos[QUERIES - 1] / 1000.0);
+        for (int kind = 0; kind < QUERY_KINDS.length; kind++) {
+            long[] times = kindNanos[kind];
+            Arrays.sort(times);
+            System.out.printf("  %s: p50 %.1f us, p99 %.1f us%n", QUERY_KINDS[kind],
+                    times[times.length / 2] / 1000.0, times[times.length * 99 / 100] / 1000.0);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES / 10; i++) {
+            assertFalse(productService.searchProducts(queries[i], 0, PAGE_SIZE).isEmpty(), queries[i]);
+        }
+        System.out.printf("searchProducts with product reads: %.1f us per query%n",
+                (System.nanoTime() - start) / 1000.0 / (QUERIES / 10));
+
+        assertTrue(p99 < TimeUnit.MILLISECONDS.toMicros(1), "p99 " + p99 + " us");
+    }
+
+    /**
+     * Runs the queries until the JIT has stopped compiling, which on a
+     * single CPU would otherwise take turns with the measured queries.
+     *
+     * @return matches of the last round
+     */
+    private long warmUp(String[] queries) {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        long matches = 0;
+        long compiling = Long.MAX_VALUE;
+        for (int round = 0; round < MAX_WARMUP_ROUNDS && compiling > SETTLED_COMPILE_MILLIS; round++) {
+            long compiledBefore = compiler.getTotalCompilationTime();
+            matches = 0;
+            for (String query : queries) {
+                matches += productSearchIndex.search(query, 0, PAGE_SIZE).total();
+            }
+            compiling = compiler.getTotalCompilationTime() - compiledBefore;
+        }
+        return matches;
+    }
+
+    private static String[] vocabulary(Random random) {
+        String[] words = new String[WORDS];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < WORDS; ) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (seen.add(word.toString())) {
+                words[i++] = word.toString();
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Queries built from the words of existing names, so every one has matches.
+     */
+    private String[] queries(String[] words, Random random) {
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long id = 1 + random.nextInt(PRODUCTS);
+            String[] name = jdbcTemplate.queryForObject("select name from products where id = ?",
+                    String.class, id).toLowerCase().split(" ");
+            String word = name[random.nextInt(3)];
+            queries[i] = switch (i % QUERY_KINDS.length) {
+                case 0 -> word;
+                case 1 -> word.substring(0, 2 + random.nextInt(Math.min(3, word.length() - 1)));
+                case 2 -> name[0] + " " + name[1 + random.nextInt(2)].substring(0, 3);
+                default -> name[3].substring(0, Math.min(name[3].length(), 2 + random.nextInt(4)));
+            };
+        }
+        return queries;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
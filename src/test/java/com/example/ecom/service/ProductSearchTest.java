@@ -0,0 +1,124 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.ProductRequestDto;
+import com.example.ecom.dto.responseDto.ProductResponseDto;
+import com.example.ecom.dto.responseDto.ProductSearchStatsResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Searches product names through the product service and checks the
+ * matching, ranking and paging, and that the index follows products
+ * created, renamed and deleted through the service.
+ */
+@IntegrationTest
+class ProductSearchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.clear(jdbcTemplate);
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void search_MatchesWordsAndPrefixes() {
+        Long mouse = create("Wireless Mouse");
+        Long keyboard = create("Wireless Keyboard, black");
+        create("Wired Mouse");
+
+        assertEquals(List.of(mouse), names("wireless mouse"));
+        assertEquals(List.of(keyboard), names("KEYB"));
+        assertEquals(List.of(mouse, keyboard), names("wireless"));
+        assertEquals(3, search("wire", 0, 10).getTotalElements());
+        assertTrue(names("wireless trackpad").isEmpty());
+        assertTrue(names(" ,. ").isEmpty());
+    }
+
+    @Test
+    void search_RanksExactWordsThenShorterNames() {
+        Long prefixOnly = create("Cables");
+        Long longer = create("Braided USB Cable");
+        Long shorter = create("USB Cable");
+
+        assertEquals(List.of(shorter, longer, prefixOnly), names("cable"));
+    }
+
+    @Test
+    void search_Pages() {
+        for (int i = 0; i < 25; i++) {
+            create("Sticker " + i);
+        }
+
+        Page<ProductResponseDto> page = search("sticker", 2, 10);
+
+        assertEquals(25, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(5, page.getContent().size());
+    }
+
+    @Test
+    void updateAndDelete_KeepIndexInSync() {
+        Long id = create("Desk Lamp");
+
+        productService.updateProduct(id, request("Floor Lamp"));
+        assertTrue(names("desk").isEmpty());
+        assertEquals(List.of(id), names("floor lamp"));
+
+        productService.deleteProduct(id);
+        assertTrue(names("lamp").isEmpty());
+        assertEquals(0, productService.getSearchStats().getProducts());
+    }
+
+    @Test
+    void rebuild_IndexesProductsTable() {
+        jdbcTemplate.update("insert into products (id, name, stock, price) "
+                + "select 1000000 + x, 'Imported Item ' || x, 1, 1.0 from system_range(1, 120)");
+        assertTrue(names("imported").isEmpty());
+
+        assertEquals(120, productSearchIndex.rebuild());
+
+        assertEquals(120, search("imported item", 0, 10).getTotalElements());
+        assertEquals(List.of(1000042L), names("item 42"));
+        ProductSearchStatsResponseDto stats = productService.getSearchStats();
+        assertEquals(120, stats.getProducts());
+        assertEquals(122, stats.getTokens());
+        assertEquals(360, stats.getPostings());
+        assertTrue(stats.getEstimatedBytes() > 0);
+    }
+
+    private Long create(String name) {
+        return productService.createProduct(request(name)).getId();
+    }
+
+    private static ProductRequestDto request(String name) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName(name);
+        request.setStock(10);
+        request.setPrice(5.0);
+        return request;
+    }
+
+    private List<Long> names(String query) {
+        return search(query, 0, 50).getContent().stream().map(ProductResponseDto::getId).toList();
+    }
+
+    private Page<ProductResponseDto> search(String query, int page, int size) {
+        return productService.searchProducts(query, page, size);
+    }
+}
@@ -12,9 +12,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +28,15 @@ public class ProductServiceImplTest {
     @Mock
     ProductMapper productMapper;
 
+    @Mock
+    InventoryService inventoryService;
+
+    @Mock
+    ProductCache productCache;
+
+    @Mock
+    ProductSearchIndex productSearchIndex;
+
     @InjectMocks
     ProductServiceImpl productService;
 
@@ -71,6 +82,7 @@ public class ProductServiceImplTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("Laptop", result.getName());
+        verify(productSearchIndex).putAfterCommit(1L, "Laptop");
     }
 
     // getProductById_shouldReturnProduct
@@ -80,11 +92,6 @@ public class ProductServiceImplTest {
         Long id = 1L;
 
 
-        Product product = new Product();
-        product.setId(1L);
-        product.setName("Laptop");
-        product.setPrice(50000.0);
-
         ProductResponseDto response = ProductResponseDto.builder()
                 .id(1L)
                 .name("Laptop")
@@ -93,8 +100,7 @@ public class ProductServiceImplTest {
                 .build();
 
 
-        when(productRepository.findById(id)).thenReturn(java.util.Optional.of(product));
-        when(productMapper.toDto(product)).thenReturn(response);
+        when(productCache.get(id)).thenReturn(Optional.of(response));
 
         ProductResponseDto result = productService.getProductById(id);
         System.out.println(result);
@@ -111,8 +117,8 @@ public class ProductServiceImplTest {
         Long id = 1L;
 
 
-        when(productRepository.findById(id))
-                .thenReturn(java.util.Optional.empty());
+        when(productCache.get(id))
+                .thenReturn(Optional.empty());
 
 
         RuntimeException exception = assertThrows(
@@ -167,6 +173,7 @@ public class ProductServiceImplTest {
 
         assertEquals("Updated Product", result.getName());
         assertEquals(200.0, result.getPrice());
+        verify(productCache).invalidateAfterCommit(List.of(id));
     }
 
     @Test
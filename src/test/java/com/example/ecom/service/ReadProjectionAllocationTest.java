@@ -0,0 +1,126 @@
+package com.example.ecom.service;
+
+import com.example.ecom.mapper.CustomerMapper;
+import com.example.ecom.mapper.PaymentMapper;
+import com.example.ecom.mapper.ProductMapper;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.PaymentRepository;
+import com.example.ecom.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+
+import static com.example.ecom.service.TestDatabase.ID_BASE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the bytes allocated per read when the response DTOs are
+ * selected directly, against loading the entities and mapping them
+ * as the services used to.
+ * <p>
+ * Single reads by ID are not covered. For products and customers
+ * {@code EntityManager.find} allocates less than running a query, so
+ * they still load the entity; for a payment both allocate about the same.
+ */
+@IntegrationTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadProjectionAllocationTest {
+
+    private static final int ROWS = 100;
+    private static final int WARMUP = 100;
+    private static final int RUNS = 200;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private PaymentMapper paymentMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertRows() {
+        TestDatabase.clear(jdbcTemplate);
+        jdbcTemplate.update("insert into customers (id, name, email) "
+                + "select ? + x, 'Reader ' || x, 'reader' || x || '@example.com' from system_range(1, ?)",
+                ID_BASE, ROWS);
+        jdbcTemplate.update("insert into products (id, name, price, stock) "
+                + "select ? + x, 'Product ' || x, 1.0, 10 from system_range(1, ?)",
+                ID_BASE, ROWS);
+        jdbcTemplate.update("insert into orders (id, customerid, status, total_amount, stock_settled) "
+                + "select ? + x, ? + x, 'PAID', 1.0, true from system_range(1, ?)",
+                ID_BASE, ID_BASE, ROWS);
+        jdbcTemplate.update("insert into payments (id, order_id, amount, payment_method, payment_date) "
+                + "select ? + x, ? + x, 1.0, 'UPI', current_timestamp from system_range(1, ?)",
+                ID_BASE, ID_BASE, ROWS);
+    }
+
+    @Test
+    void getAllProducts_AllocatesLessThanEntities() {
+        assertLess("products page",
+                () -> productRepository.findAll(PageRequest.of(0, ROWS)).map(productMapper::toDto),
+                () -> productService.getAllProducts(0, ROWS));
+    }
+
+    @Test
+    void getAllCustomers_AllocatesLessThanEntities() {
+        assertLess("customers page",
+                () -> customerRepository.findAll(PageRequest.of(0, ROWS)).map(customerMapper::toResponse),
+                () -> customerService.getAllCustomers(0, ROWS));
+    }
+
+    @Test
+    void getAllPayments_AllocatesLessThanEntities() {
+        assertLess("payments page",
+                () -> paymentRepository.findAll(PageRequest.of(0, ROWS)).map(paymentMapper::toResponse),
+                () -> paymentService.getAllPayments(0, ROWS));
+    }
+
+    private void assertLess(String read, Runnable entities, Runnable projection) {
+        long before = allocatedPerRun(entities);
+        long after = allocatedPerRun(projection);
+        System.out.printf("%s: %d bytes allocated per read with entities, %d with DTO projection%n",
+                read, before, after);
+        assertTrue(after < before, read + " allocated " + after + " bytes, entities " + before);
+    }
+
+    private static long allocatedPerRun(Runnable read) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            read.run();
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < RUNS; i++) {
+            read.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - start) / RUNS;
+    }
+}
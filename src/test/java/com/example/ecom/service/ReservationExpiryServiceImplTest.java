@@ -0,0 +1,83 @@
+package com.example.ecom.service;
+
+import com.example.ecom.entity.Customer;
+import com.example.ecom.entity.Order;
+import com.example.ecom.entity.Product;
+import com.example.ecom.repository.CustomerRepository;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepository;
+import com.example.ecom.util.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.example.ecom.service.TestOrders.orderFor;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the expiry job against an in-memory database and checks that
+ * only unpaid orders past their deadline give their stock back.
+ */
+@IntegrationTest
+class ReservationExpiryServiceImplTest {
+
+    @Autowired
+    private ReservationExpiryService reservationExpiryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void expireReservations_ReleasesStockOfUnpaidOrdersPastDeadline() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Expiry")
+                .email("expiry@example.com")
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .name("Reserved SKU")
+                .stock(10)
+                .price(5.0)
+                .build());
+
+        Long abandoned = orderService.createOrder(orderFor(customer.getId(), Map.of(product.getId(), 3))).getOrderId();
+        Long paid = orderService.createOrder(orderFor(customer.getId(), Map.of(product.getId(), 2))).getOrderId();
+        Long pending = orderService.createOrder(orderFor(customer.getId(), Map.of(product.getId(), 1))).getOrderId();
+        assertEquals(4, stockOf(product));
+
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        pastDeadline(abandoned, OrderStatus.CREATED, past);
+        pastDeadline(paid, OrderStatus.PAID, past);
+
+        assertEquals(1, reservationExpiryService.expireReservations());
+
+        assertEquals(7, stockOf(product));
+        assertEquals(OrderStatus.EXPIRED, orderRepository.findById(abandoned).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PAID, orderRepository.findById(paid).orElseThrow().getStatus());
+        assertEquals(OrderStatus.CREATED, orderRepository.findById(pending).orElseThrow().getStatus());
+
+        assertEquals(0, reservationExpiryService.expireReservations());
+        assertEquals(7, stockOf(product));
+    }
+
+    private void pastDeadline(Long orderId, OrderStatus status, LocalDateTime reservedUntil) {
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setStatus(status);
+        order.setReservedUntil(reservedUntil);
+        orderRepository.save(order);
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ecom.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Keeps the tests sharing the database of an {@link IntegrationTest}
+ * context out of each other's way.
+ */
+final class TestDatabase {
+
+    /**
+     * Offset for rows a test inserts with IDs of its own, far past the IDs
+     * Hibernate hands out, so that they do not collide with the rows later
+     * tests create in the same database.
+     */
+    static final long ID_BASE = 1_000_000;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Deletes every row of every table, leaving the schema and the ID
+     * sequences as they are.
+     */
+    static void clear(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList("select table_name from information_schema.tables "
+                + "where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("set referential_integrity false");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("truncate table \"" + table + "\"");
+            }
+        } finally {
+            jdbcTemplate.execute("set referential_integrity true");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.requestDto.OrderItemRequestDto;
+import com.example.ecom.dto.requestDto.OrderRequestDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the order requests the tests and benchmarks place.
+ */
+final class TestOrders {
+
+    private TestOrders() {
+    }
+
+    /**
+     * An order for the given quantity of each product, with one line per
+     * entry in the map's iteration order.
+     */
+    static OrderRequestDto orderFor(Long customerId, Map<Long, Integer> quantities) {
+        List<OrderItemRequestDto> items = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> items.add(item(productId, quantity)));
+        return order(customerId, items);
+    }
+
+    /**
+     * An order for one unit of each product.
+     */
+    static OrderRequestDto orderFor(Long customerId, Long... productIds) {
+        return orderFor(customerId, List.of(productIds));
+    }
+
+    /**
+     * An order for one unit of each product.
+     */
+    static OrderRequestDto orderFor(Long customerId, List<Long> productIds) {
+        List<OrderItemRequestDto> items = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            items.add(item(productId, 1));
+        }
+        return order(customerId, items);
+    }
+
+    private static OrderItemRequestDto item(Long productId, int quantity) {
+        OrderItemRequestDto item = new OrderItemRequestDto();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static OrderRequestDto order(Long customerId, List<OrderItemRequestDto> items) {
+        OrderRequestDto request = new OrderRequestDto();
+        request.setCustomerId(customerId);
+        request.setItems(items);
+        return request;
+    }
+}